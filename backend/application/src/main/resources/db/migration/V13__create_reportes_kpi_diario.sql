@@ -0,0 +1,54 @@
+-------------------------------------------------------------------------------
+-- Migración V13: Rollup diario de KPIs por unidad de negocio
+--
+-- Descripción:
+-- Contadores y sumas por tenant y por día (UTC) que alimentan las variaciones
+-- mensuales del dashboard sin escanear las tablas transaccionales.
+-- La aplicación recalcula el día afectado tras cada escritura y un job
+-- nocturno reconstruye la ventana reciente (backfill).
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 13
+-------------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS reportes_kpi_diario (
+    unidad_negocio_id UUID NOT NULL,
+    fecha DATE NOT NULL,
+    clientes_nuevos BIGINT NOT NULL DEFAULT 0,
+    oportunidades_nuevas BIGINT NOT NULL DEFAULT 0,
+    tareas_creadas BIGINT NOT NULL DEFAULT 0,
+    tareas_completadas BIGINT NOT NULL DEFAULT 0,
+    pedidos BIGINT NOT NULL DEFAULT 0,
+    ventas_total NUMERIC(15,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_reportes_kpi_diario PRIMARY KEY (unidad_negocio_id, fecha)
+);
+
+COMMENT ON TABLE reportes_kpi_diario IS 'Rollup diario de KPIs por unidad de negocio (fechas en UTC)';
+COMMENT ON COLUMN reportes_kpi_diario.clientes_nuevos IS 'Clientes creados en el día (no eliminados)';
+COMMENT ON COLUMN reportes_kpi_diario.tareas_completadas IS 'Tareas con status COMPLETADA cuya fecha_completada cae en el día';
+COMMENT ON COLUMN reportes_kpi_diario.pedidos IS 'Pedidos con fecha en el día, cualquier status';
+COMMENT ON COLUMN reportes_kpi_diario.ventas_total IS 'Suma de total de pedidos del día excluyendo CANCELADO y DEVUELTO';
+
+-- Índices compuestos para recalcular un día de un tenant sin recorrer toda la tabla
+CREATE INDEX IF NOT EXISTS idx_clientes_clientes_unidad_created
+    ON clientes_clientes(unidad_negocio_id, created_at) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_oportunidades_oportunidades_unidad_created
+    ON oportunidades_oportunidades(unidad_negocio_id, created_at) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_tareas_tareas_unidad_created
+    ON tareas_tareas(unidad_negocio_id, created_at) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_tareas_tareas_unidad_completada
+    ON tareas_tareas(unidad_negocio_id, fecha_completada) WHERE deleted_at IS NULL AND fecha_completada IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_ventas_pedidos_unidad_fecha
+    ON ventas_pedidos(unidad_negocio_id, fecha) WHERE deleted_at IS NULL;
+
+-- RLS: mismo aislamiento por tenant que las tablas de origen
+ALTER TABLE reportes_kpi_diario ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY tenant_isolation_reportes_kpi_diario ON reportes_kpi_diario
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
@@ -0,0 +1,72 @@
+-------------------------------------------------------------------------------
+-- Migración V14: Jobs de importación de clientes
+--
+-- Descripción:
+-- Registra las importaciones CSV que se procesan en segundo plano. Cada bloque
+-- de líneas se confirma junto con su progreso (ultima_linea_confirmada), de modo
+-- que una importación fallida puede reanudarse desde el último bloque.
+-- El resultado por línea se guarda aparte para consultarlo paginado.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 14
+-------------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS clientes_importaciones (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    unidad_negocio_id UUID NOT NULL,
+    usuario_id UUID,
+    nombre_archivo VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    total_registros INTEGER NOT NULL DEFAULT 0,
+    registros_exitosos INTEGER NOT NULL DEFAULT 0,
+    registros_con_errores INTEGER NOT NULL DEFAULT 0,
+    ultima_linea_confirmada INTEGER NOT NULL DEFAULT 0,
+    mensaje TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    finished_at TIMESTAMPTZ,
+    CONSTRAINT fk_clientes_importaciones_usuario FOREIGN KEY (usuario_id) REFERENCES seguridad_usuarios(id) ON DELETE SET NULL,
+    CONSTRAINT chk_clientes_importaciones_status CHECK (status IN ('PENDIENTE', 'EN_PROCESO', 'COMPLETADA', 'FALLIDA'))
+);
+
+COMMENT ON TABLE clientes_importaciones IS 'Importaciones masivas de clientes procesadas en segundo plano';
+COMMENT ON COLUMN clientes_importaciones.ultima_linea_confirmada IS 'Última línea del archivo cuyo bloque se confirmó; punto de reanudación';
+
+CREATE INDEX IF NOT EXISTS idx_clientes_importaciones_unidad ON clientes_importaciones(unidad_negocio_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_clientes_importaciones_status ON clientes_importaciones(status) WHERE status IN ('PENDIENTE', 'EN_PROCESO');
+
+CREATE TABLE IF NOT EXISTS clientes_importaciones_resultados (
+    importacion_id UUID NOT NULL,
+    linea INTEGER NOT NULL,
+    unidad_negocio_id UUID NOT NULL,
+    cliente_id UUID,
+    codigo VARCHAR(50),
+    nombre VARCHAR(255),
+    error TEXT,
+    CONSTRAINT pk_clientes_importaciones_resultados PRIMARY KEY (importacion_id, linea),
+    CONSTRAINT fk_clientes_importaciones_resultados_importacion FOREIGN KEY (importacion_id) REFERENCES clientes_importaciones(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE clientes_importaciones_resultados IS 'Resultado por línea de cada importación (cliente creado o error)';
+
+CREATE INDEX IF NOT EXISTS idx_clientes_importaciones_resultados_errores
+    ON clientes_importaciones_resultados(importacion_id, linea) WHERE error IS NOT NULL;
+
+-- RLS: aislamiento por tenant
+ALTER TABLE clientes_importaciones ENABLE ROW LEVEL SECURITY;
+ALTER TABLE clientes_importaciones_resultados ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY tenant_isolation_clientes_importaciones ON clientes_importaciones
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
+
+CREATE POLICY tenant_isolation_clientes_importaciones_resultados ON clientes_importaciones_resultados
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
@@ -0,0 +1,45 @@
+-------------------------------------------------------------------------------
+-- Migración V15: Secuencias de códigos de cliente
+--
+-- Descripción:
+-- Contador por unidad de negocio y prefijo para los códigos CLI-{PREFIJO}-{N}.
+-- Cada nodo reserva bloques (hi-lo) incrementando "siguiente" en una sola
+-- sentencia y asigna los códigos del bloque en memoria.
+-- Los contadores se inicializan por encima del mayor código existente.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 15
+-------------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS clientes_codigos_secuencia (
+    unidad_negocio_id UUID NOT NULL,
+    prefijo VARCHAR(10) NOT NULL,
+    siguiente BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_clientes_codigos_secuencia PRIMARY KEY (unidad_negocio_id, prefijo),
+    CONSTRAINT chk_clientes_codigos_secuencia_siguiente CHECK (siguiente > 0)
+);
+
+COMMENT ON TABLE clientes_codigos_secuencia IS 'Contadores hi-lo de códigos de cliente por tenant y prefijo';
+COMMENT ON COLUMN clientes_codigos_secuencia.siguiente IS 'Primer número aún no reservado por ningún nodo';
+
+-- Arrancar cada prefijo después del mayor código generado hasta ahora
+INSERT INTO clientes_codigos_secuencia (unidad_negocio_id, prefijo, siguiente)
+SELECT unidad_negocio_id,
+       substring(codigo FROM 5 FOR 3),
+       MAX(substring(codigo FROM 9)::BIGINT) + 1
+FROM clientes_clientes
+WHERE codigo ~ '^CLI-[A-Z]{3}-[0-9]{1,18}$'
+GROUP BY unidad_negocio_id, substring(codigo FROM 5 FOR 3)
+ON CONFLICT (unidad_negocio_id, prefijo) DO NOTHING;
+
+-- RLS: aislamiento por tenant
+ALTER TABLE clientes_codigos_secuencia ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY tenant_isolation_clientes_codigos_secuencia ON clientes_codigos_secuencia
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
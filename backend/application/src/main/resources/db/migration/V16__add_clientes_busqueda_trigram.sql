@@ -0,0 +1,36 @@
+-------------------------------------------------------------------------------
+-- Migración V16: Búsqueda de clientes con trigramas
+--
+-- Descripción:
+-- La búsqueda por subcadena (LIKE '%término%') no puede usar índices B-tree.
+-- Se indexa con GIN (pg_trgm) una expresión normalizada (minúsculas, sin
+-- acentos) que concatena nombre, razón social, email, RFC y código, de modo
+-- que "jose" encuentra "José" y los errores de tipeo se resuelven por similitud.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 16
+-------------------------------------------------------------------------------
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() es STABLE; fijando el diccionario se puede declarar IMMUTABLE y usar en índices
+CREATE OR REPLACE FUNCTION clientes_normalizar(texto TEXT)
+RETURNS TEXT AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary, COALESCE(texto, '')));
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE;
+
+COMMENT ON FUNCTION clientes_normalizar(TEXT) IS 'Texto en minúsculas y sin acentos para búsqueda';
+
+CREATE OR REPLACE FUNCTION clientes_busqueda_texto(nombre TEXT, razon_social TEXT, email TEXT, rfc TEXT, codigo TEXT)
+RETURNS TEXT AS $$
+    SELECT clientes_normalizar(concat_ws(' ', nombre, razon_social, email, rfc, codigo));
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE;
+
+COMMENT ON FUNCTION clientes_busqueda_texto(TEXT, TEXT, TEXT, TEXT, TEXT) IS 'Documento de búsqueda de un cliente; debe coincidir con el índice idx_clientes_clientes_busqueda_trgm';
+
+CREATE INDEX IF NOT EXISTS idx_clientes_clientes_busqueda_trgm
+    ON clientes_clientes
+    USING gin (clientes_busqueda_texto(nombre, razon_social, email, rfc, codigo) gin_trgm_ops)
+    WHERE deleted_at IS NULL;
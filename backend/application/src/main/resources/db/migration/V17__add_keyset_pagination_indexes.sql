@@ -0,0 +1,34 @@
+-------------------------------------------------------------------------------
+-- Migración V17: Índices para paginación por cursor (keyset)
+--
+-- Descripción:
+-- Los endpoints /scroll listan "más recientes primero" continuando desde el
+-- último (created_at, id) devuelto, en lugar de usar OFFSET. Con un índice en
+-- el mismo orden cada página es un recorrido de rango acotado al tamaño de
+-- página, sin importar cuán profunda sea. El id desempata filas creadas en el
+-- mismo instante. Parciales porque las entidades filtran deleted_at IS NULL.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 17
+-------------------------------------------------------------------------------
+
+CREATE INDEX IF NOT EXISTS idx_clientes_clientes_keyset
+    ON clientes_clientes (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_oportunidades_oportunidades_keyset
+    ON oportunidades_oportunidades (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tareas_tareas_keyset
+    ON tareas_tareas (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_productos_productos_keyset
+    ON productos_productos (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_ventas_pedidos_keyset
+    ON ventas_pedidos (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
@@ -0,0 +1,109 @@
+-------------------------------------------------------------------------------
+-- Migración V18: Libro de movimientos de stock y reservas
+--
+-- Descripción:
+-- productos_productos.stock_actual pasa a modificarse sólo con sentencias
+-- atómicas (stock_actual = stock_actual + ?), cada una acompañada de su
+-- movimiento en productos_stock_movimientos (sólo inserción). La suma de los
+-- movimientos de un producto debe ser igual a su stock_actual; un job de
+-- reconciliación verifica el invariante y registra un movimiento
+-- RECONCILIACION por la diferencia.
+--
+-- Las reservas apartan unidades sin descontarlas (stock_reservado) hasta que
+-- se confirman o liberan; las vencidas las libera el mismo job.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 18
+-------------------------------------------------------------------------------
+
+-- stock_actual + ? con NULL daría NULL
+UPDATE productos_productos SET stock_actual = 0 WHERE stock_actual IS NULL;
+ALTER TABLE productos_productos ALTER COLUMN stock_actual SET NOT NULL;
+
+ALTER TABLE productos_productos
+    ADD COLUMN IF NOT EXISTS stock_reservado INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE productos_productos
+    ADD CONSTRAINT chk_productos_productos_stock_reservado
+    CHECK (stock_reservado >= 0 AND stock_reservado <= stock_actual);
+
+COMMENT ON COLUMN productos_productos.stock_reservado IS 'Unidades apartadas por reservas activas; disponible = stock_actual - stock_reservado';
+
+CREATE TABLE IF NOT EXISTS productos_stock_movimientos (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    unidad_negocio_id UUID NOT NULL,
+    producto_id UUID NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    cantidad INTEGER NOT NULL,
+    saldo_resultante INTEGER NOT NULL,
+    referencia_tipo VARCHAR(50),
+    referencia_id UUID,
+    notas TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    created_by UUID,
+    CONSTRAINT fk_productos_stock_movimientos_producto FOREIGN KEY (producto_id) REFERENCES productos_productos(id),
+    CONSTRAINT fk_productos_stock_movimientos_created_by FOREIGN KEY (created_by) REFERENCES seguridad_usuarios(id) ON DELETE SET NULL,
+    CONSTRAINT chk_productos_stock_movimientos_tipo CHECK (tipo IN ('INICIAL', 'ENTRADA', 'SALIDA', 'AJUSTE', 'RECONCILIACION')),
+    CONSTRAINT chk_productos_stock_movimientos_cantidad CHECK (cantidad <> 0 OR tipo = 'INICIAL')
+);
+
+COMMENT ON TABLE productos_stock_movimientos IS 'Libro de movimientos de stock (sólo inserción); SUM(cantidad) por producto = stock_actual';
+
+CREATE INDEX IF NOT EXISTS idx_productos_stock_movimientos_producto
+    ON productos_stock_movimientos(producto_id, id DESC);
+
+CREATE TABLE IF NOT EXISTS productos_stock_reservas (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    unidad_negocio_id UUID NOT NULL,
+    producto_id UUID NOT NULL,
+    cantidad INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVA',
+    referencia_tipo VARCHAR(50),
+    referencia_id UUID,
+    expira_en TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    created_by UUID,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_productos_stock_reservas_producto FOREIGN KEY (producto_id) REFERENCES productos_productos(id),
+    CONSTRAINT fk_productos_stock_reservas_created_by FOREIGN KEY (created_by) REFERENCES seguridad_usuarios(id) ON DELETE SET NULL,
+    CONSTRAINT chk_productos_stock_reservas_status CHECK (status IN ('ACTIVA', 'CONFIRMADA', 'LIBERADA', 'EXPIRADA')),
+    CONSTRAINT chk_productos_stock_reservas_cantidad CHECK (cantidad > 0)
+);
+
+COMMENT ON TABLE productos_stock_reservas IS 'Reservas de stock con vencimiento; mientras están ACTIVA suman a stock_reservado';
+
+CREATE INDEX IF NOT EXISTS idx_productos_stock_reservas_activas
+    ON productos_stock_reservas(expira_en) WHERE status = 'ACTIVA';
+CREATE INDEX IF NOT EXISTS idx_productos_stock_reservas_producto
+    ON productos_stock_reservas(producto_id) WHERE status = 'ACTIVA';
+
+-- Saldo inicial: el stock existente queda respaldado por un movimiento
+INSERT INTO productos_stock_movimientos (unidad_negocio_id, producto_id, tipo, cantidad, saldo_resultante, notas)
+SELECT p.unidad_negocio_id, p.id, 'INICIAL', p.stock_actual, p.stock_actual,
+       'Saldo al crear el libro de movimientos'
+FROM productos_productos p
+WHERE NOT EXISTS (SELECT 1 FROM productos_stock_movimientos m WHERE m.producto_id = p.id);
+
+-- RLS: aislamiento por tenant
+ALTER TABLE productos_stock_movimientos ENABLE ROW LEVEL SECURITY;
+ALTER TABLE productos_stock_reservas ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY tenant_isolation_productos_stock_movimientos ON productos_stock_movimientos
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
+
+CREATE POLICY tenant_isolation_productos_stock_reservas ON productos_stock_reservas
+    FOR ALL
+    USING (
+        unidad_negocio_id = app_current_tenant()
+        OR app_bypass_rls()
+    );
+
+-- Los jobs de sistema (liberar reservas vencidas) actualizan stock_reservado sin rol de almacén
+CREATE POLICY system_update_productos_productos ON productos_productos
+    FOR UPDATE
+    USING (app_bypass_rls());
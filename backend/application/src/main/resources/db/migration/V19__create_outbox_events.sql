@@ -0,0 +1,51 @@
+-------------------------------------------------------------------------------
+-- Migración V19: Outbox transaccional de eventos de dominio
+--
+-- Descripción:
+-- Los servicios de clientes, oportunidades, tareas, pedidos y productos
+-- registran en outbox_events, dentro de la misma transacción que modifica el
+-- agregado, un evento por cambio. Un relay los lee en lotes (FOR UPDATE SKIP
+-- LOCKED, de modo que varios nodos pueden correrlo a la vez), los entrega a los
+-- listeners en proceso y los marca publicados. La entrega es al menos una vez:
+-- un evento cuyo despacho falla, o cuyo nodo cae antes de marcarlo, se reintenta.
+--
+-- La tabla es interna de la infraestructura y no tiene RLS: el relay lee
+-- eventos de todos los tenants. unidad_negocio_id viaja en cada evento para que
+-- el listener establezca el contexto que necesite.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 19
+-------------------------------------------------------------------------------
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    unidad_negocio_id UUID,
+    modulo VARCHAR(50) NOT NULL,
+    agregado_id VARCHAR(64) NOT NULL,
+    tipo VARCHAR(50) NOT NULL,
+    payload JSONB,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    intentos INTEGER NOT NULL DEFAULT 0,
+    disponible_en TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    ultimo_error TEXT,
+    publicado_en TIMESTAMPTZ,
+    fallido_en TIMESTAMPTZ
+);
+
+COMMENT ON TABLE outbox_events IS 'Outbox transaccional: eventos de dominio escritos con el agregado y entregados por el relay (al menos una vez)';
+COMMENT ON COLUMN outbox_events.agregado_id IS 'Id del agregado como texto (clientes usa BIGINT, el resto UUID)';
+COMMENT ON COLUMN outbox_events.disponible_en IS 'El relay no toma el evento antes de este instante; se usa como lease del lote reclamado y como espera entre reintentos';
+COMMENT ON COLUMN outbox_events.fallido_en IS 'Agotó los reintentos; queda fuera del relay hasta que se reprograme manualmente';
+
+-- Sólo los pendientes: la tabla crece con los publicados hasta la purga
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pendientes
+    ON outbox_events(id)
+    WHERE publicado_en IS NULL AND fallido_en IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_publicados
+    ON outbox_events(publicado_en)
+    WHERE publicado_en IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_agregado
+    ON outbox_events(modulo, agregado_id, id);
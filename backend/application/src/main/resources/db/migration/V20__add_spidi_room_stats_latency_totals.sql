@@ -0,0 +1,30 @@
+-------------------------------------------------------------------------------
+-- Migración V20: Suma y muestras de latencia en estadísticas de salas
+--
+-- Descripción:
+-- El agregador de estadísticas de SPIDI escribe los buckets de minuto cerrados
+-- y los suma a sus buckets de hora, día, semana y mes con upserts aditivos
+-- (ON CONFLICT (room_id, ts_bucket, bucket_interval)), sin volver a leer
+-- sesiones. Para que el promedio de latencia se pueda combinar entre minutos y
+-- entre nodos se guardan la suma y la cantidad de muestras; avg_latency_ms
+-- queda como su cociente redondeado.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 20
+-------------------------------------------------------------------------------
+
+ALTER TABLE dat_spd_room_stats
+    ADD COLUMN IF NOT EXISTS latency_sum_ms BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS latency_samples BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE dat_spd_room_stats
+    ADD CONSTRAINT chk_dat_spd_room_stats_latency_totals CHECK (latency_sum_ms >= 0 AND latency_samples >= 0);
+
+COMMENT ON COLUMN dat_spd_room_stats.latency_sum_ms IS 'Suma de las latencias reportadas en los heartbeats del bucket';
+COMMENT ON COLUMN dat_spd_room_stats.latency_samples IS 'Cantidad de heartbeats con latencia del bucket; avg_latency_ms = latency_sum_ms / latency_samples';
+COMMENT ON COLUMN dat_spd_room_stats.total_sessions IS 'Sesiones activas en algún momento del bucket: las activas al inicio más las conectadas durante el bucket';
+
+-- Consultas de series por sala e intervalo, la más reciente primero
+CREATE INDEX IF NOT EXISTS idx_dat_spd_room_stats_room_interval_ts
+    ON dat_spd_room_stats(room_id, bucket_interval, ts_bucket DESC);
@@ -0,0 +1,55 @@
+-------------------------------------------------------------------------------
+-- Migración V21: Histograma de latencias en estadísticas de salas
+--
+-- Descripción:
+-- avg_latency_ms oculta la cola de latencias. Cada bucket de
+-- dat_spd_room_stats guarda además un histograma log-lineal de las latencias
+-- reportadas (LatencyHistogram: 32 sub-buckets por potencia de dos, error
+-- relativo de ~3%), del que se obtienen p50, p95 y p99.
+--
+-- Formato: entradas de 10 bytes ordenadas por índice, [int2 índice][int8 cuenta]
+-- big-endian, sólo las de cuenta distinta de 0. Dos histogramas se combinan
+-- sumando cuentas del mismo índice, sin las muestras originales:
+-- spd_histogram_merge lo hace en el upsert aditivo de los buckets, de modo que
+-- los aportes de varios minutos y de varios nodos quedan en un solo histograma.
+--
+-- Autor: PagoDirecto CRM Team
+-- Fecha: 2025-10-13
+-- Version: 21
+-------------------------------------------------------------------------------
+
+ALTER TABLE dat_spd_room_stats
+    ADD COLUMN IF NOT EXISTS latency_histogram BYTEA;
+
+COMMENT ON COLUMN dat_spd_room_stats.latency_histogram IS 'Histograma log-lineal de latencias: entradas [int2 índice][int8 cuenta] big-endian; NULL sin muestras';
+
+-- Entradas (índice, cuenta) de un histograma serializado
+CREATE OR REPLACE FUNCTION spd_histogram_entries(h BYTEA)
+RETURNS TABLE (idx INTEGER, cnt BIGINT)
+LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT get_byte(h, o) * 256 + get_byte(h, o + 1),
+           ('x' || encode(substring(h FROM o + 3 FOR 8), 'hex'))::bit(64)::bigint
+    FROM generate_series(0, length(h) - 10, 10) AS o
+$$;
+
+-- Suma de dos histogramas; NULL si ambos están vacíos
+CREATE OR REPLACE FUNCTION spd_histogram_merge(a BYTEA, b BYTEA)
+RETURNS BYTEA
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT string_agg(int2send(e.idx::smallint) || int8send(e.cnt), ''::bytea ORDER BY e.idx)
+    FROM (
+        SELECT t.idx, SUM(t.cnt)::bigint AS cnt
+        FROM (
+            SELECT * FROM spd_histogram_entries(COALESCE(a, ''::bytea))
+            UNION ALL
+            SELECT * FROM spd_histogram_entries(COALESCE(b, ''::bytea))
+        ) t
+        GROUP BY t.idx
+    ) e
+$$;
+
+-- Agregado para combinar histogramas de varias filas en consultas ad hoc
+CREATE OR REPLACE AGGREGATE spd_histogram_sum(BYTEA) (
+    SFUNC = spd_histogram_merge,
+    STYPE = BYTEA
+);
@@ -1,10 +1,19 @@
 package com.pagodirecto.clientes.api.controller;
 
+import com.pagodirecto.clientes.application.dto.ClienteBusquedaDTO;
 import com.pagodirecto.clientes.application.dto.ClienteDTO;
+import com.pagodirecto.clientes.application.dto.ClienteExportFiltro;
+import com.pagodirecto.clientes.application.dto.ImportacionJobDTO;
+import com.pagodirecto.clientes.application.dto.ImportacionLineaDTO;
 import com.pagodirecto.clientes.application.dto.ImportacionResultDTO;
+import com.pagodirecto.clientes.application.service.ClienteBusquedaService;
 import com.pagodirecto.clientes.application.service.ClienteImportacionService;
 import com.pagodirecto.clientes.application.service.ClienteService;
 import com.pagodirecto.clientes.domain.ClienteStatus;
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.seguridad.infrastructure.security.AuthenticatedPrincipal;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,12 +28,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -47,6 +59,8 @@ public class ClienteController {
 
     private final ClienteService clienteService;
     private final ClienteImportacionService clienteImportacionService;
+    private final ClienteBusquedaService clienteBusquedaService;
+    private final RLSContextManager rlsContextManager;
 
     @Operation(summary = "Crear nuevo cliente", description = "Crea un nuevo cliente en el sistema")
     @ApiResponses(value = {
@@ -61,7 +75,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Creando nuevo cliente - usuario: {}", userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO created = clienteService.crear(clienteDTO, usuarioId);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
@@ -81,7 +97,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Actualizando cliente {} - usuario: {}", id, userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO updated = clienteService.actualizar(id, clienteDTO, usuarioId);
         return ResponseEntity.ok(updated);
     }
@@ -132,21 +150,65 @@ public class ClienteController {
         return ResponseEntity.ok(clientes);
     }
 
-    @Operation(summary = "Buscar clientes", description = "Busca clientes por nombre, email, RFC o razón social")
+    @Operation(summary = "Buscar clientes",
+               description = "Busca clientes por nombre, razón social, email, RFC o código. "
+                       + "Ignora mayúsculas y acentos, tolera errores de tipeo y ordena por relevancia")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Búsqueda completada exitosamente"),
         @ApiResponse(responseCode = "401", description = "No autenticado")
     })
     @GetMapping("/search")
-    public ResponseEntity<Page<ClienteDTO>> buscar(
+    public ResponseEntity<Page<ClienteBusquedaDTO>> buscar(
             @Parameter(description = "Término de búsqueda") @RequestParam String q,
-            @PageableDefault(size = 20, sort = "nombre", direction = Sort.Direction.ASC) Pageable pageable) {
+            @PageableDefault(size = 20) Pageable pageable) {
 
         log.debug("Buscando clientes con término: {}", q);
-        Page<ClienteDTO> clientes = clienteService.buscar(q, pageable);
+        Page<ClienteBusquedaDTO> clientes = clienteBusquedaService.buscar(q, pageable);
+        return ResponseEntity.ok(clientes);
+    }
+
+    @Operation(summary = "Listar clientes con paginación por cursor",
+               description = "Más recientes primero. Enviar nextCursor de la respuesta para obtener la "
+                       + "página siguiente; el total sólo se calcula con incluirTotal=true")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<ClienteBusquedaDTO>> listarPorCursor(
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+
+        log.debug("Listando clientes por cursor - tamaño: {}", size);
+        CursorSlice<ClienteBusquedaDTO> clientes = clienteBusquedaService.listarPorCursor(cursor, size, incluirTotal);
         return ResponseEntity.ok(clientes);
     }
 
+    @Operation(summary = "Exportar clientes",
+               description = "Descarga en CSV o NDJSON todos los clientes que cumplen los filtros, "
+                       + "más recientes primero. Se escribe a medida que se lee de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "csv o ndjson") @RequestParam(defaultValue = "csv") String formato,
+            ClienteExportFiltro filtro) {
+
+        ExportFormat exportFormat = ExportFormat.from(formato);
+        log.info("Exportando clientes en formato: {}", exportFormat);
+        StreamingResponseBody body = rlsContextManager.propagate(
+                salida -> clienteBusquedaService.exportar(filtro, exportFormat, salida));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("clientes"))
+                .body(body);
+    }
+
     @Operation(summary = "Buscar por status", description = "Obtiene clientes filtrados por status")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Búsqueda completada exitosamente"),
@@ -205,7 +267,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Activando cliente {} - usuario: {}", id, userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO cliente = clienteService.activar(id, usuarioId);
         return ResponseEntity.ok(cliente);
     }
@@ -223,7 +287,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Desactivando cliente {} - usuario: {}", id, userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO cliente = clienteService.desactivar(id, usuarioId);
         return ResponseEntity.ok(cliente);
     }
@@ -242,7 +308,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Convirtiendo lead a prospecto {} - usuario: {}", id, userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO cliente = clienteService.convertirAProspecto(id, usuarioId);
         return ResponseEntity.ok(cliente);
     }
@@ -261,7 +329,9 @@ public class ClienteController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         log.info("Convirtiendo prospecto a cliente {} - usuario: {}", id, userDetails.getUsername());
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO cliente = clienteService.convertirACliente(id, usuarioId);
         return ResponseEntity.ok(cliente);
     }
@@ -281,7 +351,9 @@ public class ClienteController {
 
         log.info("Agregando cliente a blacklist {} - usuario: {} - motivo: {}",
                  id, userDetails.getUsername(), motivo);
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ClienteDTO cliente = clienteService.agregarABlacklist(id, motivo, usuarioId);
         return ResponseEntity.ok(cliente);
     }
@@ -300,14 +372,96 @@ public class ClienteController {
         return ResponseEntity.ok(count);
     }
 
-    @Operation(summary = "Importar clientes desde CSV",
-               description = "Importa múltiples clientes desde un archivo CSV con nombres de empresas")
+    @Operation(summary = "Iniciar importación de clientes desde CSV",
+               description = "Registra la importación y la procesa en segundo plano. "
+                       + "El progreso se consulta con el ID devuelto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Importación registrada",
+                     content = @Content(schema = @Schema(implementation = ImportacionJobDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Archivo inválido o vacío"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @PostMapping(value = "/importaciones", consumes = "multipart/form-data")
+    public ResponseEntity<ImportacionJobDTO> iniciarImportacion(
+            @Parameter(description = "Archivo CSV con nombres de empresas")
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "UUID de la unidad de negocio")
+            @RequestParam("unidadNegocioId") UUID unidadNegocioId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        log.info("Iniciando importación de clientes - usuario: {}, archivo: {}",
+                 userDetails.getUsername(), file.getOriginalFilename());
+
+        if (!esArchivoCsv(file) || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
+        ImportacionJobDTO importacion = clienteImportacionService.iniciarImportacion(
+                file, unidadNegocioId, usuarioId);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importacion);
+    }
+
+    @Operation(summary = "Consultar importación", description = "Obtiene el estado y los contadores de una importación")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación encontrada"),
+        @ApiResponse(responseCode = "404", description = "Importación no encontrada"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @GetMapping("/importaciones/{id}")
+    public ResponseEntity<ImportacionJobDTO> obtenerImportacion(
+            @Parameter(description = "UUID de la importación") @PathVariable UUID id) {
+
+        log.debug("Consultando importación: {}", id);
+        return ResponseEntity.ok(clienteImportacionService.obtenerImportacion(id));
+    }
+
+    @Operation(summary = "Resultados de importación",
+               description = "Obtiene el resultado por línea de una importación, paginado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Importación no encontrada"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @GetMapping("/importaciones/{id}/resultados")
+    public ResponseEntity<Page<ImportacionLineaDTO>> obtenerResultadosImportacion(
+            @Parameter(description = "UUID de la importación") @PathVariable UUID id,
+            @Parameter(description = "Sólo líneas con error") @RequestParam(defaultValue = "false") boolean soloErrores,
+            @PageableDefault(size = 100) Pageable pageable) {
+
+        log.debug("Consultando resultados de importación: {} - soloErrores: {}", id, soloErrores);
+        return ResponseEntity.ok(clienteImportacionService.obtenerResultados(id, soloErrores, pageable));
+    }
+
+    @Operation(summary = "Reanudar importación",
+               description = "Reanuda una importación fallida desde el último bloque confirmado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Importación reanudada"),
+        @ApiResponse(responseCode = "404", description = "Importación no encontrada"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @PostMapping("/importaciones/{id}/reanudar")
+    public ResponseEntity<ImportacionJobDTO> reanudarImportacion(
+            @Parameter(description = "UUID de la importación") @PathVariable UUID id) {
+
+        log.info("Reanudando importación: {}", id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(clienteImportacionService.reanudarImportacion(id));
+    }
+
+    @Operation(summary = "Importar clientes desde CSV (síncrono)",
+               description = "Importa múltiples clientes desde un archivo CSV con nombres de empresas. "
+                       + "Obsoleto: usar POST /importaciones",
+               deprecated = true)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Importación procesada (puede tener errores parciales)",
                      content = @Content(schema = @Schema(implementation = ImportacionResultDTO.class))),
         @ApiResponse(responseCode = "400", description = "Archivo inválido o vacío"),
         @ApiResponse(responseCode = "401", description = "No autenticado")
     })
+    @Deprecated
     @PostMapping(value = "/importar", consumes = "multipart/form-data")
     public ResponseEntity<ImportacionResultDTO> importarDesdeCSV(
             @Parameter(description = "Archivo CSV con nombres de empresas")
@@ -320,8 +474,7 @@ public class ClienteController {
                  userDetails.getUsername(), file.getOriginalFilename());
 
         // Validar que sea un archivo CSV
-        String filename = file.getOriginalFilename();
-        if (filename == null || !filename.toLowerCase().endsWith(".csv")) {
+        if (!esArchivoCsv(file)) {
             ImportacionResultDTO error = ImportacionResultDTO.builder()
                     .mensaje("El archivo debe ser formato CSV")
                     .totalRegistros(0)
@@ -331,10 +484,17 @@ public class ClienteController {
             return ResponseEntity.badRequest().body(error);
         }
 
-        UUID usuarioId = UUID.randomUUID(); // TODO: Obtener del contexto de seguridad
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
         ImportacionResultDTO resultado = clienteImportacionService.importarDesdeCSV(
                 file, unidadNegocioId, usuarioId);
 
         return ResponseEntity.ok(resultado);
     }
+
+    private boolean esArchivoCsv(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        return filename != null && filename.toLowerCase().endsWith(".csv");
+    }
 }
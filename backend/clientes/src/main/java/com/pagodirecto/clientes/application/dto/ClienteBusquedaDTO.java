@@ -0,0 +1,42 @@
+package com.pagodirecto.clientes.application.dto;
+
+import com.pagodirecto.clientes.domain.ClienteStatus;
+import com.pagodirecto.clientes.domain.ClienteTipo;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO: Resultado de Búsqueda de Clientes
+ *
+ * Cliente encontrado por la búsqueda de texto, con su relevancia (0-1).
+ * En listados y exportaciones la relevancia es null.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClienteBusquedaDTO {
+
+    private UUID id;
+    private UUID unidadNegocioId;
+    private String codigo;
+    private String nombre;
+    private String email;
+    private String telefono;
+    private ClienteTipo tipo;
+    private String rfc;
+    private String razonSocial;
+    private ClienteStatus status;
+    private String segmento;
+    private String fuente;
+    private UUID propietarioId;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Double relevancia;
+}
@@ -0,0 +1,37 @@
+package com.pagodirecto.clientes.application.dto;
+
+import com.pagodirecto.clientes.domain.ClienteStatus;
+import com.pagodirecto.clientes.domain.ClienteTipo;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Filtros de la exportación de clientes
+ *
+ * Todos son opcionales y se combinan con AND; equivalen a los de los listados
+ * por status y propietario y a la búsqueda de texto.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClienteExportFiltro {
+
+    private ClienteStatus status;
+
+    private ClienteTipo tipo;
+
+    private UUID propietarioId;
+
+    private String segmento;
+
+    /**
+     * Texto a buscar en nombre, razón social, email, RFC o código (misma semántica que /search)
+     */
+    private String q;
+}
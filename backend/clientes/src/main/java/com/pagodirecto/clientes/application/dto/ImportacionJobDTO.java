@@ -0,0 +1,47 @@
+package com.pagodirecto.clientes.application.dto;
+
+import com.pagodirecto.clientes.domain.ImportacionStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO: Job de Importación
+ *
+ * Estado y progreso de una importación de clientes en segundo plano.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionJobDTO {
+
+    private UUID id;
+    private ImportacionStatus status;
+    private String nombreArchivo;
+    private int totalRegistros;
+    private int registrosExitosos;
+    private int registrosConErrores;
+    private int ultimaLineaConfirmada;
+    private String mensaje;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+
+    /**
+     * Calcula la tasa de éxito de las líneas procesadas hasta ahora
+     *
+     * @return porcentaje de registros exitosos
+     */
+    public double getTasaExito() {
+        if (totalRegistros == 0) {
+            return 0.0;
+        }
+        return (registrosExitosos * 100.0) / totalRegistros;
+    }
+}
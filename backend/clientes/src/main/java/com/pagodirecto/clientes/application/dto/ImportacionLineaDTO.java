@@ -0,0 +1,26 @@
+package com.pagodirecto.clientes.application.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * DTO: Resultado de una Línea de Importación
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionLineaDTO {
+
+    private int linea;
+    private boolean exitoso;
+    private UUID clienteId;
+    private String codigo;
+    private String nombre;
+    private String error;
+}
@@ -0,0 +1,55 @@
+package com.pagodirecto.clientes.application.service;
+
+import com.pagodirecto.clientes.application.dto.ClienteBusquedaDTO;
+import com.pagodirecto.clientes.application.dto.ClienteExportFiltro;
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Servicio: Búsqueda de Clientes
+ *
+ * Búsqueda de texto insensible a mayúsculas y acentos, tolerante a errores de tipeo,
+ * listado paginado por cursor y exportación.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface ClienteBusquedaService {
+
+    /**
+     * Busca clientes por nombre, razón social, email, RFC o código
+     *
+     * @param termino término de búsqueda
+     * @param pageable paginación; el orden es siempre por relevancia
+     * @return página de clientes ordenados por relevancia
+     */
+    Page<ClienteBusquedaDTO> buscar(String termino, Pageable pageable);
+
+    /**
+     * Lista clientes con paginación por cursor (keyset), más recientes primero
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (máximo {@value CursorSlice#MAX_SIZE})
+     * @param incluirTotal si true, calcula además el total de registros
+     * @return la página y el cursor de la siguiente
+     */
+    CursorSlice<ClienteBusquedaDTO> listarPorCursor(String cursor, int size, boolean incluirTotal);
+
+    /**
+     * Escribe los clientes que cumplen los filtros directamente en la salida,
+     * más recientes primero, con memoria constante
+     *
+     * @param filtro filtros opcionales
+     * @param formato CSV o NDJSON
+     * @param salida stream de la respuesta; no se cierra
+     * @return cantidad de clientes exportados
+     * @throws IOException si falla la escritura (p. ej. el cliente cortó la descarga)
+     */
+    long exportar(ClienteExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException;
+}
@@ -1,6 +1,10 @@
 package com.pagodirecto.clientes.application.service;
 
+import com.pagodirecto.clientes.application.dto.ImportacionJobDTO;
+import com.pagodirecto.clientes.application.dto.ImportacionLineaDTO;
 import com.pagodirecto.clientes.application.dto.ImportacionResultDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.UUID;
@@ -10,6 +14,12 @@ import java.util.UUID;
  *
  * Interface de servicio para operaciones de importación masiva de clientes desde archivos.
  *
+ * CSV esperado: una columna con nombres de empresas (sin encabezado requerido)
+ * Ejemplo:
+ * Empresa ABC, C.A.
+ * Comercial XYZ
+ * Distribuidora 123, S.A.
+ *
  * @author PagoDirecto CRM Team
  * @version 1.0
  * @since 2025-10-13
@@ -17,18 +27,51 @@ import java.util.UUID;
 public interface ClienteImportacionService {
 
     /**
-     * Importa clientes desde un archivo CSV
+     * Registra una importación y la procesa en segundo plano
+     *
+     * @param file archivo CSV con los datos
+     * @param unidadNegocioId UUID de la unidad de negocio
+     * @param usuarioId UUID del usuario que realiza la importación
+     * @return el job registrado, en estado PENDIENTE
+     */
+    ImportacionJobDTO iniciarImportacion(MultipartFile file, UUID unidadNegocioId, UUID usuarioId);
+
+    /**
+     * Obtiene el estado y los contadores de una importación
      *
-     * CSV esperado: una columna con nombres de empresas (sin encabezado requerido)
-     * Ejemplo:
-     * Empresa ABC, C.A.
-     * Comercial XYZ
-     * Distribuidora 123, S.A.
+     * @param importacionId UUID del job
+     * @return el job
+     */
+    ImportacionJobDTO obtenerImportacion(UUID importacionId);
+
+    /**
+     * Obtiene los resultados por línea de una importación, paginados
+     *
+     * @param importacionId UUID del job
+     * @param soloErrores si true, sólo las líneas con error
+     * @param pageable paginación
+     * @return página de resultados ordenados por línea
+     */
+    Page<ImportacionLineaDTO> obtenerResultados(UUID importacionId, boolean soloErrores, Pageable pageable);
+
+    /**
+     * Reanuda una importación fallida desde el último bloque confirmado
+     *
+     * @param importacionId UUID del job
+     * @return el job, nuevamente en estado PENDIENTE
+     */
+    ImportacionJobDTO reanudarImportacion(UUID importacionId);
+
+    /**
+     * Importa clientes desde un archivo CSV de forma síncrona
      *
      * @param file archivo CSV con los datos
      * @param unidadNegocioId UUID de la unidad de negocio
      * @param usuarioId UUID del usuario que realiza la importación
      * @return resultado de la importación con estadísticas
+     * @deprecated mantiene abierto el request durante toda la importación;
+     *             usar {@link #iniciarImportacion(MultipartFile, UUID, UUID)}
      */
+    @Deprecated
     ImportacionResultDTO importarDesdeCSV(MultipartFile file, UUID unidadNegocioId, UUID usuarioId);
 }
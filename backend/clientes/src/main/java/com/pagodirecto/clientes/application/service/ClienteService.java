@@ -59,15 +59,6 @@ public interface ClienteService {
      */
     Page<ClienteDTO> buscarPorActivo(Boolean activo, Pageable pageable);
 
-    /**
-     * Busca clientes por término de búsqueda
-     *
-     * @param searchTerm término de búsqueda
-     * @param pageable configuración de paginación
-     * @return página de clientes
-     */
-    Page<ClienteDTO> buscar(String searchTerm, Pageable pageable);
-
     /**
      * Elimina un cliente (soft delete)
      *
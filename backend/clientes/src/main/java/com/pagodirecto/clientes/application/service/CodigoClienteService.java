@@ -0,0 +1,24 @@
+package com.pagodirecto.clientes.application.service;
+
+import java.util.UUID;
+
+/**
+ * Servicio: Códigos de Cliente
+ *
+ * Asigna códigos únicos de cliente con formato CLI-{PREFIJO}-{NNNNN}.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface CodigoClienteService {
+
+    /**
+     * Asigna el siguiente código para un cliente
+     *
+     * @param unidadNegocioId UUID de la unidad de negocio
+     * @param nombre nombre del cliente, del que se deriva el prefijo
+     * @return código único dentro de la unidad de negocio
+     */
+    String siguienteCodigo(UUID unidadNegocioId, String nombre);
+}
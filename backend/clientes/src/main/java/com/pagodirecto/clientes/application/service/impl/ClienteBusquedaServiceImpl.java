@@ -0,0 +1,116 @@
+package com.pagodirecto.clientes.application.service.impl;
+
+import com.pagodirecto.clientes.application.dto.ClienteBusquedaDTO;
+import com.pagodirecto.clientes.application.dto.ClienteExportFiltro;
+import com.pagodirecto.clientes.application.service.ClienteBusquedaService;
+import com.pagodirecto.clientes.infrastructure.repository.ClienteBusquedaRepository;
+import com.pagodirecto.core.export.ExportColumn;
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.export.RowStreamWriter;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.core.pagination.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementación: ClienteBusquedaService
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ClienteBusquedaServiceImpl implements ClienteBusquedaService {
+
+    private static final List<ExportColumn<ClienteBusquedaDTO>> COLUMNAS_EXPORTACION = List.of(
+            ExportColumn.of("id", ClienteBusquedaDTO::getId),
+            ExportColumn.of("codigo", ClienteBusquedaDTO::getCodigo),
+            ExportColumn.of("nombre", ClienteBusquedaDTO::getNombre),
+            ExportColumn.of("razon_social", ClienteBusquedaDTO::getRazonSocial),
+            ExportColumn.of("rfc", ClienteBusquedaDTO::getRfc),
+            ExportColumn.of("email", ClienteBusquedaDTO::getEmail),
+            ExportColumn.of("telefono", ClienteBusquedaDTO::getTelefono),
+            ExportColumn.of("tipo", ClienteBusquedaDTO::getTipo),
+            ExportColumn.of("status", ClienteBusquedaDTO::getStatus),
+            ExportColumn.of("segmento", ClienteBusquedaDTO::getSegmento),
+            ExportColumn.of("fuente", ClienteBusquedaDTO::getFuente),
+            ExportColumn.of("propietario_id", ClienteBusquedaDTO::getPropietarioId),
+            ExportColumn.of("created_at", ClienteBusquedaDTO::getCreatedAt),
+            ExportColumn.of("updated_at", ClienteBusquedaDTO::getUpdatedAt));
+
+    private final ClienteBusquedaRepository clienteBusquedaRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Page<ClienteBusquedaDTO> buscar(String termino, Pageable pageable) {
+        String normalizado = termino != null ? termino.trim() : "";
+        if (normalizado.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        log.debug("Buscando clientes con término: {} - página: {}", normalizado, pageable.getPageNumber());
+        List<ClienteBusquedaDTO> clientes = clienteBusquedaRepository.buscar(
+                normalizado, pageable.getOffset(), pageable.getPageSize());
+
+        // Evita el COUNT cuando la página ya indica el total
+        if (pageable.getOffset() == 0 && clientes.size() < pageable.getPageSize()) {
+            return new PageImpl<>(clientes, pageable, clientes.size());
+        }
+        return new PageImpl<>(clientes, pageable, clienteBusquedaRepository.contar(normalizado));
+    }
+
+    @Override
+    public CursorSlice<ClienteBusquedaDTO> listarPorCursor(String cursor, int size, boolean incluirTotal) {
+        KeysetCursor posicion = KeysetCursor.decode(cursor);
+        Pageable pageable = CursorSlice.pageRequest(size);
+        log.debug("Listando clientes por cursor - tamaño: {}", pageable.getPageSize());
+
+        // Se pide una fila de más para saber si hay página siguiente sin COUNT
+        List<ClienteBusquedaDTO> clientes = posicion == null
+                ? clienteBusquedaRepository.listarDesde(null, null, pageable.getPageSize() + 1)
+                : clienteBusquedaRepository.listarDesde(
+                        posicion.getCreatedAt(), posicion.getId(), pageable.getPageSize() + 1);
+
+        boolean hasNext = clientes.size() > pageable.getPageSize();
+        List<ClienteBusquedaDTO> pagina = hasNext ? clientes.subList(0, pageable.getPageSize()) : clientes;
+
+        return CursorSlice.of(new SliceImpl<>(pagina, pageable, hasNext), cliente -> cliente,
+                cliente -> KeysetCursor.of(cliente.getCreatedAt(), cliente.getId()),
+                incluirTotal ? clienteBusquedaRepository.contarActivos() : null);
+    }
+
+    @Override
+    public long exportar(ClienteExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException {
+        log.info("Exportando clientes en formato {} - filtros: {}", formato, filtro);
+        RowStreamWriter<ClienteBusquedaDTO> writer =
+                new RowStreamWriter<>(formato, COLUMNAS_EXPORTACION, objectMapper, salida);
+        writer.writeHeader();
+
+        try (Stream<ClienteBusquedaDTO> clientes = clienteBusquedaRepository.streamParaExportar(filtro)) {
+            Iterator<ClienteBusquedaDTO> iterator = clientes.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+
+        long total = writer.finish();
+        log.info("Exportación de clientes completada: {} registros", total);
+        return total;
+    }
+}
@@ -1,24 +1,59 @@
 package com.pagodirecto.clientes.application.service.impl;
 
-import com.pagodirecto.clientes.application.dto.ClienteDTO;
+import com.pagodirecto.clientes.application.dto.ImportacionJobDTO;
+import com.pagodirecto.clientes.application.dto.ImportacionLineaDTO;
 import com.pagodirecto.clientes.application.dto.ImportacionResultDTO;
-import com.pagodirecto.clientes.application.mapper.ClienteMapper;
 import com.pagodirecto.clientes.application.service.ClienteImportacionService;
-import com.pagodirecto.clientes.domain.Cliente;
-import com.pagodirecto.clientes.domain.ClienteStatus;
-import com.pagodirecto.clientes.domain.ClienteTipo;
-import com.pagodirecto.clientes.infrastructure.repository.ClienteRepository;
-import lombok.RequiredArgsConstructor;
+import com.pagodirecto.clientes.application.service.CodigoClienteService;
+import com.pagodirecto.clientes.domain.ImportacionCliente;
+import com.pagodirecto.clientes.domain.ImportacionStatus;
+import com.pagodirecto.clientes.infrastructure.repository.ClienteImportacionRepository;
+import com.pagodirecto.clientes.infrastructure.repository.ClienteImportacionRepository.ClienteImportado;
+import com.pagodirecto.clientes.infrastructure.repository.ClienteImportacionRepository.ResultadoLinea;
+import com.pagodirecto.clientes.infrastructure.repository.ImportacionClienteRepository;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.exception.EntityNotFoundException;
+import com.pagodirecto.core.metrics.MetricNames;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementación: ClienteImportacionService
@@ -26,148 +61,532 @@ import java.util.UUID;
  * Servicio para importación masiva de clientes desde archivos CSV.
  * Genera códigos únicos automáticamente y aplica configuraciones para empresas venezolanas.
  *
+ * Cada importación es un job (clientes_importaciones): el archivo se guarda en
+ * app.clientes.importacion.directorio y se procesa en el executor de importaciones.
+ * Las líneas se procesan en bloques de app.clientes.importacion.batch-size; cada
+ * bloque confirma en una sola transacción sus clientes, el resultado por línea y
+ * el progreso del job, de modo que un job fallido se reanuda desde el último bloque.
+ *
+ * Los nombres existentes del tenant se cargan una sola vez en memoria y los
+ * códigos los asigna {@link CodigoClienteService} por bloques, sin consultar la
+ * base por cada fila.
+ *
+ * Métricas: pagodirecto.clientes.importacion.job (por ejecución, con outcome),
+ * pagodirecto.clientes.importacion.bloque (validación y commit de cada bloque) y
+ * pagodirecto.clientes.importacion.lineas (líneas por outcome: creado / fallido).
+ *
  * @author PagoDirecto CRM Team
  * @version 1.0
  * @since 2025-10-13
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ClienteImportacionServiceImpl implements ClienteImportacionService {
 
-    private final ClienteRepository clienteRepository;
-    private final ClienteMapper clienteMapper;
+    private static final String FUENTE = "IMPORTACION_CSV";
+
+    /**
+     * Reintentos del bloque cuando otra importación concurrente toma algún código asignado
+     */
+    private static final int MAX_REINTENTOS_CODIGO = 3;
+
+    /**
+     * Errores incluidos en la respuesta de la importación síncrona
+     */
+    private static final int MAX_ERRORES_RESPUESTA = 1000;
+
+    /**
+     * Sólo un job en proceso puede quedar abandonado: uno PENDIENTE puede seguir
+     * esperando en la cola del executor
+     */
+    private static final Set<ImportacionStatus> STATUS_EN_PROCESO = EnumSet.of(ImportacionStatus.EN_PROCESO);
+
+    private final ClienteImportacionRepository clienteImportacionRepository;
+    private final ImportacionClienteRepository importacionClienteRepository;
+    private final CodigoClienteService codigoClienteService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RLSContextManager rlsContextManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor importacionExecutor;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final Duration inactividadMaxima;
+    private final MeterRegistry meterRegistry;
+    private final Timer bloqueTimer;
+    private final Counter lineasCreadas;
+    private final Counter lineasFallidas;
+
+    public ClienteImportacionServiceImpl(ClienteImportacionRepository clienteImportacionRepository,
+                                         ImportacionClienteRepository importacionClienteRepository,
+                                         CodigoClienteService codigoClienteService,
+                                         ApplicationEventPublisher eventPublisher,
+                                         RLSContextManager rlsContextManager,
+                                         PlatformTransactionManager transactionManager,
+                                         @Qualifier("clientesImportacionExecutor") TaskExecutor importacionExecutor,
+                                         @Value("${app.clientes.importacion.directorio:${java.io.tmpdir}/pagodirecto-importaciones}") Path directorio,
+                                         @Value("${app.clientes.importacion.batch-size:1000}") int tamanoLote,
+                                         @Value("${app.clientes.importacion.inactividad-maxima:PT10M}") Duration inactividadMaxima,
+                                         MeterRegistry meterRegistry) {
+        this.clienteImportacionRepository = clienteImportacionRepository;
+        this.importacionClienteRepository = importacionClienteRepository;
+        this.codigoClienteService = codigoClienteService;
+        this.eventPublisher = eventPublisher;
+        this.rlsContextManager = rlsContextManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importacionExecutor = importacionExecutor;
+        this.directorio = directorio;
+        this.tamanoLote = tamanoLote;
+        this.inactividadMaxima = inactividadMaxima;
+        this.meterRegistry = meterRegistry;
+        this.bloqueTimer = Timer.builder(MetricNames.IMPORT_BLOCK)
+                .description("Validación y commit de un bloque de la importación de clientes")
+                .register(meterRegistry);
+        this.lineasCreadas = lineas(meterRegistry, "creado");
+        this.lineasFallidas = lineas(meterRegistry, "fallido");
+    }
+
+    @Override
+    public ImportacionJobDTO iniciarImportacion(MultipartFile file, UUID unidadNegocioId, UUID usuarioId) {
+        ImportacionCliente importacion = registrar(file, unidadNegocioId, usuarioId);
+        encolar(importacion.getId());
+        return toDTO(importacion);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImportacionJobDTO obtenerImportacion(UUID importacionId) {
+        return toDTO(buscar(importacionId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ImportacionLineaDTO> obtenerResultados(UUID importacionId, boolean soloErrores, Pageable pageable) {
+        buscar(importacionId);
+
+        List<ImportacionLineaDTO> contenido = clienteImportacionRepository
+                .findResultados(importacionId, soloErrores, pageable.getOffset(), pageable.getPageSize())
+                .stream()
+                .map(this::toDTO)
+                .toList();
+        long total = clienteImportacionRepository.contarResultados(importacionId, soloErrores);
+
+        return new PageImpl<>(contenido, pageable, total);
+    }
+
+    @Override
+    public ImportacionJobDTO reanudarImportacion(UUID importacionId) {
+        ImportacionCliente importacion = transactionTemplate.execute(status -> {
+            ImportacionCliente job = buscar(importacionId);
+            if (!job.isReanudable()) {
+                throw new IllegalStateException("La importación no puede reanudarse en estado " + job.getStatus());
+            }
+            if (!Files.exists(archivo(importacionId))) {
+                throw new IllegalStateException("El archivo de la importación ya no está disponible");
+            }
+            job.setStatus(ImportacionStatus.PENDIENTE);
+            return job;
+        });
+
+        log.info("Reanudando importación {} desde la línea {}", importacionId, importacion.getUltimaLineaConfirmada() + 1);
+        encolar(importacionId);
+        return toDTO(importacion);
+    }
 
     @Override
-    @Transactional
+    @Deprecated
     public ImportacionResultDTO importarDesdeCSV(MultipartFile file, UUID unidadNegocioId, UUID usuarioId) {
         log.info("Iniciando importación de clientes desde CSV - usuario: {}", usuarioId);
 
-        ImportacionResultDTO resultado = ImportacionResultDTO.builder()
-                .totalRegistros(0)
-                .registrosExitosos(0)
-                .registrosConErrores(0)
-                .build();
+        if (file.isEmpty()) {
+            return ImportacionResultDTO.builder()
+                    .mensaje("El archivo está vacío")
+                    .build();
+        }
+
+        UUID importacionId = registrar(file, unidadNegocioId, usuarioId).getId();
+        procesar(importacionId);
+
+        return transactionTemplate.execute(status -> {
+            ImportacionCliente importacion = buscar(importacionId);
+            List<String> errores = clienteImportacionRepository
+                    .findResultados(importacionId, true, 0, MAX_ERRORES_RESPUESTA)
+                    .stream()
+                    .map(resultado -> "Línea " + resultado.linea() + ": " + resultado.error())
+                    .toList();
+
+            return ImportacionResultDTO.builder()
+                    .totalRegistros(importacion.getTotalRegistros())
+                    .registrosExitosos(importacion.getRegistrosExitosos())
+                    .registrosConErrores(importacion.getRegistrosConErrores())
+                    .errores(new ArrayList<>(errores))
+                    .mensaje(importacion.getMensaje())
+                    .build();
+        });
+    }
+
+    /**
+     * Marca como fallidas las importaciones sin progreso reciente
+     *
+     * Un job EN_PROCESO queda abandonado si el nodo que lo procesaba se detuvo; al
+     * marcarlo como FALLIDA el usuario puede reanudarlo. Los jobs PENDIENTE no se
+     * tocan: pueden estar todavía en la cola del executor.
+     */
+    @Scheduled(fixedDelayString = "${app.clientes.importacion.recovery-interval:PT5M}")
+    public void recuperarInterrumpidas() {
+        Instant limite = Instant.now().minus(inactividadMaxima);
+        rlsContextManager.runAsSystem(() -> transactionTemplate.execute(status -> {
+            List<ImportacionCliente> abandonadas =
+                    importacionClienteRepository.findByStatusInAndUpdatedAtBefore(STATUS_EN_PROCESO, limite);
+            for (ImportacionCliente importacion : abandonadas) {
+                importacion.fallar(String.format(
+                        "Importación interrumpida; puede reanudarse desde la línea %d",
+                        importacion.getUltimaLineaConfirmada() + 1));
+                log.warn("Importación {} marcada como interrumpida", importacion.getId());
+            }
+            return abandonadas.size();
+        }));
+    }
 
+    private ImportacionCliente registrar(MultipartFile file, UUID unidadNegocioId, UUID usuarioId) {
         if (file.isEmpty()) {
-            resultado.setMensaje("El archivo está vacío");
-            return resultado;
+            throw new IllegalArgumentException("El archivo está vacío");
         }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+        ImportacionCliente importacion = transactionTemplate.execute(status ->
+                importacionClienteRepository.save(ImportacionCliente.builder()
+                        .unidadNegocioId(unidadNegocioId)
+                        .usuarioId(usuarioId)
+                        .nombreArchivo(file.getOriginalFilename())
+                        .build()));
 
-            String linea;
-            int numeroLinea = 0;
+        try (InputStream contenido = file.getInputStream()) {
+            Files.createDirectories(directorio);
+            Files.copy(contenido, archivo(importacion.getId()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Error guardando archivo de importación {}: {}", importacion.getId(), e.getMessage(), e);
+            finalizar(importacion.getId(), job -> job.fallar("Error guardando el archivo: " + e.getMessage()));
+            throw new RuntimeException("No se pudo guardar el archivo de importación", e);
+        }
 
-            while ((linea = reader.readLine()) != null) {
-                numeroLinea++;
-                resultado.setTotalRegistros(numeroLinea);
+        log.info("Importación {} registrada: archivo {}", importacion.getId(), file.getOriginalFilename());
+        return importacion;
+    }
 
-                // Ignorar líneas vacías
-                if (linea.trim().isEmpty()) {
-                    continue;
-                }
+    private void encolar(UUID importacionId) {
+        Supplier<Void> tarea = rlsContextManager.propagate(() -> {
+            procesar(importacionId);
+            return null;
+        });
+        try {
+            importacionExecutor.execute(tarea::get);
+        } catch (TaskRejectedException e) {
+            finalizar(importacionId, job -> job.fallar("Cola de importaciones llena; intente reanudar más tarde"));
+            throw new IllegalStateException("Cola de importaciones llena", e);
+        }
+    }
 
-                // Procesar la línea como nombre de empresa
-                try {
-                    String nombreEmpresa = linea.trim();
+    /**
+     * Procesa el archivo de un job desde la línea siguiente a la última confirmada
+     *
+     * El job se reclama con un UPDATE condicional; si otra tarea ya lo tomó (p. ej.
+     * una reanudación mientras la tarea original seguía en la cola) no se procesa.
+     */
+    private void procesar(UUID importacionId) {
+        long inicio = System.nanoTime();
+        String outcome = MetricNames.OUTCOME_ERROR;
+        ImportacionCliente importacion = transactionTemplate.execute(status ->
+                clienteImportacionRepository.reclamar(importacionId) ? buscar(importacionId) : null);
+        if (importacion == null) {
+            log.warn("Importación {} ya en proceso o terminada; se descarta esta ejecución", importacionId);
+            return;
+        }
+        UUID unidadNegocioId = importacion.getUnidadNegocioId();
+        Progreso progreso = new Progreso(importacion);
+
+        try {
+            Set<String> nombresExistentes = transactionTemplate.execute(status ->
+                    clienteImportacionRepository.findNombres(unidadNegocioId));
+            Map<String, Integer> nombresEnArchivo = new HashMap<>();
+            List<Linea> bloque = new ArrayList<>(tamanoLote);
 
-                    // Validar que el nombre no esté duplicado
-                    if (clienteRepository.existsByNombreAndUnidadNegocioId(nombreEmpresa, unidadNegocioId)) {
-                        resultado.agregarError(numeroLinea, "Cliente duplicado: " + nombreEmpresa);
+            try (BufferedReader reader = Files.newBufferedReader(archivo(importacionId), StandardCharsets.UTF_8)) {
+                String linea;
+                int numeroLinea = 0;
+
+                while ((linea = reader.readLine()) != null) {
+                    numeroLinea++;
+                    // Líneas ya confirmadas en una ejecución anterior
+                    if (numeroLinea <= progreso.ultimaLinea) {
                         continue;
                     }
 
-                    // Generar código único
-                    String codigo = generarCodigoUnico(nombreEmpresa);
-
-                    // Crear el cliente
-                    Cliente cliente = Cliente.builder()
-                            .unidadNegocioId(unidadNegocioId)
-                            .codigo(codigo)
-                            .nombre(nombreEmpresa)
-                            .razonSocial(nombreEmpresa)
-                            .tipo(ClienteTipo.EMPRESA)
-                            .status(ClienteStatus.ACTIVE)
-                            .fuente("IMPORTACION_CSV")
-                            .createdBy(usuarioId)
-                            .updatedBy(usuarioId)
-                            .createdAt(Instant.now())
-                            .updatedAt(Instant.now())
-                            .build();
-
-                    cliente = clienteRepository.save(cliente);
-
-                    ClienteDTO clienteDTO = clienteMapper.toDTO(cliente);
-                    resultado.agregarClienteCreado(clienteDTO);
-
-                    log.debug("Cliente creado exitosamente: {} (código: {})", nombreEmpresa, codigo);
-
-                } catch (Exception e) {
-                    log.error("Error procesando línea {}: {}", numeroLinea, e.getMessage(), e);
-                    resultado.agregarError(numeroLinea, "Error: " + e.getMessage());
+                    bloque.add(new Linea(numeroLinea, linea.trim()));
+                    if (bloque.size() >= tamanoLote) {
+                        procesarBloque(importacion, bloque, nombresExistentes, nombresEnArchivo, progreso);
+                        bloque.clear();
+                    }
                 }
             }
-
-            // Generar mensaje de resumen
-            if (resultado.isExitoCompleto()) {
-                resultado.setMensaje(String.format(
-                        "Importación exitosa: %d clientes creados",
-                        resultado.getRegistrosExitosos()
-                ));
-            } else if (resultado.getRegistrosExitosos() > 0) {
-                resultado.setMensaje(String.format(
-                        "Importación parcial: %d exitosos, %d con errores",
-                        resultado.getRegistrosExitosos(),
-                        resultado.getRegistrosConErrores()
-                ));
-            } else {
-                resultado.setMensaje("Importación fallida: no se pudo crear ningún cliente");
+            if (!bloque.isEmpty()) {
+                procesarBloque(importacion, bloque, nombresExistentes, nombresEnArchivo, progreso);
             }
 
-            log.info("Importación completada - Total: {}, Exitosos: {}, Errores: {}",
-                    resultado.getTotalRegistros(),
-                    resultado.getRegistrosExitosos(),
-                    resultado.getRegistrosConErrores());
+            String mensaje = generarMensaje(progreso);
+            finalizar(importacionId, job -> job.completar(mensaje));
+            Files.deleteIfExists(archivo(importacionId));
+            outcome = MetricNames.OUTCOME_SUCCESS;
+
+            long duracionMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+            log.info("Importación {} completada - Total: {}, Exitosos: {}, Errores: {}, Duración: {} ms ({} filas/s)",
+                    importacionId, progreso.total, progreso.exitosos, progreso.errores,
+                    duracionMs, (progreso.total - importacion.getUltimaLineaConfirmada()) * 1000L / duracionMs);
 
         } catch (Exception e) {
-            log.error("Error leyendo archivo CSV: {}", e.getMessage(), e);
-            resultado.setMensaje("Error leyendo el archivo: " + e.getMessage());
+            log.error("Error en importación {} tras la línea {}: {}",
+                    importacionId, progreso.ultimaLinea, e.getMessage(), e);
+            finalizar(importacionId, job -> job.fallar(String.format(
+                    "Error: %s. Puede reanudarse desde la línea %d", e.getMessage(), progreso.ultimaLinea + 1)));
+        } finally {
+            Timer.builder(MetricNames.IMPORT_JOB)
+                    .description("Ejecución completa (o reanudación) de una importación de clientes")
+                    .tag(MetricNames.TAG_OUTCOME, outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Valida un bloque de líneas y confirma en una sola transacción sus clientes,
+     * sus resultados y el progreso del job
+     */
+    private void procesarBloque(ImportacionCliente importacion, List<Linea> bloque, Set<String> nombresExistentes,
+                                Map<String, Integer> nombresEnArchivo, Progreso progreso) {
+        long inicio = System.nanoTime();
+        List<ResultadoLinea> resultados = new ArrayList<>(bloque.size());
+        List<FilaPendiente> pendientes = new ArrayList<>(bloque.size());
+
+        for (Linea linea : bloque) {
+            // Ignorar líneas vacías
+            if (linea.nombre().isEmpty()) {
+                continue;
+            }
+
+            // Validar que el nombre no esté duplicado en la base ni en el propio archivo
+            String nombreEmpresa = linea.nombre();
+            if (nombresExistentes.contains(nombreEmpresa)) {
+                resultados.add(ResultadoLinea.fallido(linea.numero(), nombreEmpresa,
+                        "Cliente duplicado: " + nombreEmpresa));
+                continue;
+            }
+            Integer lineaPrevia = nombresEnArchivo.putIfAbsent(nombreEmpresa, linea.numero());
+            if (lineaPrevia != null) {
+                resultados.add(ResultadoLinea.fallido(linea.numero(), nombreEmpresa,
+                        "Cliente duplicado en el archivo (línea " + lineaPrevia + "): " + nombreEmpresa));
+                continue;
+            }
+
+            try {
+                pendientes.add(new FilaPendiente(linea.numero(), nombreEmpresa, codigoClienteService.siguienteCodigo(importacion.getUnidadNegocioId(), nombreEmpresa)));
+            } catch (IllegalStateException e) {
+                resultados.add(ResultadoLinea.fallido(linea.numero(), nombreEmpresa, "Error: " + e.getMessage()));
+            }
+        }
+
+        int ultimaLinea = bloque.get(bloque.size() - 1).numero();
+        int creados;
+        List<ResultadoLinea> confirmados;
+        for (int intento = 0; ; intento++) {
+            boolean ultimoIntento = intento == MAX_REINTENTOS_CODIGO;
+            List<FilaPendiente> filas = pendientes;
+            List<ResultadoLinea> resultadosIntento = new ArrayList<>(resultados);
+            Insercion insercion = transactionTemplate.execute(status -> {
+                Insercion resultado = insertarClientes(filas, importacion, resultadosIntento, ultimoIntento);
+                if (!resultado.conflictos().isEmpty()) {
+                    // Se deshace el bloque: los códigos nuevos se reservan sin una transacción abierta
+                    status.setRollbackOnly();
+                    return resultado;
+                }
+                clienteImportacionRepository.insertarResultados(
+                        importacion.getId(), importacion.getUnidadNegocioId(), resultadosIntento);
+                clienteImportacionRepository.actualizarProgreso(importacion.getId(), ultimaLinea,
+                        progreso.exitosos + resultado.insertados(),
+                        progreso.errores + resultadosIntento.size() - resultado.insertados(), ultimaLinea);
+                return resultado;
+            });
+            if (insercion.conflictos().isEmpty()) {
+                creados = insercion.insertados();
+                confirmados = resultadosIntento;
+                break;
+            }
+            pendientes = reasignarCodigos(pendientes, insercion.conflictos(), importacion, resultados);
         }
 
-        return resultado;
+        progreso.avanzar(ultimaLinea, creados, confirmados.size() - creados);
+        bloqueTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        lineasCreadas.increment(creados);
+        lineasFallidas.increment(confirmados.size() - creados);
+        if (creados > 0) {
+            eventPublisher.publishEvent(new TenantDataChangedEvent("clientes", importacion.getUnidadNegocioId()));
+        }
+        log.debug("Importación {}: bloque hasta la línea {} confirmado ({} clientes)",
+                importacion.getId(), ultimaLinea, creados);
     }
 
     /**
-     * Genera un código único para el cliente basado en el nombre
-     * Formato: CLI-{PREFIJO}-{TIMESTAMP}
+     * Inserta las filas válidas de un bloque y registra sus resultados
      *
-     * @param nombreEmpresa nombre de la empresa
-     * @return código único generado
+     * Las filas cuyo código ya existía (p. ej. asignado manualmente o tomado por
+     * otra importación) se devuelven como conflictos para reintentarlas con otro
+     * código, salvo en el último intento, en el que quedan como fallidas.
      */
-    private String generarCodigoUnico(String nombreEmpresa) {
-        // Extraer primeras 3 letras del nombre (sin espacios ni caracteres especiales)
-        String prefijo = nombreEmpresa.replaceAll("[^A-Za-z]", "").toUpperCase();
-        if (prefijo.length() > 3) {
-            prefijo = prefijo.substring(0, 3);
-        } else if (prefijo.length() < 3) {
-            prefijo = String.format("%-3s", prefijo).replace(' ', 'X');
+    private Insercion insertarClientes(List<FilaPendiente> filas, ImportacionCliente importacion,
+                                       List<ResultadoLinea> resultados, boolean ultimoIntento) {
+        if (filas.isEmpty()) {
+            return new Insercion(0, List.of());
         }
+        List<ClienteImportado> clientes = filas.stream()
+                .map(fila -> new ClienteImportado(UUID.randomUUID(), fila.codigo(), fila.nombre()))
+                .toList();
+        boolean[] resultadoInsert = clienteImportacionRepository.insertarLote(
+                clientes, importacion.getUnidadNegocioId(), importacion.getUsuarioId(), FUENTE);
 
-        // Agregar timestamp para garantizar unicidad
-        long timestamp = System.currentTimeMillis() % 100000; // Últimos 5 dígitos
+        int insertados = 0;
+        List<FilaPendiente> conflictos = new ArrayList<>();
+        for (int i = 0; i < resultadoInsert.length; i++) {
+            FilaPendiente fila = filas.get(i);
+            if (resultadoInsert[i]) {
+                resultados.add(ResultadoLinea.creado(fila.linea(), clientes.get(i)));
+                insertados++;
+            } else if (!ultimoIntento) {
+                conflictos.add(fila);
+            } else {
+                resultados.add(ResultadoLinea.fallido(fila.linea(), fila.nombre(),
+                        "No se pudo asignar un código único: " + fila.nombre()));
+            }
+        }
+        return new Insercion(insertados, conflictos);
+    }
 
-        String codigo = String.format("CLI-%s-%05d", prefijo, timestamp);
+    /**
+     * Asigna un código nuevo a las filas en conflicto, fuera de la transacción del
+     * bloque: si el asignador tiene que reservar otro rango no retiene una segunda
+     * conexión mientras la del bloque sigue abierta
+     *
+     * @return las filas del bloque, con los códigos de los conflictos reemplazados;
+     *         las que no reciben código quedan en resultados como fallidas
+     */
+    private List<FilaPendiente> reasignarCodigos(List<FilaPendiente> filas, List<FilaPendiente> conflictos,
+                                                 ImportacionCliente importacion, List<ResultadoLinea> resultados) {
+        Set<Integer> enConflicto = new HashSet<>();
+        conflictos.forEach(fila -> enConflicto.add(fila.linea()));
 
-        // Verificar que no exista (muy improbable pero por seguridad)
-        int intentos = 0;
-        while (clienteRepository.existsByCodigo(codigo) && intentos < 10) {
-            timestamp = (timestamp + 1) % 100000;
-            codigo = String.format("CLI-%s-%05d", prefijo, timestamp);
-            intentos++;
+        List<FilaPendiente> reasignadas = new ArrayList<>(filas.size());
+        for (FilaPendiente fila : filas) {
+            if (!enConflicto.contains(fila.linea())) {
+                reasignadas.add(fila);
+                continue;
+            }
+            try {
+                reasignadas.add(new FilaPendiente(fila.linea(), fila.nombre(),
+                        codigoClienteService.siguienteCodigo(importacion.getUnidadNegocioId(), fila.nombre())));
+            } catch (IllegalStateException e) {
+                resultados.add(ResultadoLinea.fallido(fila.linea(), fila.nombre(), "Error: " + e.getMessage()));
+            }
         }
+        return reasignadas;
+    }
 
-        return codigo;
+    private static Counter lineas(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(MetricNames.IMPORT_LINES)
+                .description("Líneas procesadas por la importación de clientes")
+                .tag(MetricNames.TAG_OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+
+    private String generarMensaje(Progreso progreso) {
+        if (progreso.errores == 0 && progreso.exitosos > 0) {
+            return String.format("Importación exitosa: %d clientes creados", progreso.exitosos);
+        } else if (progreso.exitosos > 0) {
+            return String.format("Importación parcial: %d exitosos, %d con errores",
+                    progreso.exitosos, progreso.errores);
+        }
+        return "Importación fallida: no se pudo crear ningún cliente";
+    }
+
+    private void finalizar(UUID importacionId, Consumer<ImportacionCliente> cambio) {
+        transactionTemplate.executeWithoutResult(status -> cambio.accept(buscar(importacionId)));
+    }
+
+    private ImportacionCliente buscar(UUID importacionId) {
+        return importacionClienteRepository.findById(importacionId)
+                .orElseThrow(() -> new EntityNotFoundException("ImportacionCliente", importacionId));
+    }
+
+    private Path archivo(UUID importacionId) {
+        return directorio.resolve(importacionId + ".csv");
+    }
+
+    private ImportacionJobDTO toDTO(ImportacionCliente importacion) {
+        return ImportacionJobDTO.builder()
+                .id(importacion.getId())
+                .status(importacion.getStatus())
+                .nombreArchivo(importacion.getNombreArchivo())
+                .totalRegistros(importacion.getTotalRegistros())
+                .registrosExitosos(importacion.getRegistrosExitosos())
+                .registrosConErrores(importacion.getRegistrosConErrores())
+                .ultimaLineaConfirmada(importacion.getUltimaLineaConfirmada())
+                .mensaje(importacion.getMensaje())
+                .createdAt(importacion.getCreatedAt())
+                .updatedAt(importacion.getUpdatedAt())
+                .finishedAt(importacion.getFinishedAt())
+                .build();
+    }
+
+    private ImportacionLineaDTO toDTO(ResultadoLinea resultado) {
+        return ImportacionLineaDTO.builder()
+                .linea(resultado.linea())
+                .exitoso(resultado.error() == null)
+                .clienteId(resultado.clienteId())
+                .codigo(resultado.codigo())
+                .nombre(resultado.nombre())
+                .error(resultado.error())
+                .build();
+    }
+
+    private record Linea(int numero, String nombre) {
+    }
+
+    private record FilaPendiente(int linea, String nombre, String codigo) {
+    }
+
+    /**
+     * Resultado de un intento de inserción: conflictos vacío si el bloque puede confirmarse
+     */
+    private record Insercion(int insertados, List<FilaPendiente> conflictos) {
+    }
+
+    /**
+     * Contadores confirmados del job; sólo avanzan tras el commit de cada bloque
+     */
+    private static final class Progreso {
+
+        private int ultimaLinea;
+        private int total;
+        private int exitosos;
+        private int errores;
+
+        Progreso(ImportacionCliente importacion) {
+            this.ultimaLinea = importacion.getUltimaLineaConfirmada();
+            this.total = importacion.getTotalRegistros();
+            this.exitosos = importacion.getRegistrosExitosos();
+            this.errores = importacion.getRegistrosConErrores();
+        }
+
+        void avanzar(int ultimaLinea, int exitosos, int errores) {
+            this.ultimaLinea = ultimaLinea;
+            this.total = ultimaLinea;
+            this.exitosos += exitosos;
+            this.errores += errores;
+        }
     }
 }
@@ -5,14 +5,20 @@ import com.pagodirecto.clientes.application.mapper.ClienteMapper;
 import com.pagodirecto.clientes.application.service.ClienteService;
 import com.pagodirecto.clientes.domain.Cliente;
 import com.pagodirecto.clientes.infrastructure.repository.ClienteRepository;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.core.outbox.OutboxWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Set;
 
 /**
  * Implementación del servicio: Cliente
@@ -31,6 +37,8 @@ public class ClienteServiceImpl implements ClienteService {
 
     private final ClienteRepository clienteRepository;
     private final ClienteMapper clienteMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Override
     @Transactional
@@ -49,9 +57,11 @@ public class ClienteServiceImpl implements ClienteService {
         cliente.setUpdatedAt(Instant.now());
 
         Cliente clienteGuardado = clienteRepository.save(cliente);
+        ClienteDTO resultado = clienteMapper.toDTO(clienteGuardado);
+        publicarCambio(OutboxEvent.CREADO, clienteGuardado.getId(), resultado);
         log.info("Cliente creado exitosamente con ID: {}", clienteGuardado.getId());
 
-        return clienteMapper.toDTO(clienteGuardado);
+        return resultado;
     }
 
     @Override
@@ -74,9 +84,11 @@ public class ClienteServiceImpl implements ClienteService {
         cliente.setUpdatedAt(Instant.now());
 
         Cliente clienteActualizado = clienteRepository.save(cliente);
+        ClienteDTO resultado = clienteMapper.toDTO(clienteActualizado);
+        publicarCambio(OutboxEvent.ACTUALIZADO, id, resultado);
         log.info("Cliente actualizado exitosamente con ID: {}", clienteActualizado.getId());
 
-        return clienteMapper.toDTO(clienteActualizado);
+        return resultado;
     }
 
     @Override
@@ -101,13 +113,6 @@ public class ClienteServiceImpl implements ClienteService {
             .map(clienteMapper::toDTO);
     }
 
-    @Override
-    public Page<ClienteDTO> buscar(String searchTerm, Pageable pageable) {
-        log.debug("Buscando clientes con término: {} - página: {}", searchTerm, pageable.getPageNumber());
-        return clienteRepository.searchClientes(searchTerm, pageable)
-            .map(clienteMapper::toDTO);
-    }
-
     @Override
     @Transactional
     public void eliminar(Long id) {
@@ -115,6 +120,8 @@ public class ClienteServiceImpl implements ClienteService {
         Cliente cliente = clienteRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado con ID: " + id));
         clienteRepository.delete(cliente);
+        // El cliente deja de contar en el día en que se creó
+        publicarCambio(OutboxEvent.ELIMINADO, id, null, TenantDataChangedEvent.diasUtc(cliente.getCreatedAt()));
         log.info("Cliente eliminado exitosamente con ID: {}", id);
     }
 
@@ -129,9 +136,11 @@ public class ClienteServiceImpl implements ClienteService {
         cliente.setUpdatedBy(usuarioId);
 
         Cliente clienteActualizado = clienteRepository.save(cliente);
+        ClienteDTO resultado = clienteMapper.toDTO(clienteActualizado);
+        publicarCambio("ACTIVADO", id, resultado);
         log.info("Cliente activado exitosamente con ID: {}", id);
 
-        return clienteMapper.toDTO(clienteActualizado);
+        return resultado;
     }
 
     @Override
@@ -145,8 +154,27 @@ public class ClienteServiceImpl implements ClienteService {
         cliente.setUpdatedBy(usuarioId);
 
         Cliente clienteActualizado = clienteRepository.save(cliente);
+        ClienteDTO resultado = clienteMapper.toDTO(clienteActualizado);
+        publicarCambio("DESACTIVADO", id, resultado);
         log.info("Cliente desactivado exitosamente con ID: {}", id);
 
-        return clienteMapper.toDTO(clienteActualizado);
+        return resultado;
+    }
+
+    /**
+     * Registra el evento en el outbox, en la transacción del cambio, y notifica a
+     * las vistas derivadas (dashboard) tras el commit.
+     * Cliente no expone la unidad de negocio: se usa la del contexto RLS.
+     */
+    private void publicarCambio(String tipo, Long clienteId, ClienteDTO cliente) {
+        publicarCambio(tipo, clienteId, cliente, Set.of());
+    }
+
+    /**
+     * @param fechas días de los KPI alterados por el cambio, además del actual
+     */
+    private void publicarCambio(String tipo, Long clienteId, ClienteDTO cliente, Set<LocalDate> fechas) {
+        outboxWriter.registrar("clientes", clienteId, tipo, null, cliente);
+        eventPublisher.publishEvent(new TenantDataChangedEvent("clientes", null, fechas));
     }
 }
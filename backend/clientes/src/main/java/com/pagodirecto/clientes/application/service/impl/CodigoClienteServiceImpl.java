@@ -0,0 +1,98 @@
+package com.pagodirecto.clientes.application.service.impl;
+
+import com.pagodirecto.clientes.application.service.CodigoClienteService;
+import com.pagodirecto.clientes.infrastructure.repository.CodigoClienteSecuenciaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementación: CodigoClienteService
+ *
+ * Asignador hi-lo: cada nodo reserva bloques de app.clientes.codigos.block-size
+ * números por tenant y prefijo (una sentencia, en su propia transacción) y
+ * entrega los códigos del bloque desde memoria. Los números de un bloque no
+ * usado antes de reiniciar se pierden; los códigos no son consecutivos pero
+ * sí únicos entre nodos.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class CodigoClienteServiceImpl implements CodigoClienteService {
+
+    private final CodigoClienteSecuenciaRepository secuenciaRepository;
+    private final TransactionTemplate reservaTransaction;
+    private final int tamanoBloque;
+
+    private final ConcurrentMap<Clave, Bloque> bloques = new ConcurrentHashMap<>();
+
+    public CodigoClienteServiceImpl(CodigoClienteSecuenciaRepository secuenciaRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.clientes.codigos.block-size:100}") int tamanoBloque) {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("app.clientes.codigos.block-size debe ser mayor que cero");
+        }
+        this.secuenciaRepository = secuenciaRepository;
+        this.reservaTransaction = new TransactionTemplate(transactionManager);
+        // La reserva no debe deshacerse ni mantener el lock con la transacción del llamante
+        this.reservaTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    @Override
+    public String siguienteCodigo(UUID unidadNegocioId, String nombre) {
+        String prefijo = prefijo(nombre);
+        Clave clave = new Clave(unidadNegocioId, prefijo);
+        long numero = bloques.computeIfAbsent(clave, k -> new Bloque()).siguiente(clave);
+        return String.format("CLI-%s-%05d", prefijo, numero);
+    }
+
+    private long reservar(Clave clave) {
+        Long inicio = reservaTransaction.execute(status ->
+                secuenciaRepository.reservarBloque(clave.unidadNegocioId(), clave.prefijo(), tamanoBloque));
+        log.debug("Bloque de códigos reservado: tenant={}, prefijo={}, inicio={}, tamaño={}",
+                clave.unidadNegocioId(), clave.prefijo(), inicio, tamanoBloque);
+        return inicio;
+    }
+
+    /**
+     * Extrae las primeras 3 letras del nombre (sin espacios ni caracteres especiales)
+     */
+    private static String prefijo(String nombre) {
+        String prefijo = nombre.replaceAll("[^A-Za-z]", "").toUpperCase();
+        if (prefijo.length() > 3) {
+            return prefijo.substring(0, 3);
+        }
+        return String.format("%-3s", prefijo).replace(' ', 'X');
+    }
+
+    private record Clave(UUID unidadNegocioId, String prefijo) {
+    }
+
+    /**
+     * Rango [siguiente, limite) reservado por este nodo; sólo va a la base al agotarse
+     */
+    private final class Bloque {
+
+        private long siguiente;
+        private long limite;
+
+        synchronized long siguiente(Clave clave) {
+            if (siguiente >= limite) {
+                siguiente = reservar(clave);
+                limite = siguiente + tamanoBloque;
+            }
+            return siguiente++;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.pagodirecto.clientes.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entidad de dominio: ImportacionCliente
+ *
+ * Job de importación masiva de clientes desde un archivo CSV.
+ * Los contadores y la última línea confirmada se actualizan al confirmar cada bloque.
+ *
+ * Tabla: clientes_importaciones
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Entity
+@Table(name = "clientes_importaciones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionCliente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "unidad_negocio_id", nullable = false)
+    private UUID unidadNegocioId;
+
+    @Column(name = "usuario_id")
+    private UUID usuarioId;
+
+    @Column(name = "nombre_archivo", length = 255)
+    private String nombreArchivo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ImportacionStatus status = ImportacionStatus.PENDIENTE;
+
+    @Column(name = "total_registros", nullable = false)
+    private int totalRegistros;
+
+    @Column(name = "registros_exitosos", nullable = false)
+    private int registrosExitosos;
+
+    @Column(name = "registros_con_errores", nullable = false)
+    private int registrosConErrores;
+
+    @Column(name = "ultima_linea_confirmada", nullable = false)
+    private int ultimaLineaConfirmada;
+
+    @Column(name = "mensaje", columnDefinition = "TEXT")
+    private String mensaje;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    public boolean isReanudable() {
+        return ImportacionStatus.FALLIDA.equals(status);
+    }
+
+    public void iniciar() {
+        this.status = ImportacionStatus.EN_PROCESO;
+        this.mensaje = null;
+        this.finishedAt = null;
+        this.updatedAt = Instant.now();
+    }
+
+    public void completar(String mensaje) {
+        this.status = ImportacionStatus.COMPLETADA;
+        this.mensaje = mensaje;
+        this.finishedAt = Instant.now();
+        this.updatedAt = this.finishedAt;
+    }
+
+    public void fallar(String mensaje) {
+        this.status = ImportacionStatus.FALLIDA;
+        this.mensaje = mensaje;
+        this.finishedAt = Instant.now();
+        this.updatedAt = this.finishedAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = Instant.now();
+    }
+}
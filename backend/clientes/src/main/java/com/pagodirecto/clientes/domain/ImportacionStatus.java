@@ -0,0 +1,32 @@
+package com.pagodirecto.clientes.domain;
+
+/**
+ * Enumeración: Estado de una Importación
+ *
+ * Ciclo de vida de un job de importación de clientes.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public enum ImportacionStatus {
+    /**
+     * Registrada, esperando un thread del executor
+     */
+    PENDIENTE,
+
+    /**
+     * Procesando bloques del archivo
+     */
+    EN_PROCESO,
+
+    /**
+     * Archivo procesado por completo
+     */
+    COMPLETADA,
+
+    /**
+     * Interrumpida por un error; puede reanudarse desde el último bloque confirmado
+     */
+    FALLIDA
+}
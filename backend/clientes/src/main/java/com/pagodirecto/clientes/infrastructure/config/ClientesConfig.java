@@ -0,0 +1,40 @@
+package com.pagodirecto.clientes.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuración: ClientesConfig
+ *
+ * Infraestructura compartida del módulo de clientes.
+ * Habilita los jobs programados (recuperación de importaciones interrumpidas).
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Configuration
+@EnableScheduling
+public class ClientesConfig {
+
+    /**
+     * Executor para las importaciones CSV en segundo plano.
+     *
+     * Cada importación ocupa un thread y, mientras confirma un bloque, una conexión.
+     * Las que exceden la cola se rechazan y quedan como FALLIDA para reanudarse.
+     */
+    @Bean(name = "clientesImportacionExecutor")
+    public ThreadPoolTaskExecutor clientesImportacionExecutor(
+            @Value("${app.clientes.importacion.concurrencia:2}") int concurrencia,
+            @Value("${app.clientes.importacion.cola:50}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrencia);
+        executor.setMaxPoolSize(concurrencia);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("importacion-clientes-");
+        return executor;
+    }
+}
@@ -0,0 +1,201 @@
+package com.pagodirecto.clientes.infrastructure.repository;
+
+import com.pagodirecto.clientes.application.dto.ClienteBusquedaDTO;
+import com.pagodirecto.clientes.application.dto.ClienteExportFiltro;
+import com.pagodirecto.clientes.domain.ClienteStatus;
+import com.pagodirecto.clientes.domain.ClienteTipo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio: Búsqueda de Clientes
+ *
+ * Búsqueda por texto sobre clientes_clientes servida por el índice GIN de
+ * trigramas idx_clientes_clientes_busqueda_trgm (V16). El documento y el término
+ * se normalizan con las mismas funciones SQL, sin acentos ni mayúsculas.
+ *
+ * Coincide por subcadena (LIKE) o por similitud de palabra (operador <%), lo
+ * que tolera errores de tipeo; los resultados se ordenan por word_similarity.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClienteBusquedaRepository {
+
+    /**
+     * Debe coincidir exactamente con la expresión del índice para que el planner lo use
+     */
+    private static final String DOCUMENTO =
+            "clientes_busqueda_texto(c.nombre, c.razon_social, c.email, c.rfc, c.codigo)";
+
+    private static final String FROM_WHERE =
+            "FROM clientes_clientes c, " +
+            "(SELECT clientes_normalizar(?) AS q, '%' || clientes_normalizar(?) || '%' AS patron) t " +
+            "WHERE c.deleted_at IS NULL " +
+            "AND (" + DOCUMENTO + " LIKE t.patron OR t.q <% " + DOCUMENTO + ") ";
+
+    private static final String SQL_BUSCAR =
+            "SELECT c.id, c.unidad_negocio_id, c.codigo, c.nombre, c.email, c.telefono, c.tipo, c.rfc, " +
+            "c.razon_social, c.status, c.segmento, c.fuente, c.propietario_id, c.created_at, c.updated_at, " +
+            "word_similarity(t.q, " + DOCUMENTO + ") AS relevancia " +
+            FROM_WHERE +
+            "ORDER BY relevancia DESC, c.nombre, c.id LIMIT ? OFFSET ?";
+
+    private static final String SQL_CONTAR = "SELECT COUNT(*) " + FROM_WHERE;
+
+    private static final String SELECT_LISTADO =
+            "SELECT c.id, c.unidad_negocio_id, c.codigo, c.nombre, c.email, c.telefono, c.tipo, c.rfc, " +
+            "c.razon_social, c.status, c.segmento, c.fuente, c.propietario_id, c.created_at, c.updated_at, " +
+            "NULL::float8 AS relevancia " +
+            "FROM clientes_clientes c WHERE c.deleted_at IS NULL ";
+
+    private static final String ORDEN_LISTADO = "ORDER BY c.created_at DESC, c.id DESC LIMIT ?";
+
+    private static final String SQL_LISTAR_PRIMEROS = SELECT_LISTADO + ORDEN_LISTADO;
+
+    /**
+     * (created_at, id) < (?, ?) recorre el índice idx_clientes_clientes_keyset (V17) desde la posición
+     */
+    private static final String SQL_LISTAR_DESPUES =
+            SELECT_LISTADO + "AND (c.created_at, c.id) < (?, ?) " + ORDEN_LISTADO;
+
+    private static final String FILTRO_TEXTO =
+            "AND (" + DOCUMENTO + " LIKE '%' || clientes_normalizar(?) || '%' " +
+            "OR clientes_normalizar(?) <% " + DOCUMENTO + ") ";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SQL_CONTAR_ACTIVOS =
+            "SELECT COUNT(*) FROM clientes_clientes WHERE deleted_at IS NULL";
+
+    private static final RowMapper<ClienteBusquedaDTO> ROW_MAPPER = (rs, rowNum) -> ClienteBusquedaDTO.builder()
+            .id(rs.getObject("id", UUID.class))
+            .unidadNegocioId(rs.getObject("unidad_negocio_id", UUID.class))
+            .codigo(rs.getString("codigo"))
+            .nombre(rs.getString("nombre"))
+            .email(rs.getString("email"))
+            .telefono(rs.getString("telefono"))
+            .tipo(ClienteTipo.valueOf(rs.getString("tipo")))
+            .rfc(rs.getString("rfc"))
+            .razonSocial(rs.getString("razon_social"))
+            .status(ClienteStatus.valueOf(rs.getString("status")))
+            .segmento(rs.getString("segmento"))
+            .fuente(rs.getString("fuente"))
+            .propietarioId(rs.getObject("propietario_id", UUID.class))
+            .createdAt(toInstant(rs.getTimestamp("created_at")))
+            .updatedAt(toInstant(rs.getTimestamp("updated_at")))
+            .relevancia(rs.getObject("relevancia", Double.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Busca clientes por nombre, razón social, email, RFC o código
+     *
+     * @param termino término tal como lo escribió el usuario
+     * @param offset  filas a saltar
+     * @param limite  tamaño de página
+     * @return clientes ordenados por relevancia
+     */
+    public List<ClienteBusquedaDTO> buscar(String termino, long offset, int limite) {
+        return jdbcTemplate.query(SQL_BUSCAR, ROW_MAPPER, termino, escaparLike(termino), limite, offset);
+    }
+
+    /**
+     * Cuenta los clientes que coinciden con el término
+     */
+    public long contar(String termino) {
+        Long total = jdbcTemplate.queryForObject(SQL_CONTAR, Long.class, termino, escaparLike(termino));
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Lista clientes más recientes primero, a partir de una posición (keyset)
+     *
+     * @param createdAt fecha de creación del último cliente de la página anterior, o null
+     * @param id        id del último cliente de la página anterior, o null
+     * @param limite    filas a devolver
+     * @return clientes ordenados por created_at DESC, id DESC
+     */
+    public List<ClienteBusquedaDTO> listarDesde(Instant createdAt, UUID id, int limite) {
+        if (createdAt == null) {
+            return jdbcTemplate.query(SQL_LISTAR_PRIMEROS, ROW_MAPPER, limite);
+        }
+        return jdbcTemplate.query(SQL_LISTAR_DESPUES, ROW_MAPPER, Timestamp.from(createdAt), id, limite);
+    }
+
+    /**
+     * Recorre los clientes a exportar con un cursor del servidor (fetch size), más recientes primero
+     *
+     * Debe consumirse dentro de una transacción (PostgreSQL sólo usa cursor sin autocommit)
+     * y cerrarse al terminar. Los filtros nulos no aplican.
+     *
+     * @param filtro filtros opcionales
+     * @return stream perezoso de clientes
+     */
+    public Stream<ClienteBusquedaDTO> streamParaExportar(ClienteExportFiltro filtro) {
+        StringBuilder sql = new StringBuilder(SELECT_LISTADO);
+        List<Object> parametros = new ArrayList<>();
+        if (filtro.getStatus() != null) {
+            sql.append("AND c.status = ? ");
+            parametros.add(filtro.getStatus().name());
+        }
+        if (filtro.getTipo() != null) {
+            sql.append("AND c.tipo = ? ");
+            parametros.add(filtro.getTipo().name());
+        }
+        if (filtro.getPropietarioId() != null) {
+            sql.append("AND c.propietario_id = ? ");
+            parametros.add(filtro.getPropietarioId());
+        }
+        if (filtro.getSegmento() != null && !filtro.getSegmento().isBlank()) {
+            sql.append("AND c.segmento = ? ");
+            parametros.add(filtro.getSegmento().trim());
+        }
+        if (filtro.getQ() != null && !filtro.getQ().isBlank()) {
+            String termino = filtro.getQ().trim();
+            sql.append(FILTRO_TEXTO);
+            parametros.add(escaparLike(termino));
+            parametros.add(termino);
+        }
+        sql.append("ORDER BY c.created_at DESC, c.id DESC");
+
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < parametros.size(); i++) {
+                ps.setObject(i + 1, parametros.get(i));
+            }
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    /**
+     * Cuenta los clientes no eliminados
+     */
+    public long contarActivos() {
+        Long total = jdbcTemplate.queryForObject(SQL_CONTAR_ACTIVOS, Long.class);
+        return total != null ? total : 0L;
+    }
+
+    private static String escaparLike(String termino) {
+        return termino.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,238 @@
+package com.pagodirecto.clientes.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Repositorio: Importación de Clientes
+ *
+ * Acceso JDBC para la importación masiva sobre clientes_clientes: carga de
+ * los nombres existentes del tenant en una sola consulta e inserción de cada
+ * bloque en un único INSERT multi-fila. También registra el resultado por línea
+ * y el progreso de cada job (clientes_importaciones).
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClienteImportacionRepository {
+
+    private static final int FETCH_SIZE = 5000;
+
+    /**
+     * Un bloque en una sentencia (unnest de arreglos). ON CONFLICT sobre el índice
+     * único parcial uk_clientes_clientes_codigo omite los códigos ya existentes, y
+     * RETURNING id informa exactamente qué filas se insertaron: no depende de los
+     * conteos por fila de un batch, que con reWriteBatchedInserts el driver reporta
+     * como SUCCESS_NO_INFO. Ante un código repetido dentro del bloque gana la
+     * primera línea (ORDER BY orden).
+     */
+    private static final String SQL_INSERT =
+            "INSERT INTO clientes_clientes (id, unidad_negocio_id, codigo, nombre, razon_social, tipo, status, " +
+            "fuente, created_at, created_by, updated_at, updated_by) " +
+            "SELECT c.id, ?, c.codigo, c.nombre, c.nombre, 'EMPRESA', 'ACTIVE', ?, ?, ?::uuid, ?, ?::uuid " +
+            "FROM unnest(?::uuid[], ?::text[], ?::text[]) WITH ORDINALITY AS c(id, codigo, nombre, orden) " +
+            "ORDER BY c.orden " +
+            "ON CONFLICT (unidad_negocio_id, codigo) WHERE deleted_at IS NULL DO NOTHING " +
+            "RETURNING id";
+
+    private static final String SQL_INSERT_RESULTADO =
+            "INSERT INTO clientes_importaciones_resultados " +
+            "(importacion_id, linea, unidad_negocio_id, cliente_id, codigo, nombre, error) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (importacion_id, linea) DO NOTHING";
+
+    /**
+     * Sólo un job pendiente o fallido pasa a EN_PROCESO: de dos tareas encoladas
+     * para el mismo job, la segunda no lo reclama
+     */
+    private static final String SQL_RECLAMAR =
+            "UPDATE clientes_importaciones SET status = 'EN_PROCESO', mensaje = NULL, finished_at = NULL, " +
+            "updated_at = NOW() WHERE id = ? AND status IN ('PENDIENTE', 'FALLIDA')";
+
+    private static final String SQL_ACTUALIZAR_PROGRESO =
+            "UPDATE clientes_importaciones SET total_registros = ?, registros_exitosos = ?, " +
+            "registros_con_errores = ?, ultima_linea_confirmada = ?, updated_at = NOW() WHERE id = ?";
+
+    private static final String SQL_RESULTADOS =
+            "SELECT linea, cliente_id, codigo, nombre, error FROM clientes_importaciones_resultados " +
+            "WHERE importacion_id = ? %s ORDER BY linea LIMIT ? OFFSET ?";
+
+    private static final String SQL_CONTAR_RESULTADOS =
+            "SELECT COUNT(*) FROM clientes_importaciones_resultados WHERE importacion_id = ? %s";
+
+    private static final String FILTRO_ERRORES = "AND error IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtiene los nombres de los clientes activos de un tenant
+     *
+     * @param unidadNegocioId el tenant
+     * @return los nombres existentes
+     */
+    public Set<String> findNombres(UUID unidadNegocioId) {
+        return cargarColumna("SELECT nombre FROM clientes_clientes " +
+                "WHERE unidad_negocio_id = ? AND deleted_at IS NULL", unidadNegocioId);
+    }
+
+    /**
+     * Inserta un bloque de clientes en una única sentencia
+     *
+     * @param clientes        los clientes a insertar
+     * @param unidadNegocioId el tenant
+     * @param usuarioId       el usuario que importa
+     * @param fuente          valor de la columna fuente
+     * @return por cada cliente, true si se insertó o false si su código ya existía
+     */
+    public boolean[] insertarLote(List<ClienteImportado> clientes, UUID unidadNegocioId,
+                                  UUID usuarioId, String fuente) {
+        boolean[] insertados = new boolean[clientes.size()];
+        if (clientes.isEmpty()) {
+            return insertados;
+        }
+        Timestamp ahora = Timestamp.from(Instant.now());
+        Set<UUID> creados = new HashSet<>(clientes.size() * 2);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_INSERT);
+            ps.setObject(1, unidadNegocioId);
+            ps.setString(2, fuente);
+            ps.setTimestamp(3, ahora);
+            setUuid(ps, 4, usuarioId);
+            ps.setTimestamp(5, ahora);
+            setUuid(ps, 6, usuarioId);
+            ps.setArray(7, con.createArrayOf("uuid", clientes.stream().map(ClienteImportado::id).toArray()));
+            ps.setArray(8, con.createArrayOf("text", clientes.stream().map(ClienteImportado::codigo).toArray()));
+            ps.setArray(9, con.createArrayOf("text", clientes.stream().map(ClienteImportado::nombre).toArray()));
+            return ps;
+        }, rs -> {
+            creados.add(rs.getObject("id", UUID.class));
+        });
+
+        for (int i = 0; i < insertados.length; i++) {
+            insertados[i] = creados.contains(clientes.get(i).id());
+        }
+        return insertados;
+    }
+
+    /**
+     * Registra el resultado de un bloque de líneas
+     *
+     * @param importacionId   el job
+     * @param unidadNegocioId el tenant
+     * @param resultados      resultado por línea
+     */
+    public void insertarResultados(UUID importacionId, UUID unidadNegocioId, List<ResultadoLinea> resultados) {
+        jdbcTemplate.batchUpdate(SQL_INSERT_RESULTADO, resultados, resultados.size(),
+                (PreparedStatement ps, ResultadoLinea resultado) -> {
+                    ps.setObject(1, importacionId);
+                    ps.setInt(2, resultado.linea());
+                    ps.setObject(3, unidadNegocioId);
+                    setUuid(ps, 4, resultado.clienteId());
+                    ps.setString(5, resultado.codigo());
+                    ps.setString(6, resultado.nombre());
+                    ps.setString(7, resultado.error());
+                });
+    }
+
+    /**
+     * Pasa un job a EN_PROCESO si está pendiente o fallido
+     *
+     * @param importacionId el job
+     * @return true si este llamador reclamó el job; false si ya estaba en proceso o terminado
+     */
+    public boolean reclamar(UUID importacionId) {
+        return jdbcTemplate.update(SQL_RECLAMAR, importacionId) == 1;
+    }
+
+    /**
+     * Actualiza contadores y punto de reanudación de un job
+     */
+    public void actualizarProgreso(UUID importacionId, int totalRegistros, int registrosExitosos,
+                                   int registrosConErrores, int ultimaLineaConfirmada) {
+        jdbcTemplate.update(SQL_ACTUALIZAR_PROGRESO, totalRegistros, registrosExitosos,
+                registrosConErrores, ultimaLineaConfirmada, importacionId);
+    }
+
+    /**
+     * Obtiene una página de resultados de un job, ordenados por línea
+     *
+     * @param importacionId el job
+     * @param soloErrores   si true, sólo las líneas con error
+     * @param offset        filas a saltar
+     * @param limite        tamaño de página
+     * @return los resultados de la página
+     */
+    public List<ResultadoLinea> findResultados(UUID importacionId, boolean soloErrores, long offset, int limite) {
+        return jdbcTemplate.query(String.format(SQL_RESULTADOS, soloErrores ? FILTRO_ERRORES : ""),
+                (rs, rowNum) -> new ResultadoLinea(
+                        rs.getInt("linea"),
+                        rs.getObject("cliente_id", UUID.class),
+                        rs.getString("codigo"),
+                        rs.getString("nombre"),
+                        rs.getString("error")),
+                importacionId, limite, offset);
+    }
+
+    /**
+     * Cuenta los resultados de un job
+     */
+    public long contarResultados(UUID importacionId, boolean soloErrores) {
+        Long total = jdbcTemplate.queryForObject(
+                String.format(SQL_CONTAR_RESULTADOS, soloErrores ? FILTRO_ERRORES : ""), Long.class, importacionId);
+        return total != null ? total : 0L;
+    }
+
+    private Set<String> cargarColumna(String sql, UUID unidadNegocioId) {
+        Set<String> valores = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, unidadNegocioId);
+            return ps;
+        }, rs -> {
+            valores.add(rs.getString(1));
+        });
+        return valores;
+    }
+
+    private static void setUuid(PreparedStatement ps, int indice, UUID valor) throws SQLException {
+        if (valor != null) {
+            ps.setObject(indice, valor);
+        } else {
+            ps.setNull(indice, Types.OTHER);
+        }
+    }
+
+    /**
+     * Fila a insertar: el id se genera en la aplicación; RETURNING id identifica las insertadas
+     */
+    public record ClienteImportado(UUID id, String codigo, String nombre) {
+    }
+
+    /**
+     * Resultado de una línea: clienteId si se creó, error si no
+     */
+    public record ResultadoLinea(int linea, UUID clienteId, String codigo, String nombre, String error) {
+
+        public static ResultadoLinea creado(int linea, ClienteImportado cliente) {
+            return new ResultadoLinea(linea, cliente.id(), cliente.codigo(), cliente.nombre(), null);
+        }
+
+        public static ResultadoLinea fallido(int linea, String nombre, String error) {
+            return new ResultadoLinea(linea, null, null, nombre, error);
+        }
+    }
+}
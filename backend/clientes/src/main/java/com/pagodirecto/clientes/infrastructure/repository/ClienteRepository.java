@@ -47,19 +47,6 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      */
     Page<Cliente> findByActivo(Boolean activo, Pageable pageable);
 
-    /**
-     * Búsqueda de clientes por texto (nombre, email, RFC)
-     *
-     * @param searchTerm término de búsqueda
-     * @param pageable paginación
-     * @return página de clientes
-     */
-    @Query("SELECT c FROM Cliente c WHERE " +
-           "LOWER(c.nombre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.rfc) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Cliente> searchClientes(@Param("searchTerm") String searchTerm, Pageable pageable);
-
     /**
      * Verifica si existe un cliente con el email dado
      *
@@ -0,0 +1,51 @@
+package com.pagodirecto.clientes.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repositorio: Secuencias de Códigos de Cliente
+ *
+ * Reserva bloques de números sobre clientes_codigos_secuencia.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class CodigoClienteSecuenciaRepository {
+
+    /**
+     * Crea el contador en 1 + tamaño o lo incrementa; en ambos casos devuelve el
+     * límite exclusivo del bloque reservado. El lock de fila dura sólo esta sentencia
+     * si se ejecuta en su propia transacción.
+     */
+    private static final String SQL_RESERVAR =
+            "INSERT INTO clientes_codigos_secuencia (unidad_negocio_id, prefijo, siguiente) VALUES (?, ?, 1 + ?) " +
+            "ON CONFLICT (unidad_negocio_id, prefijo) DO UPDATE SET " +
+            "siguiente = clientes_codigos_secuencia.siguiente + ?, updated_at = NOW() " +
+            "RETURNING siguiente";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva un bloque de números para un tenant y prefijo
+     *
+     * @param unidadNegocioId el tenant
+     * @param prefijo         prefijo del código
+     * @param tamano          cantidad de números a reservar
+     * @return el primer número del bloque; el bloque es [inicio, inicio + tamano)
+     */
+    public long reservarBloque(UUID unidadNegocioId, String prefijo, int tamano) {
+        Long limite = jdbcTemplate.queryForObject(SQL_RESERVAR, Long.class,
+                unidadNegocioId, prefijo, tamano, tamano);
+        if (limite == null) {
+            throw new IllegalStateException("No se pudo reservar un bloque de códigos para el prefijo " + prefijo);
+        }
+        return limite - tamano;
+    }
+}
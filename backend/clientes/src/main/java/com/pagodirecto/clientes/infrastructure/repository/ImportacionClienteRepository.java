@@ -0,0 +1,31 @@
+package com.pagodirecto.clientes.infrastructure.repository;
+
+import com.pagodirecto.clientes.domain.ImportacionCliente;
+import com.pagodirecto.clientes.domain.ImportacionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio: ImportacionCliente
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+public interface ImportacionClienteRepository extends JpaRepository<ImportacionCliente, UUID> {
+
+    /**
+     * Busca importaciones sin progreso reciente (interrumpidas por un reinicio)
+     *
+     * @param status estados considerados activos
+     * @param limite fecha de última actualización límite
+     * @return importaciones abandonadas
+     */
+    List<ImportacionCliente> findByStatusInAndUpdatedAtBefore(Collection<ImportacionStatus> status, Instant limite);
+}
@@ -0,0 +1,151 @@
+package com.pagodirecto.clientes.infrastructure.repository;
+
+import com.pagodirecto.clientes.infrastructure.repository.ClienteImportacionRepository.ClienteImportado;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: ClienteImportacionRepository contra PostgreSQL
+ *
+ * La conexión usa reWriteBatchedInserts=true, como application.yml: insertarLote
+ * debe informar qué filas se insertaron aunque el driver no reporte conteos por
+ * fila en los batch de INSERT.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ClienteImportacionRepositoryTest {
+
+    private static final String ESQUEMA =
+            "CREATE TABLE clientes_clientes (" +
+            "  id UUID PRIMARY KEY, unidad_negocio_id UUID NOT NULL, codigo VARCHAR(50) NOT NULL, " +
+            "  nombre VARCHAR(255) NOT NULL, razon_social VARCHAR(255), tipo VARCHAR(20) NOT NULL, " +
+            "  status VARCHAR(20) NOT NULL, fuente VARCHAR(50), created_at TIMESTAMPTZ NOT NULL, created_by UUID, " +
+            "  updated_at TIMESTAMPTZ NOT NULL, updated_by UUID, deleted_at TIMESTAMPTZ);" +
+            "CREATE UNIQUE INDEX uk_clientes_clientes_codigo ON clientes_clientes(unidad_negocio_id, codigo) " +
+            "  WHERE deleted_at IS NULL;";
+
+    private static final int LOTE = 500;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private ClienteImportacionRepository repository;
+    private UUID unidadNegocioId;
+
+    @BeforeAll
+    static void crearEsquema() {
+        String url = POSTGRES.getJdbcUrl() + (POSTGRES.getJdbcUrl().contains("?") ? "&" : "?")
+                + "reWriteBatchedInserts=true";
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, POSTGRES.getUsername(),
+                POSTGRES.getPassword()));
+        jdbcTemplate.execute(ESQUEMA);
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new ClienteImportacionRepository(jdbcTemplate);
+        unidadNegocioId = UUID.randomUUID();
+    }
+
+    @Test
+    void insertaUnLoteCompleto() {
+        List<ClienteImportado> clientes = clientes(0, LOTE);
+
+        boolean[] insertados = repository.insertarLote(clientes, unidadNegocioId, UUID.randomUUID(), "IMPORTACION");
+
+        assertThat(insertados).hasSize(LOTE).doesNotContain(false);
+        assertThat(contar()).isEqualTo(LOTE);
+        assertThat(idPorCodigo("CLI-00042")).isEqualTo(clientes.get(42).id());
+    }
+
+    @Test
+    void informaLosCodigosExistentesComoNoInsertados() {
+        List<ClienteImportado> existentes = new ArrayList<>();
+        for (int i = 0; i < LOTE; i += 10) {
+            existentes.add(cliente(i));
+        }
+        repository.insertarLote(existentes, unidadNegocioId, null, "MANUAL");
+
+        List<ClienteImportado> clientes = clientes(0, LOTE);
+        boolean[] insertados = repository.insertarLote(clientes, unidadNegocioId, null, "IMPORTACION");
+
+        for (int i = 0; i < LOTE; i++) {
+            assertThat(insertados[i]).as("línea %d", i).isEqualTo(i % 10 != 0);
+        }
+        assertThat(contar()).isEqualTo(LOTE);
+        assertThat(idPorCodigo("CLI-00010")).isEqualTo(existentes.get(1).id());
+        assertThat(contarPorId(clientes.get(10).id())).isZero();
+    }
+
+    @Test
+    void ganaLaPrimeraLineaConCodigoRepetidoEnElLote() {
+        ClienteImportado primero = new ClienteImportado(UUID.randomUUID(), "CLI-1", "Primero");
+        ClienteImportado segundo = new ClienteImportado(UUID.randomUUID(), "CLI-1", "Segundo");
+
+        boolean[] insertados = repository.insertarLote(List.of(primero, segundo), unidadNegocioId, null, "IMPORTACION");
+
+        assertThat(insertados).containsExactly(true, false);
+        assertThat(idPorCodigo("CLI-1")).isEqualTo(primero.id());
+    }
+
+    @Test
+    void unCodigoEliminadoNoGeneraConflicto() {
+        ClienteImportado eliminado = cliente(1);
+        repository.insertarLote(List.of(eliminado), unidadNegocioId, null, "MANUAL");
+        jdbcTemplate.update("UPDATE clientes_clientes SET deleted_at = NOW() WHERE id = ?", eliminado.id());
+
+        boolean[] insertados = repository.insertarLote(List.of(cliente(1)), unidadNegocioId, null, "IMPORTACION");
+
+        assertThat(insertados).containsExactly(true);
+    }
+
+    @Test
+    void unLoteVacioNoConsultaLaBase() {
+        assertThat(repository.insertarLote(List.of(), unidadNegocioId, null, "IMPORTACION")).isEmpty();
+    }
+
+    private List<ClienteImportado> clientes(int desde, int cantidad) {
+        List<ClienteImportado> clientes = new ArrayList<>(cantidad);
+        for (int i = desde; i < desde + cantidad; i++) {
+            clientes.add(cliente(i));
+        }
+        return clientes;
+    }
+
+    private static ClienteImportado cliente(int numero) {
+        return new ClienteImportado(UUID.randomUUID(), String.format("CLI-%05d", numero), "Cliente " + numero);
+    }
+
+    private int contar() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM clientes_clientes WHERE unidad_negocio_id = ? AND deleted_at IS NULL",
+                Integer.class, unidadNegocioId);
+    }
+
+    private int contarPorId(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes_clientes WHERE id = ?", Integer.class, id);
+    }
+
+    private UUID idPorCodigo(String codigo) {
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM clientes_clientes WHERE unidad_negocio_id = ? AND codigo = ? AND deleted_at IS NULL",
+                UUID.class, unidadNegocioId, codigo);
+    }
+}
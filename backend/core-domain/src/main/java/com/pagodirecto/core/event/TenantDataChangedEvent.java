@@ -0,0 +1,73 @@
+package com.pagodirecto.core.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Application event published after a write to tenant-scoped business data.
+ *
+ * Lets derived views (dashboard caches, rollups) invalidate or update themselves
+ * without the writing module depending on them.
+ *
+ * unidadNegocioId may be null when the writer does not know the tenant of the
+ * row (e.g. delete by id); listeners then fall back to the current RLS tenant.
+ *
+ * fechas are the days whose per-day aggregates the write may have changed, as
+ * the rollups bucket them: the row's DATE column as stored, or the UTC day of a
+ * timestamp (see {@link #diasUtc}). A write that touches last month's row (a
+ * soft-delete, a completion that replaces an older one, a cancelled order)
+ * lists that day; the current day is always implied.
+ */
+@Getter
+@ToString
+public class TenantDataChangedEvent {
+
+    /**
+     * Module whose data changed: clientes, oportunidades, tareas, pedidos, productos, stock
+     */
+    private final String modulo;
+
+    private final UUID unidadNegocioId;
+
+    /**
+     * Days affected besides today; never null, without nulls
+     */
+    private final Set<LocalDate> fechas;
+
+    public TenantDataChangedEvent(String modulo, UUID unidadNegocioId) {
+        this(modulo, unidadNegocioId, Set.of());
+    }
+
+    public TenantDataChangedEvent(String modulo, UUID unidadNegocioId, Collection<LocalDate> fechas) {
+        this.modulo = modulo;
+        this.unidadNegocioId = unidadNegocioId;
+        this.fechas = fechas.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Days of the given DATE values, skipping nulls
+     */
+    public static Set<LocalDate> dias(LocalDate... fechas) {
+        return Stream.of(fechas).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * UTC days of the given timestamps, skipping nulls
+     */
+    public static Set<LocalDate> diasUtc(Instant... instantes) {
+        return Stream.of(instantes)
+                .filter(Objects::nonNull)
+                .map(instante -> LocalDate.ofInstant(instante, ZoneOffset.UTC))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
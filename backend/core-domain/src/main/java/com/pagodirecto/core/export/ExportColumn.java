@@ -0,0 +1,16 @@
+package com.pagodirecto.core.export;
+
+import java.util.function.Function;
+
+/**
+ * One CSV column of an export: header and value extractor.
+ *
+ * @param header column name written in the header row
+ * @param value  extracts the cell value from a row; null becomes an empty cell
+ */
+public record ExportColumn<T>(String header, Function<T, ?> value) {
+
+    public static <T> ExportColumn<T> of(String header, Function<T, ?> value) {
+        return new ExportColumn<>(header, value);
+    }
+}
@@ -0,0 +1,53 @@
+package com.pagodirecto.core.export;
+
+import com.pagodirecto.core.exception.BusinessException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Output format of a streaming export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    /**
+     * RFC 4180 CSV with a header row, UTF-8
+     */
+    CSV("text/csv;charset=UTF-8", "csv"),
+
+    /**
+     * One JSON object per line, same shape as the regular API DTOs
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+
+    private final String extension;
+
+    /**
+     * @param value format name, case-insensitive; null means CSV
+     * @return the format
+     * @throws BusinessException if the format is not supported
+     */
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_EXPORT_FORMAT", "Unsupported export format: " + value);
+        }
+    }
+
+    /**
+     * @param baseName file name without extension
+     * @return the Content-Disposition header value for the download
+     */
+    public String contentDisposition(String baseName) {
+        return "attachment; filename=\"" + baseName + "." + extension + "\"";
+    }
+}
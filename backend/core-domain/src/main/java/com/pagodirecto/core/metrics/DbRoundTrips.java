@@ -0,0 +1,50 @@
+package com.pagodirecto.core.metrics;
+
+/**
+ * Per-thread tally of database round trips, opened and closed by
+ * {@link RequestRoundTripsFilter} around each HTTP request.
+ *
+ * Work a request hands to other threads (dashboard queries, streamed exports,
+ * imports) is counted in the global {@value MetricNames#DB_ROUND_TRIPS} counter
+ * only, not in the request's tally.
+ */
+public final class DbRoundTrips {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    private DbRoundTrips() {
+    }
+
+    /**
+     * Starts counting on the current thread
+     */
+    public static void begin() {
+        CURRENT.set(new int[1]);
+    }
+
+    /**
+     * Stops counting on the current thread
+     *
+     * @return round trips since {@link #begin()}, or -1 if counting was not active
+     */
+    public static int end() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : -1;
+    }
+
+    /**
+     * @return round trips so far on the current thread, or -1 if counting is not active
+     */
+    public static int current() {
+        int[] count = CURRENT.get();
+        return count != null ? count[0] : -1;
+    }
+
+    static void increment() {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.pagodirecto.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link RoundTripCountingDataSource}.
+ *
+ * The post-processor is static and resolves the MeterRegistry lazily so that it
+ * does not force early initialization of the metrics infrastructure.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DbRoundTripsConfig {
+
+    @Bean
+    static BeanPostProcessor roundTripCountingDataSource(@Lazy ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof RoundTripCountingDataSource)) {
+                    Counter roundTrips = Counter.builder(MetricNames.DB_ROUND_TRIPS)
+                            .description("Statement executions, commits and rollbacks sent to the database")
+                            .register(meterRegistry.getObject());
+                    return new RoundTripCountingDataSource(dataSource, roundTrips);
+                }
+                return bean;
+            }
+        };
+    }
+}
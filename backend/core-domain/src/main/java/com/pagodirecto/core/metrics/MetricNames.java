@@ -0,0 +1,105 @@
+package com.pagodirecto.core.metrics;
+
+/**
+ * Names and tag keys of the application's own meters.
+ *
+ * Tags must have bounded cardinality and must never carry tenant, user or row
+ * identifiers: a tag value becomes a separate time series for every distinct
+ * value and is visible to anyone who can read the metrics backend. Use module,
+ * class, method, route templates, outcomes and exception class names only.
+ */
+public final class MetricNames {
+
+    /**
+     * Timer around every public method of a *ServiceImpl bean
+     */
+    public static final String SERVICE = "pagodirecto.service";
+
+    /**
+     * Timer for resolving the bearer token of a request
+     */
+    public static final String SECURITY_JWT = "pagodirecto.security.jwt";
+
+    /**
+     * Timer for applying the RLS context at the start of a transaction
+     */
+    public static final String SECURITY_RLS = "pagodirecto.security.rls";
+
+    /**
+     * Timer per dashboard aggregate query
+     */
+    public static final String DASHBOARD_QUERY = "pagodirecto.dashboard.query";
+
+    /**
+     * Timer per committed block of a customer import
+     */
+    public static final String IMPORT_BLOCK = "pagodirecto.clientes.importacion.bloque";
+
+    /**
+     * Timer per customer import run
+     */
+    public static final String IMPORT_JOB = "pagodirecto.clientes.importacion.job";
+
+    /**
+     * Counter of imported lines by outcome
+     */
+    public static final String IMPORT_LINES = "pagodirecto.clientes.importacion.lineas";
+
+    /**
+     * Counter of every statement execution, commit and rollback sent to the database
+     */
+    public static final String DB_ROUND_TRIPS = "pagodirecto.db.roundtrips";
+
+    /**
+     * Distribution of database round trips made while serving one HTTP request
+     */
+    public static final String DB_ROUND_TRIPS_PER_REQUEST = "pagodirecto.db.roundtrips.request";
+
+    /**
+     * Counter of session heartbeats received by outcome
+     */
+    public static final String SPIDI_HEARTBEATS = "pagodirecto.spidi.heartbeats";
+
+    /**
+     * Timer per flush of coalesced heartbeats to the database
+     */
+    public static final String SPIDI_HEARTBEAT_FLUSH = "pagodirecto.spidi.heartbeat.flush";
+
+    /**
+     * Gauge of sessions held in the live registry of this node
+     */
+    public static final String SPIDI_LIVE_SESSIONS = "pagodirecto.spidi.sessions.live";
+
+    /**
+     * Counter of sessions expired for missing heartbeats, by detection path
+     */
+    public static final String SPIDI_SESSIONS_EXPIRED = "pagodirecto.spidi.sessions.expired";
+
+    /**
+     * Timer per flush of closed room statistics buckets and their rollups
+     */
+    public static final String SPIDI_ROOM_STATS_FLUSH = "pagodirecto.spidi.room_stats.flush";
+
+    public static final String TAG_MODULE = "module";
+    public static final String TAG_CLASS = "class";
+    public static final String TAG_METHOD = "method";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_EXCEPTION = "exception";
+    public static final String TAG_URI = "uri";
+    public static final String TAG_QUERY = "query";
+    public static final String TAG_TYPE = "type";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String NONE = "none";
+
+    private MetricNames() {
+    }
+
+    /**
+     * Exception tag value: the simple class name, never the message
+     */
+    public static String exception(Throwable error) {
+        return error != null ? error.getClass().getSimpleName() : NONE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pagodirecto.core.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many database round trips each HTTP request made, as
+ * {@value MetricNames#DB_ROUND_TRIPS_PER_REQUEST} tagged with the HTTP method
+ * and the route template (never the raw path, which may contain ids).
+ *
+ * Runs ahead of the security filter chain so that authentication and RLS
+ * setup are included in the tally.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestRoundTripsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        DbRoundTrips.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int roundTrips = DbRoundTrips.end();
+            DistributionSummary.builder(MetricNames.DB_ROUND_TRIPS_PER_REQUEST)
+                    .description("Database round trips per HTTP request")
+                    .tag(MetricNames.TAG_METHOD, request.getMethod())
+                    .tag(MetricNames.TAG_URI, uri(request))
+                    .register(meterRegistry)
+                    .record(roundTrips);
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
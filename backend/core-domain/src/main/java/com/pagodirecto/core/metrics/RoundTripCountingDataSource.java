@@ -0,0 +1,132 @@
+package com.pagodirecto.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that counts database round trips.
+ *
+ * A round trip is one execute* call on a statement (a JDBC batch counts once,
+ * which is how the driver sends it) or one commit/rollback. Connections and
+ * statements are wrapped in JDK proxies; unwrap/isWrapperFor reach the driver
+ * objects unchanged, so pool metrics and PGConnection access keep working.
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    private final Counter roundTrips;
+
+    public RoundTripCountingDataSource(DataSource target, Counter roundTrips) {
+        super(target);
+        this.roundTrips = roundTrips;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private void count() {
+        roundTrips.increment();
+        DbRoundTrips.increment();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "commit", "rollback":
+                    count();
+                    break;
+                default:
+                    break;
+            }
+
+            Object result = RoundTripCountingDataSource.invoke(target, method, args);
+            Connection connection = (Connection) proxy;
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(statement, CallableStatement.class, connection);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrapStatement(statement, PreparedStatement.class, connection);
+            }
+            if (result instanceof Statement statement) {
+                return wrapStatement(statement, Statement.class, connection);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Statement statement, Class<? extends Statement> type, Connection connection) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, connection));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connection;
+
+        private StatementHandler(Statement target, Connection connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                default:
+                    if (name.startsWith("execute")) {
+                        count();
+                    }
+                    return RoundTripCountingDataSource.invoke(target, method, args);
+            }
+        }
+    }
+}
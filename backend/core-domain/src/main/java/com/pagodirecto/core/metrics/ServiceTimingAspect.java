@@ -0,0 +1,69 @@
+package com.pagodirecto.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the *ServiceImpl beans as {@value MetricNames#SERVICE}.
+ *
+ * Tags: module (third package segment), class, method, outcome and exception.
+ * Calls a service makes to its own methods bypass the proxy and are not timed
+ * separately. Successful calls reuse a cached {@link Timer} per method; only the
+ * error path goes through the registry lookup.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.pagodirecto..*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimers.computeIfAbsent(method, m -> timer(targetClass, m, MetricNames.OUTCOME_SUCCESS, null))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable error) {
+            timer(targetClass, method, MetricNames.OUTCOME_ERROR, error)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw error;
+        }
+    }
+
+    private Timer timer(Class<?> targetClass, Method method, String outcome, Throwable error) {
+        return Timer.builder(MetricNames.SERVICE)
+                .description("Latency of application service methods")
+                .tag(MetricNames.TAG_MODULE, module(targetClass))
+                .tag(MetricNames.TAG_CLASS, targetClass.getSimpleName())
+                .tag(MetricNames.TAG_METHOD, method.getName())
+                .tag(MetricNames.TAG_OUTCOME, outcome)
+                .tag(MetricNames.TAG_EXCEPTION, MetricNames.exception(error))
+                .register(meterRegistry);
+    }
+
+    /**
+     * com.pagodirecto.&lt;module&gt;.application.service.impl
+     */
+    private static String module(Class<?> targetClass) {
+        String[] segments = targetClass.getPackageName().split("\\.");
+        return segments.length > 2 ? segments[2] : MetricNames.NONE;
+    }
+}
@@ -0,0 +1,12 @@
+package com.pagodirecto.core.outbox;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the scheduled outbox relay and purge.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+}
@@ -0,0 +1,63 @@
+package com.pagodirecto.core.outbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Domain event read back from the transactional outbox and published in-process
+ * by {@link OutboxRelay}.
+ *
+ * Delivery is at-least-once: the same event (same id) is published again if any
+ * listener throws, or if the node dies before it is marked as published.
+ * Listeners must be idempotent, keyed on {@link #getId()}, and must not assume
+ * ordering across events. They run outside any transaction and without an RLS
+ * context; unidadNegocioId is the tenant to act on.
+ */
+@Getter
+@ToString(exclude = "payload")
+@RequiredArgsConstructor
+public class OutboxEvent {
+
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String ELIMINADO = "ELIMINADO";
+
+    /**
+     * Monotonic outbox id; stable across redeliveries
+     */
+    private final long id;
+
+    private final UUID unidadNegocioId;
+
+    /**
+     * Module that owns the aggregate: clientes, oportunidades, tareas, pedidos, productos
+     */
+    private final String modulo;
+
+    /**
+     * Aggregate id as text (clientes uses Long ids, the other modules UUIDs)
+     */
+    private final String agregadoId;
+
+    /**
+     * What happened: {@link #CREADO}, {@link #ACTUALIZADO}, {@link #ELIMINADO} or a
+     * module-specific transition (e.g. GANADA, COMPLETADA, CONFIRMADO)
+     */
+    private final String tipo;
+
+    /**
+     * JSON snapshot of the aggregate after the change; null for deletions
+     */
+    private final String payload;
+
+    private final Instant createdAt;
+
+    /**
+     * Failed deliveries before this one
+     */
+    private final int intentos;
+}
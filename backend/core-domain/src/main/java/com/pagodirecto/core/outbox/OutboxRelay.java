@@ -0,0 +1,124 @@
+package com.pagodirecto.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polls the outbox and publishes pending events to in-process listeners.
+ *
+ * Each round claims a batch in a short transaction, publishes every event
+ * through the {@link ApplicationEventPublisher} with no transaction open, and
+ * then marks the successful ones as published in one batch. An event whose
+ * listeners throw is retried with exponential backoff until
+ * app.outbox.max-attempts, after which it is parked (fallido_en) for manual
+ * inspection. Rounds repeat while batches come back full.
+ *
+ * Listeners subscribe with a plain {@code @EventListener(OutboxEvent.class)};
+ * transactional listeners would never fire since no transaction is active.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Published rows deleted per purge statement
+     */
+    private static final int LOTE_PURGA = 5000;
+
+    private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.lease:PT1M}") Duration lease,
+                       @Value("${app.outbox.retry-backoff:PT1S}") Duration retryBackoff,
+                       @Value("${app.outbox.max-backoff:PT10M}") Duration maxBackoff,
+                       @Value("${app.outbox.retention:P7D}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT1S}")
+    public void relay() {
+        int publicados = 0;
+        List<OutboxEvent> lote;
+        do {
+            lote = transactionTemplate.execute(status -> outboxRepository.reclamar(batchSize, lease));
+            if (lote == null || lote.isEmpty()) {
+                break;
+            }
+            publicados += publicar(lote);
+        } while (lote.size() == batchSize);
+
+        if (publicados > 0) {
+            log.debug("Outbox: {} events published", publicados);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:PT1H}",
+               initialDelayString = "${app.outbox.purge-interval:PT1H}")
+    public void purgar() {
+        int total = 0;
+        int borrados;
+        do {
+            borrados = outboxRepository.purgar(retention, LOTE_PURGA);
+            total += borrados;
+        } while (borrados == LOTE_PURGA);
+
+        if (total > 0) {
+            log.info("Outbox: {} published events older than {} purged", total, retention);
+        }
+    }
+
+    private int publicar(List<OutboxEvent> lote) {
+        List<Long> publicados = new ArrayList<>(lote.size());
+        for (OutboxEvent evento : lote) {
+            try {
+                eventPublisher.publishEvent(evento);
+                publicados.add(evento.getId());
+            } catch (RuntimeException e) {
+                registrarFallo(evento, e);
+            }
+        }
+        outboxRepository.marcarPublicados(publicados);
+        return publicados.size();
+    }
+
+    private void registrarFallo(OutboxEvent evento, RuntimeException e) {
+        boolean agotado = evento.getIntentos() + 1 >= maxAttempts;
+        if (agotado) {
+            log.error("Outbox event {} ({}/{} {}) failed {} times; parked", evento.getId(), evento.getModulo(),
+                    evento.getTipo(), evento.getAgregadoId(), maxAttempts, e);
+        } else {
+            log.warn("Outbox event {} ({}/{} {}) failed, attempt {}: {}", evento.getId(), evento.getModulo(),
+                    evento.getTipo(), evento.getAgregadoId(), evento.getIntentos() + 1, e.getMessage());
+        }
+        outboxRepository.registrarFallo(evento.getId(), e.toString(), retryBackoff, maxBackoff, maxAttempts);
+    }
+}
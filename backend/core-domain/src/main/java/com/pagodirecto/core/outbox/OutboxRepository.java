@@ -0,0 +1,121 @@
+package com.pagodirecto.core.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the outbox_events table.
+ *
+ * Batches are claimed with FOR UPDATE SKIP LOCKED and leased by pushing
+ * disponible_en forward, so concurrent relays on several nodes never hand out
+ * the same event at the same time; a lease that expires (node crash) makes the
+ * event eligible again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO outbox_events (unidad_negocio_id, modulo, agregado_id, tipo, payload) " +
+            "VALUES (COALESCE(?::uuid, app_current_tenant()), ?, ?, ?, ?::jsonb)";
+
+    private static final String SQL_RECLAMAR =
+            "UPDATE outbox_events o SET disponible_en = NOW() + ? * INTERVAL '1 millisecond' " +
+            "WHERE o.id IN (" +
+            "  SELECT id FROM outbox_events " +
+            "  WHERE publicado_en IS NULL AND fallido_en IS NULL AND disponible_en <= NOW() " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING o.id, o.unidad_negocio_id, o.modulo, o.agregado_id, o.tipo, o.payload::text AS payload, " +
+            "o.created_at, o.intentos";
+
+    private static final String SQL_PUBLICADO =
+            "UPDATE outbox_events SET publicado_en = NOW(), ultimo_error = NULL WHERE id = ?";
+
+    /**
+     * Exponential backoff from the failed attempt, capped; marks the event failed once attempts run out
+     */
+    private static final String SQL_FALLO =
+            "UPDATE outbox_events SET intentos = intentos + 1, ultimo_error = ?, " +
+            "disponible_en = NOW() + LEAST(? * POWER(2, intentos), ?) * INTERVAL '1 millisecond', " +
+            "fallido_en = CASE WHEN intentos + 1 >= ? THEN NOW() END " +
+            "WHERE id = ?";
+
+    private static final String SQL_PURGAR =
+            "DELETE FROM outbox_events WHERE id IN (" +
+            "  SELECT id FROM outbox_events " +
+            "  WHERE publicado_en < NOW() - ? * INTERVAL '1 millisecond' LIMIT ?)";
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getObject("unidad_negocio_id", UUID.class),
+            rs.getString("modulo"),
+            rs.getString("agregado_id"),
+            rs.getString("tipo"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getInt("intentos"));
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertar(UUID unidadNegocioId, String modulo, String agregadoId, String tipo, String payload) {
+        jdbcTemplate.update(SQL_INSERTAR, unidadNegocioId, modulo, agregadoId, tipo, payload);
+    }
+
+    /**
+     * Inserts one event per row; each row is {agregadoId, payload}
+     */
+    public void insertarLote(UUID unidadNegocioId, String modulo, String tipo, List<String[]> filas) {
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, filas, filas.size(), (ps, fila) -> {
+            ps.setObject(1, unidadNegocioId, Types.OTHER);
+            ps.setString(2, modulo);
+            ps.setString(3, fila[0]);
+            ps.setString(4, tipo);
+            ps.setString(5, fila[1]);
+        });
+    }
+
+    /**
+     * Claims up to lote pending events for the lease duration
+     *
+     * @return the claimed events in outbox order
+     */
+    public List<OutboxEvent> reclamar(int lote, Duration lease) {
+        List<OutboxEvent> eventos = jdbcTemplate.query(SQL_RECLAMAR, EVENT_MAPPER, lease.toMillis(), lote);
+        // RETURNING does not preserve the ORDER BY of the subquery
+        eventos.sort(Comparator.comparingLong(OutboxEvent::getId));
+        return eventos;
+    }
+
+    public void marcarPublicados(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_PUBLICADO, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void registrarFallo(long id, String error, Duration esperaBase, Duration esperaMaxima, int maxIntentos) {
+        String mensaje = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH)
+                : error;
+        jdbcTemplate.update(SQL_FALLO, mensaje, esperaBase.toMillis(), esperaMaxima.toMillis(), maxIntentos, id);
+    }
+
+    /**
+     * Deletes up to lote events published before the retention window
+     *
+     * @return rows deleted
+     */
+    public int purgar(Duration retencion, int lote) {
+        return jdbcTemplate.update(SQL_PURGAR, retencion.toMillis(), lote);
+    }
+}
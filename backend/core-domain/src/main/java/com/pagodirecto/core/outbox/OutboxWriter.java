@@ -0,0 +1,75 @@
+package com.pagodirecto.core.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Appends domain events to the transactional outbox.
+ *
+ * The row is inserted through the caller's transaction, so the event exists if
+ * and only if the aggregate change commits. Calling it outside a transaction is
+ * a programming error: the event could be persisted for a change that is later
+ * lost, or the other way around.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Records an event for an aggregate change
+     *
+     * @param modulo          module that owns the aggregate
+     * @param agregadoId      aggregate id (UUID or Long)
+     * @param tipo            what happened; see {@link OutboxEvent#getTipo()}
+     * @param unidadNegocioId tenant of the aggregate; null falls back to the current RLS tenant
+     * @param payload         snapshot serialized as JSON; may be null
+     */
+    public void registrar(String modulo, Object agregadoId, String tipo, UUID unidadNegocioId, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox event " + modulo + "/" + tipo
+                    + " must be written inside the transaction that changes the aggregate");
+        }
+        outboxRepository.insertar(unidadNegocioId, modulo, String.valueOf(agregadoId), tipo, toJson(payload));
+    }
+
+    /**
+     * Records the same kind of event for many aggregates in one batched insert
+     *
+     * @param payloads snapshot per aggregate id, in the order the events should be relayed
+     */
+    public void registrarLote(String modulo, String tipo, UUID unidadNegocioId, Map<?, ?> payloads) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events " + modulo + "/" + tipo
+                    + " must be written inside the transaction that changes the aggregates");
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+        List<String[]> filas = new ArrayList<>(payloads.size());
+        payloads.forEach((agregadoId, payload) ->
+                filas.add(new String[]{String.valueOf(agregadoId), toJson(payload)}));
+        outboxRepository.insertarLote(unidadNegocioId, modulo, tipo, filas);
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload " + payload.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.pagodirecto.core.pagination;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * Built from a Spring Data {@link Slice} (size + 1 fetch, no COUNT). The total
+ * is only present when the caller explicitly asked for it.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorSlice<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> content;
+
+    private final int size;
+
+    private final boolean hasNext;
+
+    /**
+     * Token for the next page; null on the last page
+     */
+    private final String nextCursor;
+
+    /**
+     * Total number of rows; null unless requested
+     */
+    private final Long totalElements;
+
+    /**
+     * Builds the page request for a cursor query: first page, clamped size, no sort
+     * (the ordering is fixed by the keyset query itself).
+     *
+     * @param size requested page size
+     * @return the page request
+     */
+    public static Pageable pageRequest(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_SIZE)));
+    }
+
+    /**
+     * @param slice        the fetched rows
+     * @param mapper       entity to DTO mapper
+     * @param cursorOf     position of an entity, used for the last row
+     * @param totalElements total rows, or null if not requested
+     */
+    public static <E, T> CursorSlice<T> of(Slice<E> slice, Function<E, T> mapper,
+                                           Function<E, KeysetCursor> cursorOf, Long totalElements) {
+        List<E> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? cursorOf.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        return new CursorSlice<>(rows.stream().map(mapper).toList(), slice.getSize(),
+                slice.hasNext(), nextCursor, totalElements);
+    }
+}
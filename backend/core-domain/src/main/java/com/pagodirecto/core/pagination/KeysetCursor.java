@@ -0,0 +1,68 @@
+package com.pagodirecto.core.pagination;
+
+import com.pagodirecto.core.exception.BusinessException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row returned by a keyset (seek) page.
+ *
+ * Lists in cursor mode are ordered by (createdAt DESC, id DESC); the next page
+ * starts strictly after this position, so its cost does not depend on depth.
+ * Clients receive it as an opaque URL-safe token and must not parse it.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor(staticName = "of")
+public final class KeysetCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = ":";
+
+    private final Instant createdAt;
+
+    private final UUID id;
+
+    /**
+     * @return the opaque token for this position
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION,
+                Long.toString(createdAt.getEpochSecond()),
+                Integer.toString(createdAt.getNano()),
+                id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor, or null/blank for the first page
+     * @return the position, or null for the first page
+     * @throws BusinessException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            return new KeysetCursor(createdAt, UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_CURSOR", "Invalid pagination cursor");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.pagodirecto.core.outbox;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: OutboxRepository against PostgreSQL
+ *
+ * Runs migration V19 and checks the claim (order, lease, SKIP LOCKED, lease
+ * expiry), the retry backoff and parking of SQL_FALLO, and the purge.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxRepositoryTest {
+
+    private static final Path MIGRACIONES = Path.of("../application/src/main/resources/db/migration");
+
+    /**
+     * app_current_tenant() as V3 creates it; SQL_INSERTAR falls back to it
+     */
+    private static final String ESQUEMA_BASE =
+            "CREATE OR REPLACE FUNCTION app_current_tenant() RETURNS UUID AS $$ " +
+            "BEGIN RETURN NULLIF(current_setting('app.current_tenant', TRUE), '')::UUID; " +
+            "EXCEPTION WHEN OTHERS THEN RETURN NULL; END; $$ LANGUAGE plpgsql STABLE;";
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration ESPERA_BASE = Duration.ofSeconds(1);
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(10);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final UUID tenant = UUID.randomUUID();
+    private OutboxRepository repository;
+
+    @BeforeAll
+    static void crearEsquema() throws Exception {
+        dataSource = nuevoDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(ESQUEMA_BASE);
+        jdbcTemplate.execute(Files.readString(MIGRACIONES.resolve("V19__create_outbox_events.sql")));
+    }
+
+    @BeforeEach
+    void vaciar() {
+        jdbcTemplate.execute("TRUNCATE outbox_events RESTART IDENTITY");
+        repository = new OutboxRepository(jdbcTemplate);
+    }
+
+    @Test
+    void reclamarEntregaEnOrdenYRetieneLoReclamadoDuranteElLease() {
+        insertar(5);
+
+        List<OutboxEvent> primero = repository.reclamar(3, LEASE);
+        List<OutboxEvent> segundo = repository.reclamar(3, LEASE);
+
+        assertThat(primero).extracting(OutboxEvent::getId).containsExactly(1L, 2L, 3L);
+        assertThat(primero.get(0).getUnidadNegocioId()).isEqualTo(tenant);
+        assertThat(primero.get(0).getPayload()).isEqualTo("{\"n\": 1}");
+        assertThat(segundo).extracting(OutboxEvent::getId).containsExactly(4L, 5L);
+        assertThat(repository.reclamar(3, LEASE)).isEmpty();
+    }
+
+    @Test
+    void otroRelaySaltaLasFilasBloqueadasSinEsperar() {
+        insertar(4);
+        // Separate connection with a timeout: without SKIP LOCKED it would wait for the first relay
+        JdbcTemplate otraConexion = new JdbcTemplate(nuevoDataSource());
+        otraConexion.setQueryTimeout(5);
+        OutboxRepository otroRelay = new OutboxRepository(otraConexion);
+        TransactionTemplate transaccion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        List<Long> delOtro = transaccion.execute(status -> {
+            assertThat(repository.reclamar(2, LEASE)).extracting(OutboxEvent::getId).containsExactly(1L, 2L);
+            List<Long> ids = otroRelay.reclamar(10, LEASE).stream().map(OutboxEvent::getId).toList();
+            // No commit: the first relay's lease is rolled back
+            status.setRollbackOnly();
+            return ids;
+        });
+
+        assertThat(delOtro).containsExactly(3L, 4L);
+        assertThat(repository.reclamar(10, LEASE)).extracting(OutboxEvent::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void unLeaseVencidoVuelveAEntregarElEvento() {
+        insertar(1);
+
+        assertThat(repository.reclamar(10, Duration.ZERO)).hasSize(1);
+
+        // The node "died" before marking it published
+        assertThat(repository.reclamar(10, LEASE)).extracting(OutboxEvent::getId).containsExactly(1L);
+    }
+
+    @Test
+    void cadaFalloEsperaElDobleHastaElMaximo() {
+        insertar(1);
+        long[] esperasMs = {1_000, 2_000, 4_000, 8_000, 10_000, 10_000};
+
+        for (int intento = 0; intento < esperasMs.length; intento++) {
+            repository.registrarFallo(1L, "fallo " + intento, ESPERA_BASE, ESPERA_MAXIMA, 10);
+
+            Map<String, Object> fila = fila(1L);
+            assertThat(fila.get("intentos")).isEqualTo(intento + 1);
+            assertThat(fila.get("ultimo_error")).isEqualTo("fallo " + intento);
+            assertThat(fila.get("fallido_en")).isNull();
+            assertThat(((Number) fila.get("espera_ms")).longValue())
+                    .as("wait after attempt %d", intento + 1)
+                    .isBetween(esperasMs[intento] - 1_000, esperasMs[intento]);
+            assertThat(repository.reclamar(10, LEASE)).isEmpty();
+        }
+    }
+
+    @Test
+    void agotadosLosIntentosElEventoQuedaAparcado() {
+        insertar(1);
+
+        repository.registrarFallo(1L, "fallo", ESPERA_BASE, ESPERA_MAXIMA, 3);
+        repository.registrarFallo(1L, "fallo", ESPERA_BASE, ESPERA_MAXIMA, 3);
+        assertThat(fila(1L).get("fallido_en")).isNull();
+
+        repository.registrarFallo(1L, "fallo final", ESPERA_BASE, ESPERA_MAXIMA, 3);
+        jdbcTemplate.update("UPDATE outbox_events SET disponible_en = NOW() - INTERVAL '1 hour'");
+
+        assertThat(fila(1L).get("fallido_en")).isNotNull();
+        assertThat(fila(1L).get("intentos")).isEqualTo(3);
+        assertThat(repository.reclamar(10, LEASE)).isEmpty();
+    }
+
+    @Test
+    void losErroresLargosSeTruncan() {
+        insertar(1);
+
+        repository.registrarFallo(1L, "x".repeat(5_000), ESPERA_BASE, ESPERA_MAXIMA, 3);
+
+        assertThat((String) fila(1L).get("ultimo_error")).hasSize(2_000);
+    }
+
+    @Test
+    void losPublicadosNoSeReclamanYSePurganTrasLaRetencion() {
+        insertar(3);
+        repository.reclamar(10, Duration.ZERO);
+
+        repository.marcarPublicados(List.of(1L, 2L));
+        assertThat(repository.reclamar(10, LEASE)).extracting(OutboxEvent::getId).containsExactly(3L);
+
+        assertThat(repository.purgar(Duration.ofDays(1), 10)).isZero();
+        jdbcTemplate.update("UPDATE outbox_events SET publicado_en = NOW() - INTERVAL '2 days' WHERE publicado_en IS NOT NULL");
+        assertThat(repository.purgar(Duration.ofDays(1), 1)).isEqualTo(1);
+        assertThat(repository.purgar(Duration.ofDays(1), 10)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM outbox_events", Long.class)).containsExactly(3L);
+    }
+
+    private void insertar(int cantidad) {
+        IntStream.rangeClosed(1, cantidad).forEach(n -> repository.insertar(
+                tenant, "tareas", UUID.randomUUID().toString(), OutboxEvent.CREADO, "{\"n\": " + n + "}"));
+    }
+
+    private static Map<String, Object> fila(long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT intentos, ultimo_error, fallido_en, " +
+                "(EXTRACT(EPOCH FROM disponible_en - NOW()) * 1000)::bigint AS espera_ms " +
+                "FROM outbox_events WHERE id = ?", id);
+    }
+
+    private static DriverManagerDataSource nuevoDataSource() {
+        return new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
@@ -1,5 +1,6 @@
 package com.pagodirecto.oportunidades.api.controller;
 
+import com.pagodirecto.core.pagination.CursorSlice;
 import com.pagodirecto.oportunidades.application.dto.OportunidadDTO;
 import com.pagodirecto.oportunidades.application.service.OportunidadService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -91,6 +92,20 @@ public class OportunidadController {
         return ResponseEntity.ok(oportunidades);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Listar oportunidades con paginación por cursor",
+               description = "Más recientes primero. Enviar nextCursor de la respuesta para obtener la "
+                       + "página siguiente; el total sólo se calcula con incluirTotal=true")
+    public ResponseEntity<CursorSlice<OportunidadDTO>> listarTodasPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        log.debug("Solicitud para listar oportunidades por cursor - tamaño: {}", size);
+
+        CursorSlice<OportunidadDTO> oportunidades = oportunidadService.listarTodasPorCursor(cursor, size, incluirTotal);
+        return ResponseEntity.ok(oportunidades);
+    }
+
     @Operation(summary = "Buscar oportunidades")
     @GetMapping("/search")
     public ResponseEntity<Page<OportunidadDTO>> buscar(
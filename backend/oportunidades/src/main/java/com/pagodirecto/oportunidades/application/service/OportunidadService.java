@@ -1,5 +1,6 @@
 package com.pagodirecto.oportunidades.application.service;
 
+import com.pagodirecto.core.pagination.CursorSlice;
 import com.pagodirecto.oportunidades.application.dto.OportunidadDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -53,6 +54,16 @@ public interface OportunidadService {
      */
     Page<OportunidadDTO> listarTodas(Pageable pageable);
 
+    /**
+     * Lista oportunidades con paginación por cursor (keyset), más recientes primero
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (máximo {@value CursorSlice#MAX_SIZE})
+     * @param incluirTotal si true, calcula además el total de registros
+     * @return la página y el cursor de la siguiente
+     */
+    CursorSlice<OportunidadDTO> listarTodasPorCursor(String cursor, int size, boolean incluirTotal);
+
     /**
      * Busca oportunidades por cliente
      *
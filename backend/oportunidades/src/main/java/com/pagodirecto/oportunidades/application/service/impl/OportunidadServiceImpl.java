@@ -5,16 +5,24 @@ import com.pagodirecto.oportunidades.application.mapper.OportunidadMapper;
 import com.pagodirecto.oportunidades.application.service.OportunidadService;
 import com.pagodirecto.oportunidades.domain.Oportunidad;
 import com.pagodirecto.oportunidades.infrastructure.repository.OportunidadRepository;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.core.outbox.OutboxWriter;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.core.pagination.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -32,6 +40,8 @@ public class OportunidadServiceImpl implements OportunidadService {
 
     private final OportunidadRepository oportunidadRepository;
     private final OportunidadMapper oportunidadMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Override
     public OportunidadDTO crear(OportunidadDTO oportunidadDTO, UUID usuarioId) {
@@ -44,7 +54,9 @@ public class OportunidadServiceImpl implements OportunidadService {
         oportunidad.setUpdatedAt(Instant.now());
 
         oportunidad = oportunidadRepository.save(oportunidad);
-        return oportunidadMapper.toDTO(oportunidad);
+        OportunidadDTO resultado = oportunidadMapper.toDTO(oportunidad);
+        publicarCambio(OutboxEvent.CREADO, resultado.getId(), resultado);
+        return resultado;
     }
 
     @Override
@@ -59,7 +71,9 @@ public class OportunidadServiceImpl implements OportunidadService {
         oportunidad.setUpdatedAt(Instant.now());
 
         oportunidad = oportunidadRepository.save(oportunidad);
-        return oportunidadMapper.toDTO(oportunidad);
+        OportunidadDTO resultado = oportunidadMapper.toDTO(oportunidad);
+        publicarCambio(OutboxEvent.ACTUALIZADO, resultado.getId(), resultado);
+        return resultado;
     }
 
     @Override
@@ -81,6 +95,22 @@ public class OportunidadServiceImpl implements OportunidadService {
                 .map(oportunidadMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<OportunidadDTO> listarTodasPorCursor(String cursor, int size, boolean incluirTotal) {
+        log.debug("Listando oportunidades por cursor");
+        KeysetCursor posicion = KeysetCursor.decode(cursor);
+        Pageable pageable = CursorSlice.pageRequest(size);
+
+        Slice<Oportunidad> oportunidades = posicion == null
+                ? oportunidadRepository.findSliceFirst(pageable)
+                : oportunidadRepository.findSliceAfter(posicion.getCreatedAt(), posicion.getId(), pageable);
+
+        return CursorSlice.of(oportunidades, oportunidadMapper::toDTO,
+                oportunidad -> KeysetCursor.of(oportunidad.getCreatedAt(), oportunidad.getId()),
+                incluirTotal ? oportunidadRepository.count() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<OportunidadDTO> buscarPorCliente(UUID clienteId, Pageable pageable) {
@@ -124,7 +154,9 @@ public class OportunidadServiceImpl implements OportunidadService {
         oportunidad.setUpdatedBy(usuarioId);
 
         oportunidad = oportunidadRepository.save(oportunidad);
-        return oportunidadMapper.toDTO(oportunidad);
+        OportunidadDTO resultado = oportunidadMapper.toDTO(oportunidad);
+        publicarCambio("ETAPA_CAMBIADA", resultado.getId(), resultado);
+        return resultado;
     }
 
     @Override
@@ -138,7 +170,9 @@ public class OportunidadServiceImpl implements OportunidadService {
         oportunidad.setUpdatedBy(usuarioId);
 
         oportunidad = oportunidadRepository.save(oportunidad);
-        return oportunidadMapper.toDTO(oportunidad);
+        OportunidadDTO resultado = oportunidadMapper.toDTO(oportunidad);
+        publicarCambio("GANADA", resultado.getId(), resultado);
+        return resultado;
     }
 
     @Override
@@ -152,18 +186,21 @@ public class OportunidadServiceImpl implements OportunidadService {
         oportunidad.setUpdatedBy(usuarioId);
 
         oportunidad = oportunidadRepository.save(oportunidad);
-        return oportunidadMapper.toDTO(oportunidad);
+        OportunidadDTO resultado = oportunidadMapper.toDTO(oportunidad);
+        publicarCambio("PERDIDA", resultado.getId(), resultado);
+        return resultado;
     }
 
     @Override
     public void eliminar(UUID id) {
         log.info("Eliminando oportunidad: {}", id);
 
-        if (!oportunidadRepository.existsById(id)) {
-            throw new RuntimeException("Oportunidad no encontrada: " + id);
-        }
+        Oportunidad oportunidad = oportunidadRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Oportunidad no encontrada: " + id));
 
-        oportunidadRepository.deleteById(id);
+        oportunidadRepository.delete(oportunidad);
+        // La oportunidad deja de contar en el día en que se creó
+        publicarCambio(OutboxEvent.ELIMINADO, id, null, TenantDataChangedEvent.diasUtc(oportunidad.getCreatedAt()));
     }
 
     @Override
@@ -171,4 +208,23 @@ public class OportunidadServiceImpl implements OportunidadService {
     public long contarPorEtapa(UUID etapaId) {
         return oportunidadRepository.countByEtapaId(etapaId);
     }
+
+    /**
+     * Registra el evento en el outbox, en la transacción del cambio, y notifica a
+     * las vistas derivadas (dashboard) tras el commit
+     *
+     * @param oportunidad estado tras el cambio; null en eliminaciones (tenant del contexto RLS)
+     */
+    private void publicarCambio(String tipo, UUID oportunidadId, OportunidadDTO oportunidad) {
+        publicarCambio(tipo, oportunidadId, oportunidad, Set.of());
+    }
+
+    /**
+     * @param fechas días de los KPI alterados por el cambio, además del actual
+     */
+    private void publicarCambio(String tipo, UUID oportunidadId, OportunidadDTO oportunidad, Set<LocalDate> fechas) {
+        UUID unidadNegocioId = oportunidad != null ? oportunidad.getUnidadNegocioId() : null;
+        outboxWriter.registrar("oportunidades", oportunidadId, tipo, unidadNegocioId, oportunidad);
+        eventPublisher.publishEvent(new TenantDataChangedEvent("oportunidades", unidadNegocioId, fechas));
+    }
 }
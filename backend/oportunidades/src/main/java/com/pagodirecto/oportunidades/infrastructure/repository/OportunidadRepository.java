@@ -3,11 +3,13 @@ package com.pagodirecto.oportunidades.infrastructure.repository;
 import com.pagodirecto.oportunidades.domain.Oportunidad;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -96,4 +98,19 @@ public interface OportunidadRepository extends JpaRepository<Oportunidad, UUID>
      */
     @Query("SELECT o FROM Oportunidad o WHERE o.probabilidad = 0 AND o.motivoPerdida IS NOT NULL")
     Page<Oportunidad> findOportunidadesPerdidas(Pageable pageable);
+
+    /**
+     * Primera página en modo cursor: más recientes primero, sin COUNT
+     */
+    @Query("SELECT o FROM Oportunidad o ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Oportunidad> findSliceFirst(Pageable pageable);
+
+    /**
+     * Página siguiente en modo cursor: filas estrictamente posteriores a (createdAt, id).
+     * La primera condición acota el rango del índice (created_at DESC, id DESC)
+     */
+    @Query("SELECT o FROM Oportunidad o WHERE o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Oportunidad> findSliceAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
 }
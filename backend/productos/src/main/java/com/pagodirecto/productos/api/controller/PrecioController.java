@@ -0,0 +1,45 @@
+package com.pagodirecto.productos.api.controller;
+
+import com.pagodirecto.productos.application.dto.PrecioResueltoDTO;
+import com.pagodirecto.productos.application.dto.ResolucionPreciosRequest;
+import com.pagodirecto.productos.application.service.PrecioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller: Precios
+ *
+ * Resolución de precios diferenciados por segmento, volumen y vigencia.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@RestController
+@RequestMapping("/v1/productos/precios")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Precios", description = "API de resolución de precios de productos")
+public class PrecioController {
+
+    private final PrecioService precioService;
+
+    @PostMapping("/resolver")
+    @Operation(summary = "Resolver precios de varias líneas",
+               description = "Devuelve el menor precio aplicable a cada línea (reglas vigentes del segmento "
+                       + "y generales, por cantidad mínima), con el precio base como tope")
+    public ResponseEntity<List<PrecioResueltoDTO>> resolver(@Valid @RequestBody ResolucionPreciosRequest request) {
+        log.debug("Solicitud para resolver precios de {} líneas, segmento: {}",
+                request.getLineas().size(), request.getSegmento());
+
+        List<PrecioResueltoDTO> precios = precioService.resolver(request);
+        return ResponseEntity.ok(precios);
+    }
+}
@@ -1,8 +1,15 @@
 package com.pagodirecto.productos.api.controller;
 
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.productos.application.dto.MovimientoStockDTO;
+import com.pagodirecto.productos.application.dto.MovimientoStockRequest;
 import com.pagodirecto.productos.application.dto.ProductoDTO;
+import com.pagodirecto.productos.application.dto.ReservaStockDTO;
+import com.pagodirecto.productos.application.dto.ReservaStockRequest;
 import com.pagodirecto.productos.application.service.ProductoService;
+import com.pagodirecto.productos.application.service.StockService;
 import com.pagodirecto.productos.domain.ProductoStatus;
+import com.pagodirecto.seguridad.infrastructure.security.AuthenticatedPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -39,6 +46,7 @@ import java.util.UUID;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final StockService stockService;
 
     @PostMapping
     @Operation(summary = "Crear nuevo producto")
@@ -81,6 +89,22 @@ public class ProductoController {
         return ResponseEntity.ok(producto);
     }
 
+    @GetMapping("/sku/{sku}")
+    @Operation(summary = "Obtener producto por SKU")
+    public ResponseEntity<ProductoDTO> obtenerPorSku(@PathVariable String sku) {
+        log.debug("Solicitud para obtener producto con SKU: {}", sku);
+        ProductoDTO producto = productoService.buscarPorSku(sku);
+        return ResponseEntity.ok(producto);
+    }
+
+    @GetMapping("/codigo-barras/{codigoBarras}")
+    @Operation(summary = "Obtener producto por código de barras")
+    public ResponseEntity<ProductoDTO> obtenerPorCodigoBarras(@PathVariable String codigoBarras) {
+        log.debug("Solicitud para obtener producto con código de barras: {}", codigoBarras);
+        ProductoDTO producto = productoService.buscarPorCodigoBarras(codigoBarras);
+        return ResponseEntity.ok(producto);
+    }
+
     @GetMapping
     @Operation(summary = "Listar todos los productos con paginación")
     public ResponseEntity<Page<ProductoDTO>> listar(
@@ -94,6 +118,20 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Listar productos con paginación por cursor",
+               description = "Más recientes primero. Enviar nextCursor de la respuesta para obtener la "
+                       + "página siguiente; el total sólo se calcula con incluirTotal=true")
+    public ResponseEntity<CursorSlice<ProductoDTO>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        log.debug("Solicitud para listar productos por cursor - tamaño: {}", size);
+
+        CursorSlice<ProductoDTO> productos = productoService.listarPorCursor(cursor, size, incluirTotal);
+        return ResponseEntity.ok(productos);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Listar productos por status")
     public ResponseEntity<Page<ProductoDTO>> listarPorStatus(
@@ -172,6 +210,62 @@ public class ProductoController {
         return ResponseEntity.ok(productoActualizado);
     }
 
+    @PostMapping("/{id}/stock/movimientos")
+    @Operation(summary = "Registrar movimiento de stock",
+               description = "ENTRADA, SALIDA o AJUSTE aplicados en una sola sentencia atómica; "
+                       + "se rechaza si el saldo quedaría por debajo del stock reservado")
+    public ResponseEntity<MovimientoStockDTO> registrarMovimiento(
+            @PathVariable UUID id,
+            @Valid @RequestBody MovimientoStockRequest request) {
+        log.info("Solicitud de movimiento {} de {} unidades en producto {}",
+                request.getTipo(), request.getCantidad(), id);
+
+        MovimientoStockDTO movimiento = stockService.registrarMovimiento(id, request, usuarioActual());
+        return ResponseEntity.status(HttpStatus.CREATED).body(movimiento);
+    }
+
+    @GetMapping("/{id}/stock/movimientos")
+    @Operation(summary = "Listar movimientos de stock del producto (más recientes primero)")
+    public ResponseEntity<Page<MovimientoStockDTO>> listarMovimientos(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Solicitud para listar movimientos de stock del producto {}", id);
+
+        Page<MovimientoStockDTO> movimientos = stockService.listarMovimientos(id, PageRequest.of(page, size));
+        return ResponseEntity.ok(movimientos);
+    }
+
+    @PostMapping("/{id}/stock/reservas")
+    @Operation(summary = "Reservar stock del producto",
+               description = "La reserva vence automáticamente si no se confirma o libera a tiempo")
+    public ResponseEntity<ReservaStockDTO> reservar(
+            @PathVariable UUID id,
+            @Valid @RequestBody ReservaStockRequest request) {
+        log.info("Solicitud para reservar {} unidades del producto {}", request.getCantidad(), id);
+
+        ReservaStockDTO reserva = stockService.reservar(id, request, usuarioActual());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+    }
+
+    @PostMapping("/stock/reservas/{reservaId}/confirmar")
+    @Operation(summary = "Confirmar reserva de stock (registra la SALIDA)")
+    public ResponseEntity<MovimientoStockDTO> confirmarReserva(@PathVariable UUID reservaId) {
+        log.info("Solicitud para confirmar reserva de stock {}", reservaId);
+
+        MovimientoStockDTO movimiento = stockService.confirmarReserva(reservaId, usuarioActual());
+        return ResponseEntity.ok(movimiento);
+    }
+
+    @DeleteMapping("/stock/reservas/{reservaId}")
+    @Operation(summary = "Liberar reserva de stock")
+    public ResponseEntity<Void> liberarReserva(@PathVariable UUID reservaId) {
+        log.info("Solicitud para liberar reserva de stock {}", reservaId);
+
+        stockService.liberarReserva(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}/activar")
     @Operation(summary = "Activar producto")
     public ResponseEntity<ProductoDTO> activar(
@@ -229,6 +323,12 @@ public class ProductoController {
         return ResponseEntity.ok(count);
     }
 
+    private UUID usuarioActual() {
+        return AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
+    }
+
     /**
      * Helper method para crear Pageable con sort dinámico
      */
@@ -0,0 +1,41 @@
+package com.pagodirecto.productos.application.dto;
+
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO: Movimiento del libro de stock
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovimientoStockDTO {
+
+    private Long id;
+    private UUID productoId;
+    private TipoMovimientoStock tipo;
+
+    /**
+     * Variación de stock_actual, con signo
+     */
+    private Integer cantidad;
+
+    /**
+     * stock_actual después del movimiento
+     */
+    private Integer saldoResultante;
+
+    private String referenciaTipo;
+    private UUID referenciaId;
+    private String notas;
+    private Instant createdAt;
+    private UUID createdBy;
+}
@@ -0,0 +1,42 @@
+package com.pagodirecto.productos.application.dto;
+
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Solicitud de movimiento de stock
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovimientoStockRequest {
+
+    /**
+     * ENTRADA, SALIDA o AJUSTE
+     */
+    @NotNull(message = "El tipo de movimiento es obligatorio")
+    private TipoMovimientoStock tipo;
+
+    /**
+     * Unidades; positivas para ENTRADA y SALIDA, con signo para AJUSTE
+     */
+    @NotNull(message = "La cantidad es obligatoria")
+    private Integer cantidad;
+
+    @Size(max = 50, message = "El tipo de referencia no puede exceder 50 caracteres")
+    private String referenciaTipo;
+
+    private UUID referenciaId;
+
+    @Size(max = 1000, message = "Las notas no pueden exceder 1000 caracteres")
+    private String notas;
+}
@@ -0,0 +1,37 @@
+package com.pagodirecto.productos.application.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Precio resuelto para una línea
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrecioResueltoDTO {
+
+    private UUID productoId;
+
+    private Integer cantidad;
+
+    private BigDecimal precioUnitario;
+
+    private String moneda;
+
+    /**
+     * Regla de productos_precios aplicada; null cuando aplica el precio base
+     */
+    private UUID precioId;
+
+    private String tipoPrecio;
+
+    private BigDecimal subtotal;
+}
@@ -19,7 +19,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ProductoDTO {
 
     private UUID id;
@@ -64,6 +64,11 @@ public class ProductoDTO {
     @Min(value = 0, message = "El stock no puede ser negativo")
     private Integer stockActual;
 
+    /**
+     * Sólo lectura: unidades apartadas por reservas activas
+     */
+    private Integer stockReservado;
+
     @Min(value = 0, message = "El stock mínimo no puede ser negativo")
     private Integer stockMinimo;
 
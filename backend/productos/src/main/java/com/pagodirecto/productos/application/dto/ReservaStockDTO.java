@@ -0,0 +1,34 @@
+package com.pagodirecto.productos.application.dto;
+
+import com.pagodirecto.productos.domain.ReservaStockStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO: Reserva de stock
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaStockDTO {
+
+    private UUID id;
+    private UUID productoId;
+    private Integer cantidad;
+    private ReservaStockStatus status;
+    private String referenciaTipo;
+    private UUID referenciaId;
+    private Instant expiraEn;
+
+    /**
+     * Unidades disponibles del producto después de la operación
+     */
+    private Integer stockDisponible;
+}
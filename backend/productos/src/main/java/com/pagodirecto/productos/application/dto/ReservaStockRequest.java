@@ -0,0 +1,39 @@
+package com.pagodirecto.productos.application.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Solicitud de reserva de stock
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaStockRequest {
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser mayor que cero")
+    private Integer cantidad;
+
+    /**
+     * Minutos hasta que la reserva se libera sola; por defecto app.productos.stock.reserva-ttl
+     */
+    @Min(value = 1, message = "La duración mínima es de 1 minuto")
+    @Max(value = 43200, message = "La duración máxima es de 30 días")
+    private Integer minutos;
+
+    @Size(max = 50, message = "El tipo de referencia no puede exceder 50 caracteres")
+    private String referenciaTipo;
+
+    private UUID referenciaId;
+}
@@ -0,0 +1,57 @@
+package com.pagodirecto.productos.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Solicitud de resolución de precios de todas las líneas de una cotización o pedido
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResolucionPreciosRequest {
+
+    public static final int MAX_LINEAS = 5000;
+
+    /**
+     * Segmento del cliente; sin segmento sólo aplican las reglas generales
+     */
+    @Size(max = 50, message = "El segmento no puede exceder 50 caracteres")
+    private String segmento;
+
+    /**
+     * Fecha de vigencia a evaluar; por defecto hoy
+     */
+    private LocalDate fecha;
+
+    @NotEmpty(message = "Debe indicar al menos una línea")
+    @Size(max = MAX_LINEAS, message = "Máximo " + MAX_LINEAS + " líneas por solicitud")
+    private List<@Valid Linea> lineas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Linea {
+
+        @NotNull(message = "El producto es requerido")
+        private UUID productoId;
+
+        @NotNull(message = "La cantidad es requerida")
+        @Min(value = 1, message = "La cantidad debe ser mayor que cero")
+        private Integer cantidad;
+    }
+}
@@ -34,6 +34,7 @@ public interface ProductoMapper {
     @Mapping(target = "categoria", ignore = true)
     @Mapping(target = "precios", ignore = true)
     @Mapping(target = "deletedAt", ignore = true)
+    @Mapping(target = "stockReservado", ignore = true)
     Producto toEntity(ProductoDTO productoDTO);
 
     /**
@@ -45,5 +46,7 @@ public interface ProductoMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "deletedAt", ignore = true)
+    @Mapping(target = "stockActual", ignore = true)
+    @Mapping(target = "stockReservado", ignore = true)
     void updateEntityFromDTO(ProductoDTO productoDTO, @MappingTarget Producto producto);
 }
@@ -0,0 +1,36 @@
+package com.pagodirecto.productos.application.service;
+
+import com.pagodirecto.productos.application.dto.PrecioResueltoDTO;
+import com.pagodirecto.productos.application.dto.ResolucionPreciosRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Servicio: Resolución de Precios
+ *
+ * Resuelve precios contra una lista de precios en memoria por tenant, sin
+ * consultar la base de datos por línea.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface PrecioService {
+
+    /**
+     * Resuelve el precio unitario de todas las líneas en una sola llamada
+     *
+     * @param request segmento, fecha y líneas
+     * @return un precio por línea, en el mismo orden
+     * @throws IllegalArgumentException si algún producto no existe en el tenant
+     */
+    List<PrecioResueltoDTO> resolver(ResolucionPreciosRequest request);
+
+    /**
+     * Descarta la lista de precios del tenant; se reconstruye en la siguiente resolución
+     *
+     * @param unidadNegocioId el tenant; null descarta todas
+     */
+    void invalidar(UUID unidadNegocioId);
+}
@@ -1,5 +1,6 @@
 package com.pagodirecto.productos.application.service;
 
+import com.pagodirecto.core.pagination.CursorSlice;
 import com.pagodirecto.productos.application.dto.ProductoDTO;
 import com.pagodirecto.productos.domain.ProductoStatus;
 import org.springframework.data.domain.Page;
@@ -39,11 +40,31 @@ public interface ProductoService {
      */
     ProductoDTO buscarPorCodigo(String codigo);
 
+    /**
+     * Busca un producto por SKU
+     */
+    ProductoDTO buscarPorSku(String sku);
+
+    /**
+     * Busca un producto por código de barras
+     */
+    ProductoDTO buscarPorCodigoBarras(String codigoBarras);
+
     /**
      * Lista todos los productos con paginación
      */
     Page<ProductoDTO> listar(Pageable pageable);
 
+    /**
+     * Lista productos con paginación por cursor (keyset), más recientes primero
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (máximo {@value CursorSlice#MAX_SIZE})
+     * @param incluirTotal si true, calcula además el total de registros
+     * @return la página y el cursor de la siguiente
+     */
+    CursorSlice<ProductoDTO> listarPorCursor(String cursor, int size, boolean incluirTotal);
+
     /**
      * Lista productos por status
      */
@@ -70,7 +91,9 @@ public interface ProductoService {
     Page<ProductoDTO> buscar(String query, Pageable pageable);
 
     /**
-     * Actualiza el stock de un producto
+     * Actualiza el stock de un producto con un movimiento AJUSTE atómico
+     *
+     * @param cantidad variación con signo
      */
     ProductoDTO actualizarStock(UUID id, Integer cantidad);
 
@@ -0,0 +1,68 @@
+package com.pagodirecto.productos.application.service;
+
+import com.pagodirecto.productos.application.dto.MovimientoStockDTO;
+import com.pagodirecto.productos.application.dto.MovimientoStockRequest;
+import com.pagodirecto.productos.application.dto.ReservaStockDTO;
+import com.pagodirecto.productos.application.dto.ReservaStockRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Servicio: Stock de Productos
+ *
+ * Movimientos atómicos sobre stock_actual respaldados por un libro de
+ * movimientos, y reservas con vencimiento.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface StockService {
+
+    /**
+     * Registra un movimiento de stock
+     *
+     * @param productoId producto
+     * @param request tipo, cantidad y referencia
+     * @param usuarioId usuario que registra el movimiento
+     * @return el movimiento con el saldo resultante
+     * @throws IllegalArgumentException si el producto no existe o la cantidad no es válida para el tipo
+     * @throws com.pagodirecto.core.exception.BusinessException STOCK_INSUFICIENTE si el disponible no alcanza
+     */
+    MovimientoStockDTO registrarMovimiento(UUID productoId, MovimientoStockRequest request, UUID usuarioId);
+
+    /**
+     * Lista los movimientos de un producto, más recientes primero
+     */
+    Page<MovimientoStockDTO> listarMovimientos(UUID productoId, Pageable pageable);
+
+    /**
+     * Aparta unidades de un producto hasta que se confirmen, liberen o venzan
+     *
+     * @throws com.pagodirecto.core.exception.BusinessException STOCK_INSUFICIENTE si el disponible no alcanza
+     */
+    ReservaStockDTO reservar(UUID productoId, ReservaStockRequest request, UUID usuarioId);
+
+    /**
+     * Confirma una reserva activa: descuenta el stock con un movimiento SALIDA
+     */
+    MovimientoStockDTO confirmarReserva(UUID reservaId, UUID usuarioId);
+
+    /**
+     * Libera una reserva activa sin descontar stock
+     */
+    void liberarReserva(UUID reservaId);
+
+    /**
+     * Libera las reservas vencidas (job programado)
+     */
+    void expirarReservas();
+
+    /**
+     * Verifica que stock_actual coincida con el libro y stock_reservado con las
+     * reservas activas, y corrige las diferencias (job programado)
+     */
+    void reconciliar();
+}
@@ -0,0 +1,178 @@
+package com.pagodirecto.productos.application.service.impl;
+
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.productos.application.dto.PrecioResueltoDTO;
+import com.pagodirecto.productos.application.dto.ResolucionPreciosRequest;
+import com.pagodirecto.productos.application.service.PrecioService;
+import com.pagodirecto.productos.domain.ListaPrecios;
+import com.pagodirecto.productos.infrastructure.repository.ListaPreciosRepository;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementación: PrecioService
+ *
+ * Mantiene una {@link ListaPrecios} inmutable por tenant. La lista se carga bajo
+ * demanda (dos consultas), se descarta tras el commit de cualquier cambio en
+ * productos o precios del tenant y, como respaldo ante cambios hechos fuera de la
+ * aplicación, se recarga cuando supera app.productos.precios.max-age.
+ *
+ * Requests concurrentes de un mismo tenant comparten una única carga en curso;
+ * una vez cargada, resolver una cotización completa son búsquedas en memoria.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class PrecioServiceImpl implements PrecioService {
+
+    /**
+     * Módulos cuyos cambios pueden alterar un precio resuelto
+     */
+    private static final Set<String> MODULOS_PRECIOS = Set.of("productos", "precios");
+
+    private final ListaPreciosRepository listaPreciosRepository;
+    private final RLSContextManager rlsContextManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+    private final ConcurrentMap<UUID, CompletableFuture<ListaPrecios>> listas = new ConcurrentHashMap<>();
+
+    public PrecioServiceImpl(ListaPreciosRepository listaPreciosRepository,
+                             RLSContextManager rlsContextManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.productos.precios.max-age:PT10M}") Duration maxAge) {
+        this.listaPreciosRepository = listaPreciosRepository;
+        this.rlsContextManager = rlsContextManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public List<PrecioResueltoDTO> resolver(ResolucionPreciosRequest request) {
+        UUID unidadNegocioId = rlsContextManager.getCurrentTenant();
+        if (unidadNegocioId == null) {
+            throw new IllegalStateException("No hay unidad de negocio en el contexto para resolver precios");
+        }
+
+        LocalDate hoy = LocalDate.now();
+        LocalDate fecha = request.getFecha() != null ? request.getFecha() : hoy;
+        if (fecha.isBefore(hoy.minusDays(ListaPreciosRepository.VIGENCIA_MINIMA_DIAS))) {
+            throw new IllegalArgumentException("No se pueden resolver precios para fechas pasadas: " + fecha);
+        }
+
+        ListaPrecios lista = obtenerLista(unidadNegocioId);
+        List<PrecioResueltoDTO> resultado = new ArrayList<>(request.getLineas().size());
+        for (ResolucionPreciosRequest.Linea linea : request.getLineas()) {
+            ListaPrecios.Resolucion resolucion =
+                    lista.resolver(linea.getProductoId(), request.getSegmento(), linea.getCantidad(), fecha);
+            if (resolucion == null) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + linea.getProductoId());
+            }
+            resultado.add(PrecioResueltoDTO.builder()
+                    .productoId(resolucion.productoId())
+                    .cantidad(linea.getCantidad())
+                    .precioUnitario(resolucion.precioUnitario())
+                    .moneda(resolucion.moneda())
+                    .precioId(resolucion.precioId())
+                    .tipoPrecio(resolucion.tipoPrecio())
+                    .subtotal(resolucion.precioUnitario().multiply(BigDecimal.valueOf(linea.getCantidad())))
+                    .build());
+        }
+        return resultado;
+    }
+
+    @Override
+    public void invalidar(UUID unidadNegocioId) {
+        if (unidadNegocioId != null) {
+            listas.remove(unidadNegocioId);
+            log.debug("Lista de precios invalidada: tenant={}", unidadNegocioId);
+        } else {
+            listas.clear();
+            log.debug("Listas de precios invalidadas para todos los tenants");
+        }
+    }
+
+    /**
+     * Descarta la lista del tenant cuyos productos o precios cambiaron
+     *
+     * @param event el cambio confirmado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        if (!MODULOS_PRECIOS.contains(event.getModulo())) {
+            return;
+        }
+        invalidar(event.getUnidadNegocioId() != null
+                ? event.getUnidadNegocioId()
+                : rlsContextManager.getCurrentTenant());
+    }
+
+    /**
+     * Devuelve la lista vigente del tenant, cargándola en el thread llamante si falta o venció
+     */
+    private ListaPrecios obtenerLista(UUID unidadNegocioId) {
+        CompletableFuture<ListaPrecios> actual = listas.get(unidadNegocioId);
+        if (actual != null && !vencida(actual)) {
+            return esperar(actual);
+        }
+
+        CompletableFuture<ListaPrecios> nueva = new CompletableFuture<>();
+        boolean propia = actual == null
+                ? listas.putIfAbsent(unidadNegocioId, nueva) == null
+                : listas.replace(unidadNegocioId, actual, nueva);
+        if (!propia) {
+            CompletableFuture<ListaPrecios> enCurso = listas.get(unidadNegocioId);
+            return enCurso != null ? esperar(enCurso) : obtenerLista(unidadNegocioId);
+        }
+
+        try {
+            ListaPrecios lista = transactionTemplate.execute(status -> listaPreciosRepository.cargar(unidadNegocioId));
+            nueva.complete(lista);
+            log.info("Lista de precios cargada: tenant={}, productos={}", unidadNegocioId, lista.getTotalProductos());
+            return lista;
+        } catch (Throwable e) {
+            // También ante un Error: un future que nunca completa bloquearía para
+            // siempre a los siguientes requests del tenant
+            listas.remove(unidadNegocioId, nueva);
+            nueva.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private boolean vencida(CompletableFuture<ListaPrecios> lista) {
+        return lista.isDone() && !lista.isCompletedExceptionally()
+                && lista.join().getCargadaEn().plus(maxAge).isBefore(Instant.now());
+    }
+
+    private ListaPrecios esperar(CompletableFuture<ListaPrecios> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
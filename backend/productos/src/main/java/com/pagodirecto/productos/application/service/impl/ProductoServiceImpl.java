@@ -1,16 +1,29 @@
 package com.pagodirecto.productos.application.service.impl;
 
+import com.pagodirecto.productos.application.dto.MovimientoStockRequest;
 import com.pagodirecto.productos.application.dto.ProductoDTO;
 import com.pagodirecto.productos.application.mapper.ProductoMapper;
 import com.pagodirecto.productos.application.service.ProductoService;
+import com.pagodirecto.productos.application.service.StockService;
 import com.pagodirecto.productos.domain.Producto;
 import com.pagodirecto.productos.domain.ProductoStatus;
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import com.pagodirecto.productos.infrastructure.cache.ProductoCatalogoCache;
 import com.pagodirecto.productos.infrastructure.repository.ProductoRepository;
+import com.pagodirecto.productos.infrastructure.repository.StockLedgerRepository;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.core.outbox.OutboxWriter;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.core.pagination.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -33,7 +46,12 @@ import java.util.UUID;
 public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final StockService stockService;
     private final ProductoMapper productoMapper;
+    private final ProductoCatalogoCache catalogoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
 
     @Override
     public ProductoDTO crear(ProductoDTO productoDTO) {
@@ -47,10 +65,13 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setCreatedAt(Instant.now());
         producto.setUpdatedAt(Instant.now());
 
-        Producto productoGuardado = productoRepository.save(producto);
+        Producto productoGuardado = productoRepository.saveAndFlush(producto);
+        stockLedgerRepository.registrarInicial(productoGuardado.getId(), productoGuardado.getCreatedBy());
+        ProductoDTO resultado = productoMapper.toDTO(productoGuardado);
+        publicarCambio(OutboxEvent.CREADO, productoGuardado.getId(), resultado);
         log.info("Producto creado exitosamente con ID: {}", productoGuardado.getId());
 
-        return productoMapper.toDTO(productoGuardado);
+        return resultado;
     }
 
     @Override
@@ -64,31 +85,52 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setUpdatedAt(Instant.now());
 
         Producto productoActualizado = productoRepository.save(producto);
+        catalogoCache.invalidar(id);
+        ProductoDTO resultado = productoMapper.toDTO(productoActualizado);
+        publicarCambio(OutboxEvent.ACTUALIZADO, id, resultado);
         log.info("Producto actualizado exitosamente: {}", id);
 
-        return productoMapper.toDTO(productoActualizado);
+        return resultado;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoDTO buscarPorId(UUID id) {
         log.debug("Buscando producto con ID: {}", id);
 
-        Producto producto = productoRepository.findById(id)
+        return catalogoCache.porId(id, () -> productoRepository.findById(id).map(productoMapper::toDTO))
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
-
-        return productoMapper.toDTO(producto);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoDTO buscarPorCodigo(String codigo) {
         log.debug("Buscando producto con código: {}", codigo);
 
-        Producto producto = productoRepository.findByCodigo(codigo)
+        return catalogoCache.porClave(ProductoCatalogoCache.Clave.CODIGO, codigo,
+                        () -> productoRepository.findByCodigo(codigo).map(productoMapper::toDTO))
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con código: " + codigo));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductoDTO buscarPorSku(String sku) {
+        log.debug("Buscando producto con SKU: {}", sku);
+
+        return catalogoCache.porClave(ProductoCatalogoCache.Clave.SKU, sku,
+                        () -> productoRepository.findBySku(sku).map(productoMapper::toDTO))
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con SKU: " + sku));
+    }
 
-        return productoMapper.toDTO(producto);
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductoDTO buscarPorCodigoBarras(String codigoBarras) {
+        log.debug("Buscando producto con código de barras: {}", codigoBarras);
+
+        return catalogoCache.porClave(ProductoCatalogoCache.Clave.CODIGO_BARRAS, codigoBarras,
+                        () -> productoRepository.findByCodigoBarras(codigoBarras).map(productoMapper::toDTO))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Producto no encontrado con código de barras: " + codigoBarras));
     }
 
     @Override
@@ -99,6 +141,22 @@ public class ProductoServiceImpl implements ProductoService {
                 .map(productoMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ProductoDTO> listarPorCursor(String cursor, int size, boolean incluirTotal) {
+        log.debug("Listando productos por cursor");
+        KeysetCursor posicion = KeysetCursor.decode(cursor);
+        Pageable pageable = CursorSlice.pageRequest(size);
+
+        Slice<Producto> productos = posicion == null
+                ? productoRepository.findSliceFirst(pageable)
+                : productoRepository.findSliceAfter(posicion.getCreatedAt(), posicion.getId(), pageable);
+
+        return CursorSlice.of(productos, productoMapper::toDTO,
+                producto -> KeysetCursor.of(producto.getCreatedAt(), producto.getId()),
+                incluirTotal ? productoRepository.count() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ProductoDTO> listarPorStatus(ProductoStatus status, Pageable pageable) {
@@ -145,14 +203,17 @@ public class ProductoServiceImpl implements ProductoService {
     public ProductoDTO actualizarStock(UUID id, Integer cantidad) {
         log.info("Actualizando stock del producto {} en {} unidades", id, cantidad);
 
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
-
-        producto.actualizarStock(cantidad);
-        Producto productoActualizado = productoRepository.save(producto);
+        MovimientoStockRequest ajuste = MovimientoStockRequest.builder()
+                .tipo(TipoMovimientoStock.AJUSTE)
+                .cantidad(cantidad)
+                .build();
+        stockService.registrarMovimiento(id, ajuste, null);
 
-        log.info("Stock actualizado. Nuevo stock: {}", productoActualizado.getStockActual());
-        return productoMapper.toDTO(productoActualizado);
+        Producto productoActualizado = productoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
+        ProductoDTO resultado = productoMapper.toDTO(productoActualizado);
+        registrarEvento("STOCK_AJUSTADO", id, resultado);
+        return resultado;
     }
 
     @Override
@@ -164,9 +225,12 @@ public class ProductoServiceImpl implements ProductoService {
 
         producto.activar();
         Producto productoActivado = productoRepository.save(producto);
+        catalogoCache.invalidar(id);
+        ProductoDTO resultado = productoMapper.toDTO(productoActivado);
+        publicarCambio("ACTIVADO", id, resultado);
 
         log.info("Producto activado exitosamente: {}", id);
-        return productoMapper.toDTO(productoActivado);
+        return resultado;
     }
 
     @Override
@@ -178,9 +242,12 @@ public class ProductoServiceImpl implements ProductoService {
 
         producto.desactivar();
         Producto productoDesactivado = productoRepository.save(producto);
+        catalogoCache.invalidar(id);
+        ProductoDTO resultado = productoMapper.toDTO(productoDesactivado);
+        publicarCambio("DESACTIVADO", id, resultado);
 
         log.info("Producto desactivado exitosamente: {}", id);
-        return productoMapper.toDTO(productoDesactivado);
+        return resultado;
     }
 
     @Override
@@ -192,9 +259,12 @@ public class ProductoServiceImpl implements ProductoService {
 
         producto.descontinuar();
         Producto productoDescontinuado = productoRepository.save(producto);
+        catalogoCache.invalidar(id);
+        ProductoDTO resultado = productoMapper.toDTO(productoDescontinuado);
+        publicarCambio("DESCONTINUADO", id, resultado);
 
         log.info("Producto descontinuado exitosamente: {}", id);
-        return productoMapper.toDTO(productoDescontinuado);
+        return resultado;
     }
 
     @Override
@@ -206,6 +276,8 @@ public class ProductoServiceImpl implements ProductoService {
         }
 
         productoRepository.deleteById(id);
+        catalogoCache.invalidar(id);
+        publicarCambio(OutboxEvent.ELIMINADO, id, null);
         log.info("Producto eliminado exitosamente: {}", id);
     }
 
@@ -215,4 +287,23 @@ public class ProductoServiceImpl implements ProductoService {
         log.debug("Contando productos con status: {}", status);
         return productoRepository.countByStatus(status);
     }
+
+    /**
+     * Registra el evento en el outbox y notifica a las vistas derivadas (dashboard) tras el commit
+     */
+    private void publicarCambio(String tipo, UUID productoId, ProductoDTO producto) {
+        registrarEvento(tipo, productoId, producto);
+        UUID unidadNegocioId = producto != null ? producto.getUnidadNegocioId() : null;
+        eventPublisher.publishEvent(new TenantDataChangedEvent("productos", unidadNegocioId));
+    }
+
+    /**
+     * Registra el evento en el outbox, en la transacción del cambio
+     *
+     * @param producto estado tras el cambio; null en eliminaciones (tenant del contexto RLS)
+     */
+    private void registrarEvento(String tipo, UUID productoId, ProductoDTO producto) {
+        outboxWriter.registrar("productos", productoId, tipo,
+                producto != null ? producto.getUnidadNegocioId() : null, producto);
+    }
 }
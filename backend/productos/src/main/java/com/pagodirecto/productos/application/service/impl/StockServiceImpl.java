@@ -0,0 +1,231 @@
+package com.pagodirecto.productos.application.service.impl;
+
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.exception.BusinessException;
+import com.pagodirecto.productos.application.dto.MovimientoStockDTO;
+import com.pagodirecto.productos.application.dto.MovimientoStockRequest;
+import com.pagodirecto.productos.application.dto.ReservaStockDTO;
+import com.pagodirecto.productos.application.dto.ReservaStockRequest;
+import com.pagodirecto.productos.application.service.StockService;
+import com.pagodirecto.productos.domain.ReservaStockStatus;
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import com.pagodirecto.productos.infrastructure.cache.ProductoCatalogoCache;
+import com.pagodirecto.productos.infrastructure.repository.StockLedgerRepository;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementación: StockService
+ *
+ * Toda variación de stock pasa por {@link StockLedgerRepository}: una sentencia
+ * atómica por movimiento, sin leer la entidad Producto. Las reservas vencidas se
+ * liberan en lotes cada app.productos.stock.expiracion-interval y la
+ * reconciliación del libro corre cada app.productos.stock.reconciliacion-interval.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class StockServiceImpl implements StockService {
+
+    private static final Set<TipoMovimientoStock> TIPOS_MANUALES =
+            EnumSet.of(TipoMovimientoStock.ENTRADA, TipoMovimientoStock.SALIDA, TipoMovimientoStock.AJUSTE);
+
+    /**
+     * Reservas vencidas liberadas por transacción
+     */
+    private static final int LOTE_EXPIRACION = 500;
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ProductoCatalogoCache catalogoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RLSContextManager rlsContextManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reservaTtl;
+
+    public StockServiceImpl(StockLedgerRepository stockLedgerRepository,
+                            ProductoCatalogoCache catalogoCache,
+                            ApplicationEventPublisher eventPublisher,
+                            RLSContextManager rlsContextManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.productos.stock.reserva-ttl:PT30M}") Duration reservaTtl) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.catalogoCache = catalogoCache;
+        this.eventPublisher = eventPublisher;
+        this.rlsContextManager = rlsContextManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservaTtl = reservaTtl;
+    }
+
+    @Override
+    @Transactional
+    public MovimientoStockDTO registrarMovimiento(UUID productoId, MovimientoStockRequest request, UUID usuarioId) {
+        TipoMovimientoStock tipo = request.getTipo();
+        int cantidad = request.getCantidad();
+        if (!TIPOS_MANUALES.contains(tipo)) {
+            throw new IllegalArgumentException("Tipo de movimiento no permitido: " + tipo);
+        }
+        if (cantidad == 0 || (tipo != TipoMovimientoStock.AJUSTE && cantidad < 0)) {
+            throw new IllegalArgumentException("Cantidad inválida para un movimiento " + tipo + ": " + cantidad);
+        }
+        int variacion = tipo == TipoMovimientoStock.SALIDA ? -cantidad : cantidad;
+        log.info("Registrando movimiento {} de {} unidades en producto {}", tipo, variacion, productoId);
+
+        MovimientoStockDTO movimiento = stockLedgerRepository.aplicarMovimiento(productoId, variacion, tipo,
+                        request.getReferenciaTipo(), request.getReferenciaId(), request.getNotas(), usuarioId)
+                .orElseThrow(() -> sinMovimiento(productoId, variacion));
+
+        catalogoCache.invalidar(productoId);
+        publicarCambio();
+        log.info("Stock del producto {} actualizado. Nuevo stock: {}", productoId, movimiento.getSaldoResultante());
+        return movimiento;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MovimientoStockDTO> listarMovimientos(UUID productoId, Pageable pageable) {
+        log.debug("Listando movimientos de stock del producto {}", productoId);
+        List<MovimientoStockDTO> movimientos =
+                stockLedgerRepository.listarMovimientos(productoId, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(movimientos, pageable, stockLedgerRepository.contarMovimientos(productoId));
+    }
+
+    @Override
+    @Transactional
+    public ReservaStockDTO reservar(UUID productoId, ReservaStockRequest request, UUID usuarioId) {
+        int cantidad = request.getCantidad();
+        log.info("Reservando {} unidades del producto {}", cantidad, productoId);
+
+        StockLedgerRepository.Apartado apartado = stockLedgerRepository.apartar(productoId, cantidad)
+                .orElseThrow(() -> sinMovimiento(productoId, -cantidad));
+
+        Duration ttl = request.getMinutos() != null ? Duration.ofMinutes(request.getMinutos()) : reservaTtl;
+        Instant expiraEn = Instant.now().plus(ttl);
+        UUID reservaId = stockLedgerRepository.insertarReserva(apartado.unidadNegocioId(), productoId, cantidad,
+                request.getReferenciaTipo(), request.getReferenciaId(), expiraEn, usuarioId);
+        catalogoCache.invalidar(productoId);
+
+        log.info("Reserva {} creada; disponible: {}", reservaId, apartado.disponible());
+        return ReservaStockDTO.builder()
+                .id(reservaId)
+                .productoId(productoId)
+                .cantidad(cantidad)
+                .status(ReservaStockStatus.ACTIVA)
+                .referenciaTipo(request.getReferenciaTipo())
+                .referenciaId(request.getReferenciaId())
+                .expiraEn(expiraEn)
+                .stockDisponible(apartado.disponible())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public MovimientoStockDTO confirmarReserva(UUID reservaId, UUID usuarioId) {
+        log.info("Confirmando reserva de stock {}", reservaId);
+        MovimientoStockDTO movimiento = stockLedgerRepository.confirmarReserva(reservaId, usuarioId)
+                .orElseThrow(() -> new IllegalArgumentException("Reserva activa no encontrada con ID: " + reservaId));
+
+        catalogoCache.invalidar(movimiento.getProductoId());
+        publicarCambio();
+        log.info("Reserva {} confirmada. Nuevo stock: {}", reservaId, movimiento.getSaldoResultante());
+        return movimiento;
+    }
+
+    @Override
+    @Transactional
+    public void liberarReserva(UUID reservaId) {
+        log.info("Liberando reserva de stock {}", reservaId);
+        UUID productoId = stockLedgerRepository.liberarReserva(reservaId)
+                .orElseThrow(() -> new IllegalArgumentException("Reserva activa no encontrada con ID: " + reservaId));
+        catalogoCache.invalidar(productoId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.productos.stock.expiracion-interval:PT1M}")
+    public void expirarReservas() {
+        int total = 0;
+        int afectados;
+        do {
+            Integer lote = rlsContextManager.runAsSystem(() -> transactionTemplate.execute(status -> {
+                List<UUID> productos = stockLedgerRepository.expirarReservas(LOTE_EXPIRACION);
+                productos.forEach(catalogoCache::invalidar);
+                return productos.size();
+            }));
+            afectados = lote != null ? lote : 0;
+            total += afectados;
+        } while (afectados > 0);
+
+        if (total > 0) {
+            log.info("Reservas de stock vencidas liberadas en {} productos", total);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.productos.stock.reconciliacion-interval:PT1H}",
+               initialDelayString = "${app.productos.stock.reconciliacion-interval:PT1H}")
+    public void reconciliar() {
+        List<UUID> candidatos = rlsContextManager.runAsSystem(() ->
+                transactionTemplate.execute(status -> stockLedgerRepository.findDescuadres()));
+        if (candidatos == null || candidatos.isEmpty()) {
+            log.debug("Reconciliación de stock: sin diferencias");
+            return;
+        }
+
+        int corregidos = 0;
+        for (UUID productoId : candidatos) {
+            Optional<StockLedgerRepository.Reconciliacion> resultado = rlsContextManager.runAsSystem(() ->
+                    transactionTemplate.execute(status -> {
+                        Optional<StockLedgerRepository.Reconciliacion> reconciliacion =
+                                stockLedgerRepository.reconciliar(productoId);
+                        reconciliacion.ifPresent(r -> catalogoCache.invalidar(productoId));
+                        return reconciliacion;
+                    }));
+            if (resultado != null && resultado.isPresent()) {
+                StockLedgerRepository.Reconciliacion reconciliacion = resultado.get();
+                if (reconciliacion.diferenciaStock() != 0
+                        || reconciliacion.reservadoAnterior() != reconciliacion.reservadoEsperado()) {
+                    corregidos++;
+                    log.warn("Stock del producto {} reconciliado: diferencia {}, reservado {} -> {}",
+                            productoId, reconciliacion.diferenciaStock(),
+                            reconciliacion.reservadoAnterior(), reconciliacion.reservadoEsperado());
+                }
+            }
+        }
+        log.info("Reconciliación de stock: {} candidatos, {} corregidos", candidatos.size(), corregidos);
+    }
+
+    private RuntimeException sinMovimiento(UUID productoId, int variacion) {
+        if (!stockLedgerRepository.existeProducto(productoId)) {
+            return new IllegalArgumentException("Producto no encontrado con ID: " + productoId);
+        }
+        return new BusinessException("STOCK_INSUFICIENTE",
+                "Stock disponible insuficiente en el producto " + productoId + " para " + variacion + " unidades");
+    }
+
+    /**
+     * Notifica el cambio a las vistas derivadas (dashboard) tras el commit
+     */
+    private void publicarCambio() {
+        eventPublisher.publishEvent(new TenantDataChangedEvent("stock", null));
+    }
+}
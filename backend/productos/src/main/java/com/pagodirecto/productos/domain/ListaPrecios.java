@@ -0,0 +1,179 @@
+package com.pagodirecto.productos.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Valor de dominio: Lista de Precios de un tenant
+ *
+ * Instantánea inmutable de los precios base y de las reglas de {@link PrecioProducto}
+ * de una unidad de negocio, indexada por producto y, dentro de cada producto, por
+ * segmento de cliente. Las reglas de cada segmento se ordenan por cantidad mínima
+ * ascendente: el recorrido se corta en el primer escalón que excede la cantidad.
+ *
+ * La resolución replica esVigente / aplicaParaCantidad / aplicaParaSegmento de la
+ * entidad para una fecha dada y devuelve el menor precio aplicable, con el precio
+ * base del producto como tope. Sólo se consideran reglas en la moneda del producto.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public final class ListaPrecios {
+
+    private static final Regla[] SIN_REGLAS = new Regla[0];
+
+    private static final Comparator<Regla> POR_CANTIDAD =
+            Comparator.comparingInt(Regla::cantidadMinima);
+
+    private final UUID unidadNegocioId;
+    private final Instant cargadaEn;
+    private final Map<UUID, PreciosProducto> productos;
+
+    private ListaPrecios(UUID unidadNegocioId, Instant cargadaEn, Map<UUID, PreciosProducto> productos) {
+        this.unidadNegocioId = unidadNegocioId;
+        this.cargadaEn = cargadaEn;
+        this.productos = productos;
+    }
+
+    public UUID getUnidadNegocioId() {
+        return unidadNegocioId;
+    }
+
+    public Instant getCargadaEn() {
+        return cargadaEn;
+    }
+
+    public int getTotalProductos() {
+        return productos.size();
+    }
+
+    /**
+     * Resuelve el precio unitario de un producto
+     *
+     * @param productoId el producto
+     * @param segmento   segmento del cliente; null sólo aplica reglas generales
+     * @param cantidad   cantidad de la línea
+     * @param fecha      fecha de vigencia a evaluar
+     * @return el precio resuelto, o null si el producto no está en la lista
+     */
+    public Resolucion resolver(UUID productoId, String segmento, int cantidad, LocalDate fecha) {
+        PreciosProducto precios = productos.get(productoId);
+        if (precios == null) {
+            return null;
+        }
+
+        Regla mejor = mejorRegla(precios.generales(), cantidad, fecha, null);
+        if (segmento != null) {
+            Regla[] delSegmento = precios.porSegmento().get(segmento);
+            if (delSegmento != null) {
+                mejor = mejorRegla(delSegmento, cantidad, fecha, mejor);
+            }
+        }
+
+        if (mejor == null || mejor.precio().compareTo(precios.precioBase()) >= 0) {
+            return new Resolucion(productoId, precios.precioBase(), precios.moneda(), null, null);
+        }
+        return new Resolucion(productoId, mejor.precio(), precios.moneda(), mejor.id(), mejor.tipoPrecio());
+    }
+
+    private static Regla mejorRegla(Regla[] reglas, int cantidad, LocalDate fecha, Regla mejor) {
+        for (Regla regla : reglas) {
+            if (cantidad < regla.cantidadMinima()) {
+                break;
+            }
+            if (regla.esVigente(fecha) && (mejor == null || regla.precio().compareTo(mejor.precio()) < 0)) {
+                mejor = regla;
+            }
+        }
+        return mejor;
+    }
+
+    public static Builder builder(UUID unidadNegocioId) {
+        return new Builder(unidadNegocioId);
+    }
+
+    /**
+     * Precio resuelto de una línea; precioId y tipoPrecio son null cuando aplica el precio base
+     */
+    public record Resolucion(UUID productoId, BigDecimal precioUnitario, String moneda,
+                             UUID precioId, String tipoPrecio) {
+    }
+
+    /**
+     * Regla de precio de {@link PrecioProducto} reducida a los campos que intervienen en la resolución
+     */
+    public record Regla(UUID id, String tipoPrecio, BigDecimal precio, LocalDate fechaInicio,
+                        LocalDate fechaFin, int cantidadMinima) {
+
+        boolean esVigente(LocalDate fecha) {
+            return !fecha.isBefore(fechaInicio) && (fechaFin == null || !fecha.isAfter(fechaFin));
+        }
+    }
+
+    private record PreciosProducto(BigDecimal precioBase, String moneda, Regla[] generales,
+                                   Map<String, Regla[]> porSegmento) {
+    }
+
+    /**
+     * Acumula filas de productos y reglas; no es thread-safe, se usa durante la carga
+     */
+    public static final class Builder {
+
+        private final UUID unidadNegocioId;
+        private final Map<UUID, BigDecimal> preciosBase = new HashMap<>();
+        private final Map<UUID, String> monedas = new HashMap<>();
+        private final Map<UUID, List<Regla>> generales = new HashMap<>();
+        private final Map<UUID, Map<String, List<Regla>>> porSegmento = new HashMap<>();
+
+        private Builder(UUID unidadNegocioId) {
+            this.unidadNegocioId = unidadNegocioId;
+        }
+
+        public Builder producto(UUID productoId, BigDecimal precioBase, String moneda) {
+            preciosBase.put(productoId, precioBase);
+            monedas.put(productoId, moneda);
+            return this;
+        }
+
+        public Builder regla(UUID productoId, String segmento, Regla regla) {
+            if (segmento == null) {
+                generales.computeIfAbsent(productoId, id -> new ArrayList<>()).add(regla);
+            } else {
+                porSegmento.computeIfAbsent(productoId, id -> new HashMap<>())
+                        .computeIfAbsent(segmento, s -> new ArrayList<>())
+                        .add(regla);
+            }
+            return this;
+        }
+
+        public ListaPrecios build() {
+            Map<UUID, PreciosProducto> productos = new HashMap<>(preciosBase.size() * 4 / 3 + 1);
+            preciosBase.forEach((productoId, precioBase) -> {
+                Map<String, Regla[]> segmentos = new HashMap<>();
+                porSegmento.getOrDefault(productoId, Map.of())
+                        .forEach((segmento, reglas) -> segmentos.put(segmento, ordenar(reglas)));
+                productos.put(productoId, new PreciosProducto(precioBase, monedas.get(productoId),
+                        ordenar(generales.get(productoId)), Map.copyOf(segmentos)));
+            });
+            return new ListaPrecios(unidadNegocioId, Instant.now(), Map.copyOf(productos));
+        }
+
+        private static Regla[] ordenar(List<Regla> reglas) {
+            if (reglas == null || reglas.isEmpty()) {
+                return SIN_REGLAS;
+            }
+            Regla[] ordenadas = reglas.toArray(SIN_REGLAS);
+            Arrays.sort(ordenadas, POR_CANTIDAD);
+            return ordenadas;
+        }
+    }
+}
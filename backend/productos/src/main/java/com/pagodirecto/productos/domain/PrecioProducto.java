@@ -85,8 +85,11 @@ public class PrecioProducto {
     private Instant deletedAt;
 
     public boolean esVigente() {
-        LocalDate hoy = LocalDate.now();
-        return !hoy.isBefore(fechaInicio) && (fechaFin == null || !hoy.isAfter(fechaFin));
+        return esVigente(LocalDate.now());
+    }
+
+    public boolean esVigente(LocalDate fecha) {
+        return !fecha.isBefore(fechaInicio) && (fechaFin == null || !fecha.isAfter(fechaFin));
     }
 
     public boolean aplicaParaCantidad(Integer cantidad) {
@@ -78,10 +78,21 @@ public class Producto {
     @Builder.Default
     private ProductoStatus status = ProductoStatus.ACTIVE;
 
-    @Column(name = "stock_actual")
+    /**
+     * Sólo se escribe al crear; después cambia únicamente con movimientos atómicos
+     * del libro de stock, para que un save de la entidad no pise movimientos concurrentes
+     */
+    @Column(name = "stock_actual", nullable = false, updatable = false)
     @Builder.Default
     private Integer stockActual = 0;
 
+    /**
+     * Unidades apartadas por reservas activas; la mantiene el libro de stock
+     */
+    @Column(name = "stock_reservado", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer stockReservado = 0;
+
     @Column(name = "stock_minimo")
     @Builder.Default
     private Integer stockMinimo = 0;
@@ -138,11 +149,6 @@ public class Producto {
                .multiply(BigDecimal.valueOf(100));
     }
 
-    public void actualizarStock(Integer cantidad) {
-        this.stockActual += cantidad;
-        this.updatedAt = Instant.now();
-    }
-
     public void activar() {
         this.status = ProductoStatus.ACTIVE;
         this.updatedAt = Instant.now();
@@ -0,0 +1,5 @@
+package com.pagodirecto.productos.domain;
+
+public enum ReservaStockStatus {
+    ACTIVA, CONFIRMADA, LIBERADA, EXPIRADA
+}
@@ -0,0 +1,12 @@
+package com.pagodirecto.productos.domain;
+
+/**
+ * Tipo de movimiento del libro de stock (productos_stock_movimientos)
+ *
+ * INICIAL: saldo con el que nace el producto. ENTRADA/SALIDA: recepciones y
+ * despachos (incluye reservas confirmadas). AJUSTE: corrección manual.
+ * RECONCILIACION: diferencia detectada por el job de reconciliación.
+ */
+public enum TipoMovimientoStock {
+    INICIAL, ENTRADA, SALIDA, AJUSTE, RECONCILIACION
+}
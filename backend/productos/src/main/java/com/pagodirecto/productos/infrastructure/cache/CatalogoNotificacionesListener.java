@@ -0,0 +1,135 @@
+package com.pagodirecto.productos.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Componente: CatalogoNotificacionesListener
+ *
+ * Escucha el canal {@value ProductoCatalogoCache#CANAL} de PostgreSQL y descarta
+ * del {@link ProductoCatalogoCache} local los productos modificados en cualquier
+ * nodo (incluido éste).
+ *
+ * Usa una conexión JDBC propia, fuera del pool de Hikari, que permanece abierta
+ * mientras corre la aplicación. Si la conexión se cae se reabre con espera y, como
+ * pudo perder notificaciones mientras tanto, se descarta el catálogo completo.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class CatalogoNotificacionesListener implements SmartLifecycle {
+
+    private static final int ESPERA_NOTIFICACIONES_MS = 5000;
+
+    private static final Duration ESPERA_RECONEXION = Duration.ofSeconds(5);
+
+    private final ProductoCatalogoCache catalogoCache;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean habilitado;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CatalogoNotificacionesListener(ProductoCatalogoCache catalogoCache,
+                                          @Value("${spring.datasource.url}") String url,
+                                          @Value("${spring.datasource.username}") String username,
+                                          @Value("${spring.datasource.password}") String password,
+                                          @Value("${app.productos.catalogo-cache.listen-enabled:true}") boolean habilitado) {
+        this.catalogoCache = catalogoCache;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public void start() {
+        if (!habilitado) {
+            log.info("Invalidación del catálogo entre nodos deshabilitada");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::escuchar, "productos-catalogo-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void escuchar() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + ProductoCatalogoCache.CANAL);
+                }
+                catalogoCache.descartarTodo();
+                log.info("Escuchando invalidaciones del catálogo en el canal {}", ProductoCatalogoCache.CANAL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notificaciones = pgConnection.getNotifications(ESPERA_NOTIFICACIONES_MS);
+                    if (notificaciones != null) {
+                        for (PGNotification notificacion : notificaciones) {
+                            procesar(notificacion.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Conexión de invalidaciones del catálogo perdida; reintentando en {}: {}",
+                            ESPERA_RECONEXION, e.getMessage());
+                    esperarReconexion();
+                }
+            }
+        }
+    }
+
+    private void procesar(String payload) {
+        if (ProductoCatalogoCache.TODOS.equals(payload)) {
+            catalogoCache.descartarTodo();
+            return;
+        }
+        try {
+            catalogoCache.descartar(UUID.fromString(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Notificación de catálogo inválida: {}", payload);
+        }
+    }
+
+    private void esperarReconexion() {
+        try {
+            Thread.sleep(ESPERA_RECONEXION.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.pagodirecto.productos.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pagodirecto.productos.application.dto.ProductoDTO;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache: ProductoCatalogoCache
+ *
+ * Cache read-through del catálogo de productos, acotado (W-TinyLFU de Caffeine).
+ *
+ * - Las entradas se guardan por id; código, SKU y código de barras son índices
+ *   (tenant, clave, valor) hacia el id, validados contra la entrada en cada acierto
+ * - Una entrada sólo se sirve a requests del tenant dueño del producto
+ * - Cada escritura invalida el producto localmente tras el commit y emite un
+ *   NOTIFY en el canal {@value #CANAL} dentro de la misma transacción; los demás
+ *   nodos lo reciben vía {@link CatalogoNotificacionesListener}
+ * - Una carga en curso que se cruza con una invalidación no se guarda
+ * - Hits/misses/evictions se publican en Actuator como cache "productos.catalogo"
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class ProductoCatalogoCache {
+
+    /**
+     * Canal de LISTEN/NOTIFY para invalidaciones entre nodos
+     */
+    public static final String CANAL = "productos_catalogo";
+
+    /**
+     * Payload que invalida el catálogo completo
+     */
+    public static final String TODOS = "*";
+
+    private static final String CACHE_NAME = "productos.catalogo";
+
+    private static final String SQL_NOTIFY = "SELECT pg_notify(?, ?)";
+
+    public enum Clave {
+        CODIGO(ProductoDTO::getCodigo),
+        SKU(ProductoDTO::getSku),
+        CODIGO_BARRAS(ProductoDTO::getCodigoBarras);
+
+        private final Function<ProductoDTO, String> valor;
+
+        Clave(Function<ProductoDTO, String> valor) {
+            this.valor = valor;
+        }
+    }
+
+    private record ClaveAlterna(UUID unidadNegocioId, Clave clave, String valor) {
+    }
+
+    private final RLSContextManager rlsContextManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<UUID, ProductoDTO> productos;
+    private final Cache<ClaveAlterna, UUID> indice;
+
+    /**
+     * Se incrementa en cada invalidación; una carga sólo se guarda si no cambió mientras corría
+     */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public ProductoCatalogoCache(RLSContextManager rlsContextManager,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.productos.catalogo-cache.max-size:20000}") long maxSize,
+                                 @Value("${app.productos.catalogo-cache.ttl:PT10M}") Duration ttl) {
+        this.rlsContextManager = rlsContextManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.productos = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.indice = Caffeine.newBuilder()
+                .maximumSize(maxSize * Clave.values().length)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productos, CACHE_NAME);
+        log.info("Cache del catálogo de productos inicializado. TTL: {}, Max size: {}", ttl, maxSize);
+    }
+
+    /**
+     * Obtiene un producto por id, cargándolo sólo si no está en cache
+     *
+     * @param id     el producto
+     * @param cargar la consulta a la base de datos; corre en una transacción de sólo lectura
+     * @return el producto (una copia), o vacío si no existe para el tenant actual
+     */
+    public Optional<ProductoDTO> porId(UUID id, Supplier<Optional<ProductoDTO>> cargar) {
+        UUID unidadNegocioId = rlsContextManager.getCurrentTenant();
+        if (unidadNegocioId == null) {
+            return cargarSinCache(cargar);
+        }
+
+        ProductoDTO producto = productos.getIfPresent(id);
+        if (producto != null) {
+            return unidadNegocioId.equals(producto.getUnidadNegocioId())
+                    ? Optional.of(copia(producto))
+                    : Optional.empty();
+        }
+        return cargarYGuardar(unidadNegocioId, cargar);
+    }
+
+    /**
+     * Obtiene un producto por código, SKU o código de barras, cargándolo sólo si no está en cache
+     *
+     * @param clave  el índice a usar
+     * @param valor  el valor buscado
+     * @param cargar la consulta a la base de datos; corre en una transacción de sólo lectura
+     * @return el producto (una copia), o vacío si no existe para el tenant actual
+     */
+    public Optional<ProductoDTO> porClave(Clave clave, String valor, Supplier<Optional<ProductoDTO>> cargar) {
+        UUID unidadNegocioId = rlsContextManager.getCurrentTenant();
+        if (unidadNegocioId == null) {
+            return cargarSinCache(cargar);
+        }
+
+        ClaveAlterna claveAlterna = new ClaveAlterna(unidadNegocioId, clave, valor);
+        UUID id = indice.getIfPresent(claveAlterna);
+        if (id != null) {
+            ProductoDTO producto = productos.getIfPresent(id);
+            // El producto pudo cambiar de código desde que se indexó
+            if (producto != null && valor.equals(clave.valor.apply(producto))) {
+                return Optional.of(copia(producto));
+            }
+            indice.invalidate(claveAlterna);
+        }
+        return cargarYGuardar(unidadNegocioId, cargar);
+    }
+
+    /**
+     * Invalida un producto en todos los nodos
+     *
+     * Dentro de una transacción el NOTIFY se entrega y la entrada local se descarta
+     * sólo tras el commit; si la transacción hace rollback no se invalida nada.
+     *
+     * @param productoId el producto modificado
+     */
+    public void invalidar(UUID productoId) {
+        notificar(productoId.toString());
+        alConfirmar(() -> descartar(productoId));
+    }
+
+    /**
+     * Invalida el catálogo completo en todos los nodos
+     */
+    public void invalidarTodo() {
+        notificar(TODOS);
+        alConfirmar(this::descartarTodo);
+    }
+
+    /**
+     * Descarta un producto sólo en este nodo
+     *
+     * @param productoId el producto
+     */
+    public void descartar(UUID productoId) {
+        generacion.incrementAndGet();
+        productos.invalidate(productoId);
+    }
+
+    /**
+     * Descarta el catálogo completo sólo en este nodo
+     */
+    public void descartarTodo() {
+        generacion.incrementAndGet();
+        productos.invalidateAll();
+        indice.invalidateAll();
+    }
+
+    private Optional<ProductoDTO> cargarYGuardar(UUID unidadNegocioId, Supplier<Optional<ProductoDTO>> cargar) {
+        long inicio = generacion.get();
+        Optional<ProductoDTO> cargado = cargarSinCache(cargar);
+        cargado.filter(producto -> unidadNegocioId.equals(producto.getUnidadNegocioId()))
+                .ifPresent(producto -> {
+                    if (generacion.get() == inicio) {
+                        guardar(producto);
+                    }
+                });
+        return cargado;
+    }
+
+    private Optional<ProductoDTO> cargarSinCache(Supplier<Optional<ProductoDTO>> cargar) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> cargar.get()));
+    }
+
+    private void guardar(ProductoDTO producto) {
+        ProductoDTO copia = copia(producto);
+        productos.put(copia.getId(), copia);
+        for (Clave clave : Clave.values()) {
+            String valor = clave.valor.apply(copia);
+            if (valor != null) {
+                indice.put(new ClaveAlterna(copia.getUnidadNegocioId(), clave, valor), copia.getId());
+            }
+        }
+    }
+
+    private void notificar(String payload) {
+        jdbcTemplate.queryForList(SQL_NOTIFY, CANAL, payload);
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    /**
+     * ProductoDTO es mutable: el cache nunca entrega ni guarda la instancia del llamante
+     */
+    private static ProductoDTO copia(ProductoDTO producto) {
+        return producto.toBuilder().build();
+    }
+}
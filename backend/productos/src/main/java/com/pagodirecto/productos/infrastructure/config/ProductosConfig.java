@@ -0,0 +1,19 @@
+package com.pagodirecto.productos.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración: ProductosConfig
+ *
+ * Habilita los jobs programados del módulo de productos (vencimiento de
+ * reservas y reconciliación del libro de stock).
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Configuration
+@EnableScheduling
+public class ProductosConfig {
+}
@@ -0,0 +1,89 @@
+package com.pagodirecto.productos.infrastructure.repository;
+
+import com.pagodirecto.productos.domain.ListaPrecios;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+/**
+ * Repositorio: Lista de Precios
+ *
+ * Carga en dos consultas planas todos los precios base y las reglas vigentes o
+ * futuras de un tenant, sin pasar por la colección lazy Producto.precios. El
+ * tenant se filtra explícitamente para poder cargar desde jobs con bypass de RLS.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class ListaPreciosRepository {
+
+    private static final int FETCH_SIZE = 2000;
+
+    /**
+     * Días hacia atrás que cubren las reglas cargadas
+     */
+    public static final int VIGENCIA_MINIMA_DIAS = 1;
+
+    private static final String SQL_PRODUCTOS =
+            "SELECT id, precio_base, moneda FROM productos_productos " +
+            "WHERE unidad_negocio_id = ? AND deleted_at IS NULL";
+
+    /**
+     * Reglas en la moneda del producto que no vencieron hace más de VIGENCIA_MINIMA_DIAS
+     * días (margen por zona horaria entre la base de datos y la JVM)
+     */
+    private static final String SQL_REGLAS =
+            "SELECT pp.producto_id, pp.id, pp.tipo_precio, pp.precio, pp.fecha_inicio, pp.fecha_fin, " +
+            "pp.segmento_cliente, COALESCE(pp.cantidad_minima, 1) AS cantidad_minima " +
+            "FROM productos_precios pp JOIN productos_productos p ON p.id = pp.producto_id " +
+            "WHERE p.unidad_negocio_id = ? AND p.deleted_at IS NULL AND pp.deleted_at IS NULL " +
+            "AND pp.moneda = p.moneda AND (pp.fecha_fin IS NULL OR pp.fecha_fin >= CURRENT_DATE - ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construye la lista de precios completa del tenant
+     *
+     * @param unidadNegocioId el tenant
+     * @return la instantánea inmutable
+     */
+    public ListaPrecios cargar(UUID unidadNegocioId) {
+        ListaPrecios.Builder builder = ListaPrecios.builder(unidadNegocioId);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_PRODUCTOS);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, unidadNegocioId);
+            return ps;
+        }, (RowCallbackHandler) rs ->
+                builder.producto(rs.getObject("id", UUID.class), rs.getBigDecimal("precio_base"), rs.getString("moneda")));
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_REGLAS);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, unidadNegocioId);
+            ps.setInt(2, VIGENCIA_MINIMA_DIAS);
+            return ps;
+        }, rs -> {
+            Date fechaFin = rs.getDate("fecha_fin");
+            builder.regla(rs.getObject("producto_id", UUID.class), rs.getString("segmento_cliente"),
+                    new ListaPrecios.Regla(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("tipo_precio"),
+                            rs.getBigDecimal("precio"),
+                            rs.getDate("fecha_inicio").toLocalDate(),
+                            fechaFin != null ? fechaFin.toLocalDate() : null,
+                            rs.getInt("cantidad_minima")));
+        });
+
+        return builder.build();
+    }
+}
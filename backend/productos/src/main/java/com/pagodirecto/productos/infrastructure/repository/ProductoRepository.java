@@ -4,11 +4,13 @@ import com.pagodirecto.productos.domain.Producto;
 import com.pagodirecto.productos.domain.ProductoStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,6 +48,11 @@ public interface ProductoRepository extends JpaRepository<Producto, UUID> {
      */
     Optional<Producto> findBySku(String sku);
 
+    /**
+     * Busca un producto por código de barras
+     */
+    Optional<Producto> findByCodigoBarras(String codigoBarras);
+
     /**
      * Verifica si existe un producto con el código
      */
@@ -87,4 +94,19 @@ public interface ProductoRepository extends JpaRepository<Producto, UUID> {
      * Encuentra productos por unidad de negocio
      */
     Page<Producto> findByUnidadNegocioId(UUID unidadNegocioId, Pageable pageable);
+
+    /**
+     * Primera página en modo cursor: más recientes primero, sin COUNT
+     */
+    @Query("SELECT p FROM Producto p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Producto> findSliceFirst(Pageable pageable);
+
+    /**
+     * Página siguiente en modo cursor: filas estrictamente posteriores a (createdAt, id).
+     * La primera condición acota el rango del índice (created_at DESC, id DESC)
+     */
+    @Query("SELECT p FROM Producto p WHERE p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Producto> findSliceAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
 }
@@ -0,0 +1,308 @@
+package com.pagodirecto.productos.infrastructure.repository;
+
+import com.pagodirecto.productos.application.dto.MovimientoStockDTO;
+import com.pagodirecto.productos.domain.ReservaStockStatus;
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repositorio: Libro de Stock
+ *
+ * Cada cambio de stock_actual es una única sentencia que incrementa la columna
+ * en la base de datos (stock_actual = stock_actual + ?) e inserta el movimiento
+ * en el mismo viaje (CTE con UPDATE ... RETURNING). No hay lectura previa: el
+ * bloqueo de la fila dura sólo esa sentencia y no se pierden actualizaciones
+ * concurrentes. Las guardas de stock suficiente van en el WHERE.
+ *
+ * Las reservas apartan unidades en stock_reservado; disponible = actual - reservado.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private static final String SQL_MOVIMIENTO =
+            "WITH actualizado AS (" +
+            "  UPDATE productos_productos SET stock_actual = stock_actual + ?, updated_at = NOW() " +
+            "  WHERE id = ? AND deleted_at IS NULL AND stock_actual + ? >= stock_reservado " +
+            "  RETURNING id, unidad_negocio_id, stock_actual) " +
+            "INSERT INTO productos_stock_movimientos (unidad_negocio_id, producto_id, tipo, cantidad, " +
+            "saldo_resultante, referencia_tipo, referencia_id, notas, created_by) " +
+            "SELECT unidad_negocio_id, id, ?, ?, stock_actual, ?, ?, ?, ? FROM actualizado " +
+            "RETURNING id, producto_id, tipo, cantidad, saldo_resultante, referencia_tipo, referencia_id, " +
+            "notas, created_at, created_by";
+
+    private static final String SQL_INICIAL =
+            "INSERT INTO productos_stock_movimientos (unidad_negocio_id, producto_id, tipo, cantidad, " +
+            "saldo_resultante, notas, created_by) " +
+            "SELECT unidad_negocio_id, id, 'INICIAL', stock_actual, stock_actual, 'Alta del producto', ? " +
+            "FROM productos_productos WHERE id = ?";
+
+    private static final String SQL_EXISTE =
+            "SELECT COUNT(*) FROM productos_productos WHERE id = ? AND deleted_at IS NULL";
+
+    private static final String SQL_APARTAR =
+            "UPDATE productos_productos SET stock_reservado = stock_reservado + ? " +
+            "WHERE id = ? AND deleted_at IS NULL AND stock_actual - stock_reservado >= ? " +
+            "RETURNING unidad_negocio_id, stock_actual - stock_reservado AS disponible";
+
+    private static final String SQL_INSERTAR_RESERVA =
+            "INSERT INTO productos_stock_reservas (unidad_negocio_id, producto_id, cantidad, " +
+            "referencia_tipo, referencia_id, expira_en, created_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id";
+
+    /**
+     * Confirma la reserva y descuenta el stock con su movimiento SALIDA, en una sentencia
+     */
+    private static final String SQL_CONFIRMAR_RESERVA =
+            "WITH reserva AS (" +
+            "  UPDATE productos_stock_reservas SET status = 'CONFIRMADA', updated_at = NOW() " +
+            "  WHERE id = ? AND status = 'ACTIVA' " +
+            "  RETURNING producto_id, cantidad, referencia_tipo, referencia_id), " +
+            "actualizado AS (" +
+            "  UPDATE productos_productos p SET stock_actual = p.stock_actual - r.cantidad, " +
+            "  stock_reservado = p.stock_reservado - r.cantidad, updated_at = NOW() " +
+            "  FROM reserva r WHERE p.id = r.producto_id " +
+            "  RETURNING p.id, p.unidad_negocio_id, p.stock_actual, r.cantidad, r.referencia_tipo, r.referencia_id) " +
+            "INSERT INTO productos_stock_movimientos (unidad_negocio_id, producto_id, tipo, cantidad, " +
+            "saldo_resultante, referencia_tipo, referencia_id, notas, created_by) " +
+            "SELECT unidad_negocio_id, id, 'SALIDA', -cantidad, stock_actual, referencia_tipo, referencia_id, " +
+            "'Reserva confirmada', ? FROM actualizado " +
+            "RETURNING id, producto_id, tipo, cantidad, saldo_resultante, referencia_tipo, referencia_id, " +
+            "notas, created_at, created_by";
+
+    /**
+     * Cierra reservas activas (por id o vencidas) y devuelve sus unidades a disponible.
+     * Se agrupa por producto: UPDATE ... FROM aplica una sola fila de origen por destino.
+     */
+    private static final String SQL_CERRAR_RESERVAS =
+            "WITH reserva AS (" +
+            "  UPDATE productos_stock_reservas SET status = ?, updated_at = NOW() " +
+            "  WHERE id IN (%s) AND status = 'ACTIVA' " +
+            "  RETURNING producto_id, cantidad), " +
+            "por_producto AS (SELECT producto_id, SUM(cantidad) AS cantidad FROM reserva GROUP BY producto_id) " +
+            "UPDATE productos_productos p SET stock_reservado = p.stock_reservado - r.cantidad " +
+            "FROM por_producto r WHERE p.id = r.producto_id " +
+            "RETURNING p.id";
+
+    private static final String FILTRO_RESERVA_ID = "?";
+
+    private static final String FILTRO_RESERVAS_VENCIDAS =
+            "SELECT id FROM productos_stock_reservas WHERE status = 'ACTIVA' AND expira_en < NOW() " +
+            "ORDER BY expira_en LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String SQL_LISTAR_MOVIMIENTOS =
+            "SELECT id, producto_id, tipo, cantidad, saldo_resultante, referencia_tipo, referencia_id, " +
+            "notas, created_at, created_by FROM productos_stock_movimientos " +
+            "WHERE producto_id = ? ORDER BY id DESC LIMIT ? OFFSET ?";
+
+    private static final String SQL_CONTAR_MOVIMIENTOS =
+            "SELECT COUNT(*) FROM productos_stock_movimientos WHERE producto_id = ?";
+
+    /**
+     * Productos cuyo stock no coincide con el libro o cuyo reservado no coincide con sus reservas
+     */
+    private static final String SQL_DESCUADRES =
+            "SELECT p.id FROM productos_productos p " +
+            "LEFT JOIN (SELECT producto_id, SUM(cantidad) AS suma FROM productos_stock_movimientos " +
+            "           GROUP BY producto_id) m ON m.producto_id = p.id " +
+            "LEFT JOIN (SELECT producto_id, SUM(cantidad) AS suma FROM productos_stock_reservas " +
+            "           WHERE status = 'ACTIVA' GROUP BY producto_id) r ON r.producto_id = p.id " +
+            "WHERE p.stock_actual <> COALESCE(m.suma, 0) OR p.stock_reservado <> COALESCE(r.suma, 0)";
+
+    private static final String SQL_BLOQUEAR_PRODUCTO =
+            "SELECT unidad_negocio_id, stock_actual, stock_reservado FROM productos_productos " +
+            "WHERE id = ? FOR UPDATE";
+
+    private static final String SQL_SUMA_MOVIMIENTOS =
+            "SELECT COALESCE(SUM(cantidad), 0) FROM productos_stock_movimientos WHERE producto_id = ?";
+
+    private static final String SQL_SUMA_RESERVAS =
+            "SELECT COALESCE(SUM(cantidad), 0) FROM productos_stock_reservas " +
+            "WHERE producto_id = ? AND status = 'ACTIVA'";
+
+    private static final String SQL_INSERTAR_RECONCILIACION =
+            "INSERT INTO productos_stock_movimientos (unidad_negocio_id, producto_id, tipo, cantidad, " +
+            "saldo_resultante, notas) VALUES (?, ?, 'RECONCILIACION', ?, ?, ?)";
+
+    private static final String SQL_CORREGIR_RESERVADO =
+            "UPDATE productos_productos SET stock_reservado = ? WHERE id = ?";
+
+    private static final RowMapper<MovimientoStockDTO> MOVIMIENTO_MAPPER = (rs, rowNum) -> MovimientoStockDTO.builder()
+            .id(rs.getLong("id"))
+            .productoId(rs.getObject("producto_id", UUID.class))
+            .tipo(TipoMovimientoStock.valueOf(rs.getString("tipo")))
+            .cantidad(rs.getInt("cantidad"))
+            .saldoResultante(rs.getInt("saldo_resultante"))
+            .referenciaTipo(rs.getString("referencia_tipo"))
+            .referenciaId(rs.getObject("referencia_id", UUID.class))
+            .notas(rs.getString("notas"))
+            .createdAt(rs.getTimestamp("created_at").toInstant())
+            .createdBy(rs.getObject("created_by", UUID.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Aplica una variación de stock y registra el movimiento
+     *
+     * @param productoId producto
+     * @param cantidad   variación con signo
+     * @param tipo       tipo de movimiento
+     * @param referenciaTipo tipo del documento que origina el movimiento (p. ej. PEDIDO)
+     * @param referenciaId   id del documento
+     * @param notas      notas libres
+     * @param usuarioId  usuario que registra el movimiento
+     * @return el movimiento con el nuevo saldo, o vacío si el producto no existe o el stock no alcanza
+     */
+    public Optional<MovimientoStockDTO> aplicarMovimiento(UUID productoId, int cantidad, TipoMovimientoStock tipo,
+                                               String referenciaTipo, UUID referenciaId, String notas,
+                                               UUID usuarioId) {
+        return jdbcTemplate.query(SQL_MOVIMIENTO, MOVIMIENTO_MAPPER,
+                cantidad, productoId, cantidad, tipo.name(), cantidad, referenciaTipo, referenciaId, notas, usuarioId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Registra el saldo inicial de un producto recién creado
+     */
+    public void registrarInicial(UUID productoId, UUID usuarioId) {
+        jdbcTemplate.update(SQL_INICIAL, ps -> {
+            ps.setObject(1, usuarioId, Types.OTHER);
+            ps.setObject(2, productoId);
+        });
+    }
+
+    public boolean existeProducto(UUID productoId) {
+        Long total = jdbcTemplate.queryForObject(SQL_EXISTE, Long.class, productoId);
+        return total != null && total > 0;
+    }
+
+    /**
+     * Aparta unidades si hay disponibles
+     *
+     * @return tenant del producto y stock disponible restante, o vacío si no alcanza o no existe
+     */
+    public Optional<Apartado> apartar(UUID productoId, int cantidad) {
+        List<Apartado> apartado = jdbcTemplate.query(SQL_APARTAR,
+                (rs, rowNum) -> new Apartado(rs.getObject("unidad_negocio_id", UUID.class), rs.getInt("disponible")),
+                cantidad, productoId, cantidad);
+        return apartado.stream().findFirst();
+    }
+
+    public UUID insertarReserva(UUID unidadNegocioId, UUID productoId, int cantidad, String referenciaTipo,
+                                UUID referenciaId, Instant expiraEn, UUID usuarioId) {
+        return jdbcTemplate.queryForObject(SQL_INSERTAR_RESERVA, UUID.class,
+                unidadNegocioId, productoId, cantidad, referenciaTipo, referenciaId,
+                Timestamp.from(expiraEn), usuarioId);
+    }
+
+    /**
+     * @return el movimiento SALIDA, o vacío si la reserva no existe o ya no está activa
+     */
+    public Optional<MovimientoStockDTO> confirmarReserva(UUID reservaId, UUID usuarioId) {
+        return jdbcTemplate.query(SQL_CONFIRMAR_RESERVA, MOVIMIENTO_MAPPER, reservaId, usuarioId)
+                .stream().findFirst();
+    }
+
+    /**
+     * @return el producto cuyas unidades se liberaron, o vacío si la reserva no estaba activa
+     */
+    public Optional<UUID> liberarReserva(UUID reservaId) {
+        String sql = String.format(SQL_CERRAR_RESERVAS, FILTRO_RESERVA_ID);
+        return jdbcTemplate.queryForList(sql, UUID.class, ReservaStockStatus.LIBERADA.name(), reservaId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Marca como EXPIRADA un lote de reservas vencidas y libera sus unidades
+     *
+     * @param limite máximo de reservas por llamada
+     * @return productos cuyo stock reservado cambió
+     */
+    public List<UUID> expirarReservas(int limite) {
+        String sql = String.format(SQL_CERRAR_RESERVAS, FILTRO_RESERVAS_VENCIDAS);
+        return jdbcTemplate.queryForList(sql, UUID.class, ReservaStockStatus.EXPIRADA.name(), limite);
+    }
+
+    public List<MovimientoStockDTO> listarMovimientos(UUID productoId, long offset, int limite) {
+        return jdbcTemplate.query(SQL_LISTAR_MOVIMIENTOS, MOVIMIENTO_MAPPER, productoId, limite, offset);
+    }
+
+    public long contarMovimientos(UUID productoId) {
+        Long total = jdbcTemplate.queryForObject(SQL_CONTAR_MOVIMIENTOS, Long.class, productoId);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Productos candidatos a reconciliar (lectura sin bloqueo; se verifican uno a uno)
+     */
+    public List<UUID> findDescuadres() {
+        return jdbcTemplate.queryForList(SQL_DESCUADRES, UUID.class);
+    }
+
+    /**
+     * Reconcilia un producto: debe llamarse en su propia transacción.
+     *
+     * Bloquea la fila primero; en READ COMMITTED las sumas siguientes ven todos los
+     * movimientos confirmados antes del bloqueo, así que un movimiento en curso no
+     * se confunde con un descuadre.
+     *
+     * @return la diferencia registrada en el libro (0 si sólo se corrigió el reservado o nada)
+     */
+    public Optional<Reconciliacion> reconciliar(UUID productoId) {
+        List<Object[]> fila = jdbcTemplate.query(SQL_BLOQUEAR_PRODUCTO, (rs, rowNum) -> new Object[] {
+                rs.getObject("unidad_negocio_id", UUID.class), rs.getInt("stock_actual"), rs.getInt("stock_reservado")
+        }, productoId);
+        if (fila.isEmpty()) {
+            return Optional.empty();
+        }
+        UUID unidadNegocioId = (UUID) fila.get(0)[0];
+        int stockActual = (Integer) fila.get(0)[1];
+        int stockReservado = (Integer) fila.get(0)[2];
+
+        Integer sumaMovimientos = jdbcTemplate.queryForObject(SQL_SUMA_MOVIMIENTOS, Integer.class, productoId);
+        Integer sumaReservas = jdbcTemplate.queryForObject(SQL_SUMA_RESERVAS, Integer.class, productoId);
+
+        int diferencia = stockActual - (sumaMovimientos != null ? sumaMovimientos : 0);
+        if (diferencia != 0) {
+            jdbcTemplate.update(SQL_INSERTAR_RECONCILIACION, unidadNegocioId, productoId, diferencia, stockActual,
+                    "Diferencia entre stock_actual y el libro de movimientos");
+        }
+        int reservadoEsperado = sumaReservas != null ? sumaReservas : 0;
+        boolean reservadoCorregido = reservadoEsperado != stockReservado;
+        if (reservadoCorregido) {
+            jdbcTemplate.update(SQL_CORREGIR_RESERVADO, Math.min(reservadoEsperado, stockActual), productoId);
+        }
+        return Optional.of(new Reconciliacion(diferencia, stockReservado, reservadoEsperado));
+    }
+
+    /**
+     * Resultado de apartar stock
+     */
+    public record Apartado(UUID unidadNegocioId, int disponible) {
+    }
+
+    /**
+     * Resultado de reconciliar un producto
+     *
+     * @param diferenciaStock   unidades registradas como RECONCILIACION
+     * @param reservadoAnterior stock_reservado antes de corregir
+     * @param reservadoEsperado suma de reservas activas
+     */
+    public record Reconciliacion(int diferenciaStock, int reservadoAnterior, int reservadoEsperado) {
+    }
+}
@@ -0,0 +1,263 @@
+package com.pagodirecto.productos.infrastructure.repository;
+
+import com.pagodirecto.productos.domain.TipoMovimientoStock;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: StockLedgerRepository contra PostgreSQL
+ *
+ * Ejecuta la migración V18 sobre un esquema mínimo y verifica, con varios hilos
+ * y una conexión por sentencia, que no se pierden actualizaciones, que la guarda
+ * de stock suficiente no deja saldos negativos y que las reservas vencidas se
+ * liberan una sola vez.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StockLedgerRepositoryTest {
+
+    private static final Path MIGRACION_V18 =
+            Path.of("../application/src/main/resources/db/migration/V18__create_productos_stock_ledger.sql");
+
+    /**
+     * Tablas y funciones de migraciones anteriores que V18 referencia
+     */
+    private static final String ESQUEMA_BASE =
+            "CREATE TABLE seguridad_usuarios (id UUID PRIMARY KEY);" +
+            "CREATE FUNCTION app_current_tenant() RETURNS UUID LANGUAGE sql AS 'SELECT NULL::uuid';" +
+            "CREATE FUNCTION app_bypass_rls() RETURNS BOOLEAN LANGUAGE sql AS 'SELECT true';" +
+            "CREATE TABLE productos_productos (" +
+            "  id UUID PRIMARY KEY, unidad_negocio_id UUID NOT NULL, stock_actual INTEGER, " +
+            "  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), deleted_at TIMESTAMPTZ);";
+
+    private static final int HILOS = 8;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private StockLedgerRepository repository;
+    private UUID unidadNegocioId;
+
+    @BeforeAll
+    static void crearEsquema() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(ESQUEMA_BASE);
+        jdbcTemplate.execute(Files.readString(MIGRACION_V18));
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new StockLedgerRepository(jdbcTemplate);
+        unidadNegocioId = UUID.randomUUID();
+    }
+
+    @Test
+    void movimientosConcurrentesNoPierdenActualizaciones() throws Exception {
+        UUID productoId = crearProducto(1000);
+        int porHilo = 200;
+
+        concurrente(hilo -> {
+            for (int i = 0; i < porHilo; i++) {
+                int cantidad = hilo % 2 == 0 ? 3 : -1;
+                TipoMovimientoStock tipo = cantidad > 0 ? TipoMovimientoStock.ENTRADA : TipoMovimientoStock.SALIDA;
+                assertThat(repository.aplicarMovimiento(productoId, cantidad, tipo, null, null, null, null))
+                        .isPresent();
+            }
+        });
+
+        int esperado = 1000 + (HILOS / 2) * porHilo * 3 - (HILOS / 2) * porHilo;
+        assertThat(stockActual(productoId)).isEqualTo(esperado);
+        assertThat(sumaMovimientos(productoId)).isEqualTo(esperado);
+        assertThat(repository.contarMovimientos(productoId)).isEqualTo(1L + HILOS * porHilo);
+        assertThat(repository.findDescuadres()).doesNotContain(productoId);
+    }
+
+    @Test
+    void salidasConcurrentesNoDejanStockNegativo() throws Exception {
+        UUID productoId = crearProducto(100);
+        AtomicInteger aplicadas = new AtomicInteger();
+
+        concurrente(hilo -> {
+            for (int i = 0; i < 50; i++) {
+                repository.aplicarMovimiento(productoId, -1, TipoMovimientoStock.SALIDA, null, null, null, null)
+                        .ifPresent(movimiento -> {
+                            assertThat(movimiento.getSaldoResultante()).isGreaterThanOrEqualTo(0);
+                            aplicadas.incrementAndGet();
+                        });
+            }
+        });
+
+        assertThat(aplicadas).hasValue(100);
+        assertThat(stockActual(productoId)).isZero();
+        assertThat(sumaMovimientos(productoId)).isZero();
+    }
+
+    @Test
+    void apartadosConcurrentesNoSuperanElDisponible() throws Exception {
+        UUID productoId = crearProducto(40);
+        AtomicInteger apartadas = new AtomicInteger();
+
+        concurrente(hilo -> {
+            for (int i = 0; i < 20; i++) {
+                repository.apartar(productoId, 1).ifPresent(apartado -> {
+                    assertThat(apartado.disponible()).isGreaterThanOrEqualTo(0);
+                    repository.insertarReserva(apartado.unidadNegocioId(), productoId, 1, null, null,
+                            Instant.now().plusSeconds(3600), null);
+                    apartadas.incrementAndGet();
+                });
+            }
+        });
+
+        assertThat(apartadas).hasValue(40);
+        assertThat(stockReservado(productoId)).isEqualTo(40);
+        assertThat(repository.aplicarMovimiento(productoId, -1, TipoMovimientoStock.SALIDA, null, null, null, null))
+                .isEmpty();
+    }
+
+    @Test
+    void reservasVencidasSeLiberanUnaSolaVez() throws Exception {
+        UUID productoId = crearProducto(500);
+        UUID vigente = reservar(productoId, 5, Instant.now().plusSeconds(3600));
+        for (int i = 0; i < 200; i++) {
+            reservar(productoId, 2, Instant.now().minusSeconds(60));
+        }
+        assertThat(stockReservado(productoId)).isEqualTo(405);
+
+        concurrente(hilo -> {
+            List<UUID> productos;
+            do {
+                productos = transactionTemplate.execute(status -> repository.expirarReservas(7));
+            } while (productos != null && !productos.isEmpty());
+        });
+
+        assertThat(stockReservado(productoId)).isEqualTo(5);
+        assertThat(contarReservas(productoId, "EXPIRADA")).isEqualTo(200);
+        assertThat(contarReservas(productoId, "ACTIVA")).isEqualTo(1);
+        assertThat(stockActual(productoId)).isEqualTo(500);
+        assertThat(repository.findDescuadres()).doesNotContain(productoId);
+
+        assertThat(repository.confirmarReserva(vigente, null))
+                .hasValueSatisfying(movimiento -> assertThat(movimiento.getSaldoResultante()).isEqualTo(495));
+        assertThat(stockReservado(productoId)).isZero();
+    }
+
+    @Test
+    void reconciliarRegistraLaDiferenciaComoReconciliacion() {
+        UUID productoId = crearProducto(10);
+        jdbcTemplate.update("UPDATE productos_productos SET stock_actual = 13 WHERE id = ?", productoId);
+
+        assertThat(repository.findDescuadres()).contains(productoId);
+        Optional<StockLedgerRepository.Reconciliacion> resultado =
+                transactionTemplate.execute(status -> repository.reconciliar(productoId));
+
+        assertThat(resultado).hasValueSatisfying(r -> assertThat(r.diferenciaStock()).isEqualTo(3));
+        assertThat(repository.listarMovimientos(productoId, 0, 1))
+                .singleElement()
+                .satisfies(movimiento -> {
+                    assertThat(movimiento.getTipo()).isEqualTo(TipoMovimientoStock.RECONCILIACION);
+                    assertThat(movimiento.getCantidad()).isEqualTo(3);
+                });
+        assertThat(repository.findDescuadres()).doesNotContain(productoId);
+    }
+
+    private UUID crearProducto(int stock) {
+        UUID productoId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO productos_productos (id, unidad_negocio_id, stock_actual) VALUES (?, ?, ?)",
+                productoId, unidadNegocioId, stock);
+        repository.registrarInicial(productoId, null);
+        return productoId;
+    }
+
+    private UUID reservar(UUID productoId, int cantidad, Instant expiraEn) {
+        StockLedgerRepository.Apartado apartado = repository.apartar(productoId, cantidad).orElseThrow();
+        return repository.insertarReserva(apartado.unidadNegocioId(), productoId, cantidad, null, null,
+                expiraEn, null);
+    }
+
+    private int stockActual(UUID productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_actual FROM productos_productos WHERE id = ?", Integer.class, productoId);
+    }
+
+    private int stockReservado(UUID productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_reservado FROM productos_productos WHERE id = ?", Integer.class, productoId);
+    }
+
+    private int sumaMovimientos(UUID productoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT SUM(cantidad) FROM productos_stock_movimientos WHERE producto_id = ?", Integer.class,
+                productoId);
+    }
+
+    private int contarReservas(UUID productoId, String status) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productos_stock_reservas WHERE producto_id = ? AND status = ?",
+                Integer.class, productoId, status);
+    }
+
+    /**
+     * Ejecuta la tarea en {@link #HILOS} hilos que arrancan a la vez y propaga sus fallas
+     */
+    private static void concurrente(Tarea tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Void>> resultados = new ArrayList<>();
+            for (int hilo = 0; hilo < HILOS; hilo++) {
+                int numero = hilo;
+                Callable<Void> callable = () -> {
+                    largada.await();
+                    tarea.ejecutar(numero);
+                    return null;
+                };
+                resultados.add(executor.submit(callable));
+            }
+            largada.countDown();
+            for (Future<Void> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Tarea {
+        void ejecutar(int hilo) throws Exception;
+    }
+}
@@ -0,0 +1,45 @@
+package com.pagodirecto.reportes.application.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Service: KpiRollupService
+ *
+ * Mantiene los rollups diarios de KPIs (reportes_kpi_diario) que usa el dashboard.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface KpiRollupService {
+
+    /**
+     * Marca el día actual de un tenant como pendiente de recalcular
+     *
+     * @param unidadNegocioId el tenant, o null si no se conoce (se recalculan todos)
+     */
+    void marcarPendiente(UUID unidadNegocioId);
+
+    /**
+     * Marca el día actual y los días indicados de un tenant como pendientes de recalcular
+     *
+     * @param unidadNegocioId el tenant, o null si no se conoce (se recalculan todos)
+     * @param fechas          días (UTC) afectados además del actual
+     */
+    void marcarPendiente(UUID unidadNegocioId, Collection<LocalDate> fechas);
+
+    /**
+     * Recalcula los días pendientes acumulados desde la última ejecución
+     */
+    void procesarPendientes();
+
+    /**
+     * Reconstruye los rollups de todos los tenants en un rango de días
+     *
+     * @param desde primer día (UTC, inclusive)
+     * @param hasta último día (UTC, inclusive)
+     */
+    void backfill(LocalDate desde, LocalDate hasta);
+}
@@ -1,239 +1,251 @@
 package com.pagodirecto.reportes.application.service.impl;
 
+import com.pagodirecto.core.metrics.MetricNames;
 import com.pagodirecto.reportes.application.dto.DashboardStatsDTO;
 import com.pagodirecto.reportes.application.service.DashboardService;
-import lombok.RequiredArgsConstructor;
+import com.pagodirecto.reportes.infrastructure.cache.DashboardStatsCache;
+import com.pagodirecto.reportes.infrastructure.repository.KpiDiarioRepository;
+import com.pagodirecto.reportes.infrastructure.repository.KpiDiarioRepository.ResumenMensual;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * Service Implementation: DashboardServiceImpl
  *
+ * Calcula los KPIs con una consulta agregada por tabla (COUNT(*) FILTER),
+ * ejecutadas en paralelo. Las cifras del mes actual y anterior se leen de los
+ * rollups diarios (ver {@link KpiDiarioRepository}) en lugar de las tablas de origen.
+ * El resultado se cachea por unidad de negocio (ver {@link DashboardStatsCache}).
+ * Cada consulta se mide en pagodirecto.dashboard.query, etiquetada por consulta.
+ *
  * @author PagoDirecto CRM Team
  * @version 1.0
  * @since 2025-10-13
  */
 @Service
-@Transactional(readOnly = true)
-@RequiredArgsConstructor
 @Slf4j
 public class DashboardServiceImpl implements DashboardService {
 
+    private static final String SQL_CLIENTES =
+            "SELECT COUNT(*) AS total FROM clientes_clientes WHERE deleted_at IS NULL";
+
+    private static final String SQL_OPORTUNIDADES =
+            "SELECT COUNT(*) FILTER (WHERE probabilidad < 100) AS activas, " +
+            "COUNT(*) FILTER (WHERE probabilidad = 100) AS ganadas, " +
+            "COALESCE(SUM(valor_estimado), 0) AS valor_total " +
+            "FROM oportunidades_oportunidades WHERE deleted_at IS NULL";
+
+    private static final String SQL_TAREAS =
+            "SELECT COUNT(*) FILTER (WHERE status IN ('PENDIENTE', 'EN_PROGRESO')) AS pendientes, " +
+            "COUNT(*) FILTER (WHERE status = 'COMPLETADA') AS completadas, " +
+            "COUNT(*) FILTER (WHERE fecha_vencimiento < CURRENT_DATE " +
+            "AND status NOT IN ('COMPLETADA', 'CANCELADA')) AS vencidas " +
+            "FROM tareas_tareas WHERE deleted_at IS NULL";
+
+    private static final String SQL_PEDIDOS =
+            "SELECT COUNT(*) AS total FROM ventas_pedidos WHERE deleted_at IS NULL";
+
+    private static final String SQL_PRODUCTOS =
+            "SELECT COUNT(*) AS total, " +
+            "COUNT(*) FILTER (WHERE stock_actual <= stock_minimo) AS stock_bajo " +
+            "FROM productos_productos WHERE deleted_at IS NULL";
+
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskExecutor dashboardExecutor;
+    private final RLSContextManager rlsContextManager;
+    private final DashboardStatsCache dashboardStatsCache;
+    private final KpiDiarioRepository kpiDiarioRepository;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardServiceImpl(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("dashboardExecutor") TaskExecutor dashboardExecutor,
+                                RLSContextManager rlsContextManager,
+                                DashboardStatsCache dashboardStatsCache,
+                                KpiDiarioRepository kpiDiarioRepository,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.dashboardExecutor = dashboardExecutor;
+        this.rlsContextManager = rlsContextManager;
+        this.dashboardStatsCache = dashboardStatsCache;
+        this.kpiDiarioRepository = kpiDiarioRepository;
+        this.meterRegistry = meterRegistry;
+    }
 
     @Override
     public DashboardStatsDTO obtenerEstadisticas() {
         log.info("Obteniendo estadísticas del dashboard");
+        return dashboardStatsCache.obtener(rlsContextManager.getCurrentTenant(), this::calcularEstadisticas);
+    }
+
+    private DashboardStatsDTO calcularEstadisticas() {
+        Periodo periodo = Periodo.actual();
+
+        CompletableFuture<Long> clientes = ejecutar("clientes", this::obtenerClientes);
+        CompletableFuture<OportunidadesAgregado> oportunidades = ejecutar("oportunidades", this::obtenerOportunidades);
+        CompletableFuture<TareasAgregado> tareas = ejecutar("tareas", this::obtenerTareas);
+        CompletableFuture<Long> pedidos = ejecutar("pedidos", this::obtenerPedidos);
+        CompletableFuture<ProductosAgregado> productos = ejecutar("productos", this::obtenerProductos);
+        CompletableFuture<ResumenMensual> resumen = ejecutar("resumen_mensual",
+                () -> kpiDiarioRepository.obtenerResumenMensual(
+                        periodo.primerDiaMesAnterior(), periodo.primerDiaMesActual(), periodo.hoy()));
+
+        try {
+            CompletableFuture.allOf(clientes, oportunidades, tareas, pedidos, productos, resumen).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
 
-        LocalDate inicioMesActual = LocalDate.now().withDayOfMonth(1);
-        LocalDate finMesActual = LocalDate.now();
-        LocalDate inicioMesAnterior = inicioMesActual.minusMonths(1);
-        LocalDate finMesAnterior = inicioMesActual.minusDays(1);
+        DashboardStatsDTO stats = construirEstadisticas(
+                clientes.join(), oportunidades.join(), tareas.join(), pedidos.join(), productos.join(), resumen.join());
 
-        DashboardStatsDTO stats = DashboardStatsDTO.builder()
+        log.info("Estadísticas obtenidas: {} clientes, {} oportunidades, {} tareas",
+                stats.getTotalClientes(), stats.getOportunidadesActivas(), stats.getTareasPendientes());
+
+        return stats;
+    }
+
+    private DashboardStatsDTO construirEstadisticas(long totalClientes,
+                                                    OportunidadesAgregado oportunidades,
+                                                    TareasAgregado tareas,
+                                                    long totalPedidos,
+                                                    ProductosAgregado productos,
+                                                    ResumenMensual mensual) {
+        return DashboardStatsDTO.builder()
                 // Clientes
-                .totalClientes(obtenerTotalClientes())
-                .clientesNuevosEsteMes(obtenerClientesNuevosPorPeriodo(inicioMesActual, finMesActual))
-                .clientesCambioMensual(calcularCambioMensualClientes(inicioMesActual, inicioMesAnterior, finMesAnterior))
+                .totalClientes(totalClientes)
+                .clientesNuevosEsteMes(mensual.clientesMesActual())
+                .clientesCambioMensual(calcularPorcentajeCambio(mensual.clientesMesAnterior(), mensual.clientesMesActual()))
 
                 // Oportunidades
-                .oportunidadesActivas(obtenerOportunidadesActivas())
-                .oportunidadesGanadas(obtenerOportunidadesGanadas())
-                .valorTotalOportunidades(obtenerValorTotalOportunidades())
-                .oportunidadesCambioMensual(calcularCambioMensualOportunidades(inicioMesActual, inicioMesAnterior, finMesAnterior))
+                .oportunidadesActivas(oportunidades.activas())
+                .oportunidadesGanadas(oportunidades.ganadas())
+                .valorTotalOportunidades(oportunidades.valorTotal())
+                .oportunidadesCambioMensual(calcularPorcentajeCambio(mensual.oportunidadesMesAnterior(), mensual.oportunidadesMesActual()))
 
                 // Tareas
-                .tareasPendientes(obtenerTareasPendientes())
-                .tareasCompletadas(obtenerTareasCompletadas())
-                .tareasVencidas(obtenerTareasVencidas())
-                .tareasCambioMensual(calcularCambioMensualTareas(inicioMesActual, inicioMesAnterior, finMesAnterior))
+                .tareasPendientes(tareas.pendientes())
+                .tareasCompletadas(tareas.completadas())
+                .tareasVencidas(tareas.vencidas())
+                .tareasCambioMensual(calcularPorcentajeCambio(mensual.tareasMesAnterior(), mensual.tareasMesActual()))
 
                 // Ventas
-                .totalPedidos(obtenerTotalPedidos())
-                .pedidosEsteMes(obtenerPedidosPorPeriodo(inicioMesActual, finMesActual))
-                .ventasTotalesEsteMes(obtenerVentasPorPeriodo(inicioMesActual, finMesActual))
-                .ventasMesAnterior(obtenerVentasPorPeriodo(inicioMesAnterior, finMesAnterior))
-                .ventasCambioMensual(calcularCambioMensualVentas(inicioMesActual, inicioMesAnterior, finMesAnterior))
+                .totalPedidos(totalPedidos)
+                .pedidosEsteMes(mensual.pedidosMesActual())
+                .ventasTotalesEsteMes(mensual.ventasMesActual())
+                .ventasMesAnterior(mensual.ventasMesAnterior())
+                .ventasCambioMensual(calcularPorcentajeCambio(mensual.ventasMesAnterior(), mensual.ventasMesActual()))
 
                 // Productos
-                .totalProductos(obtenerTotalProductos())
-                .productosStockBajo(obtenerProductosStockBajo())
+                .totalProductos(productos.total())
+                .productosStockBajo(productos.stockBajo())
                 .build();
-
-        log.info("Estadísticas obtenidas: {} clientes, {} oportunidades, {} tareas",
-                stats.getTotalClientes(), stats.getOportunidadesActivas(), stats.getTareasPendientes());
-
-        return stats;
     }
 
-    // Clientes
-    private Long obtenerTotalClientes() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM clientes_clientes WHERE deleted_at IS NULL",
-                Long.class
-        );
+    /**
+     * Ejecuta una consulta en el executor del dashboard, en su propia transacción
+     * de sólo lectura y con el contexto RLS del request
+     */
+    private <T> CompletableFuture<T> ejecutar(String nombre, Supplier<T> consulta) {
+        Timer timer = Timer.builder(MetricNames.DASHBOARD_QUERY)
+                .description("Consultas agregadas del dashboard, incluida su transacción")
+                .tag(MetricNames.TAG_QUERY, nombre)
+                .register(meterRegistry);
+        Supplier<T> transaccional = () -> timer.record(() -> readOnlyTransaction.execute(status -> consulta.get()));
+        return CompletableFuture.supplyAsync(rlsContextManager.propagate(transaccional), dashboardExecutor);
     }
 
-    private Long obtenerClientesNuevosPorPeriodo(LocalDate inicio, LocalDate fin) {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM clientes_clientes WHERE deleted_at IS NULL " +
-                "AND DATE(created_at) BETWEEN ? AND ?",
-                Long.class, inicio, fin
-        );
-    }
-
-    private Double calcularCambioMensualClientes(LocalDate inicioActual, LocalDate inicioAnterior, LocalDate finAnterior) {
-        Long clientesActual = obtenerClientesNuevosPorPeriodo(inicioActual, LocalDate.now());
-        Long clientesAnterior = obtenerClientesNuevosPorPeriodo(inicioAnterior, finAnterior);
-        return calcularPorcentajeCambio(clientesAnterior, clientesActual);
+    // Clientes
+    private Long obtenerClientes() {
+        return jdbcTemplate.queryForObject(SQL_CLIENTES, Long.class);
     }
 
     // Oportunidades
-    private Long obtenerOportunidadesActivas() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM oportunidades_oportunidades " +
-                "WHERE deleted_at IS NULL AND probabilidad < 100",
-                Long.class
-        );
-    }
-
-    private Long obtenerOportunidadesGanadas() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM oportunidades_oportunidades " +
-                "WHERE deleted_at IS NULL AND probabilidad = 100",
-                Long.class
-        );
-    }
-
-    private BigDecimal obtenerValorTotalOportunidades() {
-        BigDecimal valor = jdbcTemplate.queryForObject(
-                "SELECT COALESCE(SUM(valor_estimado), 0) FROM oportunidades_oportunidades " +
-                "WHERE deleted_at IS NULL",
-                BigDecimal.class
-        );
-        return valor != null ? valor : BigDecimal.ZERO;
-    }
-
-    private Double calcularCambioMensualOportunidades(LocalDate inicioActual, LocalDate inicioAnterior, LocalDate finAnterior) {
-        Long oportActual = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM oportunidades_oportunidades WHERE deleted_at IS NULL " +
-                "AND DATE(created_at) >= ?",
-                Long.class, inicioActual
-        );
-        Long oportAnterior = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM oportunidades_oportunidades WHERE deleted_at IS NULL " +
-                "AND DATE(created_at) BETWEEN ? AND ?",
-                Long.class, inicioAnterior, finAnterior
-        );
-        return calcularPorcentajeCambio(oportAnterior, oportActual);
+    private OportunidadesAgregado obtenerOportunidades() {
+        return jdbcTemplate.queryForObject(SQL_OPORTUNIDADES,
+                (rs, rowNum) -> new OportunidadesAgregado(
+                        rs.getLong("activas"),
+                        rs.getLong("ganadas"),
+                        rs.getBigDecimal("valor_total")));
     }
 
     // Tareas
-    private Long obtenerTareasPendientes() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM tareas_tareas " +
-                "WHERE deleted_at IS NULL AND status IN ('PENDIENTE', 'EN_PROGRESO')",
-                Long.class
-        );
-    }
-
-    private Long obtenerTareasCompletadas() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM tareas_tareas " +
-                "WHERE deleted_at IS NULL AND status = 'COMPLETADA'",
-                Long.class
-        );
-    }
-
-    private Long obtenerTareasVencidas() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM tareas_tareas " +
-                "WHERE deleted_at IS NULL AND fecha_vencimiento < CURRENT_DATE " +
-                "AND status NOT IN ('COMPLETADA', 'CANCELADA')",
-                Long.class
-        );
-    }
-
-    private Double calcularCambioMensualTareas(LocalDate inicioActual, LocalDate inicioAnterior, LocalDate finAnterior) {
-        Long tareasActual = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM tareas_tareas WHERE deleted_at IS NULL " +
-                "AND DATE(created_at) >= ?",
-                Long.class, inicioActual
-        );
-        Long tareasAnterior = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM tareas_tareas WHERE deleted_at IS NULL " +
-                "AND DATE(created_at) BETWEEN ? AND ?",
-                Long.class, inicioAnterior, finAnterior
-        );
-        return calcularPorcentajeCambio(tareasAnterior, tareasActual);
+    private TareasAgregado obtenerTareas() {
+        return jdbcTemplate.queryForObject(SQL_TAREAS,
+                (rs, rowNum) -> new TareasAgregado(
+                        rs.getLong("pendientes"),
+                        rs.getLong("completadas"),
+                        rs.getLong("vencidas")));
     }
 
     // Ventas
-    private Long obtenerTotalPedidos() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM ventas_pedidos WHERE deleted_at IS NULL",
-                Long.class
-        );
+    private Long obtenerPedidos() {
+        return jdbcTemplate.queryForObject(SQL_PEDIDOS, Long.class);
     }
 
-    private Long obtenerPedidosPorPeriodo(LocalDate inicio, LocalDate fin) {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM ventas_pedidos " +
-                "WHERE deleted_at IS NULL AND fecha BETWEEN ? AND ?",
-                Long.class, inicio, fin
-        );
+    // Productos
+    private ProductosAgregado obtenerProductos() {
+        return jdbcTemplate.queryForObject(SQL_PRODUCTOS,
+                (rs, rowNum) -> new ProductosAgregado(
+                        rs.getLong("total"),
+                        rs.getLong("stock_bajo")));
     }
 
-    private BigDecimal obtenerVentasPorPeriodo(LocalDate inicio, LocalDate fin) {
-        BigDecimal total = jdbcTemplate.queryForObject(
-                "SELECT COALESCE(SUM(total), 0) FROM ventas_pedidos " +
-                "WHERE deleted_at IS NULL AND fecha BETWEEN ? AND ? " +
-                "AND status NOT IN ('CANCELADO', 'DEVUELTO')",
-                BigDecimal.class, inicio, fin
-        );
-        return total != null ? total : BigDecimal.ZERO;
+    // Utilidad
+    private Double calcularPorcentajeCambio(Long valorAnterior, Long valorActual) {
+        if (valorAnterior == 0) {
+            return valorActual > 0 ? 100.0 : 0.0;
+        }
+        return ((valorActual - valorAnterior) / (double) valorAnterior) * 100.0;
     }
 
-    private Double calcularCambioMensualVentas(LocalDate inicioActual, LocalDate inicioAnterior, LocalDate finAnterior) {
-        BigDecimal ventasActual = obtenerVentasPorPeriodo(inicioActual, LocalDate.now());
-        BigDecimal ventasAnterior = obtenerVentasPorPeriodo(inicioAnterior, finAnterior);
-
-        if (ventasAnterior.compareTo(BigDecimal.ZERO) == 0) {
-            return ventasActual.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
+    private Double calcularPorcentajeCambio(BigDecimal valorAnterior, BigDecimal valorActual) {
+        if (valorAnterior.compareTo(BigDecimal.ZERO) == 0) {
+            return valorActual.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
         }
-
-        return ventasActual.subtract(ventasAnterior)
-                .divide(ventasAnterior, 4, java.math.RoundingMode.HALF_UP)
+        return valorActual.subtract(valorAnterior)
+                .divide(valorAnterior, 4, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100))
                 .doubleValue();
     }
 
-    // Productos
-    private Long obtenerTotalProductos() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM productos_productos WHERE deleted_at IS NULL",
-                Long.class
-        );
+    /**
+     * Límites del mes actual y anterior (días UTC, igual que los rollups)
+     */
+    private record Periodo(LocalDate hoy, LocalDate primerDiaMesActual, LocalDate primerDiaMesAnterior) {
+
+        static Periodo actual() {
+            LocalDate hoy = LocalDate.now(ZoneOffset.UTC);
+            LocalDate primerDiaMesActual = hoy.withDayOfMonth(1);
+            return new Periodo(hoy, primerDiaMesActual, primerDiaMesActual.minusMonths(1));
+        }
     }
 
-    private Long obtenerProductosStockBajo() {
-        return jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM productos_productos " +
-                "WHERE deleted_at IS NULL AND stock_actual <= stock_minimo",
-                Long.class
-        );
+    private record OportunidadesAgregado(long activas, long ganadas, BigDecimal valorTotal) {
     }
 
-    // Utilidad
-    private Double calcularPorcentajeCambio(Long valorAnterior, Long valorActual) {
-        if (valorAnterior == 0) {
-            return valorActual > 0 ? 100.0 : 0.0;
-        }
-        return ((valorActual - valorAnterior) / (double) valorAnterior) * 100.0;
+    private record TareasAgregado(long pendientes, long completadas, long vencidas) {
+    }
+
+    private record ProductosAgregado(long total, long stockBajo) {
     }
 }
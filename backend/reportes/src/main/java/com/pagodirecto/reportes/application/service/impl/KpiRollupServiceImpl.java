@@ -0,0 +1,159 @@
+package com.pagodirecto.reportes.application.service.impl;
+
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.reportes.application.service.KpiRollupService;
+import com.pagodirecto.reportes.infrastructure.cache.DashboardStatsCache;
+import com.pagodirecto.reportes.infrastructure.repository.KpiDiarioRepository;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service Implementation: KpiRollupServiceImpl
+ *
+ * Mantiene reportes_kpi_diario de forma incremental:
+ *
+ * - Cada escritura confirmada marca como pendientes (tenant, hoy) y los días de las
+ *   filas que modificó ({@link TenantDataChangedEvent#getFechas()}), sin tocar la base
+ * - Un job con retardo fijo recalcula sólo los días pendientes y refresca el
+ *   cache del dashboard de esos tenants
+ * - Un backfill nocturno reconstruye la ventana reciente por si algún cambio
+ *   sobre días anteriores no llegó como evento (escrituras fuera de los servicios)
+ *
+ * Los jobs corren con contexto RLS de sistema.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class KpiRollupServiceImpl implements KpiRollupService {
+
+    private final KpiDiarioRepository kpiDiarioRepository;
+    private final RLSContextManager rlsContextManager;
+    private final DashboardStatsCache dashboardStatsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillDias;
+    private final boolean backfillAlIniciar;
+
+    private final Set<DiaPendiente> pendientes = ConcurrentHashMap.newKeySet();
+
+    public KpiRollupServiceImpl(KpiDiarioRepository kpiDiarioRepository,
+                                RLSContextManager rlsContextManager,
+                                DashboardStatsCache dashboardStatsCache,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.reportes.kpi.backfill-days:62}") int backfillDias,
+                                @Value("${app.reportes.kpi.backfill-on-startup:true}") boolean backfillAlIniciar) {
+        this.kpiDiarioRepository = kpiDiarioRepository;
+        this.rlsContextManager = rlsContextManager;
+        this.dashboardStatsCache = dashboardStatsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillDias = backfillDias;
+        this.backfillAlIniciar = backfillAlIniciar;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        UUID unidadNegocioId = event.getUnidadNegocioId() != null
+                ? event.getUnidadNegocioId()
+                : rlsContextManager.getCurrentTenant();
+        marcarPendiente(unidadNegocioId, event.getFechas());
+    }
+
+    @Override
+    public void marcarPendiente(UUID unidadNegocioId) {
+        marcarPendiente(unidadNegocioId, Set.of());
+    }
+
+    @Override
+    public void marcarPendiente(UUID unidadNegocioId, Collection<LocalDate> fechas) {
+        pendientes.add(new DiaPendiente(unidadNegocioId, LocalDate.now(ZoneOffset.UTC)));
+        for (LocalDate fecha : fechas) {
+            pendientes.add(new DiaPendiente(unidadNegocioId, fecha));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.reportes.kpi.flush-interval:PT5S}")
+    public void procesarPendientes() {
+        Iterator<DiaPendiente> iterator = pendientes.iterator();
+        while (iterator.hasNext()) {
+            DiaPendiente dia = iterator.next();
+            iterator.remove();
+            try {
+                ejecutarComoSistema(() -> kpiDiarioRepository.recalcular(dia.unidadNegocioId(), dia.fecha(), dia.fecha()));
+                if (dia.unidadNegocioId() != null) {
+                    dashboardStatsCache.invalidar(dia.unidadNegocioId());
+                } else {
+                    dashboardStatsCache.invalidarTodo();
+                }
+            } catch (RuntimeException e) {
+                // Se reintenta en la siguiente ejecución
+                pendientes.add(dia);
+                log.error("Error recalculando KPIs diarios: tenant={}, fecha={}", dia.unidadNegocioId(), dia.fecha(), e);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.reportes.kpi.backfill-cron:0 30 2 * * *}", zone = "UTC")
+    public void backfillNocturno() {
+        LocalDate hoy = LocalDate.now(ZoneOffset.UTC);
+        backfill(hoy.minusDays(backfillDias), hoy);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInicial() {
+        if (backfillAlIniciar) {
+            backfillNocturno();
+        }
+    }
+
+    @Override
+    public void backfill(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+
+        log.info("Reconstruyendo KPIs diarios del {} al {}", desde, hasta);
+        Integer filas = ejecutarComoSistema(() -> {
+            if (!kpiDiarioRepository.adquirirLockBackfill()) {
+                log.info("Otro nodo está reconstruyendo los KPIs diarios, se omite");
+                return null;
+            }
+            return kpiDiarioRepository.recalcular(null, desde, hasta);
+        });
+
+        if (filas != null) {
+            dashboardStatsCache.invalidarTodo();
+            log.info("KPIs diarios reconstruidos: {} filas", filas);
+        }
+    }
+
+    private Integer ejecutarComoSistema(Supplier<Integer> tarea) {
+        return rlsContextManager.runAsSystem(() -> transactionTemplate.execute(status -> tarea.get()));
+    }
+
+    /**
+     * unidadNegocioId null: el día se recalcula para todos los tenants
+     */
+    private record DiaPendiente(UUID unidadNegocioId, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.pagodirecto.reportes.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.reportes.application.dto.DashboardStatsDTO;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache: DashboardStatsCache
+ *
+ * Cache de {@link DashboardStatsDTO} por unidad de negocio (tenant).
+ *
+ * - Las entradas expiran tras un TTL configurable (app.dashboard.cache-ttl)
+ * - Cualquier escritura en clientes, oportunidades, tareas, pedidos o productos
+ *   invalida la entrada del tenant afectado cuando el relay entrega su evento del
+ *   outbox; los cambios de stock, que no pasan por el outbox, la invalidan tras
+ *   el commit
+ * - Las importaciones masivas de clientes no escriben en el outbox: las cubre el
+ *   rollup de KPI, que invalida el tenant al recalcular el día marcado
+ * - Requests concurrentes de un mismo tenant comparten un único cálculo en curso
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class DashboardStatsCache {
+
+    private static final String CACHE_NAME = "dashboard.stats";
+
+    /**
+     * Módulos que notifican sólo con {@link TenantDataChangedEvent}; el resto
+     * llega por el outbox
+     */
+    private static final Set<String> MODULOS_SIN_OUTBOX = Set.of("stock");
+
+    private final AsyncCache<UUID, DashboardStatsDTO> estadisticas;
+    private final RLSContextManager rlsContextManager;
+
+    public DashboardStatsCache(RLSContextManager rlsContextManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.dashboard.cache-ttl:PT60S}") Duration ttl,
+                               @Value("${app.dashboard.cache-max-tenants:1000}") long maxTenants) {
+        this.rlsContextManager = rlsContextManager;
+        this.estadisticas = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxTenants)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, estadisticas.synchronous(), CACHE_NAME);
+        log.info("Cache de estadísticas del dashboard inicializado. TTL: {}, Max tenants: {}", ttl, maxTenants);
+    }
+
+    /**
+     * Obtiene las estadísticas del tenant, calculándolas sólo si no están en cache
+     *
+     * El cálculo se ejecuta en el thread llamante (conserva el contexto RLS);
+     * los demás requests del mismo tenant esperan ese mismo resultado.
+     *
+     * @param unidadNegocioId el tenant; si es null no se cachea
+     * @param calculo         el cálculo de las estadísticas
+     * @return las estadísticas del tenant
+     */
+    public DashboardStatsDTO obtener(UUID unidadNegocioId, Supplier<DashboardStatsDTO> calculo) {
+        if (unidadNegocioId == null) {
+            return calculo.get();
+        }
+
+        // get registra el hit o miss en las estadísticas del cache (asMap no lo hace)
+        CompletableFuture<DashboardStatsDTO> nuevo = new CompletableFuture<>();
+        CompletableFuture<DashboardStatsDTO> actual = estadisticas.get(unidadNegocioId, (id, executor) -> nuevo);
+        if (actual != nuevo) {
+            return esperar(actual);
+        }
+
+        try {
+            nuevo.complete(calculo.get());
+        } catch (Throwable e) {
+            // También ante un Error: un future que nunca completa bloquearía para
+            // siempre a los siguientes requests del tenant. El cache descarta el
+            // future fallido.
+            nuevo.completeExceptionally(e);
+            throw e;
+        }
+        return nuevo.join();
+    }
+
+    /**
+     * Marca como obsoletas las estadísticas del tenant de un evento del outbox
+     *
+     * Corre en el thread del relay, sin contexto RLS. Es idempotente: una
+     * reentrega sólo vuelve a descartar la entrada.
+     *
+     * @param event el cambio confirmado
+     */
+    @EventListener(OutboxEvent.class)
+    public void onOutboxEvent(OutboxEvent event) {
+        invalidarPorCambio(event.getUnidadNegocioId(), event.getModulo());
+    }
+
+    /**
+     * Marca como obsoletas las estadísticas del tenant cuyos datos cambiaron, para
+     * los módulos que no escriben en el outbox
+     *
+     * @param event el cambio confirmado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        if (!MODULOS_SIN_OUTBOX.contains(event.getModulo())) {
+            return;
+        }
+        invalidarPorCambio(event.getUnidadNegocioId() != null
+                ? event.getUnidadNegocioId()
+                : rlsContextManager.getCurrentTenant(), event.getModulo());
+    }
+
+    /**
+     * Descarta las estadísticas de un tenant (p. ej. tras recalcular sus rollups)
+     *
+     * @param unidadNegocioId el tenant
+     */
+    public void invalidar(UUID unidadNegocioId) {
+        estadisticas.synchronous().invalidate(unidadNegocioId);
+    }
+
+    /**
+     * Descarta las estadísticas de todos los tenants
+     */
+    public void invalidarTodo() {
+        estadisticas.synchronous().invalidateAll();
+    }
+
+    private void invalidarPorCambio(UUID unidadNegocioId, String modulo) {
+        if (unidadNegocioId != null) {
+            estadisticas.synchronous().invalidate(unidadNegocioId);
+            log.debug("Estadísticas del dashboard invalidadas: tenant={}, modulo={}", unidadNegocioId, modulo);
+        } else {
+            estadisticas.synchronous().invalidateAll();
+            log.debug("Estadísticas del dashboard invalidadas para todos los tenants, modulo={}", modulo);
+        }
+    }
+
+    private DashboardStatsDTO esperar(CompletableFuture<DashboardStatsDTO> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
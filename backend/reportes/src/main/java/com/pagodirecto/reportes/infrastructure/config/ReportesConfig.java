@@ -0,0 +1,39 @@
+package com.pagodirecto.reportes.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuración: ReportesConfig
+ *
+ * Infraestructura compartida del módulo de reportes.
+ * Habilita los jobs programados (rollups diarios de KPIs).
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Configuration
+@EnableScheduling
+public class ReportesConfig {
+
+    /**
+     * Executor para las consultas agregadas del dashboard.
+     *
+     * Se mantiene por debajo del tamaño del pool de Hikari: cada tarea ocupa
+     * una conexión mientras dura su consulta.
+     */
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor(
+            @Value("${app.dashboard.query-parallelism:3}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("dashboard-");
+        return executor;
+    }
+}
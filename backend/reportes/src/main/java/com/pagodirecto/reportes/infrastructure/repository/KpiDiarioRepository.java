@@ -0,0 +1,183 @@
+package com.pagodirecto.reportes.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository: KpiDiarioRepository
+ *
+ * Acceso JDBC a la tabla de rollups reportes_kpi_diario.
+ *
+ * Un día se recalcula completo (DELETE + INSERT ... SELECT agrupado) en lugar de
+ * aplicar deltas, de modo que updates, soft-deletes y cambios de status quedan
+ * reflejados sin tener que conocer el valor anterior de cada fila.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class KpiDiarioRepository {
+
+    /**
+     * Clave del advisory lock que serializa los recálculos masivos entre nodos
+     */
+    private static final long BACKFILL_LOCK_KEY = 0x6B70695F64696172L;
+
+    private static final String SQL_DELETE =
+            "DELETE FROM reportes_kpi_diario WHERE fecha >= ? AND fecha <= ?";
+
+    /**
+     * %1$s: filtro de tenant sobre las tablas de origen (vacío o "AND unidad_negocio_id = ?")
+     */
+    private static final String SQL_RECALCULAR =
+            "INSERT INTO reportes_kpi_diario (unidad_negocio_id, fecha, clientes_nuevos, oportunidades_nuevas, " +
+            "tareas_creadas, tareas_completadas, pedidos, ventas_total, updated_at) " +
+            "SELECT unidad_negocio_id, fecha, SUM(clientes), SUM(oportunidades), SUM(tareas_creadas), " +
+            "SUM(tareas_completadas), SUM(pedidos), SUM(ventas), NOW() FROM (" +
+            "  SELECT unidad_negocio_id, (created_at AT TIME ZONE 'UTC')::date AS fecha, COUNT(*) AS clientes, " +
+            "  0 AS oportunidades, 0 AS tareas_creadas, 0 AS tareas_completadas, 0 AS pedidos, 0 AS ventas " +
+            "  FROM clientes_clientes WHERE deleted_at IS NULL AND created_at >= ? AND created_at < ? %1$s GROUP BY 1, 2 " +
+            "  UNION ALL " +
+            "  SELECT unidad_negocio_id, (created_at AT TIME ZONE 'UTC')::date, 0, COUNT(*), 0, 0, 0, 0 " +
+            "  FROM oportunidades_oportunidades WHERE deleted_at IS NULL AND created_at >= ? AND created_at < ? %1$s GROUP BY 1, 2 " +
+            "  UNION ALL " +
+            "  SELECT unidad_negocio_id, (created_at AT TIME ZONE 'UTC')::date, 0, 0, COUNT(*), 0, 0, 0 " +
+            "  FROM tareas_tareas WHERE deleted_at IS NULL AND created_at >= ? AND created_at < ? %1$s GROUP BY 1, 2 " +
+            "  UNION ALL " +
+            "  SELECT unidad_negocio_id, (fecha_completada AT TIME ZONE 'UTC')::date, 0, 0, 0, COUNT(*), 0, 0 " +
+            "  FROM tareas_tareas WHERE deleted_at IS NULL AND status = 'COMPLETADA' " +
+            "  AND fecha_completada >= ? AND fecha_completada < ? %1$s GROUP BY 1, 2 " +
+            "  UNION ALL " +
+            "  SELECT unidad_negocio_id, fecha, 0, 0, 0, 0, COUNT(*), " +
+            "  COALESCE(SUM(total) FILTER (WHERE status NOT IN ('CANCELADO', 'DEVUELTO')), 0) " +
+            "  FROM ventas_pedidos WHERE deleted_at IS NULL AND fecha >= ? AND fecha <= ? %1$s GROUP BY 1, 2" +
+            ") datos GROUP BY unidad_negocio_id, fecha " +
+            "ON CONFLICT (unidad_negocio_id, fecha) DO UPDATE SET " +
+            "clientes_nuevos = EXCLUDED.clientes_nuevos, " +
+            "oportunidades_nuevas = EXCLUDED.oportunidades_nuevas, " +
+            "tareas_creadas = EXCLUDED.tareas_creadas, " +
+            "tareas_completadas = EXCLUDED.tareas_completadas, " +
+            "pedidos = EXCLUDED.pedidos, " +
+            "ventas_total = EXCLUDED.ventas_total, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String FILTRO_TENANT = "AND unidad_negocio_id = ?";
+
+    /**
+     * Sumas del mes actual (hasta hoy) y del mes anterior; el tenant lo filtra RLS
+     */
+    private static final String SQL_RESUMEN_MENSUAL =
+            "SELECT " +
+            "COALESCE(SUM(clientes_nuevos) FILTER (WHERE fecha >= ?), 0) AS clientes_mes_actual, " +
+            "COALESCE(SUM(clientes_nuevos) FILTER (WHERE fecha < ?), 0) AS clientes_mes_anterior, " +
+            "COALESCE(SUM(oportunidades_nuevas) FILTER (WHERE fecha >= ?), 0) AS oportunidades_mes_actual, " +
+            "COALESCE(SUM(oportunidades_nuevas) FILTER (WHERE fecha < ?), 0) AS oportunidades_mes_anterior, " +
+            "COALESCE(SUM(tareas_creadas) FILTER (WHERE fecha >= ?), 0) AS tareas_mes_actual, " +
+            "COALESCE(SUM(tareas_creadas) FILTER (WHERE fecha < ?), 0) AS tareas_mes_anterior, " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE fecha >= ?), 0) AS pedidos_mes_actual, " +
+            "COALESCE(SUM(ventas_total) FILTER (WHERE fecha >= ?), 0) AS ventas_mes_actual, " +
+            "COALESCE(SUM(ventas_total) FILTER (WHERE fecha < ?), 0) AS ventas_mes_anterior " +
+            "FROM reportes_kpi_diario WHERE fecha >= ? AND fecha <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recalcula los rollups de un rango de días (ambos inclusive)
+     *
+     * Debe ejecutarse dentro de una transacción con visibilidad sobre los tenants
+     * afectados (contexto de sistema si unidadNegocioId es null).
+     *
+     * @param unidadNegocioId el tenant a recalcular, o null para todos
+     * @param desde           primer día (UTC)
+     * @param hasta           último día (UTC)
+     * @return filas de rollup escritas
+     */
+    public int recalcular(UUID unidadNegocioId, LocalDate desde, LocalDate hasta) {
+        OffsetDateTime inicio = desde.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime fin = hasta.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        List<Object> deleteParams = new ArrayList<>(List.of(desde, hasta));
+        String delete = SQL_DELETE;
+        if (unidadNegocioId != null) {
+            delete += " " + FILTRO_TENANT;
+            deleteParams.add(unidadNegocioId);
+        }
+        jdbcTemplate.update(delete, deleteParams.toArray());
+
+        String filtro = unidadNegocioId != null ? FILTRO_TENANT : "";
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            params.add(inicio);
+            params.add(fin);
+            if (unidadNegocioId != null) {
+                params.add(unidadNegocioId);
+            }
+        }
+        params.add(desde);
+        params.add(hasta);
+        if (unidadNegocioId != null) {
+            params.add(unidadNegocioId);
+        }
+
+        return jdbcTemplate.update(String.format(SQL_RECALCULAR, filtro), params.toArray());
+    }
+
+    /**
+     * Intenta tomar el lock de backfill para la transacción en curso
+     *
+     * @return true si este nodo obtuvo el lock; se libera al terminar la transacción
+     */
+    public boolean adquirirLockBackfill() {
+        Boolean adquirido = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, BACKFILL_LOCK_KEY);
+        return Boolean.TRUE.equals(adquirido);
+    }
+
+    /**
+     * Suma los rollups del mes actual y del mes anterior
+     *
+     * @param primerDiaMesAnterior primer día del mes anterior
+     * @param primerDiaMesActual   primer día del mes actual
+     * @param hoy                  último día incluido
+     * @return el resumen mensual visible para el contexto RLS actual
+     */
+    public ResumenMensual obtenerResumenMensual(LocalDate primerDiaMesAnterior,
+                                                LocalDate primerDiaMesActual,
+                                                LocalDate hoy) {
+        return jdbcTemplate.queryForObject(SQL_RESUMEN_MENSUAL,
+                (rs, rowNum) -> new ResumenMensual(
+                        rs.getLong("clientes_mes_actual"),
+                        rs.getLong("clientes_mes_anterior"),
+                        rs.getLong("oportunidades_mes_actual"),
+                        rs.getLong("oportunidades_mes_anterior"),
+                        rs.getLong("tareas_mes_actual"),
+                        rs.getLong("tareas_mes_anterior"),
+                        rs.getLong("pedidos_mes_actual"),
+                        rs.getBigDecimal("ventas_mes_actual"),
+                        rs.getBigDecimal("ventas_mes_anterior")),
+                primerDiaMesActual, primerDiaMesActual,
+                primerDiaMesActual, primerDiaMesActual,
+                primerDiaMesActual, primerDiaMesActual,
+                primerDiaMesActual,
+                primerDiaMesActual, primerDiaMesActual,
+                primerDiaMesAnterior, hoy);
+    }
+
+    public record ResumenMensual(long clientesMesActual, long clientesMesAnterior,
+                                 long oportunidadesMesActual, long oportunidadesMesAnterior,
+                                 long tareasMesActual, long tareasMesAnterior,
+                                 long pedidosMesActual,
+                                 BigDecimal ventasMesActual, BigDecimal ventasMesAnterior) {
+    }
+}
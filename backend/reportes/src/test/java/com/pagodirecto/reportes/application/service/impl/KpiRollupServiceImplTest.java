@@ -0,0 +1,107 @@
+package com.pagodirecto.reportes.application.service.impl;
+
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.reportes.infrastructure.cache.DashboardStatsCache;
+import com.pagodirecto.reportes.infrastructure.repository.KpiDiarioRepository;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: KpiRollupServiceImpl
+ *
+ * El repositorio sólo registra los días que se le piden recalcular; el gestor de
+ * transacciones no abre ninguna.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class KpiRollupServiceImplTest {
+
+    private final LocalDate hoy = LocalDate.now(ZoneOffset.UTC);
+    private final UUID tenant = UUID.randomUUID();
+    private final List<Recalculo> recalculos = new ArrayList<>();
+
+    private final KpiRollupServiceImpl service = new KpiRollupServiceImpl(
+            new KpiDiarioRepository(null) {
+                @Override
+                public int recalcular(UUID unidadNegocioId, LocalDate desde, LocalDate hasta) {
+                    recalculos.add(new Recalculo(unidadNegocioId, desde, hasta));
+                    return 1;
+                }
+            },
+            new RLSContextManager(new SimpleMeterRegistry()),
+            new DashboardStatsCache(null, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100),
+            new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                }
+            },
+            62, false);
+
+    @Test
+    void recalculaLosDiasDeLasFilasModificadasAdemasDeHoy() {
+        LocalDate creadaElMesPasado = hoy.minusDays(35);
+        LocalDate fechaDelPedido = hoy.minusDays(3);
+
+        service.onTenantDataChanged(new TenantDataChangedEvent("tareas", tenant, Set.of(creadaElMesPasado)));
+        service.onTenantDataChanged(new TenantDataChangedEvent("pedidos", tenant, Set.of(fechaDelPedido, hoy)));
+        service.procesarPendientes();
+
+        assertThat(recalculos).containsExactlyInAnyOrder(
+                dia(tenant, hoy), dia(tenant, creadaElMesPasado), dia(tenant, fechaDelPedido));
+    }
+
+    @Test
+    void sinTenantRecalculaLosMismosDiasParaTodos() {
+        LocalDate fecha = hoy.minusDays(10);
+
+        service.onTenantDataChanged(new TenantDataChangedEvent("clientes", null,
+                TenantDataChangedEvent.dias(fecha, null)));
+        service.procesarPendientes();
+
+        assertThat(recalculos).containsExactlyInAnyOrder(dia(null, hoy), dia(null, fecha));
+    }
+
+    @Test
+    void losDiasYaProcesadosNoSeRepiten() {
+        service.marcarPendiente(tenant, List.of(hoy.minusDays(1)));
+        service.procesarPendientes();
+        recalculos.clear();
+
+        service.procesarPendientes();
+
+        assertThat(recalculos).isEmpty();
+    }
+
+    private static Recalculo dia(UUID unidadNegocioId, LocalDate fecha) {
+        return new Recalculo(unidadNegocioId, fecha, fecha);
+    }
+
+    private record Recalculo(UUID unidadNegocioId, LocalDate desde, LocalDate hasta) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.pagodirecto.reportes.infrastructure.cache;
+
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.reportes.application.dto.DashboardStatsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests: DashboardStatsCache
+ *
+ * Verifica que el cálculo se comparte entre requests concurrentes, que los
+ * hits y misses llegan a las métricas "dashboard.stats" y que los eventos del
+ * outbox invalidan sólo su tenant.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class DashboardStatsCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DashboardStatsCache cache =
+            new DashboardStatsCache(null, meterRegistry, Duration.ofMinutes(1), 100);
+    private final UUID tenant = UUID.randomUUID();
+
+    @Test
+    void lasMetricasCuentanHitsYMisses() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        cache.obtener(tenant, () -> calcular(calculos));
+        cache.obtener(tenant, () -> calcular(calculos));
+        cache.obtener(tenant, () -> calcular(calculos));
+
+        assertThat(calculos).hasValue(1);
+        assertThat(contador("hit")).isEqualTo(2);
+        assertThat(contador("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void requestsConcurrentesCompartenUnCalculo() throws Exception {
+        AtomicInteger calculos = new AtomicInteger();
+        CountDownLatch enCalculo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<DashboardStatsDTO> primero = executor.submit(() -> cache.obtener(tenant, () -> {
+                enCalculo.countDown();
+                await(liberar);
+                return calcular(calculos);
+            }));
+            enCalculo.await(10, TimeUnit.SECONDS);
+            Future<DashboardStatsDTO> segundo = executor.submit(() -> cache.obtener(tenant, () -> calcular(calculos)));
+            Future<DashboardStatsDTO> tercero = executor.submit(() -> cache.obtener(tenant, () -> calcular(calculos)));
+            liberar.countDown();
+
+            assertThat(segundo.get(10, TimeUnit.SECONDS)).isSameAs(primero.get(10, TimeUnit.SECONDS));
+            assertThat(tercero.get(10, TimeUnit.SECONDS)).isSameAs(primero.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(calculos).hasValue(1);
+        assertThat(contador("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void unCalculoFallidoNoQuedaEnCache() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        assertThatThrownBy(() -> cache.obtener(tenant, () -> {
+            throw new IllegalStateException("falla");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.obtener(tenant, () -> calcular(calculos));
+
+        assertThat(calculos).hasValue(1);
+        assertThat(contador("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidarObligaARecalcular() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        cache.obtener(tenant, () -> calcular(calculos));
+        cache.invalidar(tenant);
+        cache.obtener(tenant, () -> calcular(calculos));
+
+        assertThat(calculos).hasValue(2);
+    }
+
+    @Test
+    void unEventoDelOutboxInvalidaSuTenant() {
+        AtomicInteger calculos = new AtomicInteger();
+        UUID otroTenant = UUID.randomUUID();
+        cache.obtener(tenant, () -> calcular(calculos));
+        cache.obtener(otroTenant, () -> calcular(calculos));
+
+        OutboxEvent evento = new OutboxEvent(1L, tenant, "tareas", UUID.randomUUID().toString(),
+                "COMPLETADA", null, Instant.now(), 0);
+        cache.onOutboxEvent(evento);
+        // Reentrega del mismo evento
+        cache.onOutboxEvent(evento);
+        cache.obtener(tenant, () -> calcular(calculos));
+        cache.obtener(otroTenant, () -> calcular(calculos));
+
+        assertThat(calculos).hasValue(3);
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("cache.gets").tag("cache", "dashboard.stats").tag("result", resultado)
+                .functionCounter().count();
+    }
+
+    private static DashboardStatsDTO calcular(AtomicInteger calculos) {
+        calculos.incrementAndGet();
+        return new DashboardStatsDTO();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
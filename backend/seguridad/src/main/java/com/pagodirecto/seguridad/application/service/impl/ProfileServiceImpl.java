@@ -8,6 +8,7 @@ import com.pagodirecto.seguridad.application.exception.UserNotFoundException;
 import com.pagodirecto.seguridad.application.service.ProfileService;
 import com.pagodirecto.seguridad.domain.Usuario;
 import com.pagodirecto.seguridad.infrastructure.repository.UsuarioRepository;
+import com.pagodirecto.seguridad.infrastructure.security.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -38,6 +39,7 @@ public class ProfileServiceImpl implements ProfileService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -96,6 +98,7 @@ public class ProfileServiceImpl implements ProfileService {
         usuario.setUpdatedBy(userId);
 
         usuarioRepository.save(usuario);
+        verifiedTokenCache.revokeUser(userId);
 
         log.info("Contraseña cambiada exitosamente para usuario: {}", userId);
     }
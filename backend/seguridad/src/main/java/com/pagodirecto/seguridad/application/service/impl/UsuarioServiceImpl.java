@@ -7,6 +7,7 @@ import com.pagodirecto.seguridad.domain.Usuario;
 import com.pagodirecto.seguridad.domain.UsuarioStatus;
 import com.pagodirecto.seguridad.infrastructure.repository.RolRepository;
 import com.pagodirecto.seguridad.infrastructure.repository.UsuarioRepository;
+import com.pagodirecto.seguridad.infrastructure.security.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -38,6 +39,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -163,6 +165,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         // Soft delete (Hibernate interceptará con @SQLDelete)
         usuarioRepository.delete(usuario);
+        verifiedTokenCache.revokeUser(id);
 
         log.info("Usuario eliminado exitosamente: {}", id);
     }
@@ -176,6 +179,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         usuario.bloquear(duracionSegundos);
         usuarioRepository.save(usuario);
+        verifiedTokenCache.revokeUser(id);
 
         log.info("Usuario bloqueado exitosamente: {}", id);
     }
@@ -203,6 +207,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setPasswordHash(passwordEncoder.encode(newPassword));
         usuario.setUpdatedAt(Instant.now());
         usuarioRepository.save(usuario);
+        verifiedTokenCache.revokeUser(id);
 
         log.info("Contraseña restablecida exitosamente para usuario: {}", id);
     }
@@ -0,0 +1,90 @@
+package com.pagodirecto.seguridad.infrastructure.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Principal: AuthenticatedPrincipal
+ *
+ * Vista inmutable de los claims de un access token ya verificado.
+ * Se construye una sola vez por request (una única verificación de firma)
+ * y se reutiliza durante todo el procesamiento del request.
+ *
+ * @author PagoDirecto Security Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Getter
+@Builder
+@ToString
+public final class AuthenticatedPrincipal {
+
+    /**
+     * Nombre del atributo de request donde el filtro JWT publica el principal
+     */
+    public static final String REQUEST_ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    private final UUID userId;
+    private final String username;
+    private final UUID unidadNegocioId;
+    private final Set<String> roles;
+    private final Set<String> permissions;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    /**
+     * Construye el principal a partir de claims ya verificados
+     *
+     * @param claims los claims del token verificado
+     * @return el principal autenticado
+     */
+    static AuthenticatedPrincipal fromClaims(Claims claims) {
+        String unidadNegocioId = claims.get("unidadNegocioId", String.class);
+        return AuthenticatedPrincipal.builder()
+            .userId(UUID.fromString(claims.getSubject()))
+            .username(claims.get("username", String.class))
+            .unidadNegocioId(unidadNegocioId != null ? UUID.fromString(unidadNegocioId) : null)
+            .roles(toStringSet(claims.get("roles")))
+            .permissions(toStringSet(claims.get("permissions")))
+            .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+            .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+            .build();
+    }
+
+    /**
+     * Obtiene el principal del request HTTP en curso
+     *
+     * @return el principal autenticado, o vacío si el request no trae un JWT válido
+     */
+    public static Optional<AuthenticatedPrincipal> current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        Object principal = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return principal instanceof AuthenticatedPrincipal p ? Optional.of(p) : Optional.empty();
+    }
+
+    /**
+     * El deserializador JSON entrega los arrays de claims como List, no como Set
+     */
+    private static Set<String> toStringSet(Object claim) {
+        if (claim instanceof Collection<?> values) {
+            return values.stream()
+                .map(String::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+        }
+        return Set.of();
+    }
+}
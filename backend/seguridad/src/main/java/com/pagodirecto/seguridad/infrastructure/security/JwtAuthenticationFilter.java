@@ -1,5 +1,8 @@
 package com.pagodirecto.seguridad.infrastructure.security;
 
+import com.pagodirecto.core.metrics.MetricNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +29,7 @@ import java.util.stream.Collectors;
  *
  * Intercepta requests HTTP y valida tokens JWT en el header Authorization.
  * Si el token es válido, establece la autenticación en el SecurityContext de Spring.
+ * La resolución del token se mide en pagodirecto.security.jwt (type: jwt, mock o none).
  *
  * @author PagoDirecto Security Team
  * @version 1.0
@@ -36,8 +40,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider tokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final RLSContextManager rlsContextManager;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -45,30 +50,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         @NonNull HttpServletResponse response,
         @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String tipo = MetricNames.NONE;
+        Exception error = null;
         try {
             String jwt = extractJwtFromRequest(request);
-            log.warn("DEBUG - JWT extracted: {}", jwt != null ? jwt.substring(0, Math.min(30, jwt.length())) : "null");
 
             if (StringUtils.hasText(jwt)) {
-                log.warn("DEBUG - JWT has text, checking if mock...");
                 // Handle mock tokens for development
                 if (jwt.startsWith("mock-access-token-")) {
-                    log.warn("DEBUG - IS MOCK TOKEN! Authenticating...");
+                    tipo = "mock";
                     authenticateMockUser(jwt, request);
-                } else if (tokenProvider.validateToken(jwt)) {
-                    log.warn("DEBUG - Real token validated");
-                    authenticateUser(jwt, request);
                 } else {
-                    log.warn("DEBUG - Token validation failed");
+                    tipo = "jwt";
+                    AuthenticatedPrincipal principal = verifiedTokenCache.resolve(jwt);
+                    authenticateUser(principal, request);
                 }
-            } else {
-                log.warn("DEBUG - No JWT found in request");
             }
         } catch (Exception ex) {
+            error = ex;
             log.error("No se pudo establecer la autenticación del usuario en el security context", ex);
         }
+        muestra.stop(Timer.builder(MetricNames.SECURITY_JWT)
+            .description("Resolución del token y autenticación del request")
+            .tag(MetricNames.TAG_TYPE, tipo)
+            .tag(MetricNames.TAG_OUTCOME, error == null ? MetricNames.OUTCOME_SUCCESS : MetricNames.OUTCOME_ERROR)
+            .tag(MetricNames.TAG_EXCEPTION, MetricNames.exception(error))
+            .register(meterRegistry));
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // El thread vuelve al pool del contenedor: no debe conservar el tenant de este request
+            rlsContextManager.clearSessionContext();
+        }
     }
 
     /**
@@ -86,17 +101,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Autentica al usuario basándose en el token JWT
+     * Autentica al usuario basándose en los claims ya verificados del token JWT
      *
-     * @param jwt     el token JWT
-     * @param request el request HTTP
+     * @param principal los claims del token, verificados una sola vez
+     * @param request   el request HTTP
      */
-    private void authenticateUser(String jwt, HttpServletRequest request) {
-        UUID userId = tokenProvider.getUserIdFromToken(jwt);
-        String username = tokenProvider.getUsernameFromToken(jwt);
-        UUID unidadNegocioId = tokenProvider.getUnidadNegocioIdFromToken(jwt);
-        Set<String> roles = tokenProvider.getRolesFromToken(jwt);
-        Set<String> permissions = tokenProvider.getPermissionsFromToken(jwt);
+    private void authenticateUser(AuthenticatedPrincipal principal, HttpServletRequest request) {
+        UUID userId = principal.getUserId();
+        String username = principal.getUsername();
+        UUID unidadNegocioId = principal.getUnidadNegocioId();
+        Set<String> roles = principal.getRoles();
+        Set<String> permissions = principal.getPermissions();
 
         // Convierte roles y permisos a GrantedAuthorities de Spring Security
         Set<SimpleGrantedAuthority> authorities = roles.stream()
@@ -115,6 +130,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Establece la autenticación en el SecurityContext
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
+        // Publica el principal para el resto del request (ver AuthenticatedPrincipal.current())
+        request.setAttribute(AuthenticatedPrincipal.REQUEST_ATTRIBUTE, principal);
+
         // Configura el contexto RLS para PostgreSQL
         rlsContextManager.setSessionContext(unidadNegocioId, userId, roles);
 
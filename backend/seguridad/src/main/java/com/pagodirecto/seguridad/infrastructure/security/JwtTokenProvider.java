@@ -47,6 +47,8 @@ public class JwtTokenProvider {
 
     private SecretKey secretKey;
 
+    private JwtParser jwtParser;
+
     /**
      * Inicializa la clave secreta para firmar los tokens
      */
@@ -55,6 +57,10 @@ public class JwtTokenProvider {
         // Genera una clave segura basada en el secret configurado
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        // El parser es inmutable y thread-safe: se construye una sola vez
+        this.jwtParser = Jwts.parser()
+            .verifyWith(secretKey)
+            .build();
         log.info("JWT Token Provider inicializado. Access token expiration: {}ms, Refresh token expiration: {}ms",
             accessTokenExpirationMs, refreshTokenExpirationMs);
     }
@@ -185,9 +191,33 @@ public class JwtTokenProvider {
      * @return true si es válido, false en caso contrario
      */
     public boolean validateToken(String token) {
+        verifyToken(token);
+        return true;
+    }
+
+    /**
+     * Verifica la firma del token una sola vez y extrae todos sus claims
+     *
+     * Es el camino preferido para autenticar un request: evita re-parsear
+     * y re-verificar el token por cada claim consultado.
+     *
+     * @param token el token JWT
+     * @return el principal autenticado con los claims del token
+     * @throws InvalidTokenException si el token es inválido o ha expirado
+     */
+    public AuthenticatedPrincipal parseAuthenticatedPrincipal(String token) {
+        return AuthenticatedPrincipal.fromClaims(verifyToken(token));
+    }
+
+    /**
+     * Parsea el token traduciendo los errores de JJWT a InvalidTokenException
+     *
+     * @param token el token JWT
+     * @return los claims del token verificado
+     */
+    private Claims verifyToken(String token) {
         try {
-            parseToken(token);
-            return true;
+            return parseToken(token);
         } catch (SignatureException e) {
             log.error("Token JWT con firma inválida: {}", e.getMessage());
             throw new InvalidTokenException("Firma del token inválida", e);
@@ -213,9 +243,7 @@ public class JwtTokenProvider {
      * @return los claims del token
      */
     private Claims parseToken(String token) {
-        return Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
+        return jwtParser
             .parseSignedClaims(token)
             .getPayload();
     }
@@ -0,0 +1,34 @@
+package com.pagodirecto.seguridad.infrastructure.security;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+/**
+ * Configuración: RLSConfig
+ *
+ * Reemplaza el JpaTransactionManager auto-configurado por {@link RLSTransactionManager},
+ * de modo que cada transacción lleve el contexto RLS del request en su propia conexión.
+ *
+ * @author PagoDirecto Security Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Configuration
+public class RLSConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(
+        EntityManagerFactory entityManagerFactory,
+        RLSContextManager rlsContextManager,
+        ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers
+    ) {
+        RLSTransactionManager transactionManager = new RLSTransactionManager(entityManagerFactory, rlsContextManager);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
@@ -1,12 +1,20 @@
 package com.pagodirecto.seguridad.infrastructure.security;
 
-import lombok.RequiredArgsConstructor;
+import com.pagodirecto.core.metrics.MetricNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Componente: RLSContextManager
@@ -14,81 +22,163 @@ import java.util.UUID;
  * Gestiona el contexto de sesión para Row-Level Security (RLS) en PostgreSQL.
  * Establece variables de sesión que las políticas RLS utilizan para filtrar datos.
  *
- * Función PostgreSQL requerida: set_app_session_context(tenant_id, user_id, roles)
+ * El contexto se registra por request (thread) sin tocar la base de datos y se
+ * aplica en una sola sentencia, con alcance local (set_config(..., true)), sobre
+ * la misma conexión de cada transacción que abre el request. Ver
+ * {@link RLSTransactionManager}. Cada aplicación se mide en pagodirecto.security.rls
+ * (type: request o system).
  *
  * @author PagoDirecto Security Team
  * @version 1.0
  * @since 2025-10-13
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class RLSContextManager {
 
-    private final JdbcTemplate jdbcTemplate;
+    /**
+     * Una sola sentencia para todas las variables; "true" limita su alcance a la transacción
+     */
+    private static final String APPLY_CONTEXT_SQL =
+        "SELECT set_config('app.current_tenant', ?, true), "
+            + "set_config('app.current_user', ?, true), "
+            + "set_config('app.current_roles', ?, true), "
+            + "set_config('app.bypass_rls', ?, true)";
+
+    private static final String SYSTEM_ROLE = "SYSTEM";
+
+    private static final ThreadLocal<RLSContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+    private final Timer applyRequestTimer;
+    private final Timer applySystemTimer;
+
+    public RLSContextManager(MeterRegistry meterRegistry) {
+        this.applyRequestTimer = applyTimer(meterRegistry, "request");
+        this.applySystemTimer = applyTimer(meterRegistry, "system");
+    }
 
     /**
      * Establece el contexto de sesión para RLS en PostgreSQL
      *
      * Este método debe llamarse después de autenticar al usuario y antes de
-     * ejecutar cualquier query que dependa de RLS.
+     * ejecutar cualquier query que dependa de RLS. No ejecuta SQL: el contexto
+     * se aplica al iniciar cada transacción del request.
      *
      * @param unidadNegocioId ID de la unidad de negocio (tenant)
      * @param userId          ID del usuario autenticado
      * @param roles           roles del usuario
      */
     public void setSessionContext(UUID unidadNegocioId, UUID userId, Set<String> roles) {
-        try {
-            // Convierte el set de roles a una cadena separada por comas
-            String rolesStr = String.join(",", roles);
-
-            // Establece las variables de sesión de PostgreSQL
-            jdbcTemplate.execute(
-                String.format(
-                    "SELECT set_config('app.current_tenant', '%s', false)",
-                    unidadNegocioId
-                )
-            );
-
-            jdbcTemplate.execute(
-                String.format(
-                    "SELECT set_config('app.current_user', '%s', false)",
-                    userId
-                )
-            );
-
-            jdbcTemplate.execute(
-                String.format(
-                    "SELECT set_config('app.current_roles', '%s', false)",
-                    rolesStr
-                )
-            );
-
-            log.debug("RLS context establecido: tenant={}, user={}, roles={}",
-                unidadNegocioId, userId, rolesStr);
-
-        } catch (Exception e) {
-            log.error("Error al establecer el contexto RLS: {}", e.getMessage(), e);
-            throw new RuntimeException("No se pudo establecer el contexto de seguridad RLS", e);
-        }
+        // Convierte el set de roles a una cadena separada por comas
+        String rolesStr = String.join(",", roles);
+
+        CURRENT_CONTEXT.set(new RLSContext(unidadNegocioId, userId, rolesStr, false));
+
+        log.debug("RLS context establecido: tenant={}, user={}, roles={}",
+            unidadNegocioId, userId, rolesStr);
     }
 
     /**
      * Limpia el contexto de sesión RLS
      *
      * Debe llamarse al finalizar el procesamiento del request para evitar
-     * que la información de sesión se filtre a otros requests.
+     * que la información de sesión se filtre a otros requests del mismo thread.
+     * Las variables en PostgreSQL son locales a la transacción y no requieren limpieza.
      */
     public void clearSessionContext() {
+        CURRENT_CONTEXT.remove();
+        log.debug("RLS context limpiado");
+    }
+
+    /**
+     * Ejecuta una tarea de sistema (jobs programados, backfills) con app.bypass_rls activo
+     *
+     * Las transacciones abiertas dentro de la tarea ven los datos de todos los tenants.
+     *
+     * @param task la tarea a ejecutar
+     * @return el resultado de la tarea
+     */
+    public <T> T runAsSystem(Supplier<T> task) {
+        RLSContext previous = CURRENT_CONTEXT.get();
+        CURRENT_CONTEXT.set(new RLSContext(null, null, SYSTEM_ROLE, true));
         try {
-            jdbcTemplate.execute("SELECT set_config('app.current_tenant', '', false)");
-            jdbcTemplate.execute("SELECT set_config('app.current_user', '', false)");
-            jdbcTemplate.execute("SELECT set_config('app.current_roles', '', false)");
+            return task.get();
+        } finally {
+            setOrRemove(previous);
+        }
+    }
 
-            log.debug("RLS context limpiado");
-        } catch (Exception e) {
-            log.error("Error al limpiar el contexto RLS: {}", e.getMessage(), e);
+    /**
+     * Envuelve una tarea para que se ejecute en otro thread con el contexto RLS actual
+     *
+     * El thread-local no se hereda en pools de threads; las tareas asíncronas que abren
+     * sus propias transacciones deben envolverse con este método.
+     *
+     * @param task la tarea a ejecutar
+     * @return la tarea que restaura el contexto del thread llamante mientras se ejecuta
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        RLSContext captured = CURRENT_CONTEXT.get();
+        return () -> {
+            RLSContext previous = CURRENT_CONTEXT.get();
+            setOrRemove(captured);
+            try {
+                return task.get();
+            } finally {
+                setOrRemove(previous);
+            }
+        };
+    }
+
+    /**
+     * Envuelve el cuerpo de una respuesta en streaming con el contexto RLS actual
+     *
+     * Spring MVC escribe un {@link StreamingResponseBody} en un thread asíncrono, después
+     * de que el filtro de autenticación ya limpió el contexto del request.
+     *
+     * @param body el cuerpo que lee de la base de datos mientras escribe
+     * @return el cuerpo que restaura el contexto del thread llamante mientras se escribe
+     */
+    public StreamingResponseBody propagate(StreamingResponseBody body) {
+        RLSContext captured = CURRENT_CONTEXT.get();
+        return output -> {
+            RLSContext previous = CURRENT_CONTEXT.get();
+            setOrRemove(captured);
+            try {
+                body.writeTo(output);
+            } finally {
+                setOrRemove(previous);
+            }
+        };
+    }
+
+    /**
+     * Aplica el contexto del request actual sobre una conexión en transacción
+     *
+     * @param connection la conexión ligada a la transacción en curso
+     * @return true si había contexto y se aplicó, false si el request no tiene contexto
+     * @throws SQLException si falla la sentencia set_config
+     */
+    public boolean applySessionContext(Connection connection) throws SQLException {
+        RLSContext context = CURRENT_CONTEXT.get();
+        if (context == null) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(APPLY_CONTEXT_SQL)) {
+            statement.setString(1, toSetting(context.unidadNegocioId()));
+            statement.setString(2, toSetting(context.userId()));
+            statement.setString(3, context.roles());
+            statement.setString(4, Boolean.toString(context.bypass()));
+            try (ResultSet ignored = statement.executeQuery()) {
+                log.trace("RLS context aplicado a la transacción: tenant={}", context.unidadNegocioId());
+            }
+        } finally {
+            (context.bypass() ? applySystemTimer : applyRequestTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+        return true;
     }
 
     /**
@@ -97,16 +187,8 @@ public class RLSContextManager {
      * @return el UUID del tenant actual o null si no está configurado
      */
     public UUID getCurrentTenant() {
-        try {
-            String tenantId = jdbcTemplate.queryForObject(
-                "SELECT current_setting('app.current_tenant', true)",
-                String.class
-            );
-            return tenantId != null && !tenantId.isEmpty() ? UUID.fromString(tenantId) : null;
-        } catch (Exception e) {
-            log.warn("No se pudo obtener el tenant actual del contexto: {}", e.getMessage());
-            return null;
-        }
+        RLSContext context = CURRENT_CONTEXT.get();
+        return context != null ? context.unidadNegocioId() : null;
     }
 
     /**
@@ -115,15 +197,29 @@ public class RLSContextManager {
      * @return el UUID del usuario actual o null si no está configurado
      */
     public UUID getCurrentUser() {
-        try {
-            String userId = jdbcTemplate.queryForObject(
-                "SELECT current_setting('app.current_user', true)",
-                String.class
-            );
-            return userId != null && !userId.isEmpty() ? UUID.fromString(userId) : null;
-        } catch (Exception e) {
-            log.warn("No se pudo obtener el usuario actual del contexto: {}", e.getMessage());
-            return null;
+        RLSContext context = CURRENT_CONTEXT.get();
+        return context != null ? context.userId() : null;
+    }
+
+    private static Timer applyTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder(MetricNames.SECURITY_RLS)
+            .description("Aplicación del contexto RLS al iniciar una transacción")
+            .tag(MetricNames.TAG_TYPE, type)
+            .register(meterRegistry);
+    }
+
+    private static void setOrRemove(RLSContext context) {
+        if (context != null) {
+            CURRENT_CONTEXT.set(context);
+        } else {
+            CURRENT_CONTEXT.remove();
         }
     }
+
+    private static String toSetting(UUID value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private record RLSContext(UUID unidadNegocioId, UUID userId, String roles, boolean bypass) {
+    }
 }
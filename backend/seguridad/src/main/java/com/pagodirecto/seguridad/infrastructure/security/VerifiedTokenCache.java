@@ -0,0 +1,173 @@
+package com.pagodirecto.seguridad.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pagodirecto.seguridad.application.exception.InvalidTokenException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Componente: VerifiedTokenCache
+ *
+ * Cache acotado de access tokens ya verificados, indexado por el digest SHA-256
+ * del token (nunca se guarda el token en claro). Evita repetir la verificación
+ * HS256 en requests sucesivos con el mismo token.
+ *
+ * - Cada entrada expira exactamente cuando expira el token
+ * - Las entradas de un usuario se descartan al revocar sus tokens; dentro de una
+ *   transacción la revocación se aplica recién después del commit
+ * - Hits/misses/evictions se publican en Actuator como cache "jwt.verified-tokens"
+ *
+ * @author PagoDirecto Security Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final JwtTokenProvider tokenProvider;
+    private final Cache<String, AuthenticatedPrincipal> verifiedTokens;
+    private final Cache<UUID, Instant> revocations;
+
+    public VerifiedTokenCache(
+        JwtTokenProvider tokenProvider,
+        MeterRegistry meterRegistry,
+        @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+        @Value("${jwt.access-token-expiration-ms:300000}") long accessTokenExpirationMs
+    ) {
+        this.tokenProvider = tokenProvider;
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        // Una revocación sólo debe recordarse mientras pueda existir un token emitido antes de ella
+        this.revocations = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(accessTokenExpirationMs))
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, CACHE_NAME);
+        log.info("Cache de tokens verificados inicializado. Max size: {}", maxSize);
+    }
+
+    /**
+     * Obtiene el principal de un token, verificándolo sólo si no está en cache
+     *
+     * @param token el token JWT
+     * @return el principal autenticado
+     * @throws InvalidTokenException si el token es inválido, expiró o fue revocado
+     */
+    public AuthenticatedPrincipal resolve(String token) {
+        String key = digest(token);
+        AuthenticatedPrincipal principal = verifiedTokens.get(key, k -> tokenProvider.parseAuthenticatedPrincipal(token));
+
+        if (isExpired(principal) || isRevoked(principal)) {
+            verifiedTokens.invalidate(key);
+            throw new InvalidTokenException("Token expirado o revocado");
+        }
+        return principal;
+    }
+
+    /**
+     * Revoca todos los access tokens emitidos antes del segundo actual para un
+     * usuario. Si hay una transacción activa la revocación espera a su commit, de
+     * modo que un cambio que se revierte no cierra las sesiones del usuario.
+     *
+     * @param userId ID del usuario
+     */
+    public void revokeUser(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revokeNow(userId);
+                }
+            });
+        } else {
+            revokeNow(userId);
+        }
+    }
+
+    private void revokeNow(UUID userId) {
+        revocations.put(userId, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        verifiedTokens.asMap().values().removeIf(principal -> userId.equals(principal.getUserId()));
+        log.info("Tokens del usuario {} revocados", userId);
+    }
+
+    /**
+     * Descarta un token concreto del cache (p. ej. en logout)
+     *
+     * @param token el token JWT
+     */
+    public void evict(String token) {
+        verifiedTokens.invalidate(digest(token));
+    }
+
+    private boolean isExpired(AuthenticatedPrincipal principal) {
+        return principal.getExpiresAt() != null && !principal.getExpiresAt().isAfter(Instant.now());
+    }
+
+    private boolean isRevoked(AuthenticatedPrincipal principal) {
+        Instant revokedAt = revocations.getIfPresent(principal.getUserId());
+        if (revokedAt == null) {
+            return false;
+        }
+        // "iat" tiene precisión de segundos: un token emitido en el mismo segundo que la
+        // revocación puede ser el de un nuevo login y se acepta
+        return principal.getIssuedAt() == null || principal.getIssuedAt().isBefore(revokedAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Política de expiración por entrada: vive hasta el "exp" del token
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, AuthenticatedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, AuthenticatedPrincipal principal, long currentTime) {
+            if (principal.getExpiresAt() == null) {
+                return 0L;
+            }
+            long nanos = Duration.between(Instant.now(), principal.getExpiresAt()).toNanos();
+            return Math.max(nanos, 0L);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AuthenticatedPrincipal principal, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, AuthenticatedPrincipal principal, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.pagodirecto.seguridad.infrastructure.security;
+
+import com.pagodirecto.seguridad.application.exception.InvalidTokenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests: revocación de tokens en VerifiedTokenCache
+ *
+ * Los tokens son claves de un mapa con su principal ya verificado; el proveedor
+ * no firma ni verifica nada.
+ *
+ * @author PagoDirecto Security Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class VerifiedTokenCacheTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final Map<String, AuthenticatedPrincipal> emitidos = new HashMap<>();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(new JwtTokenProvider() {
+        @Override
+        public AuthenticatedPrincipal parseAuthenticatedPrincipal(String token) {
+            return emitidos.get(token);
+        }
+    }, new SimpleMeterRegistry(), 100, 300_000);
+
+    @AfterEach
+    void limpiarTransaccion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rechazaLosTokensEmitidosAntesDeLaRevocacion() {
+        String anterior = emitir(Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(1));
+        cache.resolve(anterior);
+
+        cache.revokeUser(userId);
+
+        assertThatThrownBy(() -> cache.resolve(anterior)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void aceptaUnTokenEmitidoEnElMismoSegundoQueLaRevocacion() {
+        cache.revokeUser(userId);
+        // Un nuevo login inmediatamente después: "iat" cae en el segundo de la revocación
+        String nuevo = emitir(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(cache.resolve(nuevo).getUserId()).isEqualTo(userId);
+    }
+
+    @Test
+    void dentroDeUnaTransaccionRevocaRecienAlConfirmar() {
+        String anterior = emitir(Instant.now().minusSeconds(60));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.revokeUser(userId);
+        assertThat(cache.resolve(anterior).getUserId()).isEqualTo(userId);
+
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        assertThatThrownBy(() -> cache.resolve(anterior)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void unaTransaccionRevertidaNoRevoca() {
+        String anterior = emitir(Instant.now().minusSeconds(60));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.revokeUser(userId);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(cache.resolve(anterior).getUserId()).isEqualTo(userId);
+    }
+
+    private String emitir(Instant issuedAt) {
+        String token = "token-" + UUID.randomUUID();
+        emitidos.put(token, AuthenticatedPrincipal.builder()
+            .userId(userId)
+            .username("usuario")
+            .roles(Set.of())
+            .permissions(Set.of())
+            .issuedAt(issuedAt)
+            .expiresAt(Instant.now().plusSeconds(300))
+            .build());
+        return token;
+    }
+}
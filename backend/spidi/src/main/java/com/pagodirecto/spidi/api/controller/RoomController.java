@@ -0,0 +1,62 @@
+package com.pagodirecto.spidi.api.controller;
+
+import com.pagodirecto.spidi.application.dto.RoomLatencyDTO;
+import com.pagodirecto.spidi.application.dto.RoomOccupancyDTO;
+import com.pagodirecto.spidi.application.service.RoomOccupancyService;
+import com.pagodirecto.spidi.application.service.RoomStatsService;
+import com.pagodirecto.spidi.domain.BucketInterval;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST Controller: Salas SPIDI
+ *
+ * Ocupación en vivo y percentiles de latencia de las salas.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@RestController
+@RequestMapping("/v1/spidi/rooms")
+@RequiredArgsConstructor
+@Tag(name = "Salas SPIDI", description = "API de salas SPIDI")
+public class RoomController {
+
+    private final RoomOccupancyService roomOccupancyService;
+    private final RoomStatsService roomStatsService;
+
+    @GetMapping("/occupancy")
+    @Operation(summary = "Ocupación de las salas",
+               description = "Sesiones activas y porcentaje de capacidad de cada sala del tenant, "
+                       + "de la más ocupada a la menos")
+    public ResponseEntity<List<RoomOccupancyDTO>> resumen() {
+        return ResponseEntity.ok(roomOccupancyService.resumen());
+    }
+
+    @GetMapping("/{id}/occupancy")
+    @Operation(summary = "Ocupación de una sala")
+    public ResponseEntity<RoomOccupancyDTO> obtener(@PathVariable UUID id) {
+        return ResponseEntity.ok(roomOccupancyService.obtener(id));
+    }
+
+    @GetMapping("/{id}/latency")
+    @Operation(summary = "Percentiles de latencia de una sala",
+               description = "p50, p95 y p99 por bucket y del rango completo [from, to). "
+                       + "Por defecto buckets de hora de las últimas 24 horas")
+    public ResponseEntity<RoomLatencyDTO> latencias(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "HOUR") BucketInterval interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(roomStatsService.obtenerLatencias(id, interval, from, to));
+    }
+}
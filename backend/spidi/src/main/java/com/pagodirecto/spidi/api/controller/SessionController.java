@@ -0,0 +1,70 @@
+package com.pagodirecto.spidi.api.controller;
+
+import com.pagodirecto.seguridad.infrastructure.security.AuthenticatedPrincipal;
+import com.pagodirecto.spidi.application.dto.ConnectSessionRequest;
+import com.pagodirecto.spidi.application.dto.HeartbeatRequest;
+import com.pagodirecto.spidi.application.dto.SessionDTO;
+import com.pagodirecto.spidi.application.service.HeartbeatService;
+import com.pagodirecto.spidi.application.service.SessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST Controller: Sesiones SPIDI
+ *
+ * Conexión de clientes a salas, señales de vida y desconexión.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@RestController
+@RequestMapping("/v1/spidi/sessions")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Sesiones SPIDI", description = "API de sesiones de salas SPIDI")
+public class SessionController {
+
+    private final SessionService sessionService;
+    private final HeartbeatService heartbeatService;
+
+    @PostMapping
+    @Operation(summary = "Conectar a una sala",
+               description = "Crea una sesión ACTIVE si la sala acepta conexiones y tiene lugar")
+    public ResponseEntity<SessionDTO> connect(@Valid @RequestBody ConnectSessionRequest request,
+                                              HttpServletRequest httpRequest) {
+        log.debug("Solicitud de conexión a la sala {} del cliente {}", request.getRoomId(), request.getClientId());
+
+        UUID userId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
+        SessionDTO session = sessionService.connect(request, userId, httpRequest.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    @PostMapping("/{id}/heartbeat")
+    @Operation(summary = "Registrar heartbeat",
+               description = "Mantiene viva la sesión y actualiza su latencia promedio. "
+                       + "Se persiste en lote, no en cada llamada")
+    public ResponseEntity<Void> heartbeat(@PathVariable UUID id,
+                                          @Valid @RequestBody(required = false) HeartbeatRequest request) {
+        heartbeatService.recordHeartbeat(id, request != null ? request.getLatencyMs() : null);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Desconectar", description = "Cierra la sesión con razón USER_LEAVE")
+    public ResponseEntity<SessionDTO> disconnect(@PathVariable UUID id) {
+        log.debug("Solicitud de desconexión de la sesión {}", id);
+        return ResponseEntity.ok(sessionService.disconnect(id));
+    }
+}
@@ -0,0 +1,41 @@
+package com.pagodirecto.spidi.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Solicitud de conexión de un cliente a una sala
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConnectSessionRequest {
+
+    @NotNull(message = "La sala es obligatoria")
+    private UUID roomId;
+
+    /**
+     * Id generado por el cliente; distingue varias sesiones de un mismo usuario
+     */
+    @NotBlank(message = "El id de cliente es obligatorio")
+    @Size(max = 255, message = "El id de cliente no puede exceder 255 caracteres")
+    private String clientId;
+
+    @Size(max = 100, message = "El dispositivo no puede exceder 100 caracteres")
+    private String device;
+
+    @Size(max = 100, message = "El sistema operativo no puede exceder 100 caracteres")
+    private String os;
+
+    @Size(max = 50, message = "La versión no puede exceder 50 caracteres")
+    private String appVersion;
+}
@@ -0,0 +1,26 @@
+package com.pagodirecto.spidi.application.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+/**
+ * Heartbeat de una sesión
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeartbeatRequest {
+
+    /**
+     * Latencia medida por el cliente en milisegundos; opcional
+     */
+    @Min(value = 0, message = "La latencia no puede ser negativa")
+    @Max(value = 600000, message = "La latencia máxima es de 10 minutos")
+    private Integer latencyMs;
+}
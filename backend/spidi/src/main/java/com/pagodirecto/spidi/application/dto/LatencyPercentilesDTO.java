@@ -0,0 +1,32 @@
+package com.pagodirecto.spidi.application.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * DTO: Percentiles de latencia de un bucket de estadísticas
+ *
+ * Los percentiles tienen un error relativo de a lo sumo ~3% (ver
+ * {@code LatencyHistogram}); son null si el bucket no tiene muestras.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LatencyPercentilesDTO {
+
+    /**
+     * Inicio del bucket; null en el total del rango
+     */
+    private Instant tsBucket;
+    private Long samples;
+    private Integer avgLatencyMs;
+    private Integer p50Ms;
+    private Integer p95Ms;
+    private Integer p99Ms;
+}
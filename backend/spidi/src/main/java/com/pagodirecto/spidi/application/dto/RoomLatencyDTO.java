@@ -0,0 +1,37 @@
+package com.pagodirecto.spidi.application.dto;
+
+import com.pagodirecto.spidi.domain.BucketInterval;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO: Latencias de una sala en un rango
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomLatencyDTO {
+
+    private UUID roomId;
+    private BucketInterval interval;
+    private Instant from;
+    private Instant to;
+
+    /**
+     * Todo el rango, combinando los histogramas de sus buckets
+     */
+    private LatencyPercentilesDTO total;
+
+    /**
+     * Los buckets persistidos del rango, en orden cronológico
+     */
+    private List<LatencyPercentilesDTO> buckets;
+}
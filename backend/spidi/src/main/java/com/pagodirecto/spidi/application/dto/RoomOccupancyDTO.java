@@ -0,0 +1,30 @@
+package com.pagodirecto.spidi.application.dto;
+
+import com.pagodirecto.spidi.domain.RoomStatus;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * DTO: Ocupación de una sala
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomOccupancyDTO {
+
+    private UUID roomId;
+    private String code;
+    private String name;
+    private RoomStatus status;
+    private Integer capacity;
+    private Integer online;
+    private Double capacityPercentage;
+    private Boolean nearCapacity;
+    private Boolean acceptsConnections;
+}
@@ -0,0 +1,31 @@
+package com.pagodirecto.spidi.application.dto;
+
+import com.pagodirecto.spidi.domain.SessionStatus;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO: Sesión SPIDI
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionDTO {
+
+    private UUID id;
+    private UUID roomId;
+    private SessionStatus status;
+    private String disconnectReason;
+
+    /**
+     * Inicio de la sesión o, si ya terminó, instante del cierre
+     */
+    private Instant at;
+}
@@ -0,0 +1,32 @@
+package com.pagodirecto.spidi.application.service;
+
+import java.util.UUID;
+
+/**
+ * Servicio: Heartbeats de sesiones
+ *
+ * Recibe los heartbeats de las sesiones activas en memoria y los persiste en
+ * lotes periódicos, en lugar de una escritura por heartbeat.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface HeartbeatService {
+
+    /**
+     * Registra un heartbeat de una sesión activa
+     *
+     * @param sessionId la sesión
+     * @param latencyMs latencia reportada por el cliente en milisegundos; opcional
+     * @throws IllegalArgumentException si la sesión no existe o ya no está activa
+     */
+    void recordHeartbeat(UUID sessionId, Integer latencyMs);
+
+    /**
+     * Persiste los heartbeats acumulados desde el último vaciado
+     *
+     * @return false si algún lote falló y quedaron heartbeats sin persistir
+     */
+    boolean flush();
+}
@@ -0,0 +1,31 @@
+package com.pagodirecto.spidi.application.service;
+
+import com.pagodirecto.spidi.application.dto.RoomOccupancyDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Servicio: Ocupación de salas
+ *
+ * Ocupación actual de las salas a partir de los contadores en memoria, sin
+ * consultar dat_spd_session.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface RoomOccupancyService {
+
+    /**
+     * Ocupación de una sala
+     *
+     * @throws IllegalArgumentException si la sala no existe
+     */
+    RoomOccupancyDTO obtener(UUID roomId);
+
+    /**
+     * Ocupación de todas las salas del tenant actual, de la más ocupada a la menos
+     */
+    List<RoomOccupancyDTO> resumen();
+}
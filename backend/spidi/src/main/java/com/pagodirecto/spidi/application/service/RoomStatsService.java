@@ -0,0 +1,42 @@
+package com.pagodirecto.spidi.application.service;
+
+import com.pagodirecto.spidi.application.dto.RoomLatencyDTO;
+import com.pagodirecto.spidi.domain.BucketInterval;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Servicio: Estadísticas de salas
+ *
+ * Persiste periódicamente los buckets de minuto cerrados del agregador en
+ * memoria y los acumula en sus buckets de hora, día, semana y mes, y consulta
+ * los percentiles de latencia persistidos.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface RoomStatsService {
+
+    /**
+     * Persiste los buckets cerrados desde el último vaciado
+     *
+     * @return false si la escritura falló y los buckets quedaron pendientes
+     */
+    boolean flush();
+
+    /**
+     * Percentiles de latencia de una sala por bucket y en todo un rango
+     *
+     * @param roomId   la sala
+     * @param interval intervalo de los buckets
+     * @param from     inicio del rango, inclusive; por defecto 24 horas antes de {@code to}
+     * @param to       fin del rango, exclusive; por defecto ahora
+     * @return latencias del rango
+     * @throws IllegalArgumentException si la sala no existe
+     * @throws com.pagodirecto.core.exception.BusinessException si el rango es inválido o
+     *         abarca más buckets de los permitidos
+     */
+    RoomLatencyDTO obtenerLatencias(UUID roomId, BucketInterval interval, Instant from, Instant to);
+}
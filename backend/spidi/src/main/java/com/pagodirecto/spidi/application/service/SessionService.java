@@ -0,0 +1,40 @@
+package com.pagodirecto.spidi.application.service;
+
+import com.pagodirecto.spidi.application.dto.ConnectSessionRequest;
+import com.pagodirecto.spidi.application.dto.SessionDTO;
+
+import java.util.UUID;
+
+/**
+ * Servicio: Sesiones SPIDI
+ *
+ * Alta de sesiones con control de capacidad de la sala y cierre por el cliente.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public interface SessionService {
+
+    /**
+     * Conecta un cliente a una sala
+     *
+     * @param request   sala y datos del cliente
+     * @param userId    usuario autenticado, puede ser null
+     * @param ipAddress dirección IP del cliente
+     * @return la sesión ACTIVE creada
+     * @throws IllegalArgumentException si la sala no existe
+     * @throws com.pagodirecto.core.exception.BusinessException SALA_NO_DISPONIBLE si la sala no acepta
+     *         conexiones, SALA_LLENA si alcanzó su capacidad
+     */
+    SessionDTO connect(ConnectSessionRequest request, UUID userId, String ipAddress);
+
+    /**
+     * Cierra una sesión por salida del usuario (USER_LEAVE)
+     *
+     * @param sessionId la sesión
+     * @return la sesión DISCONNECTED
+     * @throws IllegalArgumentException si la sesión no existe o ya no está activa
+     */
+    SessionDTO disconnect(UUID sessionId);
+}
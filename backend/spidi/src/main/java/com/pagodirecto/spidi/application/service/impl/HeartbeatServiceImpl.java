@@ -0,0 +1,162 @@
+package com.pagodirecto.spidi.application.service.impl;
+
+import com.pagodirecto.core.metrics.MetricNames;
+import com.pagodirecto.spidi.application.service.HeartbeatService;
+import com.pagodirecto.spidi.infrastructure.live.LiveSessionRegistry;
+import com.pagodirecto.spidi.infrastructure.live.RoomStatsAggregator;
+import com.pagodirecto.spidi.infrastructure.live.SessionExpiryScheduler;
+import com.pagodirecto.spidi.infrastructure.repository.SessionHeartbeatRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación: HeartbeatService
+ *
+ * Un heartbeat sólo actualiza el {@link LiveSessionRegistry}; no toca la base de
+ * datos salvo la primera vez que este nodo ve la sesión, cuando se carga su estado
+ * y se programa su vencimiento en el {@link SessionExpiryScheduler}. La latencia
+ * reportada se suma además al minuto en curso de la sala en el
+ * {@link RoomStatsAggregator}.
+ * Cada app.spidi.heartbeat.flush-interval los heartbeats pendientes se fusionan
+ * (una fila por sesión, con su último valor) y se escriben con
+ * {@link SessionHeartbeatRepository#actualizarHeartbeats} en transacciones de
+ * app.spidi.heartbeat.batch-size sesiones.
+ *
+ * - Si un lote falla, sus sesiones y las de los lotes siguientes vuelven a quedar
+ *   pendientes para el próximo vaciado
+ * - Las sesiones que la base de datos ya no tiene activas (terminadas en otro
+ *   nodo) se quitan del registro
+ * - Al apagar el nodo se vacía lo pendiente
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class HeartbeatServiceImpl implements HeartbeatService {
+
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final SessionHeartbeatRepository sessionHeartbeatRepository;
+    private final SessionExpiryScheduler sessionExpiryScheduler;
+    private final RoomStatsAggregator roomStatsAggregator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter heartbeatsAceptados;
+    private final Counter heartbeatsRechazados;
+    private final Timer flushExitoso;
+    private final Timer flushFallido;
+
+    public HeartbeatServiceImpl(LiveSessionRegistry liveSessionRegistry,
+                                SessionHeartbeatRepository sessionHeartbeatRepository,
+                                SessionExpiryScheduler sessionExpiryScheduler,
+                                RoomStatsAggregator roomStatsAggregator,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.spidi.heartbeat.batch-size:1000}") int batchSize) {
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.sessionHeartbeatRepository = sessionHeartbeatRepository;
+        this.sessionExpiryScheduler = sessionExpiryScheduler;
+        this.roomStatsAggregator = roomStatsAggregator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.heartbeatsAceptados = heartbeats(meterRegistry, MetricNames.OUTCOME_SUCCESS);
+        this.heartbeatsRechazados = heartbeats(meterRegistry, MetricNames.OUTCOME_ERROR);
+        this.flushExitoso = flushTimer(meterRegistry, MetricNames.OUTCOME_SUCCESS);
+        this.flushFallido = flushTimer(meterRegistry, MetricNames.OUTCOME_ERROR);
+        Gauge.builder(MetricNames.SPIDI_LIVE_SESSIONS, liveSessionRegistry, LiveSessionRegistry::size)
+                .description("Sesiones en el registro de sesiones vivas de este nodo")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordHeartbeat(UUID sessionId, Integer latencyMs) {
+        long ahora = System.currentTimeMillis();
+        UUID roomId = liveSessionRegistry.heartbeat(sessionId, latencyMs, ahora);
+        if (roomId == null) {
+            LiveSessionRegistry.Snapshot persistida = sessionHeartbeatRepository.findActive(sessionId)
+                    .orElseThrow(() -> {
+                        heartbeatsRechazados.increment();
+                        return new IllegalArgumentException("Sesión activa no encontrada con ID: " + sessionId);
+                    });
+            long ultimo = persistida.lastHeartbeatAt().toEpochMilli();
+            if (liveSessionRegistry.track(sessionId, persistida.roomId(), ultimo, persistida.avgLatencyMs())) {
+                sessionExpiryScheduler.schedule(sessionId, ultimo);
+            }
+            roomId = liveSessionRegistry.heartbeat(sessionId, latencyMs, ahora);
+        }
+        if (latencyMs != null && roomId != null) {
+            roomStatsAggregator.registrarLatencia(roomId, latencyMs, ahora);
+        }
+        heartbeatsAceptados.increment();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.spidi.heartbeat.flush-interval:PT5S}")
+    public boolean flush() {
+        List<LiveSessionRegistry.Snapshot> pendientes = liveSessionRegistry.drainPending();
+        if (pendientes.isEmpty()) {
+            return true;
+        }
+
+        long inicio = System.nanoTime();
+        int inactivas = 0;
+        for (int desde = 0; desde < pendientes.size(); desde += batchSize) {
+            List<LiveSessionRegistry.Snapshot> lote =
+                    pendientes.subList(desde, Math.min(desde + batchSize, pendientes.size()));
+            try {
+                List<UUID> terminadas = transactionTemplate.execute(status ->
+                        sessionHeartbeatRepository.actualizarHeartbeats(lote));
+                if (terminadas != null) {
+                    terminadas.forEach(liveSessionRegistry::remove);
+                    inactivas += terminadas.size();
+                }
+            } catch (RuntimeException e) {
+                // Se reintenta en el siguiente vaciado, con los valores que haya para entonces
+                liveSessionRegistry.markPending(pendientes.subList(desde, pendientes.size()).stream()
+                        .map(LiveSessionRegistry.Snapshot::sessionId)
+                        .toList());
+                flushFallido.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                log.error("Error persistiendo heartbeats; {} sesiones quedan pendientes",
+                        pendientes.size() - desde, e);
+                return false;
+            }
+        }
+        flushExitoso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        log.debug("Heartbeats persistidos: {} sesiones, {} ya no activas", pendientes.size(), inactivas);
+        return true;
+    }
+
+    @PreDestroy
+    public void flushAlApagar() {
+        flush();
+    }
+
+    private static Counter heartbeats(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(MetricNames.SPIDI_HEARTBEATS)
+                .description("Heartbeats de sesiones recibidos")
+                .tag(MetricNames.TAG_OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(MetricNames.SPIDI_HEARTBEAT_FLUSH)
+                .description("Escritura en lote de los heartbeats pendientes")
+                .tag(MetricNames.TAG_OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.pagodirecto.spidi.application.service.impl;
+
+import com.pagodirecto.spidi.application.dto.RoomOccupancyDTO;
+import com.pagodirecto.spidi.application.service.RoomOccupancyService;
+import com.pagodirecto.spidi.domain.Room;
+import com.pagodirecto.spidi.infrastructure.live.RoomOccupancyRegistry;
+import com.pagodirecto.spidi.infrastructure.repository.RoomRepository;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementación: RoomOccupancyService
+ *
+ * Las salas se leen de dat_spd_room (con RLS); la ocupación sale del
+ * {@link RoomOccupancyRegistry}, nunca de un COUNT sobre dat_spd_session.
+ * Una sala está cerca de su capacidad desde app.spidi.occupancy.near-capacity-threshold
+ * por ciento.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class RoomOccupancyServiceImpl implements RoomOccupancyService {
+
+    private final RoomRepository roomRepository;
+    private final RoomOccupancyRegistry roomOccupancyRegistry;
+    private final RLSContextManager rlsContextManager;
+    private final double umbralCapacidad;
+
+    public RoomOccupancyServiceImpl(RoomRepository roomRepository,
+                                    RoomOccupancyRegistry roomOccupancyRegistry,
+                                    RLSContextManager rlsContextManager,
+                                    @Value("${app.spidi.occupancy.near-capacity-threshold:80}") double umbralCapacidad) {
+        this.roomRepository = roomRepository;
+        this.roomOccupancyRegistry = roomOccupancyRegistry;
+        this.rlsContextManager = rlsContextManager;
+        this.umbralCapacidad = umbralCapacidad;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RoomOccupancyDTO obtener(UUID roomId) {
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada con ID: " + roomId));
+        return toDTO(room);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RoomOccupancyDTO> resumen() {
+        UUID unidadNegocioId = rlsContextManager.getCurrentTenant();
+        log.debug("Resumen de ocupación de salas del tenant {}", unidadNegocioId);
+        return roomRepository.findByUnidadNegocioId(unidadNegocioId).stream()
+                .map(this::toDTO)
+                .sorted(Comparator.comparing(RoomOccupancyDTO::getOnline).reversed())
+                .toList();
+    }
+
+    private RoomOccupancyDTO toDTO(Room room) {
+        int online = roomOccupancyRegistry.getOnline(room.getId());
+        return RoomOccupancyDTO.builder()
+                .roomId(room.getId())
+                .code(room.getCode())
+                .name(room.getName())
+                .status(room.getStatus())
+                .capacity(room.getCapacity())
+                .online(online)
+                .capacityPercentage(room.getCapacityPercentage(online))
+                .nearCapacity(room.isNearCapacity(online, umbralCapacidad))
+                .acceptsConnections(room.canAcceptConnection(online))
+                .build();
+    }
+}
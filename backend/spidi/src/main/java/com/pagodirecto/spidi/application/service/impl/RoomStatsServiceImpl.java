@@ -0,0 +1,236 @@
+package com.pagodirecto.spidi.application.service.impl;
+
+import com.pagodirecto.core.exception.BusinessException;
+import com.pagodirecto.core.metrics.MetricNames;
+import com.pagodirecto.spidi.application.dto.LatencyPercentilesDTO;
+import com.pagodirecto.spidi.application.dto.RoomLatencyDTO;
+import com.pagodirecto.spidi.application.service.RoomStatsService;
+import com.pagodirecto.spidi.domain.BucketInterval;
+import com.pagodirecto.spidi.domain.LatencyHistogram;
+import com.pagodirecto.spidi.infrastructure.live.RoomStatsAggregator;
+import com.pagodirecto.spidi.infrastructure.repository.RoomRepository;
+import com.pagodirecto.spidi.infrastructure.repository.RoomStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación: RoomStatsService
+ *
+ * Cada app.spidi.stats.flush-interval toma los buckets de minuto que cerró el
+ * {@link RoomStatsAggregator} y escribe, en una transacción, su fila MINUTE y su
+ * aporte a las filas HOUR, DAY, WEEK y MONTH que los contienen. Los minutos de
+ * una misma sala que caen en el mismo bucket mayor se combinan antes de escribir,
+ * de modo que cada fila recibe una sola sentencia por vaciado.
+ *
+ * - Si la escritura falla, los buckets vuelven al agregador y se reintentan en el
+ *   siguiente vaciado; la transacción evita sumarlos dos veces
+ * - Al apagar el nodo se cierran también los minutos en curso y se vacía lo
+ *   pendiente
+ *
+ * Los percentiles de latencia de un rango salen de combinar los histogramas de
+ * sus buckets, sin muestras originales. La sala se busca primero en
+ * dat_spd_room, que tiene RLS, de modo que sólo se consultan salas del tenant;
+ * un rango no puede abarcar más de app.spidi.stats.max-buckets buckets.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@Slf4j
+public class RoomStatsServiceImpl implements RoomStatsService {
+
+    /**
+     * Rango consultado hacia atrás desde el fin cuando no se indica el inicio
+     */
+    private static final Duration RANGO_POR_DEFECTO = Duration.ofHours(24);
+
+    /**
+     * Mismo orden en todos los nodos, para que dos vaciados concurrentes no se
+     * bloqueen mutuamente sobre las mismas filas
+     */
+    private static final Comparator<RoomStatsRepository.Fila> ORDEN_FILAS =
+            Comparator.comparing(RoomStatsRepository.Fila::roomId)
+                    .thenComparing(RoomStatsRepository.Fila::interval)
+                    .thenComparing(RoomStatsRepository.Fila::tsBucket);
+
+    private final RoomStatsAggregator roomStatsAggregator;
+    private final RoomStatsRepository roomStatsRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBuckets;
+    private final Timer flushExitoso;
+    private final Timer flushFallido;
+
+    public RoomStatsServiceImpl(RoomStatsAggregator roomStatsAggregator,
+                                RoomStatsRepository roomStatsRepository,
+                                RoomRepository roomRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.spidi.stats.max-buckets:1440}") int maxBuckets) {
+        this.roomStatsAggregator = roomStatsAggregator;
+        this.roomStatsRepository = roomStatsRepository;
+        this.roomRepository = roomRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBuckets = maxBuckets;
+        this.flushExitoso = flushTimer(meterRegistry, MetricNames.OUTCOME_SUCCESS);
+        this.flushFallido = flushTimer(meterRegistry, MetricNames.OUTCOME_ERROR);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.spidi.stats.flush-interval:PT15S}")
+    public boolean flush() {
+        return persistir(roomStatsAggregator.cerrar(System.currentTimeMillis()));
+    }
+
+    @PreDestroy
+    public void flushAlApagar() {
+        persistir(roomStatsAggregator.cerrarTodo());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RoomLatencyDTO obtenerLatencias(UUID roomId, BucketInterval interval, Instant from, Instant to) {
+        roomRepository.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada con ID: " + roomId));
+        Instant hasta = to != null ? to : Instant.now();
+        Instant desde = from != null ? from : hasta.minus(RANGO_POR_DEFECTO);
+        if (!desde.isBefore(hasta)) {
+            throw new BusinessException("RANGO_INVALIDO", "El inicio del rango debe ser anterior a su fin");
+        }
+
+        List<RoomStatsRepository.Latencias> latencias =
+                roomStatsRepository.buscarLatencias(roomId, interval, desde, hasta, maxBuckets + 1);
+        if (latencias.size() > maxBuckets) {
+            throw new BusinessException("RANGO_DEMASIADO_GRANDE",
+                    "El rango abarca más de " + maxBuckets + " buckets de " + interval);
+        }
+
+        LatencyHistogram histogramaTotal = new LatencyHistogram();
+        long sumaTotal = 0;
+        long muestrasTotal = 0;
+        List<LatencyPercentilesDTO> buckets = new ArrayList<>(latencias.size());
+        for (RoomStatsRepository.Latencias bucket : latencias) {
+            histogramaTotal.add(bucket.latencyHistogram());
+            sumaTotal += bucket.latencySumMs();
+            muestrasTotal += bucket.latencySamples();
+            buckets.add(toDTO(bucket.tsBucket(), bucket.latencySumMs(), bucket.latencySamples(),
+                    bucket.latencyHistogram()));
+        }
+
+        return RoomLatencyDTO.builder()
+                .roomId(roomId)
+                .interval(interval)
+                .from(desde)
+                .to(hasta)
+                .total(toDTO(null, sumaTotal, muestrasTotal, histogramaTotal))
+                .buckets(buckets)
+                .build();
+    }
+
+    private boolean persistir(List<RoomStatsAggregator.Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return true;
+        }
+
+        long inicio = System.nanoTime();
+        List<RoomStatsRepository.Fila> filas = acumular(buckets);
+        try {
+            transactionTemplate.executeWithoutResult(status -> roomStatsRepository.acumular(filas));
+        } catch (RuntimeException e) {
+            roomStatsAggregator.devolver(buckets);
+            flushFallido.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            log.error("Error persistiendo estadísticas de salas; {} buckets quedan pendientes", buckets.size(), e);
+            return false;
+        }
+        flushExitoso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        log.debug("Estadísticas de salas persistidas: {} minutos, {} filas", buckets.size(), filas.size());
+        return true;
+    }
+
+    /**
+     * Combina los minutos en una fila por (sala, intervalo, bucket), de todos los intervalos
+     */
+    private static List<RoomStatsRepository.Fila> acumular(List<RoomStatsAggregator.Bucket> buckets) {
+        List<RoomStatsAggregator.Bucket> ordenados = new ArrayList<>(buckets);
+        ordenados.sort(Comparator.comparing(RoomStatsAggregator.Bucket::roomId)
+                .thenComparing(RoomStatsAggregator.Bucket::tsBucket));
+
+        Map<Clave, RoomStatsRepository.Fila> filas = new HashMap<>();
+        for (RoomStatsAggregator.Bucket bucket : ordenados) {
+            for (BucketInterval interval : BucketInterval.values()) {
+                Instant ts = interval.truncate(bucket.tsBucket());
+                filas.merge(new Clave(bucket.roomId(), interval, ts), fila(bucket, interval, ts),
+                        RoomStatsServiceImpl::combinar);
+            }
+        }
+
+        List<RoomStatsRepository.Fila> resultado = new ArrayList<>(filas.values());
+        resultado.sort(ORDEN_FILAS);
+        return resultado;
+    }
+
+    private static RoomStatsRepository.Fila fila(RoomStatsAggregator.Bucket bucket, BucketInterval interval,
+                                                 Instant ts) {
+        return new RoomStatsRepository.Fila(bucket.roomId(), interval, ts, bucket.countOnline(),
+                bucket.peakOnline(), bucket.totalSessions(), bucket.connects(), bucket.disconnects(),
+                bucket.latencySumMs(), bucket.latencySamples(), bucket.latencyHistogram());
+    }
+
+    /**
+     * Suma un minuto posterior a lo acumulado del mismo bucket
+     */
+    private static RoomStatsRepository.Fila combinar(RoomStatsRepository.Fila anterior,
+                                                     RoomStatsRepository.Fila posterior) {
+        return new RoomStatsRepository.Fila(anterior.roomId(), anterior.interval(), anterior.tsBucket(),
+                posterior.countOnline(),
+                Math.max(anterior.peakOnline(), posterior.peakOnline()),
+                anterior.totalSessions() + posterior.totalConnects(),
+                anterior.totalConnects() + posterior.totalConnects(),
+                anterior.totalDisconnects() + posterior.totalDisconnects(),
+                anterior.latencySumMs() + posterior.latencySumMs(),
+                anterior.latencySamples() + posterior.latencySamples(),
+                LatencyHistogram.merged(anterior.latencyHistogram(), posterior.latencyHistogram()));
+    }
+
+    private static LatencyPercentilesDTO toDTO(Instant tsBucket, long latencySumMs, long latencySamples,
+                                               LatencyHistogram histograma) {
+        return LatencyPercentilesDTO.builder()
+                .tsBucket(tsBucket)
+                .samples(latencySamples)
+                .avgLatencyMs(latencySamples > 0 ? (int) Math.round((double) latencySumMs / latencySamples) : null)
+                .p50Ms(histograma.getValueAtPercentile(50))
+                .p95Ms(histograma.getValueAtPercentile(95))
+                .p99Ms(histograma.getValueAtPercentile(99))
+                .build();
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(MetricNames.SPIDI_ROOM_STATS_FLUSH)
+                .description("Escritura de los buckets de minuto cerrados y su acumulación en intervalos mayores")
+                .tag(MetricNames.TAG_OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+
+    private record Clave(UUID roomId, BucketInterval interval, Instant tsBucket) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.pagodirecto.spidi.application.service.impl;
+
+import com.pagodirecto.core.exception.BusinessException;
+import com.pagodirecto.spidi.application.dto.ConnectSessionRequest;
+import com.pagodirecto.spidi.application.dto.SessionDTO;
+import com.pagodirecto.spidi.application.service.SessionService;
+import com.pagodirecto.spidi.domain.Room;
+import com.pagodirecto.spidi.domain.SessionStatus;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import com.pagodirecto.spidi.domain.event.SessionTransitionsEvent;
+import com.pagodirecto.spidi.infrastructure.live.LiveSessionRegistry;
+import com.pagodirecto.spidi.infrastructure.live.RoomOccupancyRegistry;
+import com.pagodirecto.spidi.infrastructure.live.SessionExpiryScheduler;
+import com.pagodirecto.spidi.infrastructure.repository.RoomRepository;
+import com.pagodirecto.spidi.infrastructure.repository.SessionConnectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Implementación: SessionService
+ *
+ * La admisión no cuenta sesiones en la base de datos: ocupa un lugar en el
+ * {@link RoomOccupancyRegistry} (O(1); la capacidad se controla por nodo y es
+ * aproximada entre nodos) antes de insertar, y al terminar la transacción lo
+ * confirma o lo devuelve. Tras el commit la sesión entra al
+ * {@link LiveSessionRegistry} y a la rueda de vencimientos.
+ *
+ * Conexiones y cierres publican un {@link SessionTransitionsEvent}; los
+ * listeners transaccionales lo reciben después del commit.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionServiceImpl implements SessionService {
+
+    public static final String DISCONNECT_REASON_USER_LEAVE = "USER_LEAVE";
+
+    private final RoomRepository roomRepository;
+    private final SessionConnectionRepository sessionConnectionRepository;
+    private final RoomOccupancyRegistry roomOccupancyRegistry;
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final SessionExpiryScheduler sessionExpiryScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public SessionDTO connect(ConnectSessionRequest request, UUID userId, String ipAddress) {
+        Room room = roomRepository.findById(request.getRoomId())
+                .orElseThrow(() -> new IllegalArgumentException("Sala no encontrada con ID: " + request.getRoomId()));
+        if (!room.acceptsConnections()) {
+            throw new BusinessException("SALA_NO_DISPONIBLE",
+                    "La sala " + room.getCode() + " no acepta conexiones (" + room.getStatus() + ")");
+        }
+        if (!roomOccupancyRegistry.tryAdmit(room)) {
+            throw new BusinessException("SALA_LLENA",
+                    "La sala " + room.getCode() + " alcanzó su capacidad de " + room.getCapacity() + " sesiones");
+        }
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                roomOccupancyRegistry.confirmAdmission(room.getId());
+            } else {
+                roomOccupancyRegistry.cancelAdmission(room.getId());
+            }
+        });
+
+        SessionTransition alta = sessionConnectionRepository.insertar(room.getId(), userId, request.getClientId(),
+                request.getDevice(), request.getOs(), request.getAppVersion(), ipAddress);
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                long inicio = alta.at().toEpochMilli();
+                if (liveSessionRegistry.track(alta.sessionId(), alta.roomId(), inicio, null)) {
+                    sessionExpiryScheduler.schedule(alta.sessionId(), inicio);
+                }
+            }
+        });
+        eventPublisher.publishEvent(new SessionTransitionsEvent(List.of(alta)));
+
+        log.info("Sesión {} conectada a la sala {}", alta.sessionId(), room.getCode());
+        return toDTO(alta);
+    }
+
+    @Override
+    @Transactional
+    public SessionDTO disconnect(UUID sessionId) {
+        LiveSessionRegistry.Snapshot viva = liveSessionRegistry.get(sessionId);
+        SessionTransition cierre = sessionConnectionRepository.cerrar(sessionId, SessionStatus.DISCONNECTED,
+                        DISCONNECT_REASON_USER_LEAVE,
+                        viva != null ? viva.lastHeartbeatAt() : null,
+                        viva != null ? viva.avgLatencyMs() : null)
+                .orElseThrow(() -> new IllegalArgumentException("Sesión activa no encontrada con ID: " + sessionId));
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                liveSessionRegistry.remove(sessionId);
+            }
+        });
+        eventPublisher.publishEvent(new SessionTransitionsEvent(List.of(cierre)));
+
+        log.info("Sesión {} desconectada", sessionId);
+        return toDTO(cierre);
+    }
+
+    private static void alTerminar(Consumer<Boolean> accion) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static SessionDTO toDTO(SessionTransition transicion) {
+        return SessionDTO.builder()
+                .id(transicion.sessionId())
+                .roomId(transicion.roomId())
+                .status(transicion.status())
+                .disconnectReason(transicion.disconnectReason())
+                .at(transicion.at())
+                .build();
+    }
+}
@@ -1,5 +1,12 @@
 package com.pagodirecto.spidi.domain;
 
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
 /**
  * Intervalo de agregación para estadísticas
  *
@@ -24,12 +31,31 @@ public enum BucketInterval {
     DAY,
 
     /**
-     * Agregación por semana
+     * Agregación por semana (de lunes a domingo)
      */
     WEEK,
 
     /**
      * Agregación por mes
      */
-    MONTH
+    MONTH;
+
+    /**
+     * Inicio del bucket de este intervalo que contiene un instante, en UTC
+     *
+     * @param instante el instante
+     * @return el instante truncado al minuto, hora, día, lunes o primer día del mes
+     */
+    public Instant truncate(Instant instante) {
+        ZonedDateTime utc = instante.atZone(ZoneOffset.UTC);
+        return switch (this) {
+            case MINUTE -> utc.truncatedTo(ChronoUnit.MINUTES).toInstant();
+            case HOUR -> utc.truncatedTo(ChronoUnit.HOURS).toInstant();
+            case DAY -> utc.truncatedTo(ChronoUnit.DAYS).toInstant();
+            case WEEK -> utc.truncatedTo(ChronoUnit.DAYS)
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toInstant();
+            case MONTH -> utc.truncatedTo(ChronoUnit.DAYS)
+                    .with(TemporalAdjusters.firstDayOfMonth()).toInstant();
+        };
+    }
 }
@@ -0,0 +1,185 @@
+package com.pagodirecto.spidi.domain;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histograma de latencias combinable
+ *
+ * Histograma log-lineal al estilo de HdrHistogram: los valores de 0 a 31 ms
+ * tienen un bucket cada uno y cada potencia de dos siguiente se divide en 32
+ * sub-buckets, de modo que el error relativo de un percentil es a lo sumo 1/32
+ * (~3%) en todo el rango de un int. El índice de un valor no depende de los
+ * datos, así que dos histogramas se combinan sumando sus cuentas índice a
+ * índice: entre buckets de tiempo, entre nodos o en la base de datos con
+ * spd_histogram_merge.
+ *
+ * Formato serializado: entradas ordenadas por índice con cuenta distinta de 0,
+ * cada una de 10 bytes big-endian [int2 índice][int8 cuenta].
+ *
+ * No es thread-safe.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BYTES_POR_ENTRADA = Short.BYTES + Long.BYTES;
+
+    private long[] cuentas = new long[SUB_BUCKETS];
+    private long total;
+
+    /**
+     * Registra una muestra
+     *
+     * @param latencyMs latencia en milisegundos; los valores negativos cuentan como 0
+     */
+    public void record(int latencyMs) {
+        int indice = indice(Math.max(latencyMs, 0));
+        if (indice >= cuentas.length) {
+            cuentas = Arrays.copyOf(cuentas, indice + 1);
+        }
+        cuentas[indice]++;
+        total++;
+    }
+
+    /**
+     * Suma las cuentas de otro histograma a éste
+     *
+     * @param otro el histograma a sumar; no se modifica
+     */
+    public void add(LatencyHistogram otro) {
+        if (otro.cuentas.length > cuentas.length) {
+            cuentas = Arrays.copyOf(cuentas, otro.cuentas.length);
+        }
+        for (int i = 0; i < otro.cuentas.length; i++) {
+            cuentas[i] += otro.cuentas[i];
+        }
+        total += otro.total;
+    }
+
+    /**
+     * Histograma nuevo con las cuentas de dos histogramas
+     */
+    public static LatencyHistogram merged(LatencyHistogram a, LatencyHistogram b) {
+        LatencyHistogram resultado = new LatencyHistogram();
+        resultado.add(a);
+        resultado.add(b);
+        return resultado;
+    }
+
+    /**
+     * Cantidad de muestras registradas
+     */
+    public long getTotalCount() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Valor en un percentil
+     *
+     * @param percentile percentil entre 0 y 100
+     * @return el punto medio del bucket que contiene el percentil, o null si no hay muestras
+     */
+    public Integer getValueAtPercentile(double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        double q = Math.min(Math.max(percentile, 0.0), 100.0) / 100.0;
+        long rango = Math.max(1L, (long) Math.ceil(q * total));
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= rango) {
+                return valor(i);
+            }
+        }
+        return valor(cuentas.length - 1);
+    }
+
+    /**
+     * Serializa las entradas no vacías
+     *
+     * @return los bytes, o null si no hay muestras
+     */
+    public byte[] toBytes() {
+        if (total == 0) {
+            return null;
+        }
+        int entradas = 0;
+        for (long cuenta : cuentas) {
+            if (cuenta != 0) {
+                entradas++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entradas * BYTES_POR_ENTRADA);
+        for (int i = 0; i < cuentas.length; i++) {
+            if (cuentas[i] != 0) {
+                buffer.putShort((short) i);
+                buffer.putLong(cuentas[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reconstruye un histograma serializado con {@link #toBytes}
+     *
+     * @param bytes los bytes; null o vacío da un histograma vacío
+     * @throws IllegalArgumentException si el largo no es múltiplo de una entrada
+     */
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        LatencyHistogram histograma = new LatencyHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histograma;
+        }
+        if (bytes.length % BYTES_POR_ENTRADA != 0) {
+            throw new IllegalArgumentException("Histograma de latencias con largo inválido: " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            int indice = Short.toUnsignedInt(buffer.getShort());
+            long cuenta = buffer.getLong();
+            if (indice >= histograma.cuentas.length) {
+                histograma.cuentas = Arrays.copyOf(histograma.cuentas, indice + 1);
+            }
+            histograma.cuentas[indice] += cuenta;
+            histograma.total += cuenta;
+        }
+        return histograma;
+    }
+
+    /**
+     * Índice del bucket de un valor no negativo
+     */
+    static int indice(int valor) {
+        if (valor < SUB_BUCKETS) {
+            return valor;
+        }
+        int exponente = 31 - Integer.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - SUB_BUCKET_BITS;
+        int subBucket = (valor >>> desplazamiento) - SUB_BUCKETS;
+        return SUB_BUCKETS + desplazamiento * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Punto medio del rango de valores de un bucket
+     */
+    static int valor(int indice) {
+        if (indice < SUB_BUCKETS) {
+            return indice;
+        }
+        int desplazamiento = (indice - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (indice - SUB_BUCKETS) % SUB_BUCKETS;
+        long inferior = (long) (SUB_BUCKETS + subBucket) << desplazamiento;
+        long ancho = 1L << desplazamiento;
+        return (int) Math.min(inferior + ancho / 2, Integer.MAX_VALUE);
+    }
+}
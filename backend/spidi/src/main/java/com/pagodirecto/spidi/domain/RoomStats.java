@@ -60,6 +60,20 @@ public class RoomStats {
     @Column(name = "avg_latency_ms")
     private Integer avgLatencyMs;
 
+    @Column(name = "latency_sum_ms", nullable = false)
+    @Builder.Default
+    private Long latencySumMs = 0L;
+
+    @Column(name = "latency_samples", nullable = false)
+    @Builder.Default
+    private Long latencySamples = 0L;
+
+    /**
+     * {@link LatencyHistogram} serializado; null sin muestras
+     */
+    @Column(name = "latency_histogram")
+    private byte[] latencyHistogram;
+
     @Column(name = "total_sessions", nullable = false)
     @Builder.Default
     private Integer totalSessions = 0;
@@ -110,20 +124,34 @@ public class RoomStats {
     }
 
     /**
-     * Actualiza la latencia promedio
+     * Agrega una muestra de latencia al promedio del bucket
+     *
+     * El promedio se recalcula desde la suma y la cantidad de muestras, de modo
+     * que cada muestra pesa lo mismo sin importar el orden de llegada. La muestra
+     * se registra también en el histograma de latencias.
      *
      * @param latencyMs nueva latencia en milisegundos
      */
     public void updateAverageLatency(int latencyMs) {
-        if (this.avgLatencyMs == null) {
-            this.avgLatencyMs = latencyMs;
-        } else {
-            // Simple moving average
-            this.avgLatencyMs = (this.avgLatencyMs + latencyMs) / 2;
-        }
+        this.latencySumMs += latencyMs;
+        this.latencySamples++;
+        this.avgLatencyMs = (int) Math.round((double) this.latencySumMs / this.latencySamples);
+        LatencyHistogram histograma = LatencyHistogram.fromBytes(this.latencyHistogram);
+        histograma.record(latencyMs);
+        this.latencyHistogram = histograma.toBytes();
         this.updatedAt = Instant.now();
     }
 
+    /**
+     * Latencia en un percentil del bucket
+     *
+     * @param percentile percentil entre 0 y 100 (p. ej. 99 para p99)
+     * @return latencia en milisegundos, o null si el bucket no tiene muestras
+     */
+    public Integer getLatencyPercentile(double percentile) {
+        return LatencyHistogram.fromBytes(this.latencyHistogram).getValueAtPercentile(percentile);
+    }
+
     /**
      * Calcula el porcentaje de uptime (sesiones activas vs desconexiones)
      *
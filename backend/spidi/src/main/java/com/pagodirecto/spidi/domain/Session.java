@@ -95,9 +95,10 @@ public class Session {
     @Builder.Default
     private Instant updatedAt = Instant.now();
 
-    // Transient field for latency calculation
-    @Transient
-    private static final double LATENCY_ALPHA = 0.3; // Smoothing factor for rolling average
+    /**
+     * Factor de suavizado del promedio móvil de latencia
+     */
+    public static final double LATENCY_ALPHA = 0.3;
 
     /**
      * Registra un heartbeat y actualiza la latencia promedio
@@ -0,0 +1,23 @@
+package com.pagodirecto.spidi.domain.event;
+
+import com.pagodirecto.spidi.domain.SessionStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Cambio de estado de una sesión ya confirmado en la base de datos
+ *
+ * @param sessionId        la sesión
+ * @param roomId           su sala
+ * @param status           el nuevo estado
+ * @param disconnectReason razón del fin de la sesión; null si sigue activa
+ * @param at               instante del cambio
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public record SessionTransition(UUID sessionId, UUID roomId, SessionStatus status,
+                                String disconnectReason, Instant at) {
+}
@@ -0,0 +1,27 @@
+package com.pagodirecto.spidi.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Evento: lote de cambios de estado de sesiones
+ *
+ * Se publica fuera de toda transacción, después del commit que aplicó los
+ * cambios, con todas las sesiones que cambiaron en la misma operación (por
+ * ejemplo, las que expiraron en un mismo tick). Cada sesión aparece a lo sumo
+ * una vez y sólo si su fila efectivamente cambió de estado.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class SessionTransitionsEvent {
+
+    private final List<SessionTransition> transitions;
+}
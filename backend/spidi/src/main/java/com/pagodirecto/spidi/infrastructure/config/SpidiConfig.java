@@ -0,0 +1,19 @@
+package com.pagodirecto.spidi.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración: SpidiConfig
+ *
+ * Habilita los jobs programados del módulo SPIDI (vaciado en lote de los
+ * heartbeats de sesiones).
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Configuration
+@EnableScheduling
+public class SpidiConfig {
+}
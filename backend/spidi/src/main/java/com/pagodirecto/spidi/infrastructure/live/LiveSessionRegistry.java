@@ -0,0 +1,277 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.spidi.domain.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro: LiveSessionRegistry
+ *
+ * Estado vivo de las sesiones activas de este nodo (último heartbeat y latencia
+ * EWMA), en memoria y particionado en franjas: cada franja es un HashMap con su
+ * propio lock, elegida por el hash del id de sesión. Heartbeats de sesiones en
+ * franjas distintas nunca compiten por el mismo lock.
+ *
+ * Cada heartbeat sólo modifica la entrada y la marca como pendiente; varios
+ * heartbeats de la misma sesión entre dos vaciados se funden en una sola
+ * escritura. {@link #drainPending()} entrega el último valor de cada sesión
+ * pendiente para persistirlo en lote.
+ *
+ * La latencia promedio usa el mismo suavizado que {@link Session#recordHeartbeat},
+ * pero se acumula en double y sólo se redondea al persistir.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class LiveSessionRegistry {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public LiveSessionRegistry(@Value("${app.spidi.heartbeat.stripes:64}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        log.info("Registro de sesiones vivas inicializado con {} franjas", size);
+    }
+
+    /**
+     * Registra una sesión activa si este nodo aún no la conoce
+     *
+     * @param sessionId       la sesión
+     * @param roomId          su sala
+     * @param lastHeartbeatAt último heartbeat conocido (epoch millis)
+     * @param avgLatencyMs    latencia promedio conocida, o null
+     * @return true si la sesión no estaba registrada
+     */
+    public boolean track(UUID sessionId, UUID roomId, long lastHeartbeatAt, Integer avgLatencyMs) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            return stripe.sessions.putIfAbsent(sessionId, new LiveSession(sessionId, roomId, lastHeartbeatAt,
+                    avgLatencyMs != null ? avgLatencyMs.doubleValue() : Double.NaN)) == null;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica un heartbeat a una sesión registrada
+     *
+     * @param sessionId la sesión
+     * @param latencyMs latencia reportada; null o no positiva no altera el promedio
+     * @param now       instante del heartbeat (epoch millis)
+     * @return la sala de la sesión, o null si este nodo no la tiene registrada
+     */
+    public UUID heartbeat(UUID sessionId, Integer latencyMs, long now) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveSession session = stripe.sessions.get(sessionId);
+            if (session == null) {
+                return null;
+            }
+            if (now > session.lastHeartbeatAt) {
+                session.lastHeartbeatAt = now;
+            }
+            if (latencyMs != null && latencyMs > 0) {
+                session.avgLatencyMs = Double.isNaN(session.avgLatencyMs)
+                        ? latencyMs
+                        : Session.LATENCY_ALPHA * latencyMs + (1 - Session.LATENCY_ALPHA) * session.avgLatencyMs;
+            }
+            if (!session.pending) {
+                session.pending = true;
+                stripe.pending.add(session);
+            }
+            return session.roomId;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Adelanta el último heartbeat de una sesión al leído de la base de datos
+     *
+     * No marca la sesión como pendiente: el valor ya está persistido (por ejemplo,
+     * por otro nodo que recibe sus heartbeats).
+     *
+     * @param sessionId       la sesión
+     * @param lastHeartbeatAt heartbeat persistido (epoch millis); se ignora si es anterior al conocido
+     * @return el último heartbeat resultante, o -1 si la sesión no está registrada
+     */
+    public long touch(UUID sessionId, long lastHeartbeatAt) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveSession session = stripe.sessions.get(sessionId);
+            if (session == null) {
+                return -1;
+            }
+            session.lastHeartbeatAt = Math.max(session.lastHeartbeatAt, lastHeartbeatAt);
+            return session.lastHeartbeatAt;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Quita una sesión del registro, con o sin escritura pendiente
+     *
+     * @param sessionId la sesión
+     * @return el último estado conocido, o null si no estaba registrada
+     */
+    public Snapshot remove(UUID sessionId) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveSession session = stripe.sessions.remove(sessionId);
+            if (session == null) {
+                return null;
+            }
+            // Sigue en la lista de pendientes; drainPending la descarta
+            session.pending = false;
+            return session.snapshot();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Último estado conocido de una sesión
+     *
+     * @param sessionId la sesión
+     * @return el estado, o null si no está registrada
+     */
+    public Snapshot get(UUID sessionId) {
+        Stripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            LiveSession session = stripe.sessions.get(sessionId);
+            return session != null ? session.snapshot() : null;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Entrega y limpia las sesiones con heartbeats aún no persistidos
+     *
+     * Las franjas se vacían de a una; un heartbeat concurrente sobre una franja ya
+     * vaciada queda pendiente para la siguiente llamada.
+     *
+     * @return el último estado de cada sesión pendiente
+     */
+    public List<Snapshot> drainPending() {
+        List<Snapshot> drained = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (LiveSession session : stripe.pending) {
+                    if (session.pending) {
+                        session.pending = false;
+                        drained.add(session.snapshot());
+                    }
+                }
+                stripe.pending.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Vuelve a marcar como pendientes sesiones cuyo vaciado falló
+     *
+     * @param sessionIds las sesiones; las que ya no están registradas se ignoran
+     */
+    public void markPending(Collection<UUID> sessionIds) {
+        for (UUID sessionId : sessionIds) {
+            Stripe stripe = stripe(sessionId);
+            stripe.lock.lock();
+            try {
+                LiveSession session = stripe.sessions.get(sessionId);
+                if (session != null && !session.pending) {
+                    session.pending = true;
+                    stripe.pending.add(session);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Número de sesiones registradas en este nodo
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.sessions.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(UUID sessionId) {
+        int h = sessionId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    /**
+     * Estado de una sesión en un instante
+     *
+     * @param avgLatencyMs latencia promedio redondeada, o null si nunca se reportó
+     */
+    public record Snapshot(UUID sessionId, UUID roomId, Instant lastHeartbeatAt, Integer avgLatencyMs) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<UUID, LiveSession> sessions = new HashMap<>();
+        private final List<LiveSession> pending = new ArrayList<>();
+    }
+
+    /**
+     * Entrada mutable; sólo se lee o modifica con el lock de su franja tomado
+     */
+    private static final class LiveSession {
+        private final UUID sessionId;
+        private final UUID roomId;
+        private long lastHeartbeatAt;
+        private double avgLatencyMs;
+        private boolean pending;
+
+        private LiveSession(UUID sessionId, UUID roomId, long lastHeartbeatAt, double avgLatencyMs) {
+            this.sessionId = sessionId;
+            this.roomId = roomId;
+            this.lastHeartbeatAt = lastHeartbeatAt;
+            this.avgLatencyMs = avgLatencyMs;
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(sessionId, roomId, Instant.ofEpochMilli(lastHeartbeatAt),
+                    Double.isNaN(avgLatencyMs) ? null : (int) Math.round(avgLatencyMs));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.spidi.domain.Room;
+import com.pagodirecto.spidi.domain.SessionStatus;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import com.pagodirecto.spidi.domain.event.SessionTransitionsEvent;
+import com.pagodirecto.spidi.infrastructure.repository.SessionConnectionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro: RoomOccupancyRegistry
+ *
+ * Sesiones activas por sala, en memoria, para que la admisión de una conexión y
+ * las consultas de ocupación no hagan COUNT sobre dat_spd_session.
+ *
+ * - Una conexión ocupa su lugar con {@link #tryAdmit} antes de insertar la sesión
+ *   (compare-and-set con {@link Room#canAcceptConnection}) y, al terminar la
+ *   transacción, lo confirma con {@link #confirmAdmission} o lo devuelve con
+ *   {@link #cancelAdmission}. Entre ambos la admisión está en curso: cuenta en la
+ *   ocupación pero su fila todavía no es visible en la base de datos
+ * - Las sesiones que terminan (EXPIRED, DISCONNECTED, TERMINATED) liberan su lugar
+ *   al recibir el {@link SessionTransitionsEvent}; las transiciones a ACTIVE se
+ *   ignoran porque ya se contaron al admitir
+ * - Cada app.spidi.occupancy.reconcile-interval los contadores se reemplazan por
+ *   el conteo de la base de datos más las admisiones en curso del nodo; el conteo
+ *   incluye las sesiones abiertas o cerradas en otros nodos. Una sala que cambió
+ *   mientras corría la consulta conserva su valor hasta la siguiente reconciliación.
+ *
+ * La capacidad se controla por nodo y es aproximada: cada nodo admite contra su
+ * propio contador, que sólo ve las sesiones de otros nodos en la reconciliación.
+ * Dentro de un intervalo, N nodos pueden admitir juntos hasta N veces el lugar
+ * libre de la sala; con un solo nodo la sala nunca supera su capacidad.
+ *
+ * Cada contador es un único AtomicLong con la ocupación en los 32 bits bajos y
+ * una versión en los altos. Toda operación sobre la sala incrementa la versión,
+ * también al registrar y al confirmar una admisión en curso, de modo que la
+ * reconciliación sólo escribe si nada cambió desde que tomó su foto.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class RoomOccupancyRegistry {
+
+    private static final long UNA_VERSION = 1L << 32;
+
+    private final SessionConnectionRepository sessionConnectionRepository;
+    private final Map<UUID, Sala> salas = new ConcurrentHashMap<>();
+
+    public RoomOccupancyRegistry(SessionConnectionRepository sessionConnectionRepository) {
+        this.sessionConnectionRepository = sessionConnectionRepository;
+    }
+
+    /**
+     * Sesiones activas en una sala
+     *
+     * @param roomId la sala
+     * @return ocupación conocida por este nodo, 0 si no tiene sesiones
+     */
+    public int getOnline(UUID roomId) {
+        Sala sala = salas.get(roomId);
+        return sala != null ? ocupacion(sala.estado.get()) : 0;
+    }
+
+    /**
+     * Ocupación de todas las salas conocidas por este nodo
+     *
+     * @return sesiones activas por sala, incluidas las salas en 0
+     */
+    public Map<UUID, Integer> snapshot() {
+        Map<UUID, Integer> ocupaciones = new HashMap<>();
+        salas.forEach((roomId, sala) -> ocupaciones.put(roomId, ocupacion(sala.estado.get())));
+        return ocupaciones;
+    }
+
+    /**
+     * Ocupa un lugar en la sala si {@link Room#canAcceptConnection} lo permite.
+     * Una admisión exitosa queda en curso hasta {@link #confirmAdmission} o
+     * {@link #cancelAdmission}.
+     *
+     * @param room la sala
+     * @return true si se ocupó el lugar; false si la sala no acepta conexiones o está llena
+     */
+    public boolean tryAdmit(Room room) {
+        Sala sala = salas.computeIfAbsent(room.getId(), id -> new Sala(0));
+        while (true) {
+            long actual = sala.estado.get();
+            int online = ocupacion(actual);
+            if (!room.canAcceptConnection(online)) {
+                return false;
+            }
+            if (sala.estado.compareAndSet(actual, siguiente(actual, online + 1))) {
+                break;
+            }
+        }
+        // Una foto tomada entre el lugar ocupado y el registro en curso queda vieja
+        sala.enCurso.incrementAndGet();
+        tocar(sala);
+        return true;
+    }
+
+    /**
+     * Confirma una admisión cuya sesión ya es visible en la base de datos
+     *
+     * @param roomId la sala
+     */
+    public void confirmAdmission(UUID roomId) {
+        Sala sala = salas.get(roomId);
+        if (sala != null) {
+            // Versión antes que admisiones en curso: una foto anterior a este cambio
+            // no llega a escribir un conteo que ya no incluya la admisión
+            tocar(sala);
+            sala.enCurso.decrementAndGet();
+        }
+    }
+
+    /**
+     * Devuelve el lugar de una admisión cuya sesión no llegó a confirmarse
+     *
+     * @param roomId la sala
+     */
+    public void cancelAdmission(UUID roomId) {
+        Sala sala = salas.get(roomId);
+        if (sala != null) {
+            release(roomId);
+            sala.enCurso.decrementAndGet();
+        }
+    }
+
+    /**
+     * Libera un lugar en la sala
+     *
+     * @param roomId la sala
+     */
+    public void release(UUID roomId) {
+        Sala sala = salas.get(roomId);
+        if (sala == null) {
+            return;
+        }
+        while (true) {
+            long actual = sala.estado.get();
+            int online = ocupacion(actual);
+            if (online == 0 || sala.estado.compareAndSet(actual, siguiente(actual, online - 1))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Corre antes que los demás listeners de transiciones, que leen la ocupación ya actualizada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSessionTransitions(SessionTransitionsEvent event) {
+        for (SessionTransition transicion : event.getTransitions()) {
+            if (transicion.status() != SessionStatus.ACTIVE) {
+                release(transicion.roomId());
+            }
+        }
+    }
+
+    /**
+     * Reemplaza los contadores por el conteo de sesiones activas de la base de
+     * datos más las admisiones en curso, leídas después de la consulta
+     */
+    @Scheduled(fixedDelayString = "${app.spidi.occupancy.reconcile-interval:PT30S}",
+               initialDelayString = "${app.spidi.occupancy.reconcile-initial-delay:PT5S}")
+    public void reconciliar() {
+        Map<UUID, Long> fotos = new HashMap<>();
+        salas.forEach((roomId, sala) -> fotos.put(roomId, sala.estado.get()));
+
+        Map<UUID, Integer> conteos = sessionConnectionRepository.contarActivasPorSala();
+
+        int corregidas = 0;
+        for (Map.Entry<UUID, Long> foto : fotos.entrySet()) {
+            Sala sala = salas.get(foto.getKey());
+            long antes = foto.getValue();
+            int real = conteos.getOrDefault(foto.getKey(), 0) + sala.enCurso.get();
+            if (ocupacion(antes) != real && sala.estado.compareAndSet(antes, siguiente(antes, real))) {
+                corregidas++;
+            }
+        }
+        for (Map.Entry<UUID, Integer> conteo : conteos.entrySet()) {
+            if (!fotos.containsKey(conteo.getKey())
+                    && salas.putIfAbsent(conteo.getKey(), new Sala(conteo.getValue())) == null) {
+                corregidas++;
+            }
+        }
+        if (corregidas > 0) {
+            log.info("Ocupación de salas reconciliada: {} salas corregidas de {}", corregidas, conteos.size());
+        }
+    }
+
+    /**
+     * Incrementa la versión sin cambiar la ocupación
+     */
+    private static void tocar(Sala sala) {
+        while (true) {
+            long actual = sala.estado.get();
+            if (sala.estado.compareAndSet(actual, siguiente(actual, ocupacion(actual)))) {
+                return;
+            }
+        }
+    }
+
+    private static int ocupacion(long estado) {
+        return (int) estado;
+    }
+
+    private static long siguiente(long estado, int ocupacion) {
+        return ((estado >>> 32) + 1) * UNA_VERSION | (ocupacion & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Estado de una sala: ocupación versionada y admisiones en curso
+     */
+    private static final class Sala {
+        private final AtomicLong estado;
+        private final AtomicInteger enCurso = new AtomicInteger();
+
+        private Sala(int ocupacion) {
+            this.estado = new AtomicLong(ocupacion);
+        }
+    }
+}
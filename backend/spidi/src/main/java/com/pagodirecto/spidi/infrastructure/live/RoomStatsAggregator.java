@@ -0,0 +1,239 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.spidi.domain.LatencyHistogram;
+import com.pagodirecto.spidi.domain.SessionStatus;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import com.pagodirecto.spidi.domain.event.SessionTransitionsEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Agregador: RoomStatsAggregator
+ *
+ * Mantiene en memoria el bucket de minuto en curso de cada sala: conexiones,
+ * desconexiones, suma, cantidad e histograma ({@link LatencyHistogram}) de las
+ * latencias reportadas, y ocupación al inicio, al final y pico, tomada del
+ * {@link RoomOccupancyRegistry}.
+ *
+ * - Las conexiones y desconexiones llegan por {@link SessionTransitionsEvent}
+ *   después del commit; las latencias, de cada heartbeat
+ * - Cuando cambia el minuto, el bucket de la sala se cierra y queda en una cola
+ *   hasta que {@link #cerrar} lo entrega para persistir. Las salas sin eventos
+ *   rotan en esa misma llamada, de modo que una sala con sesiones pero sin
+ *   actividad también deja su minuto
+ * - Cada nodo agrega sólo lo que ve; los buckets de varios nodos se suman al
+ *   persistir
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+public class RoomStatsAggregator {
+
+    private static final long UN_MINUTO = 60_000L;
+
+    private final RoomOccupancyRegistry roomOccupancyRegistry;
+    private final Map<UUID, Acumulador> salas = new ConcurrentHashMap<>();
+    private final Queue<Bucket> cerrados = new ConcurrentLinkedQueue<>();
+
+    public RoomStatsAggregator(RoomOccupancyRegistry roomOccupancyRegistry) {
+        this.roomOccupancyRegistry = roomOccupancyRegistry;
+    }
+
+    /**
+     * Registra la latencia reportada en un heartbeat
+     *
+     * @param roomId    la sala de la sesión
+     * @param latencyMs latencia en milisegundos
+     * @param ahora     instante del heartbeat en milisegundos
+     */
+    public void registrarLatencia(UUID roomId, int latencyMs, long ahora) {
+        Acumulador acumulador = acumulador(roomId);
+        synchronized (acumulador) {
+            rotar(acumulador, ahora);
+            acumulador.latencySumMs += latencyMs;
+            acumulador.latencySamples++;
+            acumulador.latencyHistogram.record(latencyMs);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionTransitions(SessionTransitionsEvent event) {
+        long ahora = System.currentTimeMillis();
+        for (SessionTransition transicion : event.getTransitions()) {
+            Acumulador acumulador = acumulador(transicion.roomId());
+            int online = roomOccupancyRegistry.getOnline(transicion.roomId());
+            synchronized (acumulador) {
+                rotar(acumulador, ahora);
+                if (transicion.status() == SessionStatus.ACTIVE) {
+                    acumulador.connects++;
+                } else {
+                    acumulador.disconnects++;
+                }
+                acumulador.observar(online);
+            }
+        }
+    }
+
+    /**
+     * Cierra los buckets de minutos ya terminados y los entrega
+     *
+     * También registra la ocupación actual de cada sala en su bucket en curso.
+     *
+     * @param ahora instante actual en milisegundos
+     * @return los buckets cerrados desde la última llamada, en orden de cierre por sala
+     */
+    public List<Bucket> cerrar(long ahora) {
+        roomOccupancyRegistry.snapshot().forEach((roomId, online) -> {
+            Acumulador acumulador = acumulador(roomId);
+            synchronized (acumulador) {
+                rotar(acumulador, ahora);
+                acumulador.observar(online);
+            }
+        });
+        return drenar();
+    }
+
+    /**
+     * Cierra también los buckets en curso, aunque su minuto no haya terminado
+     *
+     * Para el apagado del nodo: el resto del minuto que registre otro nodo, o este
+     * mismo al reiniciar, se suma al persistir.
+     *
+     * @return todos los buckets pendientes
+     */
+    public List<Bucket> cerrarTodo() {
+        salas.values().forEach(acumulador -> {
+            synchronized (acumulador) {
+                if (acumulador.tieneDatos()) {
+                    cerrados.add(acumulador.cerrar());
+                    acumulador.reiniciar(acumulador.minuto);
+                }
+            }
+        });
+        return drenar();
+    }
+
+    /**
+     * Devuelve a la cola buckets que no se pudieron persistir
+     *
+     * @param buckets los buckets entregados por {@link #cerrar}
+     */
+    public void devolver(Collection<Bucket> buckets) {
+        cerrados.addAll(buckets);
+    }
+
+    private Acumulador acumulador(UUID roomId) {
+        return salas.computeIfAbsent(roomId, id -> new Acumulador(id, minuto(System.currentTimeMillis()),
+                roomOccupancyRegistry.getOnline(id)));
+    }
+
+    /**
+     * Cierra el bucket si el minuto cambió; se llama con el monitor del acumulador tomado
+     */
+    private void rotar(Acumulador acumulador, long ahora) {
+        long minuto = minuto(ahora);
+        if (minuto <= acumulador.minuto) {
+            return;
+        }
+        if (acumulador.tieneDatos()) {
+            cerrados.add(acumulador.cerrar());
+        }
+        acumulador.reiniciar(minuto);
+    }
+
+    private List<Bucket> drenar() {
+        List<Bucket> buckets = new ArrayList<>();
+        Bucket bucket;
+        while ((bucket = cerrados.poll()) != null) {
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    private static long minuto(long millis) {
+        return millis - Math.floorMod(millis, UN_MINUTO);
+    }
+
+    /**
+     * Bucket de minuto cerrado de una sala
+     *
+     * @param roomId           la sala
+     * @param tsBucket         inicio del minuto
+     * @param onlineInicio     sesiones activas al comenzar el minuto
+     * @param countOnline      sesiones activas al terminar el minuto
+     * @param peakOnline       pico de sesiones activas observado en el minuto
+     * @param connects         conexiones durante el minuto
+     * @param disconnects      desconexiones durante el minuto (de cualquier tipo)
+     * @param latencySumMs     suma de las latencias reportadas
+     * @param latencySamples   cantidad de latencias reportadas
+     * @param latencyHistogram histograma de las latencias reportadas; no se modifica una vez cerrado
+     */
+    public record Bucket(UUID roomId, Instant tsBucket, int onlineInicio, int countOnline, int peakOnline,
+                         int connects, int disconnects, long latencySumMs, long latencySamples,
+                         LatencyHistogram latencyHistogram) {
+
+        /**
+         * Sesiones activas en algún momento del minuto
+         */
+        public int totalSessions() {
+            return onlineInicio + connects;
+        }
+    }
+
+    private static final class Acumulador {
+
+        private final UUID roomId;
+        private long minuto;
+        private int onlineInicio;
+        private int online;
+        private int pico;
+        private int connects;
+        private int disconnects;
+        private long latencySumMs;
+        private long latencySamples;
+        private LatencyHistogram latencyHistogram;
+
+        private Acumulador(UUID roomId, long minuto, int online) {
+            this.roomId = roomId;
+            this.online = online;
+            reiniciar(minuto);
+        }
+
+        private void observar(int ocupacion) {
+            online = ocupacion;
+            pico = Math.max(pico, ocupacion);
+        }
+
+        private boolean tieneDatos() {
+            return pico > 0 || connects > 0 || disconnects > 0 || latencySamples > 0;
+        }
+
+        private Bucket cerrar() {
+            return new Bucket(roomId, Instant.ofEpochMilli(minuto), onlineInicio, online, pico,
+                    connects, disconnects, latencySumMs, latencySamples, latencyHistogram);
+        }
+
+        private void reiniciar(long nuevoMinuto) {
+            minuto = nuevoMinuto;
+            onlineInicio = online;
+            pico = online;
+            connects = 0;
+            disconnects = 0;
+            latencySumMs = 0;
+            latencySamples = 0;
+            latencyHistogram = new LatencyHistogram();
+        }
+    }
+}
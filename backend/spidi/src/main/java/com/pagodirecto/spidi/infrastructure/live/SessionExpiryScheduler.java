@@ -0,0 +1,304 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.core.metrics.MetricNames;
+import com.pagodirecto.spidi.application.service.HeartbeatService;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import com.pagodirecto.spidi.domain.event.SessionTransitionsEvent;
+import com.pagodirecto.spidi.infrastructure.repository.SessionExpiryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Componente: SessionExpiryScheduler
+ *
+ * Expira las sesiones sin heartbeat durante app.spidi.expiry.timeout con una
+ * {@link SessionExpiryWheel}, sin recorrer dat_spd_session periódicamente.
+ *
+ * - Cada sesión del {@link LiveSessionRegistry} tiene un vencimiento en la rueda.
+ *   Un heartbeat sólo adelanta el último heartbeat en el registro; cuando la
+ *   ranura del vencimiento anterior llega, la sesión se reprograma a su último
+ *   heartbeat + timeout. Así un heartbeat no paga una operación sobre la rueda y
+ *   cada sesión se mueve a lo sumo una vez por timeout.
+ * - Las sesiones realmente vencidas en un tick se expiran en la base de datos en
+ *   lotes de app.spidi.expiry.batch-size y se publica un
+ *   {@link SessionTransitionsEvent} por lote, con disconnectReason TIMEOUT. El
+ *   retraso máximo sobre el vencimiento es un tick (app.spidi.expiry.tick).
+ * - Si la base de datos tiene un heartbeat más reciente (la sesión la atiende
+ *   otro nodo) la sesión se reprograma con ese valor; si ya no está activa se
+ *   quita del registro.
+ *
+ * El barrido SQL por last_heartbeat_at sólo corre al arrancar (antes del primer
+ * tick, seguido de la carga de las sesiones activas) y como recuperación cuando
+ * falla la expiración de un lote: se repite en cada tick hasta que funciona. En
+ * la recuperación primero se vacían los heartbeats pendientes de este nodo, para
+ * que el barrido no expire sesiones vivas cuyo último heartbeat aún no llegó a
+ * la base de datos.
+ *
+ * El hilo de la rueda es propio y daemon, como el de
+ * CatalogoNotificacionesListener en productos.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Component
+@Slf4j
+public class SessionExpiryScheduler implements SmartLifecycle {
+
+    public static final String DISCONNECT_REASON_TIMEOUT = "TIMEOUT";
+
+    private final LiveSessionRegistry liveSessionRegistry;
+    private final SessionExpiryRepository sessionExpiryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<HeartbeatService> heartbeatService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration timeout;
+    private final Duration tick;
+    private final int batchSize;
+    private final boolean habilitado;
+    private final Counter expiradasRueda;
+    private final Counter expiradasBarrido;
+
+    private final SessionExpiryWheel wheel;
+
+    private volatile boolean running;
+    private volatile boolean recuperacionPendiente = true;
+    private boolean arrancado;
+    private Thread thread;
+
+    public SessionExpiryScheduler(LiveSessionRegistry liveSessionRegistry,
+                                  SessionExpiryRepository sessionExpiryRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectProvider<HeartbeatService> heartbeatService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.spidi.expiry.timeout:PT45S}") Duration timeout,
+                                  @Value("${app.spidi.expiry.tick:PT1S}") Duration tick,
+                                  @Value("${app.spidi.expiry.wheel-slots:512}") int slots,
+                                  @Value("${app.spidi.expiry.batch-size:500}") int batchSize,
+                                  @Value("${app.spidi.expiry.enabled:true}") boolean habilitado) {
+        this.liveSessionRegistry = liveSessionRegistry;
+        this.sessionExpiryRepository = sessionExpiryRepository;
+        this.eventPublisher = eventPublisher;
+        this.heartbeatService = heartbeatService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeout = timeout;
+        this.tick = tick;
+        this.batchSize = batchSize;
+        this.habilitado = habilitado;
+        this.expiradasRueda = expiradas(meterRegistry, "wheel");
+        this.expiradasBarrido = expiradas(meterRegistry, "sweep");
+        this.wheel = new SessionExpiryWheel(slots, tick.toMillis(), System.currentTimeMillis());
+    }
+
+    /**
+     * Programa el vencimiento de una sesión recién registrada en el {@link LiveSessionRegistry}
+     *
+     * Llamar una sola vez por registro (cuando {@link LiveSessionRegistry#track} devuelve true);
+     * los heartbeats posteriores no necesitan reprogramar.
+     *
+     * @param sessionId       la sesión
+     * @param lastHeartbeatAt su último heartbeat (epoch millis)
+     */
+    public void schedule(UUID sessionId, long lastHeartbeatAt) {
+        if (habilitado) {
+            wheel.schedule(sessionId, lastHeartbeatAt + timeout.toMillis());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!habilitado) {
+            log.info("Expiración de sesiones SPIDI deshabilitada");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::girar, "spidi-session-expiry");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Expiración de sesiones SPIDI iniciada. Timeout: {}, tick: {}", timeout, tick);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void girar() {
+        while (running) {
+            if (recuperacionPendiente) {
+                recuperar();
+            }
+            try {
+                procesarTick();
+            } catch (RuntimeException e) {
+                log.error("Error procesando el tick de expiración de sesiones", e);
+            }
+            esperarTick();
+        }
+    }
+
+    /**
+     * Barrido SQL y recarga del registro: al arrancar y tras una falla
+     */
+    private void recuperar() {
+        try {
+            if (arrancado && !heartbeatService.getObject().flush()) {
+                return;
+            }
+            Instant umbral = Instant.now().minus(timeout);
+            int total = 0;
+            List<SessionTransition> lote;
+            do {
+                lote = transactionTemplate.execute(status ->
+                        sessionExpiryRepository.barrer(umbral, DISCONNECT_REASON_TIMEOUT, batchSize));
+                if (lote == null || lote.isEmpty()) {
+                    break;
+                }
+                lote.forEach(transicion -> liveSessionRegistry.remove(transicion.sessionId()));
+                publicar(lote);
+                total += lote.size();
+            } while (lote.size() == batchSize);
+            expiradasBarrido.increment(total);
+
+            int[] cargadas = new int[1];
+            transactionTemplate.executeWithoutResult(status -> sessionExpiryRepository.forEachActive(sesion -> {
+                long ultimo = sesion.lastHeartbeatAt().toEpochMilli();
+                if (liveSessionRegistry.track(sesion.sessionId(), sesion.roomId(), ultimo, sesion.avgLatencyMs())) {
+                    schedule(sesion.sessionId(), ultimo);
+                    cargadas[0]++;
+                }
+            }));
+
+            recuperacionPendiente = false;
+            arrancado = true;
+            log.info("Barrido de sesiones SPIDI: {} expiradas, {} activas cargadas en la rueda", total, cargadas[0]);
+        } catch (RuntimeException e) {
+            log.error("Barrido de sesiones SPIDI fallido; se reintenta en el siguiente tick: {}", e.getMessage());
+        }
+    }
+
+    private void procesarTick() {
+        long ahora = System.currentTimeMillis();
+        Set<UUID> vencidas = new LinkedHashSet<>();
+        for (SessionExpiryWheel.Timeout vencimiento : wheel.advance(ahora)) {
+            UUID sessionId = vencimiento.getSessionId();
+            LiveSessionRegistry.Snapshot sesion = liveSessionRegistry.get(sessionId);
+            if (sesion == null) {
+                // Terminada o expirada por otra vía
+                continue;
+            }
+            long vence = sesion.lastHeartbeatAt().toEpochMilli() + timeout.toMillis();
+            if (vence <= ahora) {
+                vencidas.add(sessionId);
+            } else {
+                wheel.schedule(sessionId, vence);
+            }
+        }
+
+        List<UUID> ids = new ArrayList<>(vencidas);
+        for (int desde = 0; desde < ids.size(); desde += batchSize) {
+            expirar(ids.subList(desde, Math.min(desde + batchSize, ids.size())), ahora);
+        }
+    }
+
+    private void expirar(List<UUID> candidatas, long ahora) {
+        Instant umbral = Instant.ofEpochMilli(ahora).minus(timeout);
+        try {
+            List<SessionTransition> expiradas = transactionTemplate.execute(status ->
+                    sessionExpiryRepository.expirar(candidatas, umbral, DISCONNECT_REASON_TIMEOUT));
+            Set<UUID> expiradasIds = new HashSet<>();
+            if (expiradas != null) {
+                for (SessionTransition transicion : expiradas) {
+                    liveSessionRegistry.remove(transicion.sessionId());
+                    expiradasIds.add(transicion.sessionId());
+                }
+            }
+            if (expiradasIds.size() < candidatas.size()) {
+                reconciliar(candidatas.stream().filter(id -> !expiradasIds.contains(id)).toList());
+            }
+            if (!expiradasIds.isEmpty()) {
+                expiradasRueda.increment(expiradasIds.size());
+                publicar(expiradas);
+            }
+        } catch (RuntimeException e) {
+            // Se reintenta en el próximo tick; el barrido cubre lo que se pierda mientras tanto
+            candidatas.forEach(id -> wheel.schedule(id, ahora));
+            recuperacionPendiente = true;
+            log.error("Error expirando {} sesiones SPIDI; se activa el barrido de recuperación", candidatas.size(), e);
+        }
+    }
+
+    /**
+     * Sesiones que la base de datos no expiró: siguen vivas en otro nodo o ya terminaron
+     */
+    private void reconciliar(List<UUID> sessionIds) {
+        List<LiveSessionRegistry.Snapshot> activas = transactionTemplate.execute(status ->
+                sessionExpiryRepository.findActive(sessionIds));
+        Set<UUID> vivas = new HashSet<>();
+        if (activas != null) {
+            for (LiveSessionRegistry.Snapshot sesion : activas) {
+                long ultimo = liveSessionRegistry.touch(sesion.sessionId(), sesion.lastHeartbeatAt().toEpochMilli());
+                if (ultimo >= 0) {
+                    wheel.schedule(sesion.sessionId(), ultimo + timeout.toMillis());
+                    vivas.add(sesion.sessionId());
+                }
+            }
+        }
+        sessionIds.stream().filter(id -> !vivas.contains(id)).forEach(liveSessionRegistry::remove);
+    }
+
+    private void publicar(List<SessionTransition> transiciones) {
+        try {
+            eventPublisher.publishEvent(new SessionTransitionsEvent(List.copyOf(transiciones)));
+        } catch (RuntimeException e) {
+            log.error("Error notificando {} sesiones SPIDI expiradas", transiciones.size(), e);
+        }
+    }
+
+    private void esperarTick() {
+        long espera = wheel.nextTickAt() - System.currentTimeMillis();
+        if (espera <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static Counter expiradas(MeterRegistry meterRegistry, String tipo) {
+        return Counter.builder(MetricNames.SPIDI_SESSIONS_EXPIRED)
+                .description("Sesiones SPIDI expiradas por falta de heartbeat")
+                .tag(MetricNames.TAG_TYPE, tipo)
+                .register(meterRegistry);
+    }
+}
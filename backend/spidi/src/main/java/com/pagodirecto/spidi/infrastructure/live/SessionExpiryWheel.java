@@ -0,0 +1,129 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Rueda de tiempo con hash para vencimientos de sesiones
+ *
+ * La rueda tiene un número de ranuras potencia de dos; cada ranura cubre un tick.
+ * Un vencimiento cae en la ranura (tick del vencimiento mod ranuras) con el
+ * número de vueltas completas que faltan, de modo que programar y disparar
+ * cuesta O(1) sin importar cuántas sesiones haya.
+ *
+ * {@link #schedule} puede llamarse desde cualquier hilo (cola sin locks); las
+ * ranuras sólo las toca el hilo que llama a {@link #advance}. Un vencimiento se
+ * entrega en el primer tick cuyo inicio es posterior o igual al vencimiento,
+ * nunca antes.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+public class SessionExpiryWheel {
+
+    private final ArrayDeque<Timeout>[] slots;
+    private final int mask;
+    private final long tickMillis;
+    private final long startMillis;
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Próximo tick a procesar, contado desde startMillis
+     */
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public SessionExpiryWheel(int slots, long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("El tick de la rueda debe ser positivo: " + tickMillis);
+        }
+        int size = Integer.highestOneBit(Math.max(1, slots - 1) << 1);
+        this.slots = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Programa el vencimiento de una sesión
+     *
+     * @param sessionId  la sesión
+     * @param deadline   instante de vencimiento (epoch millis)
+     */
+    public void schedule(UUID sessionId, long deadline) {
+        incoming.add(new Timeout(sessionId, deadline));
+    }
+
+    /**
+     * Procesa todos los ticks transcurridos hasta un instante
+     *
+     * @param now instante actual (epoch millis)
+     * @return las sesiones vencidas en esos ticks, con su vencimiento programado
+     */
+    public List<Timeout> advance(long now) {
+        List<Timeout> due = new ArrayList<>();
+        long target = Math.floorDiv(now - startMillis, tickMillis);
+        while (tick <= target) {
+            transferIncoming();
+            Iterator<Timeout> iterator = slots[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+                if (timeout.rounds <= 0) {
+                    iterator.remove();
+                    due.add(timeout);
+                } else {
+                    timeout.rounds--;
+                }
+            }
+            tick++;
+        }
+        return due;
+    }
+
+    /**
+     * Inicio del próximo tick a procesar (epoch millis)
+     */
+    public long nextTickAt() {
+        return startMillis + tick * tickMillis;
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            // Techo: el tick elegido nunca empieza antes del vencimiento
+            long ticks = Math.max(Math.floorDiv(timeout.deadline - startMillis + tickMillis - 1, tickMillis), tick);
+            timeout.rounds = (ticks - tick) / slots.length;
+            slots[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Vencimiento programado; rounds es el estado interno de la rueda
+     */
+    public static final class Timeout {
+        private final UUID sessionId;
+        private final long deadline;
+        private long rounds;
+
+        private Timeout(UUID sessionId, long deadline) {
+            this.sessionId = sessionId;
+            this.deadline = deadline;
+        }
+
+        public UUID getSessionId() {
+            return sessionId;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -56,19 +56,6 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
         @Param("status") RoomStatus status
     );
 
-    /**
-     * Cuenta sesiones activas en una sala
-     *
-     * @param roomId ID de la sala
-     * @return número de sesiones activas
-     */
-    @Query("""
-        SELECT COUNT(s) FROM Session s
-        WHERE s.room.id = :roomId
-        AND s.status = 'ACTIVE'
-    """)
-    Long countActiveSessions(@Param("roomId") UUID roomId);
-
     /**
      * Busca salas por tipo
      *
@@ -97,19 +84,12 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
     List<Room> findByTag(@Param("tag") String tag);
 
     /**
-     * Obtiene el resumen de salas con métricas
+     * Busca las salas de una unidad de negocio (sin soft-deleted)
+     *
+     * La ocupación de cada sala se obtiene de RoomOccupancyRegistry, no de la base de datos.
      *
      * @param unidadNegocioId ID de la unidad de negocio
-     * @return lista de salas con métricas
+     * @return lista de salas
      */
-    @Query("""
-        SELECT r, COUNT(s.id) as sessionCount
-        FROM Room r
-        LEFT JOIN Session s ON s.room.id = r.id AND s.status = 'ACTIVE'
-        WHERE r.unidadNegocioId = :unidadNegocioId
-        AND r.deletedAt IS NULL
-        GROUP BY r
-        ORDER BY sessionCount DESC
-    """)
-    List<Object[]> findRoomSummaryWithMetrics(@Param("unidadNegocioId") UUID unidadNegocioId);
+    List<Room> findByUnidadNegocioId(UUID unidadNegocioId);
 }
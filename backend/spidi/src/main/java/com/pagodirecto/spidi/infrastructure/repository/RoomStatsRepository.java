@@ -0,0 +1,128 @@
+package com.pagodirecto.spidi.infrastructure.repository;
+
+import com.pagodirecto.spidi.domain.BucketInterval;
+import com.pagodirecto.spidi.domain.LatencyHistogram;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio: Estadísticas de salas
+ *
+ * Escritura JDBC de dat_spd_room_stats con upserts aditivos sobre
+ * (room_id, ts_bucket, bucket_interval): una fila que ya existe, escrita por otro
+ * nodo o por un vaciado anterior del mismo bucket, suma conexiones,
+ * desconexiones y latencias, conserva el mayor pico y toma la ocupación final
+ * del último en escribir; los histogramas de latencia se combinan con
+ * spd_histogram_merge. Así los buckets de hora, día, semana y mes se
+ * mantienen sumando los de minuto, sin volver a leer sesiones.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class RoomStatsRepository {
+
+    /**
+     * total_sessions de una fila nueva incluye las sesiones activas al inicio; al
+     * sumarse sobre una existente sólo agrega las conexiones, porque las activas
+     * al inicio ya estaban contadas
+     */
+    private static final String SQL_ACUMULAR =
+            "INSERT INTO dat_spd_room_stats AS s (room_id, ts_bucket, bucket_interval, count_online, peak_online, " +
+            "avg_latency_ms, total_sessions, total_connects, total_disconnects, latency_sum_ms, latency_samples, " +
+            "latency_histogram) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (room_id, ts_bucket, bucket_interval) DO UPDATE SET " +
+            "count_online = EXCLUDED.count_online, " +
+            "peak_online = GREATEST(s.peak_online, EXCLUDED.peak_online), " +
+            "total_sessions = s.total_sessions + EXCLUDED.total_connects, " +
+            "total_connects = s.total_connects + EXCLUDED.total_connects, " +
+            "total_disconnects = s.total_disconnects + EXCLUDED.total_disconnects, " +
+            "latency_sum_ms = s.latency_sum_ms + EXCLUDED.latency_sum_ms, " +
+            "latency_samples = s.latency_samples + EXCLUDED.latency_samples, " +
+            "latency_histogram = spd_histogram_merge(s.latency_histogram, EXCLUDED.latency_histogram), " +
+            "avg_latency_ms = CASE WHEN s.latency_samples + EXCLUDED.latency_samples = 0 THEN s.avg_latency_ms " +
+            "ELSE ROUND((s.latency_sum_ms + EXCLUDED.latency_sum_ms)::numeric " +
+            "/ (s.latency_samples + EXCLUDED.latency_samples))::integer END";
+
+    private static final String SQL_LATENCIAS =
+            "SELECT ts_bucket, latency_sum_ms, latency_samples, latency_histogram FROM dat_spd_room_stats " +
+            "WHERE room_id = ? AND bucket_interval = ? AND ts_bucket >= ? AND ts_bucket < ? " +
+            "ORDER BY ts_bucket LIMIT ?";
+
+    private static final RowMapper<Latencias> LATENCIAS_MAPPER = (rs, rowNum) ->
+            new Latencias(
+                    rs.getTimestamp("ts_bucket").toInstant(),
+                    rs.getLong("latency_sum_ms"),
+                    rs.getLong("latency_samples"),
+                    LatencyHistogram.fromBytes(rs.getBytes("latency_histogram")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Suma varios buckets a sus filas en un lote
+     *
+     * @param filas a lo sumo una entrada por (sala, intervalo, bucket)
+     */
+    public void acumular(List<Fila> filas) {
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR, filas, filas.size(), (ps, fila) -> {
+            ps.setObject(1, fila.roomId());
+            ps.setTimestamp(2, Timestamp.from(fila.tsBucket()));
+            ps.setString(3, fila.interval().name());
+            ps.setInt(4, fila.countOnline());
+            ps.setInt(5, fila.peakOnline());
+            if (fila.latencySamples() > 0) {
+                ps.setInt(6, (int) Math.round((double) fila.latencySumMs() / fila.latencySamples()));
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+            ps.setInt(7, fila.totalSessions());
+            ps.setInt(8, fila.totalConnects());
+            ps.setInt(9, fila.totalDisconnects());
+            ps.setLong(10, fila.latencySumMs());
+            ps.setLong(11, fila.latencySamples());
+            ps.setBytes(12, fila.latencyHistogram().toBytes());
+        });
+    }
+
+    /**
+     * Latencias de los buckets de una sala en un rango
+     *
+     * @param roomId   la sala
+     * @param interval intervalo de los buckets
+     * @param desde    inicio del rango, inclusive
+     * @param hasta    fin del rango, exclusive
+     * @param limite   máximo de buckets a devolver
+     * @return los buckets del rango en orden cronológico
+     */
+    public List<Latencias> buscarLatencias(UUID roomId, BucketInterval interval, Instant desde, Instant hasta,
+                                           int limite) {
+        return jdbcTemplate.query(SQL_LATENCIAS, LATENCIAS_MAPPER,
+                roomId, interval.name(), Timestamp.from(desde), Timestamp.from(hasta), limite);
+    }
+
+    /**
+     * Aporte a un bucket de dat_spd_room_stats
+     */
+    public record Fila(UUID roomId, BucketInterval interval, Instant tsBucket, int countOnline, int peakOnline,
+                       int totalSessions, int totalConnects, int totalDisconnects,
+                       long latencySumMs, long latencySamples, LatencyHistogram latencyHistogram) {
+    }
+
+    /**
+     * Latencias persistidas de un bucket
+     */
+    public record Latencias(Instant tsBucket, long latencySumMs, long latencySamples,
+                            LatencyHistogram latencyHistogram) {
+    }
+}
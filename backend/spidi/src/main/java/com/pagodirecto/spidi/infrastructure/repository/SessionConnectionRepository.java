@@ -0,0 +1,111 @@
+package com.pagodirecto.spidi.infrastructure.repository;
+
+import com.pagodirecto.spidi.domain.SessionStatus;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repositorio: Conexión y desconexión de sesiones
+ *
+ * Alta y cierre de filas de dat_spd_session en una sentencia cada uno (ip_address
+ * es inet y se convierte en SQL), y el conteo de sesiones activas por sala que
+ * usa la reconciliación de {@code RoomOccupancyRegistry}.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionConnectionRepository {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO dat_spd_session (room_id, user_id, client_id, device, os, app_version, ip_address) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?::inet) " +
+            "RETURNING id, room_id, status, disconnect_reason, started_at AS at";
+
+    /**
+     * Cierra la sesión y persiste en la misma sentencia el último heartbeat aún en memoria
+     */
+    private static final String SQL_CERRAR =
+            "UPDATE dat_spd_session SET status = ?, ended_at = NOW(), disconnect_reason = ?, " +
+            "last_heartbeat_at = GREATEST(last_heartbeat_at, COALESCE(?, last_heartbeat_at)), " +
+            "avg_latency_ms = COALESCE(?, avg_latency_ms) " +
+            "WHERE id = ? AND status = 'ACTIVE' " +
+            "RETURNING id, room_id, status, disconnect_reason, ended_at AS at";
+
+    private static final String SQL_ACTIVAS_POR_SALA =
+            "SELECT room_id, COUNT(*) AS online FROM dat_spd_session WHERE status = 'ACTIVE' GROUP BY room_id";
+
+    private static final RowMapper<SessionTransition> TRANSICION_MAPPER = (rs, rowNum) ->
+            new SessionTransition(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("room_id", UUID.class),
+                    SessionStatus.valueOf(rs.getString("status")),
+                    rs.getString("disconnect_reason"),
+                    rs.getTimestamp("at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta una sesión ACTIVE
+     *
+     * @return la transición a ACTIVE de la nueva sesión, con su id e instante de inicio
+     */
+    public SessionTransition insertar(UUID roomId, UUID userId, String clientId, String device, String os,
+                                      String appVersion, String ipAddress) {
+        return jdbcTemplate.queryForObject(SQL_INSERTAR, TRANSICION_MAPPER,
+                roomId, userId, clientId, device, os, appVersion, ipAddress);
+    }
+
+    /**
+     * Cierra una sesión activa
+     *
+     * @param sessionId        la sesión
+     * @param status           estado final (DISCONNECTED o TERMINATED)
+     * @param disconnectReason razón del cierre
+     * @param lastHeartbeatAt  último heartbeat conocido en memoria, o null
+     * @param avgLatencyMs     latencia promedio conocida en memoria, o null
+     * @return la transición, o vacío si la sesión no existe o ya no estaba activa
+     */
+    public Optional<SessionTransition> cerrar(UUID sessionId, SessionStatus status, String disconnectReason,
+                                              Instant lastHeartbeatAt, Integer avgLatencyMs) {
+        return jdbcTemplate.query(SQL_CERRAR, ps -> {
+            ps.setString(1, status.name());
+            ps.setString(2, disconnectReason);
+            if (lastHeartbeatAt != null) {
+                ps.setTimestamp(3, Timestamp.from(lastHeartbeatAt));
+            } else {
+                ps.setNull(3, Types.TIMESTAMP);
+            }
+            if (avgLatencyMs != null) {
+                ps.setInt(4, avgLatencyMs);
+            } else {
+                ps.setNull(4, Types.INTEGER);
+            }
+            ps.setObject(5, sessionId);
+        }, TRANSICION_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Sesiones activas por sala; las salas sin sesiones no aparecen
+     */
+    public Map<UUID, Integer> contarActivasPorSala() {
+        Map<UUID, Integer> conteos = new HashMap<>();
+        jdbcTemplate.query(SQL_ACTIVAS_POR_SALA, rs -> {
+            conteos.put(rs.getObject("room_id", UUID.class), rs.getInt("online"));
+        });
+        return conteos;
+    }
+}
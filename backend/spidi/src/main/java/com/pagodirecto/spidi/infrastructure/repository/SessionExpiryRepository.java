@@ -0,0 +1,142 @@
+package com.pagodirecto.spidi.infrastructure.repository;
+
+import com.pagodirecto.spidi.domain.SessionStatus;
+import com.pagodirecto.spidi.domain.event.SessionTransition;
+import com.pagodirecto.spidi.infrastructure.live.LiveSessionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Repositorio: Vencimiento de sesiones
+ *
+ * Transiciones a EXPIRED por id (las que detecta la rueda de vencimientos) y el
+ * barrido por last_heartbeat_at, que sólo se usa al arrancar y tras una falla.
+ * Todas devuelven las filas que efectivamente cambiaron (RETURNING), para emitir
+ * exactamente una transición por sesión.
+ *
+ * La guarda last_heartbeat_at &lt; umbral evita expirar sesiones cuyos heartbeats
+ * recibe otro nodo y ya están persistidos.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionExpiryRepository {
+
+    private static final String SQL_EXPIRAR =
+            "UPDATE dat_spd_session SET status = 'EXPIRED', ended_at = NOW(), disconnect_reason = ? " +
+            "WHERE id = ANY(?) AND status = 'ACTIVE' AND last_heartbeat_at < ? " +
+            "RETURNING id, room_id, ended_at, disconnect_reason";
+
+    /**
+     * Usa idx_dat_spd_session_last_heartbeat; SKIP LOCKED deja pasar a otros nodos barriendo a la vez
+     */
+    private static final String SQL_BARRER =
+            "WITH vencidas AS (" +
+            "  SELECT id FROM dat_spd_session " +
+            "  WHERE status = 'ACTIVE' AND last_heartbeat_at < ? " +
+            "  ORDER BY last_heartbeat_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE dat_spd_session s SET status = 'EXPIRED', ended_at = NOW(), disconnect_reason = ? " +
+            "FROM vencidas v WHERE s.id = v.id " +
+            "RETURNING s.id, s.room_id, s.ended_at, s.disconnect_reason";
+
+    private static final String SQL_HEARTBEATS =
+            "SELECT id, room_id, last_heartbeat_at, avg_latency_ms FROM dat_spd_session " +
+            "WHERE id = ANY(?) AND status = 'ACTIVE'";
+
+    private static final String SQL_ACTIVAS =
+            "SELECT id, room_id, last_heartbeat_at, avg_latency_ms FROM dat_spd_session WHERE status = 'ACTIVE'";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final RowMapper<SessionTransition> EXPIRADA_MAPPER = (rs, rowNum) ->
+            new SessionTransition(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("room_id", UUID.class),
+                    SessionStatus.EXPIRED,
+                    rs.getString("disconnect_reason"),
+                    rs.getTimestamp("ended_at").toInstant());
+
+    private static final RowMapper<LiveSessionRegistry.Snapshot> SNAPSHOT_MAPPER = (rs, rowNum) ->
+            new LiveSessionRegistry.Snapshot(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("room_id", UUID.class),
+                    rs.getTimestamp("last_heartbeat_at").toInstant(),
+                    (Integer) rs.getObject("avg_latency_ms"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Expira las sesiones indicadas que sigan activas y sin heartbeat desde el umbral
+     *
+     * @param sessionIds       candidatas
+     * @param umbral           último heartbeat admitido para expirar
+     * @param disconnectReason razón registrada en cada sesión
+     * @return las sesiones expiradas
+     */
+    public List<SessionTransition> expirar(Collection<UUID> sessionIds, Instant umbral, String disconnectReason) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_EXPIRAR);
+            ps.setString(1, disconnectReason);
+            ps.setArray(2, con.createArrayOf("uuid", sessionIds.toArray()));
+            ps.setTimestamp(3, Timestamp.from(umbral));
+            return ps;
+        }, EXPIRADA_MAPPER);
+    }
+
+    /**
+     * Expira un lote de sesiones activas sin heartbeat desde el umbral, sin mirar memoria
+     *
+     * @param umbral           último heartbeat admitido para expirar
+     * @param disconnectReason razón registrada en cada sesión
+     * @param lote             máximo de sesiones a expirar
+     * @return las sesiones expiradas
+     */
+    public List<SessionTransition> barrer(Instant umbral, String disconnectReason, int lote) {
+        return jdbcTemplate.query(SQL_BARRER, EXPIRADA_MAPPER, Timestamp.from(umbral), lote, disconnectReason);
+    }
+
+    /**
+     * Estado persistido de las sesiones indicadas que siguen activas
+     *
+     * @param sessionIds las sesiones
+     * @return una entrada por sesión activa; las terminadas no aparecen
+     */
+    public List<LiveSessionRegistry.Snapshot> findActive(Collection<UUID> sessionIds) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_HEARTBEATS);
+            ps.setArray(1, con.createArrayOf("uuid", sessionIds.toArray()));
+            return ps;
+        }, SNAPSHOT_MAPPER);
+    }
+
+    /**
+     * Recorre todas las sesiones activas en bloques de {@value #FETCH_SIZE} filas
+     *
+     * Debe correr dentro de una transacción: el driver de PostgreSQL sólo usa un
+     * cursor (fetch size) con autocommit desactivado.
+     *
+     * @param consumidor recibe cada sesión activa
+     */
+    public void forEachActive(Consumer<LiveSessionRegistry.Snapshot> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_ACTIVAS);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumidor.accept(SNAPSHOT_MAPPER.mapRow(rs, 0));
+        });
+    }
+}
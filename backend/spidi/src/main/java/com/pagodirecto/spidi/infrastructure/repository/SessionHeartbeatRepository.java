@@ -0,0 +1,91 @@
+package com.pagodirecto.spidi.infrastructure.repository;
+
+import com.pagodirecto.spidi.infrastructure.live.LiveSessionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repositorio: Heartbeats de sesiones
+ *
+ * Acceso JDBC a dat_spd_session para el registro de sesiones vivas: carga el
+ * estado de una sesión activa y persiste en lote el último heartbeat y la
+ * latencia de muchas sesiones, una sentencia por sesión en un mismo viaje.
+ *
+ * last_heartbeat_at nunca retrocede (GREATEST): si otro nodo ya escribió un
+ * heartbeat más reciente de la misma sesión, se conserva.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionHeartbeatRepository {
+
+    private static final String SQL_ACTIVA =
+            "SELECT id, room_id, last_heartbeat_at, avg_latency_ms FROM dat_spd_session " +
+            "WHERE id = ? AND status = 'ACTIVE'";
+
+    private static final String SQL_ACTUALIZAR =
+            "UPDATE dat_spd_session SET last_heartbeat_at = GREATEST(last_heartbeat_at, ?), " +
+            "avg_latency_ms = COALESCE(?, avg_latency_ms) " +
+            "WHERE id = ? AND status = 'ACTIVE'";
+
+    private static final RowMapper<LiveSessionRegistry.Snapshot> SNAPSHOT_MAPPER = (rs, rowNum) ->
+            new LiveSessionRegistry.Snapshot(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("room_id", UUID.class),
+                    rs.getTimestamp("last_heartbeat_at").toInstant(),
+                    (Integer) rs.getObject("avg_latency_ms"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Estado persistido de una sesión activa
+     *
+     * @param sessionId la sesión
+     * @return el estado, o vacío si no existe o ya terminó
+     */
+    public Optional<LiveSessionRegistry.Snapshot> findActive(UUID sessionId) {
+        return jdbcTemplate.query(SQL_ACTIVA, SNAPSHOT_MAPPER, sessionId).stream().findFirst();
+    }
+
+    /**
+     * Persiste el último heartbeat y la latencia de varias sesiones en un lote
+     *
+     * @param sesiones estado a escribir, a lo sumo una entrada por sesión
+     * @return las sesiones que ya no están activas en la base de datos
+     */
+    public List<UUID> actualizarHeartbeats(List<LiveSessionRegistry.Snapshot> sesiones) {
+        int[][] resultados = jdbcTemplate.batchUpdate(SQL_ACTUALIZAR, sesiones, sesiones.size(), (ps, sesion) -> {
+            ps.setTimestamp(1, Timestamp.from(sesion.lastHeartbeatAt()));
+            if (sesion.avgLatencyMs() != null) {
+                ps.setInt(2, sesion.avgLatencyMs());
+            } else {
+                ps.setNull(2, Types.INTEGER);
+            }
+            ps.setObject(3, sesion.sessionId());
+        });
+
+        List<UUID> inactivas = new ArrayList<>();
+        int i = 0;
+        for (int[] bloque : resultados) {
+            for (int filas : bloque) {
+                if (filas == 0) {
+                    inactivas.add(sesiones.get(i).sessionId());
+                }
+                i++;
+            }
+        }
+        return inactivas;
+    }
+}
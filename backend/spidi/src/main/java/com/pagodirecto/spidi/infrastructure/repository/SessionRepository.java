@@ -70,19 +70,6 @@ public interface SessionRepository extends JpaRepository<Session, UUID> {
     """)
     List<Session> findExpiredSessions(@Param("threshold") Instant threshold);
 
-    /**
-     * Cuenta sesiones activas por sala
-     *
-     * @param roomId ID de la sala
-     * @return número de sesiones activas
-     */
-    @Query("""
-        SELECT COUNT(s) FROM Session s
-        WHERE s.room.id = :roomId
-        AND s.status = 'ACTIVE'
-    """)
-    Long countActiveByRoomId(@Param("roomId") UUID roomId);
-
     /**
      * Calcula latencia promedio de sesiones activas en una sala
      *
@@ -0,0 +1,192 @@
+package com.pagodirecto.spidi.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests: LatencyHistogram
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class LatencyHistogramTest {
+
+    private static final int INDICE_MAXIMO = 863;
+
+    @Test
+    void losValoresMenoresA32TienenUnBucketCadaUno() {
+        for (int valor = 0; valor < 32; valor++) {
+            assertThat(LatencyHistogram.indice(valor)).isEqualTo(valor);
+            assertThat(LatencyHistogram.valor(valor)).isEqualTo(valor);
+        }
+    }
+
+    @Test
+    void indiceEnLosLimitesDeCadaPotenciaDeDos() {
+        assertThat(LatencyHistogram.indice(32)).isEqualTo(32);
+        assertThat(LatencyHistogram.indice(63)).isEqualTo(63);
+        assertThat(LatencyHistogram.indice(64)).isEqualTo(64);
+        assertThat(LatencyHistogram.indice(65)).isEqualTo(64);
+        assertThat(LatencyHistogram.indice(66)).isEqualTo(65);
+        assertThat(LatencyHistogram.indice(127)).isEqualTo(95);
+        assertThat(LatencyHistogram.indice(128)).isEqualTo(96);
+        assertThat(LatencyHistogram.indice(1 << 30)).isEqualTo(32 + 25 * 32);
+        assertThat(LatencyHistogram.indice(Integer.MAX_VALUE)).isEqualTo(INDICE_MAXIMO);
+    }
+
+    @Test
+    void cadaBucketCubreUnRangoContiguoYSuValorEsElPuntoMedio() {
+        for (int indice = 32; indice <= INDICE_MAXIMO; indice++) {
+            int desplazamiento = (indice - 32) / 32;
+            long inferior = (long) (32 + (indice - 32) % 32) << desplazamiento;
+            long superior = inferior + (1L << desplazamiento) - 1;
+
+            assertThat(LatencyHistogram.indice((int) inferior)).as("inferior de %d", indice).isEqualTo(indice);
+            assertThat(LatencyHistogram.indice((int) Math.min(superior, Integer.MAX_VALUE)))
+                    .as("superior de %d", indice).isEqualTo(indice);
+            if (inferior > 0) {
+                assertThat(LatencyHistogram.indice((int) inferior - 1)).isEqualTo(indice - 1);
+            }
+            assertThat(LatencyHistogram.valor(indice))
+                    .isEqualTo((int) Math.min(inferior + (1L << desplazamiento) / 2, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void elValorRepresentanteEstaA1de64DelOriginal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int valor = random.nextInt(Integer.MAX_VALUE);
+            int representante = LatencyHistogram.valor(LatencyHistogram.indice(valor));
+            assertThat((double) Math.abs(representante - valor)).isLessThanOrEqualTo(valor / 64.0 + 1);
+        }
+    }
+
+    @Test
+    void losPercentilesTienenErrorRelativoMenorA1de32() {
+        Random random = new Random(11);
+        int[] muestras = new int[100_000];
+        LatencyHistogram histograma = new LatencyHistogram();
+        for (int i = 0; i < muestras.length; i++) {
+            // Log-normal: mediana ~100 ms con una cola larga
+            muestras[i] = (int) Math.min(Math.exp(4.6 + random.nextGaussian()), 600_000);
+            histograma.record(muestras[i]);
+        }
+        Arrays.sort(muestras);
+
+        for (double percentil : new double[] {0, 1, 10, 50, 90, 95, 99, 99.9, 100}) {
+            int rango = Math.max(1, (int) Math.ceil(percentil / 100 * muestras.length));
+            int exacto = muestras[rango - 1];
+            int estimado = histograma.getValueAtPercentile(percentil);
+            assertThat((double) Math.abs(estimado - exacto)).as("p%s", percentil)
+                    .isLessThanOrEqualTo(exacto / 32.0 + 1);
+        }
+    }
+
+    @Test
+    void unHistogramaVacioNoTienePercentiles() {
+        LatencyHistogram histograma = new LatencyHistogram();
+
+        assertThat(histograma.isEmpty()).isTrue();
+        assertThat(histograma.getValueAtPercentile(50)).isNull();
+        assertThat(histograma.toBytes()).isNull();
+    }
+
+    @Test
+    void losValoresNegativosCuentanComoCero() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        histograma.record(-5);
+
+        assertThat(histograma.getValueAtPercentile(100)).isZero();
+    }
+
+    @Test
+    void toBytesYFromBytesConservanLasCuentas() {
+        LatencyHistogram histograma = aleatorio(new Random(3), 10_000);
+        histograma.record(Integer.MAX_VALUE);
+
+        byte[] bytes = histograma.toBytes();
+        LatencyHistogram copia = LatencyHistogram.fromBytes(bytes);
+
+        assertThat(bytes.length % 10).isZero();
+        assertThat(copia.getTotalCount()).isEqualTo(histograma.getTotalCount());
+        assertThat(copia.toBytes()).isEqualTo(bytes);
+        for (double percentil : new double[] {50, 95, 99, 100}) {
+            assertThat(copia.getValueAtPercentile(percentil)).isEqualTo(histograma.getValueAtPercentile(percentil));
+        }
+    }
+
+    @Test
+    void elFormatoSerializadoEsIndiceYCuentaBigEndian() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        histograma.record(3);
+        histograma.record(3);
+        histograma.record(Integer.MAX_VALUE);
+
+        assertThat(histograma.toBytes()).containsExactly(
+                0, 3, 0, 0, 0, 0, 0, 0, 0, 2,
+                0x03, 0x5F, 0, 0, 0, 0, 0, 0, 0, 1);
+    }
+
+    @Test
+    void fromBytesAceptaVacioYRechazaLargosInvalidos() {
+        assertThat(LatencyHistogram.fromBytes(null).isEmpty()).isTrue();
+        assertThat(LatencyHistogram.fromBytes(new byte[0]).isEmpty()).isTrue();
+        assertThatThrownBy(() -> LatencyHistogram.fromBytes(new byte[11]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void addSumaLasCuentasComoSiSeHubieranRegistradoJuntas() {
+        Random random = new Random(5);
+        LatencyHistogram todas = new LatencyHistogram();
+        LatencyHistogram chica = new LatencyHistogram();
+        LatencyHistogram grande = new LatencyHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            int baja = random.nextInt(64);
+            int alta = random.nextInt(1 << 24);
+            chica.record(baja);
+            grande.record(alta);
+            todas.record(baja);
+            todas.record(alta);
+        }
+        byte[] chicaAntes = chica.toBytes();
+        byte[] grandeAntes = grande.toBytes();
+
+        LatencyHistogram combinado = LatencyHistogram.merged(chica, grande);
+        // add sobre un histograma de arreglo más corto que el sumado
+        LatencyHistogram acumulado = new LatencyHistogram();
+        acumulado.add(chica);
+        acumulado.add(grande);
+
+        assertThat(combinado.toBytes()).isEqualTo(todas.toBytes());
+        assertThat(acumulado.toBytes()).isEqualTo(todas.toBytes());
+        assertThat(combinado.getTotalCount()).isEqualTo(10_000);
+        assertThat(chica.toBytes()).isEqualTo(chicaAntes);
+        assertThat(grande.toBytes()).isEqualTo(grandeAntes);
+    }
+
+    @Test
+    void addDeUnHistogramaVacioNoCambiaNada() {
+        LatencyHistogram histograma = aleatorio(new Random(9), 100);
+        byte[] antes = histograma.toBytes();
+
+        histograma.add(new LatencyHistogram());
+
+        assertThat(histograma.toBytes()).isEqualTo(antes);
+    }
+
+    static LatencyHistogram aleatorio(Random random, int muestras) {
+        LatencyHistogram histograma = new LatencyHistogram();
+        for (int i = 0; i < muestras; i++) {
+            histograma.record((int) Math.min(Math.exp(3 + 2 * random.nextGaussian()), Integer.MAX_VALUE));
+        }
+        return histograma;
+    }
+}
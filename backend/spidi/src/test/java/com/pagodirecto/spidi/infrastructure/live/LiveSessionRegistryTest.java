@@ -0,0 +1,253 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.spidi.domain.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: LiveSessionRegistry
+ *
+ * Los escenarios concurrentes reparten las sesiones entre varios hilos (cada
+ * sesión recibe sus heartbeats de un solo hilo, en orden) mientras otro hilo
+ * vacía el registro como lo hace HeartbeatServiceImpl. El "persistido" de cada
+ * sesión es el último snapshot de un vaciado exitoso; al terminar debe coincidir
+ * con el último heartbeat enviado.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class LiveSessionRegistryTest {
+
+    private static final int HILOS = 8;
+    private static final int SESIONES = 2_000;
+    private static final int HEARTBEATS_POR_SESION = 200;
+    private static final long INICIO = 1_700_000_000_000L;
+
+    private final UUID roomId = UUID.randomUUID();
+
+    @Test
+    void heartbeatsEntreVaciadosSeFundenEnUnSnapshot() {
+        LiveSessionRegistry registry = new LiveSessionRegistry(4);
+        UUID sessionId = UUID.randomUUID();
+        registry.track(sessionId, roomId, INICIO, null);
+
+        for (int i = 1; i <= 100; i++) {
+            registry.heartbeat(sessionId, 40 + i, INICIO + i * 1_000L);
+        }
+        List<LiveSessionRegistry.Snapshot> vaciado = registry.drainPending();
+
+        assertThat(vaciado).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.lastHeartbeatAt().toEpochMilli()).isEqualTo(INICIO + 100_000L);
+            assertThat(snapshot.avgLatencyMs()).isEqualTo((int) Math.round(ewma(41, 100)));
+        });
+        assertThat(registry.drainPending()).isEmpty();
+    }
+
+    @Test
+    void unHeartbeatAtrasadoNoRetrocedeElUltimo() {
+        LiveSessionRegistry registry = new LiveSessionRegistry(4);
+        UUID sessionId = UUID.randomUUID();
+        registry.track(sessionId, roomId, INICIO, null);
+
+        registry.heartbeat(sessionId, null, INICIO + 5_000L);
+        registry.heartbeat(sessionId, null, INICIO + 2_000L);
+
+        assertThat(registry.drainPending()).singleElement()
+                .satisfies(s -> assertThat(s.lastHeartbeatAt().toEpochMilli()).isEqualTo(INICIO + 5_000L));
+    }
+
+    @Test
+    void markPendingDevuelveAlSiguienteVaciadoElValorMasReciente() {
+        LiveSessionRegistry registry = new LiveSessionRegistry(4);
+        UUID activa = UUID.randomUUID();
+        UUID cerrada = UUID.randomUUID();
+        registry.track(activa, roomId, INICIO, null);
+        registry.track(cerrada, roomId, INICIO, null);
+        registry.heartbeat(activa, 50, INICIO + 1_000L);
+        registry.heartbeat(cerrada, 50, INICIO + 1_000L);
+
+        List<LiveSessionRegistry.Snapshot> fallido = registry.drainPending();
+        assertThat(fallido).hasSize(2);
+        registry.heartbeat(activa, 50, INICIO + 2_000L);
+        registry.remove(cerrada);
+        registry.markPending(fallido.stream().map(LiveSessionRegistry.Snapshot::sessionId).toList());
+
+        assertThat(registry.drainPending()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.sessionId()).isEqualTo(activa);
+            assertThat(snapshot.lastHeartbeatAt().toEpochMilli()).isEqualTo(INICIO + 2_000L);
+        });
+    }
+
+    @Test
+    void vaciadoConcurrenteEntregaCadaSesionUnaVezPorLoteYElUltimoValor() throws Exception {
+        LiveSessionRegistry registry = new LiveSessionRegistry(64);
+        List<UUID> sesiones = registrar(registry);
+        Resultado resultado = ejecutar(registry, sesiones, false);
+
+        assertThat(resultado.duplicadosEnUnLote()).isZero();
+        assertThat(resultado.retrocesos()).isZero();
+        assertThat(resultado.snapshots()).isLessThanOrEqualTo((long) SESIONES * HEARTBEATS_POR_SESION);
+        verificarUltimoValor(resultado.persistido(), sesiones);
+    }
+
+    @Test
+    void markPendingTrasLotesFallidosNoPierdeSesiones() throws Exception {
+        LiveSessionRegistry registry = new LiveSessionRegistry(64);
+        List<UUID> sesiones = registrar(registry);
+        Resultado resultado = ejecutar(registry, sesiones, true);
+
+        assertThat(resultado.duplicadosEnUnLote()).isZero();
+        assertThat(resultado.retrocesos()).isZero();
+        assertThat(resultado.lotesFallidos()).isPositive();
+        verificarUltimoValor(resultado.persistido(), sesiones);
+    }
+
+    private List<UUID> registrar(LiveSessionRegistry registry) {
+        List<UUID> sesiones = new ArrayList<>(SESIONES);
+        for (int i = 0; i < SESIONES; i++) {
+            UUID sessionId = UUID.randomUUID();
+            registry.track(sessionId, roomId, INICIO, null);
+            sesiones.add(sessionId);
+        }
+        return sesiones;
+    }
+
+    /**
+     * Envía los heartbeats desde {@link #HILOS} hilos mientras un hilo vacía el registro
+     *
+     * @param fallarAlternados si true, uno de cada dos lotes se trata como fallido y
+     *                         sus sesiones se devuelven con markPending
+     */
+    private Resultado ejecutar(LiveSessionRegistry registry, List<UUID> sesiones, boolean fallarAlternados)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS + 1);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        try {
+            List<Future<?>> escritores = new ArrayList<>();
+            for (int hilo = 0; hilo < HILOS; hilo++) {
+                List<UUID> propias = sesiones.subList(hilo * SESIONES / HILOS, (hilo + 1) * SESIONES / HILOS);
+                escritores.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 1; i <= HEARTBEATS_POR_SESION; i++) {
+                        for (UUID sessionId : propias) {
+                            assertThat(registry.heartbeat(sessionId, 40 + i, INICIO + i * 1_000L)).isEqualTo(roomId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            Future<Resultado> vaciador = executor.submit(() -> {
+                Resultado parcial = new Resultado();
+                largada.await();
+                boolean ultimo;
+                do {
+                    ultimo = !escribiendo.get();
+                    List<LiveSessionRegistry.Snapshot> lote = registry.drainPending();
+                    parcial.lotes++;
+                    if (fallarAlternados && !ultimo && parcial.lotes % 2 == 1) {
+                        parcial.lotesFallidos++;
+                        registry.markPending(lote.stream().map(LiveSessionRegistry.Snapshot::sessionId).toList());
+                    } else {
+                        parcial.registrar(lote);
+                    }
+                } while (!ultimo);
+                return parcial;
+            });
+
+            largada.countDown();
+            for (Future<?> escritor : escritores) {
+                escritor.get(60, TimeUnit.SECONDS);
+            }
+            escribiendo.set(false);
+            return vaciador.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void verificarUltimoValor(Map<UUID, LiveSessionRegistry.Snapshot> persistido, List<UUID> sesiones) {
+        int latenciaFinal = (int) Math.round(ewma(41, HEARTBEATS_POR_SESION));
+        assertThat(persistido).hasSize(SESIONES);
+        for (UUID sessionId : sesiones) {
+            LiveSessionRegistry.Snapshot snapshot = persistido.get(sessionId);
+            assertThat(snapshot.lastHeartbeatAt().toEpochMilli())
+                    .isEqualTo(INICIO + HEARTBEATS_POR_SESION * 1_000L);
+            assertThat(snapshot.avgLatencyMs()).isEqualTo(latenciaFinal);
+        }
+    }
+
+    /**
+     * Promedio EWMA de las latencias primera, primera + 1, ... en el orden de envío
+     */
+    private static double ewma(int primera, int cantidad) {
+        double promedio = primera;
+        for (int i = 1; i < cantidad; i++) {
+            promedio = Session.LATENCY_ALPHA * (primera + i) + (1 - Session.LATENCY_ALPHA) * promedio;
+        }
+        return promedio;
+    }
+
+    /**
+     * Lo observado por el hilo que vacía el registro
+     */
+    private static final class Resultado {
+        private final Map<UUID, LiveSessionRegistry.Snapshot> persistido = new HashMap<>();
+        private long snapshots;
+        private int lotes;
+        private int lotesFallidos;
+        private int duplicadosEnUnLote;
+        private int retrocesos;
+
+        private void registrar(List<LiveSessionRegistry.Snapshot> lote) {
+            Set<UUID> vistas = new HashSet<>();
+            for (LiveSessionRegistry.Snapshot snapshot : lote) {
+                if (!vistas.add(snapshot.sessionId())) {
+                    duplicadosEnUnLote++;
+                }
+                LiveSessionRegistry.Snapshot anterior = persistido.put(snapshot.sessionId(), snapshot);
+                if (anterior != null && anterior.lastHeartbeatAt().isAfter(snapshot.lastHeartbeatAt())) {
+                    retrocesos++;
+                }
+            }
+            snapshots += lote.size();
+        }
+
+        private Map<UUID, LiveSessionRegistry.Snapshot> persistido() {
+            return persistido;
+        }
+
+        private long snapshots() {
+            return snapshots;
+        }
+
+        private int lotesFallidos() {
+            return lotesFallidos;
+        }
+
+        private int duplicadosEnUnLote() {
+            return duplicadosEnUnLote;
+        }
+
+        private int retrocesos() {
+            return retrocesos;
+        }
+    }
+}
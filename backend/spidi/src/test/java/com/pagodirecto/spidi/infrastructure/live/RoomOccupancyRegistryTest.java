@@ -0,0 +1,152 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import com.pagodirecto.spidi.domain.Room;
+import com.pagodirecto.spidi.infrastructure.repository.SessionConnectionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: RoomOccupancyRegistry
+ *
+ * La base de datos es simulada: el conteo de sesiones activas de la sala es un
+ * contador que se incrementa al confirmar cada admisión, como el commit del
+ * INSERT de SessionServiceImpl.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class RoomOccupancyRegistryTest {
+
+    private static final int HILOS = 8;
+
+    private final Room room = Room.builder().id(UUID.randomUUID()).code("SALA").capacity(50).build();
+    private final AtomicInteger confirmadas = new AtomicInteger();
+    private Runnable duranteLaConsulta = () -> { };
+
+    private final RoomOccupancyRegistry registry = new RoomOccupancyRegistry(new SessionConnectionRepository(null) {
+        @Override
+        public Map<UUID, Integer> contarActivasPorSala() {
+            int conteo = confirmadas.get();
+            duranteLaConsulta.run();
+            return conteo > 0 ? Map.of(room.getId(), conteo) : Map.of();
+        }
+    });
+
+    @Test
+    void unaAdmisionEnCursoNoSeDescuentaAlReconciliar() {
+        assertThat(registry.tryAdmit(room)).isTrue();
+
+        registry.reconciliar();
+
+        assertThat(registry.getOnline(room.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void unaAdmisionConfirmadaDuranteLaConsultaNoSeDescuenta() {
+        assertThat(registry.tryAdmit(room)).isTrue();
+        // El commit ocurre después de la foto de la consulta, que no ve la fila
+        duranteLaConsulta = this::confirmar;
+
+        registry.reconciliar();
+        assertThat(registry.getOnline(room.getId())).isEqualTo(1);
+
+        duranteLaConsulta = () -> { };
+        registry.reconciliar();
+        assertThat(registry.getOnline(room.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void unaAdmisionCanceladaLiberaSuLugar() {
+        assertThat(registry.tryAdmit(room)).isTrue();
+        duranteLaConsulta = () -> registry.cancelAdmission(room.getId());
+
+        registry.reconciliar();
+        assertThat(registry.getOnline(room.getId())).isZero();
+
+        duranteLaConsulta = () -> { };
+        registry.reconciliar();
+        assertThat(registry.getOnline(room.getId())).isZero();
+    }
+
+    @Test
+    void laReconciliacionIncorporaLasSesionesDeOtrosNodos() {
+        assertThat(registry.tryAdmit(room)).isTrue();
+        confirmar();
+        // Sesiones abiertas en otro nodo
+        confirmadas.addAndGet(49);
+
+        registry.reconciliar();
+
+        assertThat(registry.getOnline(room.getId())).isEqualTo(50);
+        assertThat(registry.tryAdmit(room)).isFalse();
+    }
+
+    @Test
+    void admisionesConcurrentesConReconciliacionesNoSuperanLaCapacidad() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS + 1);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicBoolean admitiendo = new AtomicBoolean(true);
+        try {
+            List<Future<?>> hilos = new ArrayList<>();
+            for (int hilo = 0; hilo < HILOS; hilo++) {
+                int semilla = hilo;
+                hilos.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        if (registry.tryAdmit(room)) {
+                            Thread.yield();
+                            if ((i + semilla) % 3 == 0) {
+                                registry.cancelAdmission(room.getId());
+                            } else {
+                                confirmar();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<Integer> reconciliaciones = executor.submit(() -> {
+                largada.await();
+                int pasadas = 0;
+                while (admitiendo.get()) {
+                    registry.reconciliar();
+                    pasadas++;
+                }
+                return pasadas;
+            });
+
+            largada.countDown();
+            for (Future<?> hilo : hilos) {
+                hilo.get(60, TimeUnit.SECONDS);
+            }
+            admitiendo.set(false);
+            assertThat(reconciliaciones.get(60, TimeUnit.SECONDS)).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(confirmadas.get()).isEqualTo(room.getCapacity());
+        assertThat(registry.getOnline(room.getId())).isEqualTo(room.getCapacity());
+        registry.reconciliar();
+        assertThat(registry.getOnline(room.getId())).isEqualTo(room.getCapacity());
+    }
+
+    private void confirmar() {
+        confirmadas.incrementAndGet();
+        registry.confirmAdmission(room.getId());
+    }
+}
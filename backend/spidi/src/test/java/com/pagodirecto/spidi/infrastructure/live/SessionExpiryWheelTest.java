@@ -0,0 +1,174 @@
+package com.pagodirecto.spidi.infrastructure.live;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests: SessionExpiryWheel
+ *
+ * El reloj es simulado: cada test llama a advance con los instantes que elige.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class SessionExpiryWheelTest {
+
+    private static final long INICIO = 1_700_000_000_037L;
+    private static final long TICK = 100;
+    private static final int RANURAS = 8;
+
+    @Test
+    void nuncaDisparaAntesDelVencimientoYLoHaceDentroDeUnTick() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        Random random = new Random(42);
+        Map<UUID, Long> pendientes = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID sessionId = UUID.randomUUID();
+            long deadline = INICIO + random.nextInt((int) (TICK * RANURAS * 6));
+            pendientes.put(sessionId, deadline);
+            wheel.schedule(sessionId, deadline);
+        }
+
+        for (long ahora = INICIO; !pendientes.isEmpty(); ahora++) {
+            for (SessionExpiryWheel.Timeout vencido : wheel.advance(ahora)) {
+                Long deadline = pendientes.remove(vencido.getSessionId());
+                assertThat(deadline).isEqualTo(vencido.getDeadline());
+                assertThat(ahora).as("disparo de %d", deadline)
+                        .isGreaterThanOrEqualTo(deadline)
+                        .isLessThan(deadline + TICK);
+            }
+            assertThat(ahora).isLessThan(INICIO + TICK * RANURAS * 7);
+        }
+    }
+
+    @Test
+    void unVencimientoExactoEnElInicioDeUnTickDisparaEnEseTick() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        UUID sessionId = UUID.randomUUID();
+        wheel.schedule(sessionId, INICIO + 3 * TICK);
+
+        assertThat(wheel.advance(INICIO + 3 * TICK - 1)).isEmpty();
+        assertThat(wheel.advance(INICIO + 3 * TICK)).extracting(SessionExpiryWheel.Timeout::getSessionId)
+                .containsExactly(sessionId);
+    }
+
+    @Test
+    void vencimientosAVariasVueltasNoDisparanEnVueltasAnteriores() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        UUID cercana = UUID.randomUUID();
+        UUID lejana = UUID.randomUUID();
+        UUID muyLejana = UUID.randomUUID();
+        // Misma ranura (tick 3 mod 8), a 0, 5 y 40 vueltas
+        wheel.schedule(cercana, INICIO + 3 * TICK);
+        wheel.schedule(lejana, INICIO + (3 + 5 * RANURAS) * TICK);
+        wheel.schedule(muyLejana, INICIO + (3 + 40 * RANURAS) * TICK - 50);
+
+        Map<UUID, Long> disparos = new HashMap<>();
+        for (long ahora = INICIO; ahora <= INICIO + 41 * RANURAS * TICK; ahora += TICK / 4) {
+            for (SessionExpiryWheel.Timeout vencido : wheel.advance(ahora)) {
+                disparos.put(vencido.getSessionId(), ahora);
+            }
+        }
+
+        assertThat(disparos).containsOnly(
+                Map.entry(cercana, INICIO + 3 * TICK),
+                Map.entry(lejana, INICIO + (3 + 5 * RANURAS) * TICK),
+                Map.entry(muyLejana, INICIO + (3 + 40 * RANURAS) * TICK));
+    }
+
+    @Test
+    void unSaltoDeVariosTicksEntregaTodoLoVencido() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        List<UUID> sesiones = new ArrayList<>();
+        for (int i = 1; i <= 3 * RANURAS; i++) {
+            UUID sessionId = UUID.randomUUID();
+            sesiones.add(sessionId);
+            wheel.schedule(sessionId, INICIO + i * TICK - 1);
+        }
+        UUID futura = UUID.randomUUID();
+        wheel.schedule(futura, INICIO + 3 * RANURAS * TICK + 1);
+
+        List<SessionExpiryWheel.Timeout> vencidos = wheel.advance(INICIO + 3 * RANURAS * TICK);
+
+        assertThat(vencidos).extracting(SessionExpiryWheel.Timeout::getSessionId)
+                .containsExactlyInAnyOrderElementsOf(sesiones);
+        assertThat(wheel.nextTickAt()).isEqualTo(INICIO + (3 * RANURAS + 1) * TICK);
+        assertThat(wheel.advance(INICIO + (3 * RANURAS + 1) * TICK))
+                .extracting(SessionExpiryWheel.Timeout::getSessionId).containsExactly(futura);
+    }
+
+    @Test
+    void reprogramarDentroDelTickEnCursoNoAdelantaElDisparo() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        wheel.advance(INICIO + 10 * TICK + 50);
+        assertThat(wheel.nextTickAt()).isEqualTo(INICIO + 11 * TICK);
+
+        // Vencimiento posterior al instante actual pero dentro del tick ya procesado
+        UUID sessionId = UUID.randomUUID();
+        wheel.schedule(sessionId, INICIO + 10 * TICK + 80);
+
+        assertThat(wheel.advance(INICIO + 10 * TICK + 80)).isEmpty();
+        assertThat(wheel.advance(INICIO + 11 * TICK - 1)).isEmpty();
+        assertThat(wheel.advance(INICIO + 11 * TICK)).extracting(SessionExpiryWheel.Timeout::getSessionId)
+                .containsExactly(sessionId);
+    }
+
+    @Test
+    void reprogramarAlProcesarUnVencimientoDisparaEnElProximoTickQueLoCubre() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        UUID sessionId = UUID.randomUUID();
+        wheel.schedule(sessionId, INICIO + 2 * TICK);
+
+        long ahora = INICIO + 2 * TICK + 10;
+        assertThat(wheel.advance(ahora)).hasSize(1);
+        // Como SessionExpiryScheduler: un heartbeat reciente mueve el vencimiento
+        wheel.schedule(sessionId, ahora + 30);
+        // y un reintento tras un error reprograma con el instante actual
+        UUID reintento = UUID.randomUUID();
+        wheel.schedule(reintento, ahora);
+
+        assertThat(wheel.advance(INICIO + 3 * TICK - 1)).isEmpty();
+        assertThat(wheel.advance(INICIO + 3 * TICK)).extracting(SessionExpiryWheel.Timeout::getSessionId)
+                .containsExactlyInAnyOrder(sessionId, reintento);
+    }
+
+    @Test
+    void unVencimientoYaPasadoDisparaEnElSiguienteTick() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        wheel.advance(INICIO + 20 * TICK);
+        UUID sessionId = UUID.randomUUID();
+        wheel.schedule(sessionId, INICIO - 5 * TICK);
+
+        assertThat(wheel.advance(INICIO + 21 * TICK)).extracting(SessionExpiryWheel.Timeout::getDeadline)
+                .containsExactly(INICIO - 5 * TICK);
+    }
+
+    @Test
+    void cadaProgramacionSeEntregaConSuPropioVencimiento() {
+        SessionExpiryWheel wheel = new SessionExpiryWheel(RANURAS, TICK, INICIO);
+        UUID sessionId = UUID.randomUUID();
+        wheel.schedule(sessionId, INICIO + TICK);
+        wheel.schedule(sessionId, INICIO + 4 * TICK);
+
+        assertThat(wheel.advance(INICIO + TICK)).extracting(SessionExpiryWheel.Timeout::getDeadline)
+                .containsExactly(INICIO + TICK);
+        assertThat(wheel.advance(INICIO + 4 * TICK)).extracting(SessionExpiryWheel.Timeout::getDeadline)
+                .containsExactly(INICIO + 4 * TICK);
+    }
+
+    @Test
+    void rechazaUnTickNoPositivo() {
+        assertThatThrownBy(() -> new SessionExpiryWheel(RANURAS, 0, INICIO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.pagodirecto.spidi.infrastructure.repository;
+
+import com.pagodirecto.spidi.domain.BucketInterval;
+import com.pagodirecto.spidi.domain.LatencyHistogram;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: histogramas de latencia de RoomStatsRepository contra PostgreSQL
+ *
+ * Ejecuta las migraciones V20 y V21 sobre la tabla de V10 y compara
+ * spd_histogram_merge y spd_histogram_sum, byte a byte, con
+ * {@link LatencyHistogram#add}: la combinación en el upsert y en Java deben
+ * dar el mismo histograma.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RoomStatsRepositoryTest {
+
+    private static final Path MIGRACIONES = Path.of("../application/src/main/resources/db/migration");
+
+    /**
+     * dat_spd_room_stats como la crea V10, sin la referencia a dat_spd_room
+     */
+    private static final String ESQUEMA_BASE =
+            "CREATE TABLE dat_spd_room_stats (" +
+            "  id UUID PRIMARY KEY DEFAULT gen_random_uuid(), room_id UUID NOT NULL, " +
+            "  ts_bucket TIMESTAMPTZ NOT NULL, bucket_interval VARCHAR(20) NOT NULL DEFAULT 'HOUR', " +
+            "  count_online INTEGER NOT NULL DEFAULT 0, peak_online INTEGER NOT NULL DEFAULT 0, " +
+            "  avg_latency_ms INTEGER, total_sessions INTEGER NOT NULL DEFAULT 0, " +
+            "  total_connects INTEGER NOT NULL DEFAULT 0, total_disconnects INTEGER NOT NULL DEFAULT 0, " +
+            "  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), " +
+            "  CONSTRAINT uk_dat_spd_room_stats_bucket UNIQUE (room_id, ts_bucket, bucket_interval));";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void crearEsquema() throws Exception {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbcTemplate.execute(ESQUEMA_BASE);
+        jdbcTemplate.execute(Files.readString(MIGRACIONES.resolve("V20__add_spidi_room_stats_latency_totals.sql")));
+        jdbcTemplate.execute(Files.readString(MIGRACIONES.resolve("V21__add_spidi_room_stats_latency_histogram.sql")));
+    }
+
+    @Test
+    void mergeCoincideConAdd() {
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            LatencyHistogram a = aleatorio(random, random.nextInt(300));
+            LatencyHistogram b = aleatorio(random, random.nextInt(300));
+            if (i % 10 == 0) {
+                a.record(Integer.MAX_VALUE);
+            }
+
+            LatencyHistogram esperado = new LatencyHistogram();
+            esperado.add(a);
+            esperado.add(b);
+
+            assertThat(merge(a.toBytes(), b.toBytes())).as("par %d", i).isEqualTo(esperado.toBytes());
+        }
+    }
+
+    @Test
+    void mergeConVaciosDevuelveElOtroONull() {
+        LatencyHistogram histograma = aleatorio(new Random(19), 50);
+        byte[] bytes = histograma.toBytes();
+
+        assertThat(merge(null, null)).isNull();
+        assertThat(merge(new byte[0], null)).isNull();
+        assertThat(merge(null, bytes)).isEqualTo(bytes);
+        assertThat(merge(bytes, new byte[0])).isEqualTo(bytes);
+    }
+
+    @Test
+    void mergeSumaCuentasMayoresA32Bits() {
+        LatencyHistogram histograma = new LatencyHistogram();
+        histograma.record(100);
+        byte[] grande = {0x00, 0x44, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00};
+
+        LatencyHistogram resultado = LatencyHistogram.fromBytes(merge(grande, histograma.toBytes()));
+
+        assertThat(resultado.getTotalCount()).isEqualTo((1L << 32) + 1);
+        assertThat(resultado.toBytes()).isEqualTo(
+                LatencyHistogram.merged(LatencyHistogram.fromBytes(grande), histograma).toBytes());
+    }
+
+    @Test
+    void sumDeVariasFilasCoincideConAdd() {
+        Random random = new Random(23);
+        LatencyHistogram esperado = new LatencyHistogram();
+        List<byte[]> filas = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            LatencyHistogram histograma = aleatorio(random, i % 5 == 0 ? 0 : 100);
+            esperado.add(histograma);
+            filas.add(histograma.toBytes());
+        }
+
+        byte[] suma = jdbcTemplate.queryForObject(
+                "SELECT spd_histogram_sum(h ORDER BY n) FROM unnest(?::bytea[]) WITH ORDINALITY AS t(h, n)",
+                byte[].class, (Object) filas.toArray(new byte[0][]));
+
+        assertThat(suma).isEqualTo(esperado.toBytes());
+    }
+
+    @Test
+    void acumularCombinaLosHistogramasDelMismoBucket() {
+        RoomStatsRepository repository = new RoomStatsRepository(jdbcTemplate);
+        UUID roomId = UUID.randomUUID();
+        Instant bucket = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        Random random = new Random(29);
+        LatencyHistogram esperado = new LatencyHistogram();
+
+        for (int nodo = 0; nodo < 4; nodo++) {
+            LatencyHistogram histograma = aleatorio(random, nodo == 2 ? 0 : 500);
+            esperado.add(histograma);
+            repository.acumular(List.of(new RoomStatsRepository.Fila(roomId, BucketInterval.MINUTE, bucket,
+                    1, 1, 1, 1, 0, 0, histograma.getTotalCount(), histograma)));
+        }
+
+        List<RoomStatsRepository.Latencias> latencias = repository.buscarLatencias(
+                roomId, BucketInterval.MINUTE, bucket, bucket.plusSeconds(60), 10);
+        assertThat(latencias).singleElement().satisfies(fila -> {
+            assertThat(fila.latencySamples()).isEqualTo(esperado.getTotalCount());
+            assertThat(fila.latencyHistogram().toBytes()).isEqualTo(esperado.toBytes());
+        });
+    }
+
+    private static byte[] merge(byte[] a, byte[] b) {
+        return jdbcTemplate.queryForObject("SELECT spd_histogram_merge(?::bytea, ?::bytea)", byte[].class, a, b);
+    }
+
+    private static LatencyHistogram aleatorio(Random random, int muestras) {
+        LatencyHistogram histograma = new LatencyHistogram();
+        for (int i = 0; i < muestras; i++) {
+            histograma.record((int) Math.min(Math.exp(3 + 2 * random.nextGaussian()), Integer.MAX_VALUE));
+        }
+        return histograma;
+    }
+}
@@ -1,6 +1,10 @@
 package com.pagodirecto.tareas.api.controller;
 
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
 import com.pagodirecto.tareas.application.dto.TareaDTO;
+import com.pagodirecto.tareas.application.dto.TareaExportFiltro;
 import com.pagodirecto.tareas.application.service.TareaService;
 import com.pagodirecto.tareas.domain.StatusTarea;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,11 +16,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -39,6 +46,7 @@ import java.util.UUID;
 public class TareaController {
 
     private final TareaService tareaService;
+    private final RLSContextManager rlsContextManager;
 
     @PostMapping
     @Operation(summary = "Crear nueva tarea")
@@ -86,6 +94,20 @@ public class TareaController {
         return ResponseEntity.ok(tareas);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Listar tareas con paginación por cursor",
+               description = "Más recientes primero. Enviar nextCursor de la respuesta para obtener la "
+                       + "página siguiente; el total sólo se calcula con incluirTotal=true")
+    public ResponseEntity<CursorSlice<TareaDTO>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        log.debug("Solicitud para listar tareas por cursor - tamaño: {}", size);
+
+        CursorSlice<TareaDTO> tareas = tareaService.listarPorCursor(cursor, size, incluirTotal);
+        return ResponseEntity.ok(tareas);
+    }
+
     @GetMapping("/asignado/{asignadoA}")
     @Operation(summary = "Listar tareas asignadas a un usuario")
     public ResponseEntity<Page<TareaDTO>> listarPorAsignado(
@@ -170,6 +192,24 @@ public class TareaController {
         return ResponseEntity.ok(tareas);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Exportar tareas",
+               description = "Descarga en CSV o NDJSON todas las tareas que cumplen los filtros, "
+                       + "más recientes primero. Se escribe a medida que se lee de la base de datos")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "csv") String formato,
+            TareaExportFiltro filtro) {
+        ExportFormat exportFormat = ExportFormat.from(formato);
+        log.info("Solicitud de exportación de tareas en formato: {}", exportFormat);
+
+        StreamingResponseBody body = rlsContextManager.propagate(
+                salida -> tareaService.exportar(filtro, exportFormat, salida));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("tareas"))
+                .body(body);
+    }
+
     @PutMapping("/{id}/completar")
     @Operation(summary = "Marcar tarea como completada")
     public ResponseEntity<TareaDTO> completar(
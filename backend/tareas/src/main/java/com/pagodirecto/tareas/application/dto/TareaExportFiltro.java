@@ -0,0 +1,41 @@
+package com.pagodirecto.tareas.application.dto;
+
+import com.pagodirecto.tareas.domain.StatusTarea;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Filtros de la exportación de tareas
+ *
+ * Todos son opcionales y se combinan con AND; equivalen a los de los listados
+ * por asignado, status, entidad relacionada, vencidas y búsqueda de texto.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TareaExportFiltro {
+
+    private UUID asignadoA;
+
+    private StatusTarea status;
+
+    private String relacionadoTipo;
+
+    private UUID relacionadoId;
+
+    /**
+     * Si true, sólo tareas vencidas y no cerradas
+     */
+    private boolean vencidas;
+
+    /**
+     * Texto a buscar en título y descripción
+     */
+    private String q;
+}
@@ -1,10 +1,15 @@
 package com.pagodirecto.tareas.application.service;
 
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
 import com.pagodirecto.tareas.application.dto.TareaDTO;
+import com.pagodirecto.tareas.application.dto.TareaExportFiltro;
 import com.pagodirecto.tareas.domain.StatusTarea;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -40,6 +45,16 @@ public interface TareaService {
      */
     Page<TareaDTO> listar(Pageable pageable);
 
+    /**
+     * Lista tareas con paginación por cursor (keyset), más recientes primero
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (máximo {@value CursorSlice#MAX_SIZE})
+     * @param incluirTotal si true, calcula además el total de registros
+     * @return la página y el cursor de la siguiente
+     */
+    CursorSlice<TareaDTO> listarPorCursor(String cursor, int size, boolean incluirTotal);
+
     /**
      * Lista tareas asignadas a un usuario
      */
@@ -70,6 +85,18 @@ public interface TareaService {
      */
     Page<TareaDTO> buscar(String query, Pageable pageable);
 
+    /**
+     * Escribe las tareas que cumplen los filtros directamente en la salida,
+     * más recientes primero, con memoria constante
+     *
+     * @param filtro filtros opcionales
+     * @param formato CSV o NDJSON
+     * @param salida stream de la respuesta; no se cierra
+     * @return cantidad de tareas exportadas
+     * @throws IOException si falla la escritura (p. ej. el cliente cortó la descarga)
+     */
+    long exportar(TareaExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException;
+
     /**
      * Completa una tarea
      */
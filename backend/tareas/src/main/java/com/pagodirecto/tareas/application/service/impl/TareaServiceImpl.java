@@ -1,23 +1,41 @@
 package com.pagodirecto.tareas.application.service.impl;
 
 import com.pagodirecto.tareas.application.dto.TareaDTO;
+import com.pagodirecto.tareas.application.dto.TareaExportFiltro;
 import com.pagodirecto.tareas.application.mapper.TareaMapper;
 import com.pagodirecto.tareas.application.service.TareaService;
 import com.pagodirecto.tareas.domain.StatusTarea;
 import com.pagodirecto.tareas.domain.Tarea;
 import com.pagodirecto.tareas.infrastructure.repository.TareaRepository;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.export.ExportColumn;
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.export.RowStreamWriter;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.core.outbox.OutboxWriter;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.core.pagination.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation: TareaServiceImpl
@@ -34,8 +52,28 @@ import java.util.UUID;
 @Slf4j
 public class TareaServiceImpl implements TareaService {
 
+    private static final List<ExportColumn<TareaDTO>> COLUMNAS_EXPORTACION = List.of(
+            ExportColumn.of("id", TareaDTO::getId),
+            ExportColumn.of("titulo", TareaDTO::getTitulo),
+            ExportColumn.of("tipo", TareaDTO::getTipo),
+            ExportColumn.of("prioridad", TareaDTO::getPrioridad),
+            ExportColumn.of("status", TareaDTO::getStatus),
+            ExportColumn.of("fecha_vencimiento", TareaDTO::getFechaVencimiento),
+            ExportColumn.of("vencida", TareaDTO::getVencida),
+            ExportColumn.of("fecha_completada", TareaDTO::getFechaCompletada),
+            ExportColumn.of("asignado_a", TareaDTO::getAsignadoA),
+            ExportColumn.of("relacionado_tipo", TareaDTO::getRelacionadoTipo),
+            ExportColumn.of("relacionado_id", TareaDTO::getRelacionadoId),
+            ExportColumn.of("descripcion", TareaDTO::getDescripcion),
+            ExportColumn.of("created_at", TareaDTO::getCreatedAt),
+            ExportColumn.of("updated_at", TareaDTO::getUpdatedAt));
+
     private final TareaRepository tareaRepository;
     private final TareaMapper tareaMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Override
     public TareaDTO crear(TareaDTO tareaDTO) {
@@ -46,9 +84,11 @@ public class TareaServiceImpl implements TareaService {
         tarea.setUpdatedAt(Instant.now());
 
         Tarea tareaGuardada = tareaRepository.save(tarea);
+        TareaDTO resultado = tareaMapper.toDTO(tareaGuardada);
+        publicarCambio(OutboxEvent.CREADO, tareaGuardada.getId(), resultado, diasAfectados(tareaGuardada, null));
         log.info("Tarea creada exitosamente con ID: {}", tareaGuardada.getId());
 
-        return tareaMapper.toDTO(tareaGuardada);
+        return resultado;
     }
 
     @Override
@@ -58,13 +98,16 @@ public class TareaServiceImpl implements TareaService {
         Tarea tarea = tareaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Tarea no encontrada con ID: " + id));
 
+        Instant completadaAntes = tarea.getFechaCompletada();
         tareaMapper.updateEntityFromDTO(tareaDTO, tarea);
         tarea.setUpdatedAt(Instant.now());
 
         Tarea tareaActualizada = tareaRepository.save(tarea);
+        TareaDTO resultado = tareaMapper.toDTO(tareaActualizada);
+        publicarCambio(OutboxEvent.ACTUALIZADO, id, resultado, diasAfectados(tareaActualizada, completadaAntes));
         log.info("Tarea actualizada exitosamente: {}", id);
 
-        return tareaMapper.toDTO(tareaActualizada);
+        return resultado;
     }
 
     @Override
@@ -86,6 +129,22 @@ public class TareaServiceImpl implements TareaService {
                 .map(tareaMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<TareaDTO> listarPorCursor(String cursor, int size, boolean incluirTotal) {
+        log.debug("Listando tareas por cursor");
+        KeysetCursor posicion = KeysetCursor.decode(cursor);
+        Pageable pageable = CursorSlice.pageRequest(size);
+
+        Slice<Tarea> tareas = posicion == null
+                ? tareaRepository.findSliceFirst(pageable)
+                : tareaRepository.findSliceAfter(posicion.getCreatedAt(), posicion.getId(), pageable);
+
+        return CursorSlice.of(tareas, tareaMapper::toDTO,
+                tarea -> KeysetCursor.of(tarea.getCreatedAt(), tarea.getId()),
+                incluirTotal ? tareaRepository.count() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<TareaDTO> listarPorAsignado(UUID asignadoA, Pageable pageable) {
@@ -137,6 +196,31 @@ public class TareaServiceImpl implements TareaService {
                 .map(tareaMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(TareaExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException {
+        log.info("Exportando tareas en formato {} - filtros: {}", formato, filtro);
+        RowStreamWriter<TareaDTO> writer = new RowStreamWriter<>(formato, COLUMNAS_EXPORTACION, objectMapper, salida);
+        writer.writeHeader();
+
+        String query = filtro.getQ() != null && !filtro.getQ().isBlank() ? filtro.getQ().trim() : null;
+        LocalDate vencidasAntes = filtro.isVencidas() ? LocalDate.now() : null;
+        try (Stream<Tarea> tareas = tareaRepository.streamParaExportar(filtro.getAsignadoA(), filtro.getStatus(),
+                filtro.getRelacionadoTipo(), filtro.getRelacionadoId(), vencidasAntes, query)) {
+            Iterator<Tarea> iterator = tareas.iterator();
+            while (iterator.hasNext()) {
+                Tarea tarea = iterator.next();
+                writer.write(tareaMapper.toDTO(tarea));
+                // Sin esto el contexto de persistencia retendría todas las tareas leídas
+                entityManager.detach(tarea);
+            }
+        }
+
+        long total = writer.finish();
+        log.info("Exportación de tareas completada: {} registros", total);
+        return total;
+    }
+
     @Override
     public TareaDTO completar(UUID id) {
         log.info("Completando tarea con ID: {}", id);
@@ -144,11 +228,14 @@ public class TareaServiceImpl implements TareaService {
         Tarea tarea = tareaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Tarea no encontrada con ID: " + id));
 
+        Instant completadaAntes = tarea.getFechaCompletada();
         tarea.completar();
         Tarea tareaCompletada = tareaRepository.save(tarea);
+        TareaDTO resultado = tareaMapper.toDTO(tareaCompletada);
+        publicarCambio("COMPLETADA", id, resultado, diasAfectados(tareaCompletada, completadaAntes));
 
         log.info("Tarea completada exitosamente: {}", id);
-        return tareaMapper.toDTO(tareaCompletada);
+        return resultado;
     }
 
     @Override
@@ -158,11 +245,14 @@ public class TareaServiceImpl implements TareaService {
         Tarea tarea = tareaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Tarea no encontrada con ID: " + id));
 
+        Instant completadaAntes = tarea.getFechaCompletada();
         tarea.cancelar();
         Tarea tareaCancelada = tareaRepository.save(tarea);
+        TareaDTO resultado = tareaMapper.toDTO(tareaCancelada);
+        publicarCambio("CANCELADA", id, resultado, diasAfectados(tareaCancelada, completadaAntes));
 
         log.info("Tarea cancelada exitosamente: {}", id);
-        return tareaMapper.toDTO(tareaCancelada);
+        return resultado;
     }
 
     @Override
@@ -174,20 +264,22 @@ public class TareaServiceImpl implements TareaService {
 
         tarea.asignar(nuevoAsignadoId);
         Tarea tareaReasignada = tareaRepository.save(tarea);
+        TareaDTO resultado = tareaMapper.toDTO(tareaReasignada);
+        registrarEvento("REASIGNADA", id, resultado);
 
         log.info("Tarea reasignada exitosamente: {}", id);
-        return tareaMapper.toDTO(tareaReasignada);
+        return resultado;
     }
 
     @Override
     public void eliminar(UUID id) {
         log.info("Eliminando tarea con ID: {}", id);
 
-        if (!tareaRepository.existsById(id)) {
-            throw new IllegalArgumentException("Tarea no encontrada con ID: " + id);
-        }
+        Tarea tarea = tareaRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Tarea no encontrada con ID: " + id));
 
-        tareaRepository.deleteById(id);
+        tareaRepository.delete(tarea);
+        publicarCambio(OutboxEvent.ELIMINADO, id, null, diasAfectados(tarea, null));
         log.info("Tarea eliminada exitosamente: {}", id);
     }
 
@@ -209,4 +301,30 @@ public class TareaServiceImpl implements TareaService {
                 .map(tareaMapper::toDTO)
                 .toList();
     }
+
+    /**
+     * Registra el evento en el outbox y notifica a las vistas derivadas (dashboard) tras el commit
+     */
+    private void publicarCambio(String tipo, UUID tareaId, TareaDTO tarea, Set<LocalDate> fechas) {
+        registrarEvento(tipo, tareaId, tarea);
+        UUID unidadNegocioId = tarea != null ? tarea.getUnidadNegocioId() : null;
+        eventPublisher.publishEvent(new TenantDataChangedEvent("tareas", unidadNegocioId, fechas));
+    }
+
+    /**
+     * Días de los KPI que puede alterar un cambio sobre la tarea: el de creación y
+     * los de completado antes y después del cambio
+     */
+    private static Set<LocalDate> diasAfectados(Tarea tarea, Instant completadaAntes) {
+        return TenantDataChangedEvent.diasUtc(tarea.getCreatedAt(), completadaAntes, tarea.getFechaCompletada());
+    }
+
+    /**
+     * Registra el evento en el outbox, en la transacción del cambio
+     *
+     * @param tarea estado tras el cambio; null en eliminaciones (tenant del contexto RLS)
+     */
+    private void registrarEvento(String tipo, UUID tareaId, TareaDTO tarea) {
+        outboxWriter.registrar("tareas", tareaId, tipo, tarea != null ? tarea.getUnidadNegocioId() : null, tarea);
+    }
 }
@@ -2,16 +2,22 @@ package com.pagodirecto.tareas.infrastructure.repository;
 
 import com.pagodirecto.tareas.domain.StatusTarea;
 import com.pagodirecto.tareas.domain.Tarea;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository: Tarea
@@ -91,4 +97,47 @@ public interface TareaRepository extends JpaRepository<Tarea, UUID> {
     @Query("SELECT t FROM Tarea t WHERE t.updatedAt < :fechaLimite " +
            "AND t.status NOT IN ('COMPLETADA', 'CANCELADA')")
     List<Tarea> findTareasInactivas(@Param("fechaLimite") java.time.Instant fechaLimite);
+
+    /**
+     * Primera página en modo cursor: más recientes primero, sin COUNT
+     */
+    @Query("SELECT t FROM Tarea t ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<Tarea> findSliceFirst(Pageable pageable);
+
+    /**
+     * Página siguiente en modo cursor: filas estrictamente posteriores a (createdAt, id).
+     * La primera condición acota el rango del índice (created_at DESC, id DESC)
+     */
+    @Query("SELECT t FROM Tarea t WHERE t.createdAt <= :createdAt " +
+           "AND (t.createdAt < :createdAt OR t.id < :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<Tarea> findSliceAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Recorre las tareas a exportar con un cursor del servidor, sin materializar el resultado.
+     * Los filtros nulos no aplican; vencidasAntes filtra tareas abiertas con vencimiento anterior.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Tarea t WHERE " +
+           "(:asignadoA IS NULL OR t.asignadoA = :asignadoA) " +
+           "AND (:status IS NULL OR t.status = :status) " +
+           "AND (:relacionadoTipo IS NULL OR t.relacionadoTipo = :relacionadoTipo) " +
+           "AND (:relacionadoId IS NULL OR t.relacionadoId = :relacionadoId) " +
+           "AND (:vencidasAntes IS NULL OR (t.fechaVencimiento < :vencidasAntes " +
+           "AND t.status NOT IN ('COMPLETADA', 'CANCELADA'))) " +
+           "AND (:query IS NULL OR LOWER(t.titulo) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "OR LOWER(t.descripcion) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Tarea> streamParaExportar(
+        @Param("asignadoA") UUID asignadoA,
+        @Param("status") StatusTarea status,
+        @Param("relacionadoTipo") String relacionadoTipo,
+        @Param("relacionadoId") UUID relacionadoId,
+        @Param("vencidasAntes") LocalDate vencidasAntes,
+        @Param("query") String query
+    );
 }
@@ -1,6 +1,14 @@
 package com.pagodirecto.ventas.api.controller;
 
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.seguridad.infrastructure.security.AuthenticatedPrincipal;
+import com.pagodirecto.seguridad.infrastructure.security.RLSContextManager;
+import com.pagodirecto.ventas.application.dto.AgregarItemsRequest;
 import com.pagodirecto.ventas.application.dto.PedidoDTO;
+import com.pagodirecto.ventas.application.dto.PedidoExportFiltro;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaRequest;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaResultadoDTO;
 import com.pagodirecto.ventas.application.service.PedidoService;
 import com.pagodirecto.ventas.domain.PedidoStatus;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,11 +21,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -39,6 +50,7 @@ import java.util.UUID;
 public class PedidoController {
 
     private final PedidoService pedidoService;
+    private final RLSContextManager rlsContextManager;
 
     @PostMapping
     @Operation(summary = "Crear nuevo pedido")
@@ -94,6 +106,20 @@ public class PedidoController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Listar pedidos con paginación por cursor",
+               description = "Más recientes primero. Enviar nextCursor de la respuesta para obtener la "
+                       + "página siguiente; el total sólo se calcula con incluirTotal=true")
+    public ResponseEntity<CursorSlice<PedidoDTO>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        log.debug("Solicitud para listar pedidos por cursor - tamaño: {}", size);
+
+        CursorSlice<PedidoDTO> pedidos = pedidoService.listarPorCursor(cursor, size, incluirTotal);
+        return ResponseEntity.ok(pedidos);
+    }
+
     @GetMapping("/cliente/{clienteId}")
     @Operation(summary = "Listar pedidos de un cliente")
     public ResponseEntity<Page<PedidoDTO>> listarPorCliente(
@@ -165,6 +191,24 @@ public class PedidoController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Exportar pedidos",
+               description = "Descarga en CSV o NDJSON todos los pedidos que cumplen los filtros, "
+                       + "más recientes primero. Se escribe a medida que se lee de la base de datos")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "csv") String formato,
+            PedidoExportFiltro filtro) {
+        ExportFormat exportFormat = ExportFormat.from(formato);
+        log.info("Solicitud de exportación de pedidos en formato: {}", exportFormat);
+
+        StreamingResponseBody body = rlsContextManager.propagate(
+                salida -> pedidoService.exportar(filtro, exportFormat, salida));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("pedidos"))
+                .body(body);
+    }
+
     @PutMapping("/{id}/confirmar")
     @Operation(summary = "Confirmar pedido")
     public ResponseEntity<PedidoDTO> confirmar(
@@ -227,6 +271,53 @@ public class PedidoController {
         return ResponseEntity.ok(pedidoCancelado);
     }
 
+    @PostMapping("/transiciones")
+    @Operation(summary = "Cambiar el estado de varios pedidos",
+               description = "Aplica la misma transición (CONFIRMAR, EN_PROCESO, ENVIAR, ENTREGAR, CANCELAR) "
+                       + "a una lista de pedidos en una sola transacción. Devuelve el resultado por pedido; "
+                       + "los que no admiten la transición no se modifican")
+    public ResponseEntity<TransicionMasivaResultadoDTO> aplicarTransicion(
+            @Valid @RequestBody TransicionMasivaRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        log.info("Solicitud de transición {} para {} pedidos por usuario: {}",
+                request.getTransicion(), request.getIds().size(), userDetails.getUsername());
+
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
+        TransicionMasivaResultadoDTO resultado = pedidoService.aplicarTransicion(request, usuarioId);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/{id}/items")
+    @Operation(summary = "Agregar líneas a un pedido pendiente",
+               description = "Inserta todas las líneas en lotes y suma sus montos a los totales del pedido")
+    public ResponseEntity<PedidoDTO> agregarItems(
+            @PathVariable UUID id,
+            @Valid @RequestBody AgregarItemsRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        log.info("Solicitud para agregar {} líneas al pedido {} por usuario: {}",
+                request.getItems().size(), id, userDetails.getUsername());
+
+        UUID usuarioId = AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getUserId)
+                .orElse(null);
+        PedidoDTO pedido = pedidoService.agregarItems(id, request, usuarioId);
+        return ResponseEntity.ok(pedido);
+    }
+
+    @PostMapping("/{id}/totales/recalcular")
+    @Operation(summary = "Recalcular totales del pedido desde sus líneas")
+    public ResponseEntity<PedidoDTO> recalcularTotales(
+            @PathVariable UUID id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        log.info("Solicitud para recalcular totales del pedido {} por usuario: {}",
+                id, userDetails.getUsername());
+
+        PedidoDTO pedido = pedidoService.recalcularTotales(id);
+        return ResponseEntity.ok(pedido);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Eliminar pedido (soft delete)")
     public ResponseEntity<Void> eliminar(
@@ -0,0 +1,28 @@
+package com.pagodirecto.ventas.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Solicitud para agregar varias líneas a un pedido en una sola operación
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgregarItemsRequest {
+
+    public static final int MAX_ITEMS = 5000;
+
+    @NotEmpty(message = "Debe indicar al menos una línea")
+    @Size(max = MAX_ITEMS, message = "Máximo " + MAX_ITEMS + " líneas por solicitud")
+    private List<@Valid ItemPedidoRequest> items;
+}
@@ -0,0 +1,46 @@
+package com.pagodirecto.ventas.application.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Línea a agregar a un pedido
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemPedidoRequest {
+
+    @NotNull(message = "El producto es requerido")
+    private UUID productoId;
+
+    @Size(max = 5000, message = "La descripción no puede exceder 5000 caracteres")
+    private String descripcion;
+
+    @NotNull(message = "La cantidad es requerida")
+    @DecimalMin(value = "0.001", message = "La cantidad debe ser mayor que cero")
+    private BigDecimal cantidad;
+
+    @NotNull(message = "El precio unitario es requerido")
+    @DecimalMin(value = "0.0", message = "El precio unitario no puede ser negativo")
+    private BigDecimal precioUnitario;
+
+    @DecimalMin(value = "0.0", message = "El descuento no puede ser negativo")
+    @DecimalMax(value = "100.0", message = "El descuento no puede exceder 100%")
+    private BigDecimal descuentoPorcentaje;
+
+    @DecimalMin(value = "0.0", message = "El impuesto no puede ser negativo")
+    @DecimalMax(value = "100.0", message = "El impuesto no puede exceder 100%")
+    private BigDecimal impuestoPorcentaje;
+}
@@ -0,0 +1,42 @@
+package com.pagodirecto.ventas.application.dto;
+
+import com.pagodirecto.ventas.domain.PedidoStatus;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros de la exportación de pedidos
+ *
+ * Todos son opcionales y se combinan con AND; equivalen a los de los listados
+ * por cliente, status, propietario, rango de fechas y búsqueda de texto.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PedidoExportFiltro {
+
+    private UUID clienteId;
+
+    private PedidoStatus status;
+
+    private UUID propietarioId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicio;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFin;
+
+    /**
+     * Texto a buscar en número y notas
+     */
+    private String q;
+}
@@ -0,0 +1,39 @@
+package com.pagodirecto.ventas.application.dto;
+
+import com.pagodirecto.ventas.domain.TransicionPedido;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Solicitud de cambio de estado de varios pedidos a la vez
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransicionMasivaRequest {
+
+    public static final int MAX_PEDIDOS = 5000;
+
+    @NotEmpty(message = "Debe indicar al menos un pedido")
+    @Size(max = MAX_PEDIDOS, message = "Máximo " + MAX_PEDIDOS + " pedidos por solicitud")
+    private List<@NotNull UUID> ids;
+
+    @NotNull(message = "La transición es requerida")
+    private TransicionPedido transicion;
+
+    /**
+     * Fecha de entrega real; sólo para ENTREGAR, por defecto hoy
+     */
+    private LocalDate fechaEntrega;
+}
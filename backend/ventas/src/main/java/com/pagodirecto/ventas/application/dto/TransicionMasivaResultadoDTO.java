@@ -0,0 +1,57 @@
+package com.pagodirecto.ventas.application.dto;
+
+import com.pagodirecto.ventas.domain.PedidoStatus;
+import com.pagodirecto.ventas.domain.TransicionPedido;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado de un cambio de estado masivo, con el detalle por pedido
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransicionMasivaResultadoDTO {
+
+    private TransicionPedido transicion;
+
+    private int aplicados;
+
+    private int rechazados;
+
+    private List<Item> resultados;
+
+    public enum Resultado {
+        APLICADO,
+        NO_ENCONTRADO,
+        TRANSICION_INVALIDA
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+
+        private UUID id;
+
+        private Resultado resultado;
+
+        /**
+         * Status antes de la operación; null si el pedido no existe
+         */
+        private PedidoStatus statusAnterior;
+
+        /**
+         * Status después de la operación; null si el pedido no existe
+         */
+        private PedidoStatus statusActual;
+    }
+}
@@ -25,6 +25,16 @@ public interface PedidoMapper {
     @Mapping(target = "cantidadItems", expression = "java(pedido.getItems().size())")
     PedidoDTO toDTO(Pedido pedido);
 
+    /**
+     * Convierte entidad Pedido a DTO con la cantidad de items ya calculada,
+     * sin inicializar la colección (exportaciones)
+     */
+    @Mapping(target = "clienteNombre", ignore = true)
+    @Mapping(target = "propietarioNombre", ignore = true)
+    @Mapping(target = "createdByNombre", ignore = true)
+    @Mapping(target = "cantidadItems", source = "cantidadItems")
+    PedidoDTO toDTO(Pedido pedido, Integer cantidadItems);
+
     /**
      * Convierte DTO a entidad Pedido
      */
@@ -1,10 +1,18 @@
 package com.pagodirecto.ventas.application.service;
 
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.ventas.application.dto.AgregarItemsRequest;
 import com.pagodirecto.ventas.application.dto.PedidoDTO;
+import com.pagodirecto.ventas.application.dto.PedidoExportFiltro;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaRequest;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaResultadoDTO;
 import com.pagodirecto.ventas.domain.PedidoStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -28,6 +36,16 @@ public interface PedidoService {
 
     Page<PedidoDTO> listar(Pageable pageable);
 
+    /**
+     * Lista pedidos con paginación por cursor (keyset), más recientes primero
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (máximo {@value CursorSlice#MAX_SIZE})
+     * @param incluirTotal si true, calcula además el total de registros
+     * @return la página y el cursor de la siguiente
+     */
+    CursorSlice<PedidoDTO> listarPorCursor(String cursor, int size, boolean incluirTotal);
+
     Page<PedidoDTO> listarPorCliente(UUID clienteId, Pageable pageable);
 
     Page<PedidoDTO> listarPorStatus(PedidoStatus status, Pageable pageable);
@@ -38,6 +56,18 @@ public interface PedidoService {
 
     Page<PedidoDTO> buscar(String query, Pageable pageable);
 
+    /**
+     * Escribe los pedidos que cumplen los filtros directamente en la salida,
+     * más recientes primero, con memoria constante
+     *
+     * @param filtro filtros opcionales
+     * @param formato CSV o NDJSON
+     * @param salida stream de la respuesta; no se cierra
+     * @return cantidad de pedidos exportados
+     * @throws IOException si falla la escritura (p. ej. el cliente cortó la descarga)
+     */
+    long exportar(PedidoExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException;
+
     PedidoDTO confirmar(UUID id);
 
     PedidoDTO marcarEnProceso(UUID id);
@@ -48,6 +78,40 @@ public interface PedidoService {
 
     PedidoDTO cancelar(UUID id);
 
+    /**
+     * Aplica una misma transición de estado a varios pedidos en una transacción
+     *
+     * Los pedidos cuyo status no admite la transición, o que no existen, no se
+     * modifican y se informan en el resultado; el resto se actualiza.
+     *
+     * @param request pedidos, transición y fecha de entrega (para ENTREGAR)
+     * @param usuarioId usuario que realiza el cambio
+     * @return resultado por pedido, en el orden recibido y sin duplicados
+     */
+    TransicionMasivaResultadoDTO aplicarTransicion(TransicionMasivaRequest request, UUID usuarioId);
+
+    /**
+     * Agrega varias líneas a un pedido pendiente
+     *
+     * Las líneas se insertan en lotes JDBC (hibernate.jdbc.batch_size) y a los
+     * totales del pedido se suma sólo el monto de las nuevas líneas.
+     *
+     * @param id pedido
+     * @param request líneas a agregar
+     * @param usuarioId usuario que agrega las líneas
+     * @return el pedido con sus nuevos totales
+     */
+    PedidoDTO agregarItems(UUID id, AgregarItemsRequest request, UUID usuarioId);
+
+    /**
+     * Recalcula los totales del pedido sumando todas sus líneas
+     *
+     * Las operaciones sobre líneas mantienen los totales de forma incremental;
+     * este recálculo completo sólo es necesario si las líneas se modificaron por
+     * otra vía.
+     */
+    PedidoDTO recalcularTotales(UUID id);
+
     void eliminar(UUID id);
 
     long contarPorStatus(PedidoStatus status);
@@ -1,22 +1,55 @@
 package com.pagodirecto.ventas.application.service.impl;
 
+import com.pagodirecto.ventas.application.dto.AgregarItemsRequest;
+import com.pagodirecto.ventas.application.dto.ItemPedidoRequest;
 import com.pagodirecto.ventas.application.dto.PedidoDTO;
+import com.pagodirecto.ventas.application.dto.PedidoExportFiltro;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaRequest;
+import com.pagodirecto.ventas.application.dto.TransicionMasivaResultadoDTO;
 import com.pagodirecto.ventas.application.mapper.PedidoMapper;
 import com.pagodirecto.ventas.application.service.PedidoService;
+import com.pagodirecto.ventas.domain.ItemPedido;
 import com.pagodirecto.ventas.domain.Pedido;
 import com.pagodirecto.ventas.domain.PedidoStatus;
+import com.pagodirecto.ventas.domain.TransicionPedido;
 import com.pagodirecto.ventas.infrastructure.repository.PedidoRepository;
+import com.pagodirecto.ventas.infrastructure.repository.PedidoTransicionRepository;
+import com.pagodirecto.ventas.infrastructure.repository.PedidoTransicionRepository.PedidoBloqueado;
+import com.pagodirecto.core.event.TenantDataChangedEvent;
+import com.pagodirecto.core.exception.BusinessException;
+import com.pagodirecto.core.export.ExportColumn;
+import com.pagodirecto.core.export.ExportFormat;
+import com.pagodirecto.core.export.RowStreamWriter;
+import com.pagodirecto.core.outbox.OutboxEvent;
+import com.pagodirecto.core.outbox.OutboxWriter;
+import com.pagodirecto.core.pagination.CursorSlice;
+import com.pagodirecto.core.pagination.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation: PedidoServiceImpl
@@ -31,8 +64,35 @@ import java.util.UUID;
 @Slf4j
 public class PedidoServiceImpl implements PedidoService {
 
+    private static final List<ExportColumn<PedidoDTO>> COLUMNAS_EXPORTACION = List.of(
+            ExportColumn.of("id", PedidoDTO::getId),
+            ExportColumn.of("numero", PedidoDTO::getNumero),
+            ExportColumn.of("fecha", PedidoDTO::getFecha),
+            ExportColumn.of("status", PedidoDTO::getStatus),
+            ExportColumn.of("cliente_id", PedidoDTO::getClienteId),
+            ExportColumn.of("cotizacion_id", PedidoDTO::getCotizacionId),
+            ExportColumn.of("fecha_entrega_estimada", PedidoDTO::getFechaEntregaEstimada),
+            ExportColumn.of("fecha_entrega_real", PedidoDTO::getFechaEntregaReal),
+            ExportColumn.of("subtotal", PedidoDTO::getSubtotal),
+            ExportColumn.of("descuento_global", PedidoDTO::getDescuentoGlobal),
+            ExportColumn.of("impuestos", PedidoDTO::getImpuestos),
+            ExportColumn.of("total", PedidoDTO::getTotal),
+            ExportColumn.of("moneda", PedidoDTO::getMoneda),
+            ExportColumn.of("metodo_pago", PedidoDTO::getMetodoPago),
+            ExportColumn.of("terminos_pago", PedidoDTO::getTerminosPago),
+            ExportColumn.of("cantidad_items", PedidoDTO::getCantidadItems),
+            ExportColumn.of("propietario_id", PedidoDTO::getPropietarioId),
+            ExportColumn.of("notas", PedidoDTO::getNotas),
+            ExportColumn.of("created_at", PedidoDTO::getCreatedAt),
+            ExportColumn.of("updated_at", PedidoDTO::getUpdatedAt));
+
     private final PedidoRepository pedidoRepository;
+    private final PedidoTransicionRepository pedidoTransicionRepository;
     private final PedidoMapper pedidoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Override
     public PedidoDTO crear(PedidoDTO pedidoDTO) {
@@ -47,9 +107,11 @@ public class PedidoServiceImpl implements PedidoService {
         pedido.setUpdatedAt(Instant.now());
 
         Pedido pedidoGuardado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoGuardado);
+        publicarCambio(OutboxEvent.CREADO, pedidoGuardado.getId(), resultado);
         log.info("Pedido creado exitosamente con ID: {}", pedidoGuardado.getId());
 
-        return pedidoMapper.toDTO(pedidoGuardado);
+        return resultado;
     }
 
     @Override
@@ -59,13 +121,16 @@ public class PedidoServiceImpl implements PedidoService {
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
 
+        LocalDate fechaAnterior = pedido.getFecha();
         pedidoMapper.updateEntityFromDTO(pedidoDTO, pedido);
         pedido.setUpdatedAt(Instant.now());
 
         Pedido pedidoActualizado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoActualizado);
+        publicarCambio(OutboxEvent.ACTUALIZADO, id, resultado, TenantDataChangedEvent.dias(fechaAnterior));
         log.info("Pedido actualizado exitosamente: {}", id);
 
-        return pedidoMapper.toDTO(pedidoActualizado);
+        return resultado;
     }
 
     @Override
@@ -98,6 +163,22 @@ public class PedidoServiceImpl implements PedidoService {
                 .map(pedidoMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PedidoDTO> listarPorCursor(String cursor, int size, boolean incluirTotal) {
+        log.debug("Listando pedidos por cursor");
+        KeysetCursor posicion = KeysetCursor.decode(cursor);
+        Pageable pageable = CursorSlice.pageRequest(size);
+
+        Slice<Pedido> pedidos = posicion == null
+                ? pedidoRepository.findSliceFirst(pageable)
+                : pedidoRepository.findSliceAfter(posicion.getCreatedAt(), posicion.getId(), pageable);
+
+        return CursorSlice.of(pedidos, pedidoMapper::toDTO,
+                pedido -> KeysetCursor.of(pedido.getCreatedAt(), pedido.getId()),
+                incluirTotal ? pedidoRepository.count() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<PedidoDTO> listarPorCliente(UUID clienteId, Pageable pageable) {
@@ -138,6 +219,31 @@ public class PedidoServiceImpl implements PedidoService {
                 .map(pedidoMapper::toDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(PedidoExportFiltro filtro, ExportFormat formato, OutputStream salida) throws IOException {
+        log.info("Exportando pedidos en formato {} - filtros: {}", formato, filtro);
+        RowStreamWriter<PedidoDTO> writer = new RowStreamWriter<>(formato, COLUMNAS_EXPORTACION, objectMapper, salida);
+        writer.writeHeader();
+
+        String query = filtro.getQ() != null && !filtro.getQ().isBlank() ? filtro.getQ().trim() : null;
+        try (Stream<Object[]> filas = pedidoRepository.streamParaExportar(filtro.getClienteId(), filtro.getStatus(),
+                filtro.getPropietarioId(), filtro.getFechaInicio(), filtro.getFechaFin(), query)) {
+            Iterator<Object[]> iterator = filas.iterator();
+            while (iterator.hasNext()) {
+                Object[] fila = iterator.next();
+                Pedido pedido = (Pedido) fila[0];
+                writer.write(pedidoMapper.toDTO(pedido, ((Number) fila[1]).intValue()));
+                // Sin esto el contexto de persistencia retendría todos los pedidos leídos
+                entityManager.detach(pedido);
+            }
+        }
+
+        long total = writer.finish();
+        log.info("Exportación de pedidos completada: {} registros", total);
+        return total;
+    }
+
     @Override
     public PedidoDTO confirmar(UUID id) {
         log.info("Confirmando pedido con ID: {}", id);
@@ -147,9 +253,11 @@ public class PedidoServiceImpl implements PedidoService {
 
         pedido.confirmar();
         Pedido pedidoConfirmado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoConfirmado);
+        publicarCambio(PedidoStatus.CONFIRMADO.name(), id, resultado);
 
         log.info("Pedido confirmado exitosamente: {}", id);
-        return pedidoMapper.toDTO(pedidoConfirmado);
+        return resultado;
     }
 
     @Override
@@ -161,9 +269,11 @@ public class PedidoServiceImpl implements PedidoService {
 
         pedido.marcarEnProceso();
         Pedido pedidoEnProceso = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoEnProceso);
+        publicarCambio(PedidoStatus.EN_PROCESO.name(), id, resultado);
 
         log.info("Pedido marcado en proceso exitosamente: {}", id);
-        return pedidoMapper.toDTO(pedidoEnProceso);
+        return resultado;
     }
 
     @Override
@@ -175,9 +285,11 @@ public class PedidoServiceImpl implements PedidoService {
 
         pedido.marcarEnviado();
         Pedido pedidoEnviado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoEnviado);
+        publicarCambio(PedidoStatus.ENVIADO.name(), id, resultado);
 
         log.info("Pedido marcado como enviado exitosamente: {}", id);
-        return pedidoMapper.toDTO(pedidoEnviado);
+        return resultado;
     }
 
     @Override
@@ -189,9 +301,11 @@ public class PedidoServiceImpl implements PedidoService {
 
         pedido.marcarEntregado(fechaEntrega);
         Pedido pedidoEntregado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoEntregado);
+        publicarCambio(PedidoStatus.ENTREGADO.name(), id, resultado);
 
         log.info("Pedido marcado como entregado exitosamente: {}", id);
-        return pedidoMapper.toDTO(pedidoEntregado);
+        return resultado;
     }
 
     @Override
@@ -203,20 +317,140 @@ public class PedidoServiceImpl implements PedidoService {
 
         pedido.cancelar();
         Pedido pedidoCancelado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoCancelado);
+        publicarCambio(PedidoStatus.CANCELADO.name(), id, resultado);
 
         log.info("Pedido cancelado exitosamente: {}", id);
-        return pedidoMapper.toDTO(pedidoCancelado);
+        return resultado;
+    }
+
+    @Override
+    public PedidoDTO agregarItems(UUID id, AgregarItemsRequest request, UUID usuarioId) {
+        log.info("Agregando {} líneas al pedido {}", request.getItems().size(), id);
+
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
+        if (!PedidoStatus.PENDIENTE.equals(pedido.getStatus())) {
+            throw new BusinessException("PEDIDO_NO_EDITABLE",
+                    "Sólo se pueden agregar líneas a pedidos pendientes; status actual: " + pedido.getStatus());
+        }
+
+        // Se consultan en SQL para no inicializar la colección items del pedido
+        Object[] resumen = pedidoRepository.resumenItems(id).get(0);
+        int cantidadItems = ((Number) resumen[0]).intValue() + request.getItems().size();
+        int orden = ((Number) resumen[1]).intValue();
+        List<ItemPedido> nuevos = new ArrayList<>(request.getItems().size());
+        for (ItemPedidoRequest linea : request.getItems()) {
+            ItemPedido item = ItemPedido.builder()
+                    .productoId(linea.getProductoId())
+                    .descripcion(linea.getDescripcion())
+                    .cantidad(linea.getCantidad())
+                    .precioUnitario(linea.getPrecioUnitario())
+                    .descuentoPorcentaje(valorOCero(linea.getDescuentoPorcentaje()))
+                    .impuestoPorcentaje(valorOCero(linea.getImpuestoPorcentaje()))
+                    .orden(++orden)
+                    .createdBy(usuarioId)
+                    .updatedBy(usuarioId)
+                    .build();
+            nuevos.add(item);
+        }
+        pedido.agregarItems(nuevos);
+        pedido.setUpdatedBy(usuarioId);
+
+        // Un flush: con order_inserts los INSERT de las líneas salen en lotes de batch_size
+        Pedido pedidoActualizado = pedidoRepository.saveAndFlush(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoActualizado, cantidadItems);
+        publicarCambio("ITEMS_AGREGADOS", id, resultado);
+        log.info("Pedido {} actualizado: {} líneas, total {}", id, cantidadItems, pedidoActualizado.getTotal());
+
+        return resultado;
+    }
+
+    @Override
+    public PedidoDTO recalcularTotales(UUID id) {
+        log.info("Recalculando totales del pedido {}", id);
+
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
+        BigDecimal totalAnterior = pedido.getTotal();
+
+        pedido.calcularTotales();
+        Pedido pedidoActualizado = pedidoRepository.save(pedido);
+        PedidoDTO resultado = pedidoMapper.toDTO(pedidoActualizado);
+        if (totalAnterior == null || totalAnterior.compareTo(pedidoActualizado.getTotal()) != 0) {
+            log.warn("Totales del pedido {} corregidos: total {} -> {}", id, totalAnterior, pedidoActualizado.getTotal());
+            publicarCambio("TOTALES_CORREGIDOS", id, resultado);
+        }
+
+        return resultado;
+    }
+
+    @Override
+    public TransicionMasivaResultadoDTO aplicarTransicion(TransicionMasivaRequest request, UUID usuarioId) {
+        TransicionPedido transicion = request.getTransicion();
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        log.info("Aplicando transición {} a {} pedidos", transicion, ids.size());
+
+        // Las filas quedan bloqueadas: la validación sigue vigente hasta el UPDATE
+        Map<UUID, PedidoBloqueado> actuales = pedidoTransicionRepository.bloquear(ids);
+
+        List<UUID> validos = new ArrayList<>(ids.size());
+        Set<LocalDate> fechas = new HashSet<>();
+        Map<UUID, Map<String, Object>> eventos = new LinkedHashMap<>();
+        List<TransicionMasivaResultadoDTO.Item> resultados = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            PedidoBloqueado bloqueado = actuales.get(id);
+            PedidoStatus actual = bloqueado != null ? bloqueado.status() : null;
+            TransicionMasivaResultadoDTO.Item.ItemBuilder item = TransicionMasivaResultadoDTO.Item.builder()
+                    .id(id)
+                    .statusAnterior(actual);
+            if (actual == null) {
+                item.resultado(TransicionMasivaResultadoDTO.Resultado.NO_ENCONTRADO);
+            } else if (transicion.permiteDesde(actual)) {
+                validos.add(id);
+                fechas.add(bloqueado.fecha());
+                eventos.put(id, Map.of("id", id, "statusAnterior", actual, "status", transicion.getDestino()));
+                item.resultado(TransicionMasivaResultadoDTO.Resultado.APLICADO).statusActual(transicion.getDestino());
+            } else {
+                item.resultado(TransicionMasivaResultadoDTO.Resultado.TRANSICION_INVALIDA).statusActual(actual);
+            }
+            resultados.add(item.build());
+        }
+
+        LocalDate fechaEntrega = null;
+        if (transicion == TransicionPedido.ENTREGAR) {
+            fechaEntrega = request.getFechaEntrega() != null ? request.getFechaEntrega() : LocalDate.now();
+        }
+        int actualizados = pedidoTransicionRepository.actualizarStatus(
+                validos, transicion.getDestino(), usuarioId, fechaEntrega);
+        if (actualizados != validos.size()) {
+            log.warn("Transición {}: {} pedidos validados pero {} actualizados",
+                    transicion, validos.size(), actualizados);
+        }
+        if (!validos.isEmpty()) {
+            outboxWriter.registrarLote("pedidos", transicion.getDestino().name(), null, eventos);
+            eventPublisher.publishEvent(new TenantDataChangedEvent("pedidos", null, fechas));
+        }
+
+        log.info("Transición {} aplicada: {} aplicados, {} rechazados",
+                transicion, validos.size(), ids.size() - validos.size());
+        return TransicionMasivaResultadoDTO.builder()
+                .transicion(transicion)
+                .aplicados(validos.size())
+                .rechazados(ids.size() - validos.size())
+                .resultados(resultados)
+                .build();
     }
 
     @Override
     public void eliminar(UUID id) {
         log.info("Eliminando pedido con ID: {}", id);
 
-        if (!pedidoRepository.existsById(id)) {
-            throw new IllegalArgumentException("Pedido no encontrado con ID: " + id);
-        }
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado con ID: " + id));
 
-        pedidoRepository.deleteById(id);
+        pedidoRepository.delete(pedido);
+        publicarCambio(OutboxEvent.ELIMINADO, id, null, TenantDataChangedEvent.dias(pedido.getFecha()));
         log.info("Pedido eliminado exitosamente: {}", id);
     }
 
@@ -234,4 +468,32 @@ public class PedidoServiceImpl implements PedidoService {
         BigDecimal total = pedidoRepository.sumTotalByFechaRange(fechaInicio, fechaFin);
         return total != null ? total : BigDecimal.ZERO;
     }
+
+    /**
+     * Registra el evento en el outbox, en la transacción del cambio, y notifica a
+     * las vistas derivadas (dashboard) tras el commit
+     *
+     * @param pedido estado tras el cambio; null en eliminaciones (tenant del contexto RLS)
+     */
+    private void publicarCambio(String tipo, UUID pedidoId, PedidoDTO pedido) {
+        publicarCambio(tipo, pedidoId, pedido, Set.of());
+    }
+
+    /**
+     * Los KPI agrupan los pedidos por su fecha: se marcan la fecha del pedido tras el
+     * cambio y las indicadas (fecha anterior, pedido eliminado)
+     */
+    private void publicarCambio(String tipo, UUID pedidoId, PedidoDTO pedido, Set<LocalDate> fechas) {
+        UUID unidadNegocioId = pedido != null ? pedido.getUnidadNegocioId() : null;
+        outboxWriter.registrar("pedidos", pedidoId, tipo, unidadNegocioId, pedido);
+        Set<LocalDate> afectadas = new HashSet<>(fechas);
+        if (pedido != null && pedido.getFecha() != null) {
+            afectadas.add(pedido.getFecha());
+        }
+        eventPublisher.publishEvent(new TenantDataChangedEvent("pedidos", unidadNegocioId, afectadas));
+    }
+
+    private static BigDecimal valorOCero(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
 }
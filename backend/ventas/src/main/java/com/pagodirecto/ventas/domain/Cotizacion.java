@@ -8,8 +8,9 @@ import org.hibernate.annotations.Where;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -112,23 +113,32 @@ public class Cotizacion {
     @Column(name = "deleted_at")
     private Instant deletedAt;
 
+    /**
+     * Mapeada como bag (List): agregar una línea a la colección sin inicializar sólo
+     * encola el alta, que se persiste en cascada al hacer flush. Con un Set, Hibernate
+     * cargaría todas las líneas para verificar duplicados.
+     */
     @OneToMany(mappedBy = "cotizacion", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
-    private Set<ItemCotizacion> items = new HashSet<>();
-
+    private List<ItemCotizacion> items = new ArrayList<>();
+
+    /**
+     * Recalcula los totales desde cero recorriendo todas las líneas
+     *
+     * Inicializa la colección items: sólo bajo demanda (p. ej. para corregir un
+     * cotización cuyas líneas se modificaron fuera de la aplicación). Las operaciones
+     * sobre líneas mantienen los totales de forma incremental.
+     */
     public void calcularTotales() {
-        this.subtotal = items.stream()
-            .map(ItemCotizacion::getSubtotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal subtotalConDescuento = subtotal.subtract(descuentoGlobal);
-
-        this.impuestos = items.stream()
-            .map(ItemCotizacion::getImpuestoMonto)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        this.total = subtotalConDescuento.add(impuestos);
-        this.updatedAt = Instant.now();
+        BigDecimal sumaSubtotales = BigDecimal.ZERO;
+        BigDecimal sumaImpuestos = BigDecimal.ZERO;
+        for (ItemCotizacion item : items) {
+            sumaSubtotales = sumaSubtotales.add(item.getSubtotal());
+            sumaImpuestos = sumaImpuestos.add(item.getImpuestoMonto());
+        }
+        this.subtotal = sumaSubtotales;
+        this.impuestos = sumaImpuestos;
+        actualizarTotal();
     }
 
     public void enviar() {
@@ -158,8 +168,59 @@ public class Cotizacion {
 
     public void agregarItem(ItemCotizacion item) {
         item.setCotizacion(this);
+        item.calcularMontos();
         this.items.add(item);
-        calcularTotales();
+        acumular(item.getSubtotal(), item.getImpuestoMonto());
+    }
+
+    /**
+     * Agrega varias líneas y aplica a los totales la suma de sus montos
+     */
+    public void agregarItems(Collection<ItemCotizacion> nuevos) {
+        BigDecimal deltaSubtotal = BigDecimal.ZERO;
+        BigDecimal deltaImpuestos = BigDecimal.ZERO;
+        for (ItemCotizacion item : nuevos) {
+            item.setCotizacion(this);
+            item.calcularMontos();
+            this.items.add(item);
+            deltaSubtotal = deltaSubtotal.add(item.getSubtotal());
+            deltaImpuestos = deltaImpuestos.add(item.getImpuestoMonto());
+        }
+        acumular(deltaSubtotal, deltaImpuestos);
+    }
+
+    public void quitarItem(ItemCotizacion item) {
+        if (this.items.remove(item)) {
+            acumular(item.getSubtotal().negate(), item.getImpuestoMonto().negate());
+        }
+    }
+
+    /**
+     * Recalcula los montos de una línea ya agregada (tras cambiar cantidad, precio,
+     * descuento o impuesto) y aplica a los totales sólo la diferencia
+     */
+    public void recalcularItem(ItemCotizacion item) {
+        BigDecimal subtotalAnterior = item.getSubtotal();
+        BigDecimal impuestoAnterior = item.getImpuestoMonto();
+        item.calcularMontos();
+        acumular(item.getSubtotal().subtract(subtotalAnterior), item.getImpuestoMonto().subtract(impuestoAnterior));
+    }
+
+    public void aplicarDescuentoGlobal(BigDecimal descuento) {
+        this.descuentoGlobal = descuento != null ? descuento : BigDecimal.ZERO;
+        actualizarTotal();
+    }
+
+    private void acumular(BigDecimal deltaSubtotal, BigDecimal deltaImpuestos) {
+        this.subtotal = subtotal.add(deltaSubtotal);
+        this.impuestos = impuestos.add(deltaImpuestos);
+        actualizarTotal();
+    }
+
+    private void actualizarTotal() {
+        BigDecimal descuento = descuentoGlobal != null ? descuentoGlobal : BigDecimal.ZERO;
+        this.total = subtotal.subtract(descuento).add(impuestos);
+        this.updatedAt = Instant.now();
     }
 
     @PreUpdate
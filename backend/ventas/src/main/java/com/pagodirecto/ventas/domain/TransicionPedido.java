@@ -0,0 +1,44 @@
+package com.pagodirecto.ventas.domain;
+
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Transiciones de estado de un pedido
+ *
+ * Mismas reglas que los métodos de {@link Pedido} (confirmar, marcarEnProceso,
+ * marcarEnviado, marcarEntregado, cancelar), expresadas como datos para poder
+ * validar lotes de pedidos sin cargar las entidades.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Getter
+public enum TransicionPedido {
+
+    CONFIRMAR(PedidoStatus.CONFIRMADO, EnumSet.of(PedidoStatus.PENDIENTE)),
+    EN_PROCESO(PedidoStatus.EN_PROCESO, EnumSet.of(PedidoStatus.CONFIRMADO)),
+    ENVIAR(PedidoStatus.ENVIADO, EnumSet.of(PedidoStatus.EN_PROCESO)),
+    ENTREGAR(PedidoStatus.ENTREGADO, EnumSet.of(PedidoStatus.ENVIADO)),
+    CANCELAR(PedidoStatus.CANCELADO, EnumSet.complementOf(EnumSet.of(PedidoStatus.CANCELADO)));
+
+    private final PedidoStatus destino;
+
+    private final Set<PedidoStatus> origenes;
+
+    TransicionPedido(PedidoStatus destino, Set<PedidoStatus> origenes) {
+        this.destino = destino;
+        this.origenes = origenes;
+    }
+
+    /**
+     * @param actual status actual del pedido
+     * @return true si la transición es válida desde ese status
+     */
+    public boolean permiteDesde(PedidoStatus actual) {
+        return origenes.contains(actual);
+    }
+}
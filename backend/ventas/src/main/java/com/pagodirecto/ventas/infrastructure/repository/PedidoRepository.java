@@ -2,17 +2,23 @@ package com.pagodirecto.ventas.infrastructure.repository;
 
 import com.pagodirecto.ventas.domain.Pedido;
 import com.pagodirecto.ventas.domain.PedidoStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository: Pedido
@@ -94,4 +100,53 @@ public interface PedidoRepository extends JpaRepository<Pedido, UUID> {
            "WHERE p.status NOT IN ('CANCELADO', 'DEVUELTO') " +
            "GROUP BY p.clienteId ORDER BY total DESC")
     List<Object[]> findTopClientesByVolumen(Pageable pageable);
+
+    /**
+     * Cantidad de líneas y mayor orden de un pedido, sin inicializar su colección items.
+     * Devuelve una fila [cantidad, orden máximo]
+     */
+    @Query("SELECT COUNT(i), COALESCE(MAX(i.orden), 0) FROM ItemPedido i WHERE i.pedido.id = :pedidoId")
+    List<Object[]> resumenItems(@Param("pedidoId") UUID pedidoId);
+
+    /**
+     * Primera página en modo cursor: más recientes primero, sin COUNT
+     */
+    @Query("SELECT p FROM Pedido p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Pedido> findSliceFirst(Pageable pageable);
+
+    /**
+     * Página siguiente en modo cursor: filas estrictamente posteriores a (createdAt, id).
+     * La primera condición acota el rango del índice (created_at DESC, id DESC)
+     */
+    @Query("SELECT p FROM Pedido p WHERE p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Pedido> findSliceAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Recorre los pedidos a exportar con un cursor del servidor, sin materializar el resultado.
+     * Devuelve filas [Pedido, cantidad de items]; los filtros nulos no aplican.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p, SIZE(p.items) FROM Pedido p WHERE " +
+           "(:clienteId IS NULL OR p.clienteId = :clienteId) " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:propietarioId IS NULL OR p.propietarioId = :propietarioId) " +
+           "AND (:fechaInicio IS NULL OR p.fecha >= :fechaInicio) " +
+           "AND (:fechaFin IS NULL OR p.fecha <= :fechaFin) " +
+           "AND (:query IS NULL OR LOWER(p.numero) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "OR LOWER(p.notas) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<Object[]> streamParaExportar(
+        @Param("clienteId") UUID clienteId,
+        @Param("status") PedidoStatus status,
+        @Param("propietarioId") UUID propietarioId,
+        @Param("fechaInicio") LocalDate fechaInicio,
+        @Param("fechaFin") LocalDate fechaFin,
+        @Param("query") String query
+    );
 }
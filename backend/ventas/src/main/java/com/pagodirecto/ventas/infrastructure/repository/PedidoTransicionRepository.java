@@ -0,0 +1,136 @@
+package com.pagodirecto.ventas.infrastructure.repository;
+
+import com.pagodirecto.ventas.domain.PedidoStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Repositorio: Cambios de estado masivos de Pedidos
+ *
+ * Lee y actualiza el status de muchos pedidos con sentencias por conjunto
+ * (id = ANY(?)) en lugar de una carga y un save por pedido. Los ids se envían
+ * en bloques de {@link #BLOQUE} para acotar el tamaño de cada arreglo.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@Repository
+@RequiredArgsConstructor
+public class PedidoTransicionRepository {
+
+    static final int BLOQUE = 1000;
+
+    /**
+     * Orden de uuid de PostgreSQL (bytes sin signo); UUID.compareTo compara los
+     * long con signo y no coincide
+     */
+    private static final Comparator<UUID> ORDEN_UUID = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    /**
+     * Bloquea las filas en orden de id: dos lotes concurrentes no pueden bloquearse
+     * mutuamente, siempre que los bloques se armen sobre la lista ya ordenada
+     */
+    private static final String SQL_BLOQUEAR =
+            "SELECT id, status, fecha FROM ventas_pedidos " +
+            "WHERE id = ANY(?) AND deleted_at IS NULL " +
+            "ORDER BY id FOR UPDATE";
+
+    private static final String SQL_ACTUALIZAR =
+            "UPDATE ventas_pedidos SET status = ?, updated_at = NOW(), updated_by = ?, " +
+            "fecha_entrega_real = COALESCE(?, fecha_entrega_real) " +
+            "WHERE id = ANY(?) AND deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtiene el status y la fecha actuales de los pedidos y los bloquea hasta el fin
+     * de la transacción
+     *
+     * Los ids se ordenan completos antes de partirlos en bloques, así los bloqueos se
+     * toman en un único orden global y no sólo dentro de cada bloque.
+     *
+     * @param ids ids de pedidos, sin duplicados
+     * @return pedido bloqueado por id; los inexistentes o de otro tenant no aparecen
+     */
+    public Map<UUID, PedidoBloqueado> bloquear(List<UUID> ids) {
+        List<UUID> ordenados = new ArrayList<>(ids);
+        ordenados.sort(ORDEN_UUID);
+        Map<UUID, PedidoBloqueado> pedidos = new HashMap<>(ids.size() * 2);
+        for (int desde = 0; desde < ordenados.size(); desde += BLOQUE) {
+            List<UUID> bloque = ordenados.subList(desde, Math.min(desde + BLOQUE, ordenados.size()));
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_BLOQUEAR);
+                ps.setArray(1, con.createArrayOf("uuid", bloque.toArray()));
+                return ps;
+            }, rs -> {
+                pedidos.put(rs.getObject("id", UUID.class), new PedidoBloqueado(
+                        PedidoStatus.valueOf(rs.getString("status")), rs.getObject("fecha", LocalDate.class)));
+            });
+        }
+        return pedidos;
+    }
+
+    /**
+     * Cambia el status de los pedidos, un UPDATE por bloque enviado en un solo batch JDBC
+     *
+     * @param ids          pedidos ya validados y bloqueados
+     * @param destino      nuevo status
+     * @param usuarioId    usuario que realiza el cambio, puede ser null
+     * @param fechaEntrega fecha de entrega real, o null para no modificarla
+     * @return cantidad de filas actualizadas
+     */
+    public int actualizarStatus(List<UUID> ids, PedidoStatus destino, UUID usuarioId, LocalDate fechaEntrega) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int bloques = (ids.size() + BLOQUE - 1) / BLOQUE;
+        int[] filas = jdbcTemplate.batchUpdate(SQL_ACTUALIZAR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                List<UUID> bloque = ids.subList(i * BLOQUE, Math.min((i + 1) * BLOQUE, ids.size()));
+                ps.setString(1, destino.name());
+                ps.setObject(2, usuarioId, Types.OTHER);
+                if (fechaEntrega != null) {
+                    ps.setDate(3, Date.valueOf(fechaEntrega));
+                } else {
+                    ps.setNull(3, Types.DATE);
+                }
+                ps.setArray(4, ps.getConnection().createArrayOf("uuid", bloque.toArray()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bloques;
+            }
+        });
+
+        int total = 0;
+        for (int actualizadas : filas) {
+            total += Math.max(actualizadas, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Status y fecha de un pedido al momento de bloquearlo
+     */
+    public record PedidoBloqueado(PedidoStatus status, LocalDate fecha) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.pagodirecto.ventas.domain;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: inserción de las líneas de un pedido en lotes JDBC
+ *
+ * Agrega 500 líneas a un pedido ya persistido con la configuración de
+ * application.yml (batch_size 50, order_inserts, reWriteBatchedInserts) y cuenta
+ * las sentencias preparadas con las estadísticas de Hibernate. La referencia
+ * sin lotes fija el batch size de la sesión en 1. También verifica que agregar
+ * líneas no inicializa la colección items, ni en pedidos ni en cotizaciones.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PedidoItemsBatchTest {
+
+    private static final int LINEAS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void lasLineasSeInsertanEnLotes() {
+        Medicion medicion = agregarLineas(null);
+
+        assertThat(medicion.inserts()).isEqualTo(LINEAS);
+        assertThat(medicion.sentencias()).isLessThanOrEqualTo(LINEAS / BATCH_SIZE + 2);
+        assertThat(medicion.coleccionesCargadas()).isZero();
+        assertThat(contarLineas(medicion.pedidoId())).isEqualTo(LINEAS);
+    }
+
+    @Test
+    void agregarLineasNoCargaLasExistentes() {
+        Medicion primera = agregarLineas(null);
+        statistics.clear();
+
+        Pedido pedido = entityManager.find(Pedido.class, primera.pedidoId());
+        pedido.agregarItem(ItemPedido.builder()
+                .productoId(UUID.randomUUID())
+                .cantidad(BigDecimal.ONE)
+                .precioUnitario(BigDecimal.TEN)
+                .orden(LINEAS + 1)
+                .build());
+        assertThat(Hibernate.isInitialized(pedido.getItems())).isFalse();
+        entityManager.flush();
+
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(contarLineas(primera.pedidoId())).isEqualTo(LINEAS + 1);
+    }
+
+    @Test
+    void agregarLineasACotizacionNoInicializaLaColeccion() {
+        Cotizacion cotizacion = Cotizacion.builder()
+                .unidadNegocioId(UUID.randomUUID())
+                .clienteId(UUID.randomUUID())
+                .propietarioId(UUID.randomUUID())
+                .numero("COT-" + UUID.randomUUID())
+                .fechaValidez(LocalDate.now().plusDays(30))
+                .build();
+        entityManager.persist(cotizacion);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Cotizacion cargada = entityManager.find(Cotizacion.class, cotizacion.getId());
+        List<ItemCotizacion> lineas = new ArrayList<>(LINEAS);
+        for (int i = 0; i < LINEAS; i++) {
+            lineas.add(ItemCotizacion.builder()
+                    .productoId(UUID.randomUUID())
+                    .cantidad(BigDecimal.valueOf(2))
+                    .precioUnitario(BigDecimal.TEN)
+                    .build());
+        }
+        cargada.agregarItems(lineas);
+        assertThat(Hibernate.isInitialized(cargada.getItems())).isFalse();
+        entityManager.flush();
+
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINEAS);
+        assertThat(cargada.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(LINEAS * 20L));
+    }
+
+    @Test
+    void sinLotesCadaLineaEsUnaSentencia() {
+        Medicion medicion = agregarLineas(1);
+
+        assertThat(medicion.inserts()).isEqualTo(LINEAS);
+        assertThat(medicion.sentencias()).isGreaterThanOrEqualTo(LINEAS);
+    }
+
+    @Test
+    void losTotalesAcumulanTodasLasLineas() {
+        Medicion medicion = agregarLineas(null);
+
+        Pedido pedido = entityManager.find(Pedido.class, medicion.pedidoId());
+        assertThat(pedido.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(LINEAS * 20L));
+        assertThat(pedido.getImpuestos()).isEqualByComparingTo(BigDecimal.valueOf(LINEAS * 3.2));
+        assertThat(pedido.getTotal()).isEqualByComparingTo(BigDecimal.valueOf(LINEAS * 23.2));
+    }
+
+    /**
+     * Persiste un pedido vacío y cuenta las sentencias del flush que agrega {@link #LINEAS} líneas
+     *
+     * @param batchSize batch size de la sesión, o null para el configurado
+     */
+    private Medicion agregarLineas(Integer batchSize) {
+        Pedido pedido = Pedido.builder()
+                .unidadNegocioId(UUID.randomUUID())
+                .clienteId(UUID.randomUUID())
+                .propietarioId(UUID.randomUUID())
+                .numero("PED-" + UUID.randomUUID())
+                .build();
+        entityManager.persist(pedido);
+        entityManager.flush();
+        entityManager.clear();
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        statistics.clear();
+
+        Pedido cargado = entityManager.find(Pedido.class, pedido.getId());
+        List<ItemPedido> lineas = new ArrayList<>(LINEAS);
+        for (int i = 0; i < LINEAS; i++) {
+            lineas.add(ItemPedido.builder()
+                    .productoId(UUID.randomUUID())
+                    .cantidad(BigDecimal.valueOf(2))
+                    .precioUnitario(BigDecimal.TEN)
+                    .impuestoPorcentaje(BigDecimal.valueOf(16))
+                    .orden(i + 1)
+                    .build());
+        }
+        cargado.agregarItems(lineas);
+        entityManager.flush();
+
+        Medicion medicion = new Medicion(pedido.getId(), statistics.getEntityInsertCount(),
+                statistics.getPrepareStatementCount(), statistics.getCollectionLoadCount());
+        entityManager.clear();
+        return medicion;
+    }
+
+    private long contarLineas(UUID pedidoId) {
+        return entityManager.createQuery("SELECT COUNT(i) FROM ItemPedido i WHERE i.pedido.id = :id", Long.class)
+                .setParameter("id", pedidoId)
+                .getSingleResult();
+    }
+
+    private record Medicion(UUID pedidoId, long inserts, long sentencias, long coleccionesCargadas) {
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackageClasses = Pedido.class)
+    static class Config {
+    }
+}
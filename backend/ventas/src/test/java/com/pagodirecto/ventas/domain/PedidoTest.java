@@ -0,0 +1,110 @@
+package com.pagodirecto.ventas.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests: totales incrementales de Pedido
+ *
+ * Los totales que mantienen agregarItem, agregarItems, quitarItem y
+ * recalcularItem deben coincidir con el recálculo completo de calcularTotales.
+ * La comparación de tiempos arma un pedido de {@link #LINEAS} líneas con los
+ * totales incrementales y con un recálculo completo por línea (el comportamiento
+ * anterior, cuadrático) y exige que el incremental sea mucho más rápido.
+ *
+ * @author PagoDirecto CRM Team
+ * @version 1.0
+ * @since 2025-10-13
+ */
+class PedidoTest {
+
+    private static final int LINEAS = 5000;
+
+    @Test
+    void losTotalesIncrementalesCoincidenConElRecalculo() {
+        Pedido pedido = new Pedido();
+        List<ItemPedido> lineas = lineas(200);
+        pedido.agregarItem(lineas.get(0));
+        pedido.agregarItems(lineas.subList(1, lineas.size()));
+        pedido.quitarItem(lineas.get(7));
+        ItemPedido modificada = lineas.get(11);
+        modificada.setCantidad(BigDecimal.valueOf(9));
+        modificada.setDescuentoPorcentaje(BigDecimal.valueOf(5));
+        pedido.recalcularItem(modificada);
+        pedido.aplicarDescuentoGlobal(BigDecimal.valueOf(15));
+
+        BigDecimal subtotal = pedido.getSubtotal();
+        BigDecimal impuestos = pedido.getImpuestos();
+        BigDecimal total = pedido.getTotal();
+        pedido.calcularTotales();
+
+        assertThat(pedido.getItems()).hasSize(199);
+        assertThat(subtotal).isEqualByComparingTo(pedido.getSubtotal());
+        assertThat(impuestos).isEqualByComparingTo(pedido.getImpuestos());
+        assertThat(total).isEqualByComparingTo(pedido.getTotal());
+    }
+
+    @Test
+    void quitarUnaLineaAjenaNoCambiaLosTotales() {
+        Pedido pedido = new Pedido();
+        pedido.agregarItems(lineas(3));
+        BigDecimal total = pedido.getTotal();
+
+        pedido.quitarItem(lineas(1).get(0));
+
+        assertThat(pedido.getTotal()).isEqualByComparingTo(total);
+    }
+
+    @Test
+    void armarUnPedidoGrandeNoRecalculaTodasLasLineas() {
+        long mejorIncremental = Long.MAX_VALUE;
+        long mejorRecalculo = Long.MAX_VALUE;
+        // La primera ronda calienta el JIT; se toma el mejor tiempo de cada variante
+        for (int ronda = 0; ronda < 3; ronda++) {
+            List<ItemPedido> lineas = lineas(LINEAS);
+            Pedido incremental = new Pedido();
+            long inicio = System.nanoTime();
+            for (ItemPedido linea : lineas) {
+                incremental.agregarItem(linea);
+            }
+            mejorIncremental = Math.min(mejorIncremental, System.nanoTime() - inicio);
+
+            lineas = lineas(LINEAS);
+            Pedido recalculado = new Pedido();
+            inicio = System.nanoTime();
+            for (ItemPedido linea : lineas) {
+                recalculado.agregarItem(linea);
+                recalculado.calcularTotales();
+            }
+            mejorRecalculo = Math.min(mejorRecalculo, System.nanoTime() - inicio);
+
+            assertThat(incremental.getTotal()).isEqualByComparingTo(recalculado.getTotal());
+        }
+
+        // Recalcular por línea recorre ~LINEAS / 2 líneas por cada una agregada; el
+        // margen de 20 veces absorbe el ruido del GC y de máquinas compartidas
+        assertThat(mejorIncremental * 20)
+                .as("incremental %d ns, recálculo por línea %d ns", mejorIncremental, mejorRecalculo)
+                .isLessThan(mejorRecalculo);
+    }
+
+    private static List<ItemPedido> lineas(int cantidad) {
+        List<ItemPedido> lineas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            lineas.add(ItemPedido.builder()
+                    .productoId(UUID.randomUUID())
+                    .cantidad(BigDecimal.valueOf(1 + i % 4))
+                    .precioUnitario(BigDecimal.valueOf(10 + i % 7, 1))
+                    .impuestoPorcentaje(BigDecimal.valueOf(16))
+                    .orden(i + 1)
+                    .build());
+        }
+        return lineas;
+    }
+}